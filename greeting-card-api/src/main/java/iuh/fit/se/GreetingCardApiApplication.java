@@ -5,11 +5,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.scheduling.annotation.EnableAsync;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EntityScan("iuh.fit.se.entity")
 @EnableJpaRepositories("iuh.fit.se.repository")
 @EnableAsync
+@EnableScheduling
 public class GreetingCardApiApplication {
 
   public static void main(String[] args) {
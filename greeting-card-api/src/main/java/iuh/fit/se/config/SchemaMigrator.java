@@ -0,0 +1,307 @@
+package iuh.fit.se.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.zip.CRC32;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.sql.init.dependency.AbstractBeansOfTypeDatabaseInitializerDetector;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.jdbc.datasource.init.ScriptUtils;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Chạy các migration SQL có version (db/migration/V<n>__<mô tả>.sql) trước khi JPA khởi tạo
+// (hibernate.ddl-auto=validate chỉ kiểm tra schema). Mỗi migration chạy trong 1 transaction và được
+// ghi vào bảng schema_migrations kèm checksum; migration đã chạy mà bị sửa nội dung thì dừng khởi
+// động. Nhiều node khởi động cùng lúc được tuần tự hóa bằng advisory lock của PostgreSQL. DB cũ do
+// ddl-auto tạo (đã có bảng nhưng chưa có schema_migrations) được baseline: các version <=
+// baseline-version (V1 là đúng schema mà ddl-auto đã tạo) được ghi nhận mà không chạy, sau khi kiểm
+// tra schema hiện có đủ các bảng, cột và index mà các migration đó tạo; các version sau chạy bình
+// thường để nâng cấp DB, nên viết để chạy lại được (IF NOT EXISTS).
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class SchemaMigrator implements InitializingBean {
+  private static final Pattern FILE_NAME = Pattern.compile("V(\\d+)__(.+)\\.sql");
+  private static final Pattern CREATE_TABLE =
+      Pattern.compile("CREATE TABLE (?:IF NOT EXISTS )?(\\w+) \\((.*?)\\n\\);", Pattern.DOTALL);
+  // Dòng khai báo cột trong CREATE TABLE (tên cột viết thường, PRIMARY KEY / UNIQUE viết hoa)
+  private static final Pattern COLUMN =
+      Pattern.compile("^\\s+([a-z_][a-z0-9_]*)\\s", Pattern.MULTILINE);
+  private static final Pattern CREATE_INDEX =
+      Pattern.compile("CREATE (?:UNIQUE )?INDEX (?:IF NOT EXISTS )?(\\w+)");
+  private static final int MAX_REPORTED_MISSING = 20;
+  private static final String HISTORY_TABLE = "schema_migrations";
+  private static final long LOCK_KEY = 0x5343484D41L;
+
+  private final DataSource dataSource;
+
+  @Value("${app.schema-migration.enabled:true}")
+  private boolean enabled;
+
+  @Value("${app.schema-migration.locations:classpath*:db/migration/*.sql}")
+  private String locations;
+
+  @Value("${app.schema-migration.baseline-version:1}")
+  private int baselineVersion;
+
+  @Override
+  public void afterPropertiesSet() throws Exception {
+    if (enabled) {
+      migrate();
+    }
+  }
+
+  public void migrate() throws SQLException, IOException {
+    List<Migration> migrations = loadMigrations();
+    try (Connection connection = dataSource.getConnection()) {
+      execute(connection, "SELECT pg_advisory_lock(" + LOCK_KEY + ")");
+      try {
+        migrate(connection, migrations);
+      } finally {
+        execute(connection, "SELECT pg_advisory_unlock(" + LOCK_KEY + ")");
+      }
+    }
+  }
+
+  private void migrate(Connection connection, List<Migration> migrations) throws SQLException {
+    boolean hasHistory = tableExists(connection, HISTORY_TABLE);
+    boolean legacySchema = !hasHistory && tableExists(connection, "users");
+    if (legacySchema) {
+      // Kiểm tra trước khi tạo bảng lịch sử để lần khởi động sau vẫn nhận ra DB cũ
+      checkBaselineSchema(connection, migrations);
+    }
+    if (!hasHistory) {
+      execute(
+          connection,
+          """
+          CREATE TABLE schema_migrations (
+              version integer PRIMARY KEY,
+              description varchar(200) NOT NULL,
+              checksum bigint NOT NULL,
+              installed_at timestamp NOT NULL DEFAULT NOW(),
+              execution_ms integer NOT NULL
+          )
+          """);
+    }
+    if (legacySchema) {
+      for (Migration migration : migrations) {
+        if (migration.version() <= baselineVersion) {
+          record(connection, migration, -1);
+        }
+      }
+      log.info("Baselined existing schema at version {}", baselineVersion);
+    }
+
+    Map<Integer, Long> applied = appliedChecksums(connection);
+    int pending = 0;
+    for (Migration migration : migrations) {
+      Long checksum = applied.get(migration.version());
+      if (checksum == null) {
+        apply(connection, migration);
+        pending++;
+      } else if (checksum != migration.checksum()) {
+        throw new IllegalStateException(
+            "Migration V" + migration.version() + " đã chạy nhưng nội dung file bị thay đổi");
+      }
+    }
+    if (pending > 0) {
+      log.info("Applied {} schema migrations", pending);
+    }
+  }
+
+  private void apply(Connection connection, Migration migration) throws SQLException {
+    boolean autoCommit = connection.getAutoCommit();
+    connection.setAutoCommit(false);
+    try {
+      long started = System.currentTimeMillis();
+      ScriptUtils.executeSqlScript(
+          connection, new EncodedResource(migration.resource(), StandardCharsets.UTF_8));
+      record(connection, migration, (int) (System.currentTimeMillis() - started));
+      connection.commit();
+      log.info("Applied migration V{} {}", migration.version(), migration.description());
+    } catch (RuntimeException | SQLException e) {
+      connection.rollback();
+      throw e;
+    } finally {
+      connection.setAutoCommit(autoCommit);
+    }
+  }
+
+  // DB cũ chỉ được baseline nếu đã có mọi bảng, cột và index mà các migration <= baseline-version
+  // tạo (vd. DB tạo bằng ddl-auto của bản cũ hơn V1 sẽ thiếu bảng / cột); nếu không thì dừng khởi
+  // động thay vì ghi nhận các migration chưa thực sự được áp dụng
+  private void checkBaselineSchema(Connection connection, List<Migration> migrations)
+      throws SQLException {
+    Set<String> relations =
+        queryNames(
+            connection,
+            "SELECT relname FROM pg_class WHERE relnamespace = current_schema()::regnamespace");
+    Set<String> columns =
+        queryNames(
+            connection,
+            "SELECT table_name || '.' || column_name FROM information_schema.columns "
+                + "WHERE table_schema = current_schema()");
+
+    List<String> missing = new ArrayList<>();
+    for (Migration migration : migrations) {
+      if (migration.version() > baselineVersion) {
+        continue;
+      }
+      String script = content(migration);
+      Matcher table = CREATE_TABLE.matcher(script);
+      while (table.find()) {
+        if (!relations.contains(table.group(1))) {
+          missing.add("bảng " + table.group(1));
+          continue;
+        }
+        Matcher column = COLUMN.matcher(table.group(2));
+        while (column.find()) {
+          String name = table.group(1) + "." + column.group(1);
+          if (!columns.contains(name)) {
+            missing.add("cột " + name);
+          }
+        }
+      }
+      Matcher index = CREATE_INDEX.matcher(script);
+      while (index.find()) {
+        if (!relations.contains(index.group(1))) {
+          missing.add("index " + index.group(1));
+        }
+      }
+    }
+
+    if (!missing.isEmpty()) {
+      throw new IllegalStateException(
+          "Không thể baseline DB hiện có ở version "
+              + baselineVersion
+              + ": schema thiếu "
+              + missing.size()
+              + " đối tượng so với migration ("
+              + String.join(
+                  ", ", missing.subList(0, Math.min(missing.size(), MAX_REPORTED_MISSING)))
+              + (missing.size() > MAX_REPORTED_MISSING ? ", ..." : "")
+              + "). Cập nhật schema cho khớp các migration đến V"
+              + baselineVersion
+              + " rồi khởi động lại");
+    }
+  }
+
+  // executionMs = -1: ghi nhận khi baseline, không chạy
+  private void record(Connection connection, Migration migration, int executionMs)
+      throws SQLException {
+    try (PreparedStatement statement =
+        connection.prepareStatement(
+            "INSERT INTO schema_migrations (version, description, checksum, execution_ms) "
+                + "VALUES (?, ?, ?, ?)")) {
+      statement.setInt(1, migration.version());
+      statement.setString(2, migration.description());
+      statement.setLong(3, migration.checksum());
+      statement.setInt(4, executionMs);
+      statement.executeUpdate();
+    }
+  }
+
+  private Map<Integer, Long> appliedChecksums(Connection connection) throws SQLException {
+    Map<Integer, Long> applied = new HashMap<>();
+    try (Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery("SELECT version, checksum FROM schema_migrations")) {
+      while (rs.next()) {
+        applied.put(rs.getInt(1), rs.getLong(2));
+      }
+    }
+    return applied;
+  }
+
+  private List<Migration> loadMigrations() throws IOException {
+    List<Migration> migrations = new ArrayList<>();
+    Map<Integer, String> seen = new HashMap<>();
+    for (Resource resource : new PathMatchingResourcePatternResolver().getResources(locations)) {
+      Matcher matcher = FILE_NAME.matcher(resource.getFilename());
+      if (!matcher.matches()) {
+        continue;
+      }
+      int version = Integer.parseInt(matcher.group(1));
+      String previous = seen.put(version, resource.getFilename());
+      if (previous != null) {
+        throw new IllegalStateException(
+            "Trùng version migration: " + previous + ", " + resource.getFilename());
+      }
+      byte[] content = resource.getContentAsByteArray();
+      CRC32 crc = new CRC32();
+      crc.update(content);
+      migrations.add(
+          new Migration(version, matcher.group(2).replace('_', ' '), crc.getValue(), resource));
+    }
+    migrations.sort(Comparator.comparingInt(Migration::version));
+    return migrations;
+  }
+
+  private static String content(Migration migration) throws SQLException {
+    try {
+      return migration.resource().getContentAsString(StandardCharsets.UTF_8);
+    } catch (IOException e) {
+      throw new SQLException("Không đọc được migration V" + migration.version(), e);
+    }
+  }
+
+  private static Set<String> queryNames(Connection connection, String sql) throws SQLException {
+    Set<String> names = new HashSet<>();
+    try (Statement statement = connection.createStatement();
+        ResultSet rs = statement.executeQuery(sql)) {
+      while (rs.next()) {
+        names.add(rs.getString(1));
+      }
+    }
+    return names;
+  }
+
+  private static boolean tableExists(Connection connection, String table) throws SQLException {
+    try (PreparedStatement statement =
+        connection.prepareStatement("SELECT to_regclass(?) IS NOT NULL")) {
+      statement.setString(1, table);
+      try (ResultSet rs = statement.executeQuery()) {
+        return rs.next() && rs.getBoolean(1);
+      }
+    }
+  }
+
+  private static void execute(Connection connection, String sql) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(sql);
+    }
+  }
+
+  private record Migration(int version, String description, long checksum, Resource resource) {}
+
+  // Cho Spring Boot biết SchemaMigrator là bean khởi tạo DB: EntityManagerFactory (và các bean
+  // @DependsOnDatabaseInitialization khác) được tạo sau khi migration chạy xong
+  public static class InitializerDetector extends AbstractBeansOfTypeDatabaseInitializerDetector {
+    @Override
+    protected Set<Class<?>> getDatabaseInitializerBeanTypes() {
+      return Set.of(SchemaMigrator.class);
+    }
+  }
+}
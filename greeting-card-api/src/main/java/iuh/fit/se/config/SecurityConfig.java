@@ -25,6 +25,7 @@ import iuh.fit.se.security.CustomUserDetailsService;
 import iuh.fit.se.security.JwtAccessDeniedHandler;
 import iuh.fit.se.security.JwtAuthenticationEntryPoint;
 import iuh.fit.se.security.JwtAuthenticationFilter;
+import jakarta.servlet.DispatcherType;
 import lombok.RequiredArgsConstructor;
 
 // Security Configuration
@@ -80,6 +81,10 @@ public class SecurityConfig {
         .authorizeHttpRequests(
             auth ->
                 auth
+                    // Async dispatch của response streaming (vd. xuất sản phẩm): request gốc đã
+                    // được xác thực và phân quyền
+                    .dispatcherTypeMatchers(DispatcherType.ASYNC)
+                    .permitAll()
                     // Public endpoints - no authentication required
                     .requestMatchers("/", "/health", "/actuator/**", "/error")
                     .permitAll()
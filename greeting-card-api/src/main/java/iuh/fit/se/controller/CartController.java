@@ -11,13 +11,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import iuh.fit.se.dto.request.AddToCartRequest;
 import iuh.fit.se.dto.request.SyncCartRequest;
 import iuh.fit.se.dto.request.UpdateCartItemRequest;
 import iuh.fit.se.dto.response.ApiResponse;
+import iuh.fit.se.dto.response.CartDeltaResponse;
 import iuh.fit.se.dto.response.CartResponse;
+import iuh.fit.se.dto.response.CartSyncResponse;
 import iuh.fit.se.service.CartService;
 import iuh.fit.se.service.UserService;
 import jakarta.validation.Valid;
@@ -41,33 +44,42 @@ public class CartController {
   }
 
   // POST /api/cart/add - Thêm sản phẩm vào giỏ hàng
+  // ?delta=true: chỉ trả về dòng thay đổi và tổng mới, không kèm cả giỏ hàng (cart)
   @PostMapping("/add")
-  public ResponseEntity<ApiResponse<CartResponse>> addToCart(
+  public ResponseEntity<ApiResponse<CartDeltaResponse>> addToCart(
       @AuthenticationPrincipal UserDetails userDetails,
-      @Valid @RequestBody AddToCartRequest request) {
+      @Valid @RequestBody AddToCartRequest request,
+      @RequestParam(defaultValue = "false") boolean delta) {
     Long userId = userService.getUserIdByEmail(userDetails.getUsername());
-    CartResponse cart = cartService.addToCart(userId, request);
+    CartDeltaResponse cart = cartService.addToCart(userId, request, !delta);
     return ResponseEntity.ok(ApiResponse.success("Đã thêm sản phẩm vào giỏ hàng", cart));
   }
 
   // PUT /api/cart/items/{productId} - Cập nhật số lượng sản phẩm (quantity = 0 sẽ xóa)
   @PutMapping("/items/{productId}")
-  public ResponseEntity<ApiResponse<CartResponse>> updateCartItem(
+  public ResponseEntity<ApiResponse<CartDeltaResponse>> updateCartItem(
       @AuthenticationPrincipal UserDetails userDetails,
       @PathVariable Long productId,
-      @Valid @RequestBody UpdateCartItemRequest request) {
+      @Valid @RequestBody UpdateCartItemRequest request,
+      @RequestParam(defaultValue = "false") boolean delta) {
     Long userId = userService.getUserIdByEmail(userDetails.getUsername());
-    CartResponse cart = cartService.updateCartItem(userId, productId, request);
+    CartDeltaResponse cart = cartService.updateCartItem(userId, productId, request, !delta);
     return ResponseEntity.ok(ApiResponse.success("Đã cập nhật giỏ hàng", cart));
   }
 
   // DELETE /api/cart/items/{productId} - Xóa sản phẩm khỏi giỏ hàng
   @DeleteMapping("/items/{productId}")
-  public ResponseEntity<ApiResponse<String>> removeCartItem(
-      @AuthenticationPrincipal UserDetails userDetails, @PathVariable Long productId) {
+  public ResponseEntity<ApiResponse<CartDeltaResponse>> removeCartItem(
+      @AuthenticationPrincipal UserDetails userDetails,
+      @PathVariable Long productId,
+      @RequestParam(defaultValue = "false") boolean delta) {
     Long userId = userService.getUserIdByEmail(userDetails.getUsername());
-    cartService.removeCartItem(userId, productId);
-    return ResponseEntity.ok(ApiResponse.success("Đã xóa sản phẩm khỏi giỏ hàng", null));
+    if (!delta) {
+      cartService.removeCartItem(userId, productId);
+      return ResponseEntity.ok(ApiResponse.success("Đã xóa sản phẩm khỏi giỏ hàng", null));
+    }
+    CartDeltaResponse cart = cartService.removeCartItemDelta(userId, productId);
+    return ResponseEntity.ok(ApiResponse.success("Đã xóa sản phẩm khỏi giỏ hàng", cart));
   }
 
   // DELETE /api/cart - Xóa toàn bộ giỏ hàng
@@ -82,12 +94,12 @@ public class CartController {
   // POST /api/cart/sync - Sync giỏ hàng từ localStorage lên server (khi user login có cart trong
   // localStorage)
   @PostMapping("/sync")
-  public ResponseEntity<ApiResponse<CartResponse>> syncCart(
+  public ResponseEntity<ApiResponse<CartSyncResponse>> syncCart(
       @AuthenticationPrincipal UserDetails userDetails,
       @Valid @RequestBody SyncCartRequest request) {
     Long userId = userService.getUserIdByEmail(userDetails.getUsername());
-    CartResponse cart = cartService.syncCart(userId, request);
+    CartSyncResponse result = cartService.syncCart(userId, request);
     return ResponseEntity.status(HttpStatus.OK)
-        .body(ApiResponse.success("Đã đồng bộ giỏ hàng", cart));
+        .body(ApiResponse.success("Đã đồng bộ giỏ hàng", result));
   }
 }
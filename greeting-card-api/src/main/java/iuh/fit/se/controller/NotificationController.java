@@ -19,6 +19,7 @@ import iuh.fit.se.dto.response.UnreadCountResponse;
 import iuh.fit.se.entity.enumeration.NotificationType;
 import iuh.fit.se.service.NotificationService;
 import iuh.fit.se.service.UserService;
+import iuh.fit.se.util.CursorPage;
 import iuh.fit.se.util.PaginationUtil;
 import lombok.RequiredArgsConstructor;
 
@@ -36,8 +37,20 @@ public class NotificationController {
       @RequestParam(defaultValue = "1") int page,
       @RequestParam(defaultValue = "20") int size,
       @RequestParam(required = false) Boolean isRead,
-      @RequestParam(required = false) NotificationType type) {
+      @RequestParam(required = false) NotificationType type,
+      @RequestParam(required = false) String cursor) {
     Long userId = userService.getUserIdByEmail(userDetails.getUsername());
+
+    // Phân trang theo cursor khi client gửi tham số cursor (rỗng cho trang đầu tiên)
+    if (cursor != null) {
+      CursorPage<NotificationResponse> cursorPage =
+          notificationService.getUserNotifications(userId, isRead, type, cursor, size);
+      return ResponseEntity.ok(
+          ApiResponse.successWithPagination(
+              "Lấy danh sách thông báo thành công",
+              cursorPage.content(),
+              PaginationUtil.createPaginationResponse(cursorPage)));
+    }
     Page<NotificationResponse> notificationsPage =
         notificationService.getUserNotifications(userId, isRead, type, page, size);
     return ResponseEntity.ok(
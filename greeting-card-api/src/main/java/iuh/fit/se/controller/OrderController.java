@@ -24,6 +24,7 @@ import iuh.fit.se.dto.response.OrderResponse;
 import iuh.fit.se.dto.response.OrderStatusHistoryResponse;
 import iuh.fit.se.service.OrderService;
 import iuh.fit.se.service.UserService;
+import iuh.fit.se.util.CursorPage;
 import iuh.fit.se.util.PaginationUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -51,10 +52,22 @@ public class OrderController {
       @RequestParam(defaultValue = "1") int page,
       @RequestParam(defaultValue = "10") int size,
       @RequestParam(defaultValue = "orderDate") String sortBy,
-      @RequestParam(defaultValue = "desc") String sortDir) {
+      @RequestParam(defaultValue = "desc") String sortDir,
+      @RequestParam(required = false) String cursor) {
 
     Long userId = userService.getUserIdByEmail(userDetails.getUsername());
 
+    // Phân trang theo cursor khi client gửi tham số cursor (rỗng cho trang đầu tiên)
+    if (cursor != null) {
+      CursorPage<OrderResponse.Simple> cursorPage =
+          orderService.getUserOrders(userId, cursor, size);
+      return ResponseEntity.ok(
+          ApiResponse.successWithPagination(
+              "Lấy danh sách đơn hàng thành công",
+              cursorPage.content(),
+              PaginationUtil.createPaginationResponse(cursorPage)));
+    }
+
     Sort sort =
         sortDir.equalsIgnoreCase("asc")
             ? Sort.by(sortBy).ascending()
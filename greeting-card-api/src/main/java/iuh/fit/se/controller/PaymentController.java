@@ -2,6 +2,7 @@ package iuh.fit.se.controller;
 
 import java.util.List;
 
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -35,7 +36,17 @@ public class PaymentController {
       @Valid @RequestBody ProcessPaymentRequest request) {
     Long userId = userService.getUserIdByEmail(userDetails.getUsername());
     PaymentResponse payment = paymentService.processPayment(userId, request);
-    return ResponseEntity.ok(ApiResponse.success("Xử lý thanh toán thành công", payment));
+    return ResponseEntity.status(HttpStatus.ACCEPTED)
+        .body(ApiResponse.success("Đã tiếp nhận yêu cầu thanh toán", payment));
+  }
+
+  /** Lấy trạng thái thanh toán theo transaction ID */
+  @GetMapping("/status/{transactionId}")
+  public ResponseEntity<ApiResponse<PaymentResponse>> getPaymentStatus(
+      @AuthenticationPrincipal UserDetails userDetails, @PathVariable String transactionId) {
+    Long userId = userService.getUserIdByEmail(userDetails.getUsername());
+    PaymentResponse payment = paymentService.getPaymentStatus(userId, transactionId);
+    return ResponseEntity.ok(ApiResponse.success("Lấy trạng thái thanh toán thành công", payment));
   }
 
   /** Hoàn tiền */
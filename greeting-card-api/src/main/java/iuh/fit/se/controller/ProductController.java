@@ -26,6 +26,7 @@ import iuh.fit.se.dto.response.ApiResponse;
 import iuh.fit.se.dto.response.ProductResponse;
 import iuh.fit.se.service.ProductService;
 import iuh.fit.se.service.UserService;
+import iuh.fit.se.util.CursorPage;
 import iuh.fit.se.util.PaginationUtil;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
@@ -51,7 +52,30 @@ public class ProductController {
       @RequestParam(defaultValue = "1") int page,
       @RequestParam(defaultValue = "10") int size,
       @RequestParam(defaultValue = "createdAt") String sortBy,
-      @RequestParam(defaultValue = "desc") String sortDir) {
+      @RequestParam(defaultValue = "desc") String sortDir,
+      @RequestParam(required = false) String cursor) {
+
+    Long userId = getUserIdFromAuth(userDetails);
+
+    // Phân trang theo cursor khi client gửi tham số cursor (rỗng cho trang đầu tiên)
+    if (cursor != null) {
+      CursorPage<ProductResponse> cursorPage =
+          productService.getProductsByCursor(
+              categoryId,
+              categoryIds,
+              isActive,
+              isFeatured,
+              minPrice,
+              maxPrice,
+              inStock,
+              keyword,
+              cursor,
+              size,
+              userId);
+      return ResponseEntity.ok(
+          ApiResponse.successWithPagination(
+              cursorPage.content(), PaginationUtil.createPaginationResponse(cursorPage)));
+    }
 
     Sort sort =
         sortDir.equalsIgnoreCase("asc")
@@ -59,8 +83,6 @@ public class ProductController {
             : Sort.by(sortBy).descending();
     Pageable pageable = PageRequest.of(page - 1, size, sort);
 
-    Long userId = getUserIdFromAuth(userDetails);
-
     Page<ProductResponse> productPage =
         productService.getProducts(categoryId, categoryIds, isActive, isFeatured, minPrice, maxPrice, inStock, keyword, pageable, userId);
 
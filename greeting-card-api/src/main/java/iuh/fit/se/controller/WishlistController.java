@@ -16,6 +16,7 @@ import iuh.fit.se.dto.request.AddToWishlistRequest;
 import iuh.fit.se.dto.request.SyncWishlistRequest;
 import iuh.fit.se.dto.response.ApiResponse;
 import iuh.fit.se.dto.response.WishlistResponse;
+import iuh.fit.se.dto.response.WishlistSyncResponse;
 import iuh.fit.se.service.UserService;
 import iuh.fit.se.service.WishlistService;
 import jakarta.validation.Valid;
@@ -69,13 +70,13 @@ public class WishlistController {
 
   // POST /api/wishlist/sync - Sync danh sách yêu thích từ localStorage lên server
   @PostMapping("/sync")
-  public ResponseEntity<ApiResponse<WishlistResponse>> syncWishlist(
+  public ResponseEntity<ApiResponse<WishlistSyncResponse>> syncWishlist(
       @AuthenticationPrincipal UserDetails userDetails,
       @Valid @RequestBody SyncWishlistRequest request) {
     Long userId = userService.getUserIdByEmail(userDetails.getUsername());
-    WishlistResponse wishlist = wishlistService.syncWishlist(userId, request);
+    WishlistSyncResponse result = wishlistService.syncWishlist(userId, request);
     return ResponseEntity.status(HttpStatus.OK)
-        .body(ApiResponse.success("Đã đồng bộ danh sách yêu thích", wishlist));
+        .body(ApiResponse.success("Đã đồng bộ danh sách yêu thích", result));
   }
 
   // GET /api/wishlist/check/{productId} - Kiểm tra sản phẩm có trong wishlist không
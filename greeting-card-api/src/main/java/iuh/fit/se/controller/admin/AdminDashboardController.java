@@ -1,7 +1,9 @@
 package iuh.fit.se.controller.admin;
 
+import java.time.LocalDate;
 import java.util.List;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -17,8 +19,10 @@ import iuh.fit.se.dto.response.DashboardStatsResponse;
 import iuh.fit.se.dto.response.LowStockProductResponse;
 import iuh.fit.se.dto.response.OrderResponse;
 import iuh.fit.se.dto.response.OrderStatusDistributionResponse;
+import iuh.fit.se.dto.response.RevenueReportResponse;
 import iuh.fit.se.dto.response.RevenueSummaryResponse;
 import iuh.fit.se.service.DashboardService;
+import iuh.fit.se.service.RevenueReportService;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -27,6 +31,7 @@ import lombok.RequiredArgsConstructor;
 @PreAuthorize("hasRole('ADMIN')")
 public class AdminDashboardController {
   private final DashboardService dashboardService;
+  private final RevenueReportService revenueReportService;
 
   @GetMapping("/stats")
   public ResponseEntity<ApiResponse<DashboardStatsResponse>> getDashboardStats() {
@@ -42,6 +47,18 @@ public class AdminDashboardController {
     return ResponseEntity.ok(ApiResponse.success("Lấy tóm tắt doanh thu thành công", summary));
   }
 
+  // Doanh thu theo bucket trong [from, to) của múi giờ timeZone (mặc định app.reporting.time-zone)
+  @GetMapping("/revenue-report")
+  public ResponseEntity<ApiResponse<RevenueReportResponse>> getRevenueReport(
+      @RequestParam(defaultValue = "daily") String period,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+      @RequestParam(required = false) String timeZone) {
+    RevenueReportResponse report =
+        revenueReportService.getRevenueReport(period, from, to, timeZone);
+    return ResponseEntity.ok(ApiResponse.success("Lấy báo cáo doanh thu thành công", report));
+  }
+
   @GetMapping("/latest-orders")
   public ResponseEntity<ApiResponse<List<OrderResponse.Simple>>> getLatestOrders(
       @RequestParam(defaultValue = "10") int limit) {
@@ -0,0 +1,66 @@
+package iuh.fit.se.controller.admin;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import iuh.fit.se.dto.response.ApiResponse;
+import iuh.fit.se.dto.response.ProductImportResponse;
+import iuh.fit.se.service.ProductBulkService;
+import iuh.fit.se.service.ProductBulkService.Format;
+import iuh.fit.se.service.UserService;
+import lombok.RequiredArgsConstructor;
+
+@RestController
+@RequestMapping("/api/admin/products")
+@RequiredArgsConstructor
+@PreAuthorize("hasRole('ADMIN')")
+public class AdminProductController {
+  private final ProductBulkService productBulkService;
+  private final UserService userService;
+
+  // Nhập sản phẩm từ file CSV / JSONL (upsert theo sku). format bỏ trống thì đoán theo đuôi file.
+  @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+  public ResponseEntity<ApiResponse<ProductImportResponse>> importProducts(
+      @RequestParam("file") MultipartFile file,
+      @RequestParam(required = false) Format format,
+      @AuthenticationPrincipal UserDetails userDetails)
+      throws IOException {
+    Long adminUserId = userService.getUserIdByEmail(userDetails.getUsername());
+    Format resolved = format != null ? format : Format.fromFilename(file.getOriginalFilename());
+    try (InputStream input = file.getInputStream()) {
+      ProductImportResponse result =
+          productBulkService.importProducts(input, resolved, adminUserId);
+      return ResponseEntity.ok(ApiResponse.success("Nhập sản phẩm hoàn tất", result));
+    }
+  }
+
+  // Xuất toàn bộ sản phẩm, ghi dần ra response (cùng định dạng với file nhập)
+  @GetMapping("/export")
+  public ResponseEntity<StreamingResponseBody> exportProducts(
+      @RequestParam(defaultValue = "CSV") Format format) {
+    String filename = "products-" + LocalDate.now() + (format == Format.CSV ? ".csv" : ".jsonl");
+    MediaType mediaType =
+        format == Format.CSV
+            ? new MediaType("text", "csv", StandardCharsets.UTF_8)
+            : MediaType.APPLICATION_NDJSON;
+    return ResponseEntity.ok()
+        .header(
+            HttpHeaders.CONTENT_DISPOSITION,
+            ContentDisposition.attachment().filename(filename).build().toString())
+        .contentType(mediaType)
+        .body(output -> productBulkService.exportProducts(format, output));
+  }
+}
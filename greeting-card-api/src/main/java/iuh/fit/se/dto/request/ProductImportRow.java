@@ -0,0 +1,24 @@
+package iuh.fit.se.dto.request;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import lombok.Data;
+
+// Một dòng của file nhập / xuất sản phẩm hàng loạt (CSV hoặc JSONL). Sản phẩm được nhận diện theo
+// sku; category là slug của danh mục. images / tags == null thì giữ nguyên ảnh / tag hiện có, danh
+// sách (kể cả rỗng) thì thay thế toàn bộ. Ảnh đầu tiên là ảnh đại diện.
+@Data
+public class ProductImportRow {
+  private String sku;
+  private String name;
+  private String slug; // chỉ dùng khi tạo mới, bỏ trống thì sinh từ tên và sku
+  private String category;
+  private BigDecimal price;
+  private Integer stock;
+  private Boolean isActive;
+  private Boolean isFeatured;
+  private String description; // null thì giữ nguyên mô tả hiện có
+  private List<String> images;
+  private List<String> tags;
+}
@@ -0,0 +1,29 @@
+package iuh.fit.se.dto.response;
+
+import java.math.BigDecimal;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Kết quả thay đổi giỏ hàng: dòng vừa thay đổi cùng tổng mới, cart chỉ có khi không gọi với
+// delta=true. Nếu version khác version client đang giữ + 1 thì giỏ hàng đã bị thay đổi ở nơi khác,
+// client nên tải lại toàn bộ.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartDeltaResponse {
+  private Long id;
+  private Long version;
+  private Long productId;
+  private CartItemResponse item; // null nếu dòng đã bị xóa
+  private BigDecimal total;
+  private Integer totalItems;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  private CartResponse cart;
+}
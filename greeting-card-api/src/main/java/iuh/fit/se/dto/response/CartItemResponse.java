@@ -3,6 +3,7 @@ package iuh.fit.se.dto.response;
 import java.math.BigDecimal;
 
 import lombok.AllArgsConstructor;
+import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
@@ -13,14 +14,30 @@ import lombok.Setter;
 @AllArgsConstructor
 public class CartItemResponse {
   private Long id;
-  private ProductResponse product;
+  private ProductInfo product;
   private Integer quantity;
   private BigDecimal subtotal; // price × quantity
 
-  public CartItemResponse(Long id, ProductResponse product, Integer quantity) {
+  public CartItemResponse(Long id, ProductInfo product, Integer quantity) {
     this.id = id;
     this.product = product;
     this.quantity = quantity;
     this.subtotal = product.getPrice().multiply(BigDecimal.valueOf(quantity));
   }
+
+  // Chỉ các trường giỏ hàng cần hiển thị, không phải ProductResponse đầy đủ
+  @Getter
+  @Setter
+  @NoArgsConstructor
+  @AllArgsConstructor
+  @Builder
+  public static class ProductInfo {
+    private Long id;
+    private String name;
+    private String slug;
+    private BigDecimal price;
+    private Integer stock;
+    private Boolean isActive;
+    private String imageUrl; // ảnh đại diện, null nếu chưa có
+  }
 }
@@ -14,12 +14,14 @@ import lombok.Setter;
 @AllArgsConstructor
 public class CartResponse {
   private Long id;
+  private Long version; // tăng sau mỗi thay đổi giỏ hàng
   private List<CartItemResponse> items;
   private BigDecimal total;
   private Integer totalItems;
 
-  public CartResponse(Long id, List<CartItemResponse> items) {
+  public CartResponse(Long id, Long version, List<CartItemResponse> items) {
     this.id = id;
+    this.version = version;
     this.items = items;
     this.total = calculateTotal();
     this.totalItems = calculateTotalItems();
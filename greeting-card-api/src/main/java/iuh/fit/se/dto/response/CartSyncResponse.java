@@ -0,0 +1,16 @@
+package iuh.fit.se.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Giỏ hàng sau khi đồng bộ cùng kết quả của từng sản phẩm gửi lên
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartSyncResponse {
+  private CartResponse cart;
+  private List<SyncItemResult> results;
+}
@@ -1,18 +1,24 @@
 package iuh.fit.se.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
-// DTO metadata cho phân trang
+// DTO metadata cho phân trang. Phân trang theo cursor không có page / totalPages, total (nếu có)
+// là số ước lượng (totalEstimated = true) và nextCursor dùng để lấy trang tiếp theo
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
 public class PaginationResponse {
-  private int page;
-  private int size;
-  private long total;
-  private int totalPages;
+  private Integer page;
+  private Integer size;
+  private Long total;
+  private Integer totalPages;
+  private String nextCursor;
+  private Boolean totalEstimated;
 }
@@ -0,0 +1,31 @@
+package iuh.fit.se.dto.response;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Kết quả nhập sản phẩm hàng loạt: số dòng theo từng kết quả và lỗi của từng dòng
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductImportResponse {
+  private long totalRows;
+  private long created;
+  private long updated;
+  private long failed;
+  private List<RowError> errors;
+  private boolean errorsTruncated; // chỉ trả về tối đa app.product-bulk.max-errors lỗi
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class RowError {
+    private long row; // số thứ tự dòng trong file (CSV tính cả dòng header)
+    private String sku;
+    private String message;
+  }
+}
@@ -11,7 +11,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductResponse {
@@ -27,6 +27,8 @@ public class ProductResponse {
   private CategoryResponse category;
   private List<ProductImageResponse> images;
   private Set<ProductTagResponse> tags;
+  private Double averageRating;
+  private Long reviewCount;
   private LocalDateTime createdAt;
   private LocalDateTime updatedAt;
 
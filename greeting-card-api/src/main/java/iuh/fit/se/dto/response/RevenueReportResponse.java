@@ -0,0 +1,38 @@
+package iuh.fit.se.dto.response;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.OffsetDateTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Báo cáo doanh thu theo bucket thời gian trong khoảng [from, to) của múi giờ timeZone. Các bucket
+// không có đơn vẫn được trả về với giá trị 0.
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevenueReportResponse {
+  private String timeZone;
+  private String period; // daily, weekly (tuần ISO, bắt đầu thứ Hai), monthly
+  private LocalDate from;
+  private LocalDate to;
+  private BigDecimal totalRevenue;
+  private Long totalOrders;
+  private List<Bucket> buckets;
+
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Bucket {
+    private OffsetDateTime start; // inclusive
+    private OffsetDateTime end; // exclusive
+    private BigDecimal revenue;
+    private Long orderCount;
+  }
+}
@@ -0,0 +1,29 @@
+package iuh.fit.se.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Kết quả đồng bộ một sản phẩm từ localStorage lên server
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SyncItemResult {
+  private Long productId;
+  private Status status;
+  private Integer requestedQuantity; // null với wishlist
+  private Integer quantity; // số lượng sau khi đồng bộ, null nếu không được thêm
+  private Integer availableStock; // null nếu sản phẩm không tồn tại
+
+  public enum Status {
+    ADDED, // thêm mới
+    MERGED, // cộng dồn vào dòng đã có
+    CLAMPED, // cộng dồn nhưng giới hạn theo tồn kho
+    UNCHANGED, // đã có sẵn (wishlist)
+    OUT_OF_STOCK, // tồn kho không đủ, bỏ qua
+    NOT_FOUND, // sản phẩm không tồn tại hoặc đã bị xóa, bỏ qua
+    INVALID // thiếu productId hoặc số lượng không hợp lệ, bỏ qua
+  }
+}
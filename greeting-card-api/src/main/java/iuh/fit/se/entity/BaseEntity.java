@@ -16,8 +16,10 @@ import lombok.Setter;
 @Getter
 @Setter
 public abstract class BaseEntity {
+  // Sequence <bảng>_seq cấp id theo khối 50 (pooled-lo) để Hibernate gom INSERT thành batch;
+  // chuyển dữ liệu cũ từ IDENTITY: db/migration/V8__id_sequences.sql
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @Column(name = "deleted_at")
@@ -5,6 +5,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
@@ -15,7 +16,6 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
@@ -30,16 +30,14 @@ import lombok.Setter;
  * localStorage, chỉ sync lên DB khi login
  */
 @Entity
-@Table(
-    name = "carts",
-    indexes = {@Index(name = "idx_carts_user_id", columnList = "user_id")})
+@Table(name = "carts")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Cart {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @OneToOne(fetch = FetchType.LAZY)
@@ -50,6 +48,12 @@ public class Cart {
   @BatchSize(size = 50)
   private List<CartItem> items = new ArrayList<>();
 
+  // Tăng sau mỗi thay đổi giỏ hàng (client so sánh để biết bản đang giữ đã cũ). Chỉ được cập nhật
+  // bằng câu lệnh SQL nguyên tử, không ghi qua entity.
+  @ColumnDefault("0")
+  @Column(nullable = false, insertable = false, updatable = false)
+  private Long version = 0L;
+
   @Column(name = "created_at", nullable = false, updatable = false)
   @CreationTimestamp
   private LocalDateTime createdAt;
@@ -6,7 +6,6 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -21,10 +20,6 @@ import lombok.Setter;
 @Entity
 @Table(
     name = "cart_items",
-    indexes = {
-      @Index(name = "idx_cart_items_cart_id", columnList = "cart_id"),
-      @Index(name = "idx_cart_items_product_id", columnList = "product_id")
-    },
     uniqueConstraints = @UniqueConstraint(columnNames = {"cart_id", "product_id"}))
 @Getter
 @Setter
@@ -32,7 +27,7 @@ import lombok.Setter;
 @AllArgsConstructor
 public class CartItem {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
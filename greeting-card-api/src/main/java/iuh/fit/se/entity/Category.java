@@ -11,7 +11,6 @@ import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -23,14 +22,7 @@ import lombok.Setter;
 
 // Entity đại diện cho loại sản phẩm (Category) Hỗ trợ danh mục đa cấp với parent-child relationship
 @Entity
-@Table(
-    name = "categories",
-    indexes = {
-      @Index(name = "idx_categories_name", columnList = "name"),
-      @Index(name = "idx_categories_slug", columnList = "slug"),
-      @Index(name = "idx_categories_parent_id", columnList = "parent_id"),
-      @Index(name = "idx_categories_deleted_at", columnList = "deleted_at")
-    })
+@Table(name = "categories")
 @SQLDelete(sql = "UPDATE categories SET deleted_at = NOW() WHERE id = ?")
 @SQLRestriction("deleted_at IS NULL")
 @Getter
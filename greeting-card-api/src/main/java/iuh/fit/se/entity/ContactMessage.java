@@ -8,7 +8,6 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 import lombok.AllArgsConstructor;
 import lombok.Getter;
@@ -17,13 +16,7 @@ import lombok.Setter;
 
 // Entity lưu thông tin liên hệ từ trang Contact
 @Entity
-@Table(
-    name = "contact_messages",
-    indexes = {
-      @Index(name = "idx_contact_messages_status", columnList = "status"),
-      @Index(name = "idx_contact_messages_category", columnList = "category"),
-      @Index(name = "idx_contact_messages_created_at", columnList = "created_at")
-    })
+@Table(name = "contact_messages")
 @SQLDelete(sql = "UPDATE contact_messages SET deleted_at = NOW() WHERE id = ?")
 @SQLRestriction("deleted_at IS NULL")
 @Getter
@@ -14,7 +14,6 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.Table;
 import jakarta.validation.constraints.DecimalMin;
@@ -25,14 +24,7 @@ import lombok.Setter;
 
 // Entity đại diện cho mã giảm giá (Coupon)
 @Entity
-@Table(
-    name = "coupons",
-    indexes = {
-      @Index(name = "idx_coupons_code", columnList = "code"),
-      @Index(name = "idx_coupons_is_active", columnList = "is_active"),
-      @Index(name = "idx_coupons_valid_from", columnList = "valid_from"),
-      @Index(name = "idx_coupons_valid_until", columnList = "valid_until")
-    })
+@Table(name = "coupons")
 @SQLDelete(sql = "UPDATE coupons SET deleted_at = NOW() WHERE id = ?")
 @SQLRestriction("deleted_at IS NULL")
 @Getter
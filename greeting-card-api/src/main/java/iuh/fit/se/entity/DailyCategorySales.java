@@ -0,0 +1,48 @@
+package iuh.fit.se.entity;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Rollup doanh số theo ngày đặt hàng và danh mục (không tính đơn đã hủy). order_count là số đơn có
+// ít nhất 1 sản phẩm thuộc danh mục.
+@Entity
+@Table(name = "daily_category_sales")
+@IdClass(DailyCategorySales.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class DailyCategorySales {
+  @Id
+  @Column(name = "stat_date")
+  private LocalDate statDate;
+
+  @Id
+  @Column(name = "category_id")
+  private Long categoryId;
+
+  @Column(name = "order_count", nullable = false)
+  private Long orderCount;
+
+  @Column(nullable = false, precision = 15, scale = 2)
+  private BigDecimal revenue;
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Key implements Serializable {
+    private LocalDate statDate;
+    private Long categoryId;
+  }
+}
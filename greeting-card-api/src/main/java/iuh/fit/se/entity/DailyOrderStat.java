@@ -0,0 +1,52 @@
+package iuh.fit.se.entity;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import iuh.fit.se.entity.enumeration.OrderStatus;
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Rollup theo ngày đặt hàng và trạng thái hiện tại của đơn (số đơn, tổng final_amount). Được cập
+// nhật incremental bởi DashboardRollupService và đối soát định kỳ từ bảng orders.
+@Entity
+@Table(name = "daily_order_stats")
+@IdClass(DailyOrderStat.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class DailyOrderStat {
+  @Id
+  @Column(name = "stat_date")
+  private LocalDate statDate;
+
+  @Id
+  @Enumerated(EnumType.STRING)
+  @Column(length = 20)
+  private OrderStatus status;
+
+  @Column(name = "order_count", nullable = false)
+  private Long orderCount;
+
+  @Column(nullable = false, precision = 15, scale = 2)
+  private BigDecimal revenue;
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Key implements Serializable {
+    private LocalDate statDate;
+    private OrderStatus status;
+  }
+}
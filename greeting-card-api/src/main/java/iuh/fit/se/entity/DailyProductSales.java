@@ -0,0 +1,47 @@
+package iuh.fit.se.entity;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Rollup doanh số theo ngày đặt hàng và sản phẩm (không tính đơn đã hủy)
+@Entity
+@Table(name = "daily_product_sales")
+@IdClass(DailyProductSales.Key.class)
+@Getter
+@Setter
+@NoArgsConstructor
+public class DailyProductSales {
+  @Id
+  @Column(name = "stat_date")
+  private LocalDate statDate;
+
+  @Id
+  @Column(name = "product_id")
+  private Long productId;
+
+  @Column(nullable = false)
+  private Long quantity;
+
+  @Column(nullable = false, precision = 15, scale = 2)
+  private BigDecimal revenue;
+
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Key implements Serializable {
+    private LocalDate statDate;
+    private Long productId;
+  }
+}
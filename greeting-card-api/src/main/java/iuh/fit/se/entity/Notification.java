@@ -13,21 +13,14 @@ import lombok.Setter;
 
 // Entity đại diện cho thông báo hệ thống
 @Entity
-@Table(
-    name = "notifications",
-    indexes = {
-      @Index(name = "idx_notifications_user_id", columnList = "user_id"),
-      @Index(name = "idx_notifications_is_read", columnList = "is_read"),
-      @Index(name = "idx_notifications_type", columnList = "type"),
-      @Index(name = "idx_notifications_created_at", columnList = "created_at")
-    })
+@Table(name = "notifications")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Notification {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -18,7 +18,6 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.OneToMany;
@@ -31,21 +30,7 @@ import lombok.Setter;
 
 // Entity đại diện cho đơn hàng
 @Entity
-@Table(
-    name = "orders",
-    indexes = {
-      @Index(name = "idx_orders_user_id", columnList = "user_id"),
-      @Index(name = "idx_orders_order_date", columnList = "order_date"),
-      @Index(name = "idx_orders_status", columnList = "status"),
-      @Index(name = "idx_orders_order_number", columnList = "order_number"),
-      @Index(name = "idx_orders_payment_status", columnList = "payment_status"),
-      // Composite index for user order history queries
-      @Index(name = "idx_orders_user_date", columnList = "user_id, order_date DESC"),
-      // Composite index for dashboard revenue queries
-      @Index(
-          name = "idx_orders_revenue",
-          columnList = "deleted_at, status, order_date, final_amount")
-    })
+@Table(name = "orders")
 @SQLDelete(sql = "UPDATE orders SET deleted_at = NOW() WHERE id = ?")
 @SQLRestriction("deleted_at IS NULL")
 @Getter
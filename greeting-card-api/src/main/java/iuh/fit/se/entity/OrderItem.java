@@ -8,7 +8,6 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.PrePersist;
@@ -23,19 +22,14 @@ import lombok.Setter;
 
 // Entity đại diện cho chi tiết đơn hàng (OrderItem)
 @Entity
-@Table(
-    name = "order_items",
-    indexes = {
-      @Index(name = "idx_order_items_order_id", columnList = "order_id"),
-      @Index(name = "idx_order_items_product_id", columnList = "product_id")
-    })
+@Table(name = "order_items")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderItem {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -46,6 +40,11 @@ public class OrderItem {
   @JoinColumn(name = "product_id", nullable = false)
   private Product product;
 
+  // Danh mục của sản phẩm lúc đặt hàng: doanh số theo danh mục (rollup dashboard) không đổi khi sản
+  // phẩm được chuyển sang danh mục khác
+  @Column(name = "category_id", nullable = false, updatable = false)
+  private Long categoryId;
+
   @Column(nullable = false)
   @Min(value = 1, message = "Số lượng phải lớn hơn 0")
   private Integer quantity;
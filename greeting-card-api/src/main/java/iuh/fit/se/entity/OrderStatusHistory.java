@@ -13,19 +13,14 @@ import lombok.Setter;
 
 // Entity đại diện cho lịch sử thay đổi trạng thái đơn hàng
 @Entity
-@Table(
-    name = "order_status_history",
-    indexes = {
-      @Index(name = "idx_order_status_history_order_id", columnList = "order_id"),
-      @Index(name = "idx_order_status_history_created_at", columnList = "created_at")
-    })
+@Table(name = "order_status_history")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class OrderStatusHistory {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,58 @@
+package iuh.fit.se.entity;
+
+import java.time.LocalDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+
+import iuh.fit.se.entity.enumeration.OutboxEventType;
+import iuh.fit.se.entity.enumeration.OutboxStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Entity đại diện cho side effect (email, thông báo) được ghi cùng transaction nghiệp vụ và xử lý
+// bất đồng bộ sau khi commit
+@Entity
+@Table(name = "outbox_events")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class OutboxEvent {
+  @Id
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
+  private Long id;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 50)
+  private OutboxEventType type;
+
+  @Column(name = "aggregate_id", nullable = false)
+  private Long aggregateId; // ID đơn hàng
+
+  @Column(length = 500)
+  private String payload;
+
+  @Enumerated(EnumType.STRING)
+  @Column(nullable = false, length = 20)
+  private OutboxStatus status = OutboxStatus.PENDING;
+
+  @Column(nullable = false)
+  private Integer attempts = 0;
+
+  // Thời điểm được xử lý tiếp (backoff khi PENDING, hết hạn lease khi PROCESSING)
+  @Column(name = "next_attempt_at", nullable = false)
+  private LocalDateTime nextAttemptAt;
+
+  @Column(name = "last_error", columnDefinition = "TEXT")
+  private String lastError;
+
+  @Column(name = "created_at", nullable = false, updatable = false)
+  @CreationTimestamp
+  private LocalDateTime createdAt;
+
+  @Column(name = "processed_at")
+  private LocalDateTime processedAt;
+}
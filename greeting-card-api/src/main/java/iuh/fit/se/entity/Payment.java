@@ -15,7 +15,6 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -26,21 +25,14 @@ import lombok.Setter;
 
 // Entity đại diện cho giao dịch thanh toán
 @Entity
-@Table(
-    name = "payments",
-    indexes = {
-      @Index(name = "idx_payments_order_id", columnList = "order_id"),
-      @Index(name = "idx_payments_payment_method_id", columnList = "payment_method_id"),
-      @Index(name = "idx_payments_status", columnList = "status"),
-      @Index(name = "idx_payments_transaction_id", columnList = "transaction_id")
-    })
+@Table(name = "payments")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Payment {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -15,19 +15,14 @@ import lombok.Setter;
 
 // Entity đại diện cho phương thức thanh toán
 @Entity
-@Table(
-    name = "payment_methods",
-    indexes = {
-      @Index(name = "idx_payment_methods_code", columnList = "code"),
-      @Index(name = "idx_payment_methods_is_active", columnList = "is_active")
-    })
+@Table(name = "payment_methods")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class PaymentMethod {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @Column(nullable = false, length = 100)
@@ -12,9 +12,9 @@ import org.hibernate.annotations.SQLRestriction;
 
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Embedded;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -30,25 +30,7 @@ import lombok.Setter;
 
 // Entity đại diện cho sản phẩm (Product)
 @Entity
-@Table(
-    name = "products",
-    indexes = {
-      @Index(name = "idx_products_category_id", columnList = "category_id"),
-      @Index(name = "idx_products_name", columnList = "name"),
-      @Index(name = "idx_products_slug", columnList = "slug"),
-      @Index(name = "idx_products_sku", columnList = "sku"),
-      @Index(name = "idx_products_deleted_at", columnList = "deleted_at"),
-      @Index(name = "idx_products_is_active", columnList = "is_active"),
-      @Index(name = "idx_products_is_featured", columnList = "is_featured"),
-      // Composite index for common product listing queries
-      @Index(
-          name = "idx_products_active_featured",
-          columnList = "deleted_at, is_active, is_featured, category_id"),
-      // Composite index for search by name with active filter
-      @Index(name = "idx_products_search", columnList = "deleted_at, is_active, name"),
-      // Composite index for low stock query
-      @Index(name = "idx_products_low_stock", columnList = "deleted_at, is_active, stock")
-    })
+@Table(name = "products")
 @SQLDelete(sql = "UPDATE products SET deleted_at = NOW() WHERE id = ?")
 @SQLRestriction("deleted_at IS NULL")
 @Getter
@@ -86,6 +68,8 @@ public class Product extends BaseEntity {
   @Column(name = "is_featured", nullable = false)
   private Boolean isFeatured = false;
 
+  @Embedded private RatingSummary ratingSummary = new RatingSummary();
+
   // Relationships
   @OneToMany(mappedBy = "product", cascade = CascadeType.ALL, orphanRemoval = true)
   @BatchSize(size = 50)
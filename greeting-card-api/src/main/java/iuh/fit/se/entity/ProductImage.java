@@ -12,22 +12,14 @@ import lombok.Setter;
 
 // Entity đại diện cho hình ảnh sản phẩm Một sản phẩm có thể có nhiều hình ảnh
 @Entity
-@Table(
-    name = "product_images",
-    indexes = {
-      @Index(name = "idx_product_images_product_id", columnList = "product_id"),
-      // Composite index for efficient ordering and primary image lookup
-      @Index(
-          name = "idx_product_images_product_order",
-          columnList = "product_id, is_primary DESC, display_order ASC")
-    })
+@Table(name = "product_images")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductImage {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
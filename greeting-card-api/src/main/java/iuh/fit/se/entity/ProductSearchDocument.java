@@ -0,0 +1,30 @@
+package iuh.fit.se.entity;
+
+import java.time.LocalDateTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+// Tài liệu full-text search của sản phẩm (tsvector đã bỏ dấu, có trọng số theo field). Chỉ được
+// ghi bằng native query trong ProductSearchService; GIN index nằm trong migration V3.
+@Entity
+@Table(name = "product_search_documents")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ProductSearchDocument {
+  @Id
+  @Column(name = "product_id")
+  private Long productId;
+
+  @Column(columnDefinition = "tsvector", nullable = false, insertable = false, updatable = false)
+  private String document;
+
+  @Column(name = "updated_at", nullable = false, insertable = false, updatable = false)
+  private LocalDateTime updatedAt;
+}
@@ -14,19 +14,14 @@ import lombok.Setter;
 
 // Entity đại diện cho tag của sản phẩm Many-to-Many với Product thông qua product_tag_map
 @Entity
-@Table(
-    name = "product_tags",
-    indexes = {
-      @Index(name = "idx_product_tags_name", columnList = "name"),
-      @Index(name = "idx_product_tags_slug", columnList = "slug")
-    })
+@Table(name = "product_tags")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class ProductTag {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @Column(nullable = false, unique = true, length = 100)
@@ -19,7 +19,6 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
@@ -35,21 +34,7 @@ import lombok.Setter;
 
 // Entity đại diện cho khuyến mãi (Promotion)
 @Entity
-@Table(
-    name = "promotions",
-    indexes = {
-      @Index(name = "idx_promotions_name", columnList = "name"),
-      @Index(name = "idx_promotions_type", columnList = "type"),
-      @Index(name = "idx_promotions_scope", columnList = "scope"),
-      @Index(name = "idx_promotions_is_active", columnList = "is_active"),
-      @Index(name = "idx_promotions_valid_from", columnList = "valid_from"),
-      @Index(name = "idx_promotions_valid_until", columnList = "valid_until"),
-      @Index(name = "idx_promotions_category_id", columnList = "category_id"),
-      // Composite index for active promotions lookup
-      @Index(
-          name = "idx_promotions_active_lookup",
-          columnList = "is_active, valid_from, valid_until, scope")
-    })
+@Table(name = "promotions")
 @SQLDelete(sql = "UPDATE promotions SET deleted_at = NOW() WHERE id = ?")
 @SQLRestriction("deleted_at IS NULL")
 @Getter
@@ -0,0 +1,64 @@
+package iuh.fit.se.entity;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.hibernate.annotations.ColumnDefault;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+// Bộ đếm đánh giá đã duyệt của sản phẩm (số đánh giá theo từng mức sao và tổng số sao). Chỉ được
+// ghi bằng UPDATE cộng dồn trong ProductRepository.adjustRating, entity không ghi đè các cột này.
+@Embeddable
+@Getter
+@NoArgsConstructor
+public class RatingSummary {
+  public static final RatingSummary EMPTY = new RatingSummary();
+
+  @ColumnDefault("0")
+  @Column(name = "rating_count_1", nullable = false, updatable = false)
+  private long count1;
+
+  @ColumnDefault("0")
+  @Column(name = "rating_count_2", nullable = false, updatable = false)
+  private long count2;
+
+  @ColumnDefault("0")
+  @Column(name = "rating_count_3", nullable = false, updatable = false)
+  private long count3;
+
+  @ColumnDefault("0")
+  @Column(name = "rating_count_4", nullable = false, updatable = false)
+  private long count4;
+
+  @ColumnDefault("0")
+  @Column(name = "rating_count_5", nullable = false, updatable = false)
+  private long count5;
+
+  @ColumnDefault("0")
+  @Column(name = "rating_sum", nullable = false, updatable = false)
+  private long ratingSum;
+
+  public long getReviewCount() {
+    return count1 + count2 + count3 + count4 + count5;
+  }
+
+  public double getAverageRating() {
+    long count = getReviewCount();
+    return count > 0 ? (double) ratingSum / count : 0.0;
+  }
+
+  // rating (1-5) -> số đánh giá, đủ 5 mức
+  public Map<Integer, Long> getDistribution() {
+    Map<Integer, Long> distribution = new LinkedHashMap<>();
+    distribution.put(1, count1);
+    distribution.put(2, count2);
+    distribution.put(3, count3);
+    distribution.put(4, count4);
+    distribution.put(5, count5);
+    return distribution;
+  }
+}
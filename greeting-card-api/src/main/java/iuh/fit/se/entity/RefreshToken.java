@@ -12,20 +12,14 @@ import lombok.Setter;
 
 // Entity đại diện cho refresh token Lưu trữ refresh token trong database để quản lý session
 @Entity
-@Table(
-    name = "refresh_tokens",
-    indexes = {
-      @Index(name = "idx_refresh_tokens_user_id", columnList = "user_id"),
-      @Index(name = "idx_refresh_tokens_token", columnList = "token"),
-      @Index(name = "idx_refresh_tokens_expires_at", columnList = "expires_at")
-    })
+@Table(name = "refresh_tokens")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class RefreshToken {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -9,13 +9,7 @@ import lombok.Setter;
 
 // Entity đại diện cho giao dịch nhập/xuất kho
 @Entity
-@Table(
-    name = "stock_transactions",
-    indexes = {
-      @Index(name = "idx_stock_transactions_product_id", columnList = "product_id"),
-      @Index(name = "idx_stock_transactions_type", columnList = "type"),
-      @Index(name = "idx_stock_transactions_created_at", columnList = "created_at")
-    })
+@Table(name = "stock_transactions")
 @Getter
 @Setter
 @NoArgsConstructor
@@ -14,7 +14,6 @@ import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
-import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
 import jakarta.persistence.Table;
@@ -26,13 +25,7 @@ import lombok.Setter;
 
 // Entity đại diện cho người dùng trong hệ thống
 @Entity
-@Table(
-    name = "users",
-    indexes = {
-      @Index(name = "idx_users_email", columnList = "email"),
-      @Index(name = "idx_users_deleted_at", columnList = "deleted_at"),
-      @Index(name = "idx_users_role", columnList = "role")
-    })
+@Table(name = "users")
 @SQLDelete(sql = "UPDATE users SET deleted_at = NOW() WHERE id = ?")
 @SQLRestriction("deleted_at IS NULL")
 @Getter
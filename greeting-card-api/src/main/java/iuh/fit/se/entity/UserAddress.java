@@ -6,7 +6,6 @@ import org.hibernate.annotations.SQLRestriction;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
-import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -17,12 +16,7 @@ import lombok.Setter;
 
 // Entity đại diện cho địa chỉ giao hàng của người dùng Một user có thể có nhiều địa chỉ, nhưng chỉ
 @Entity
-@Table(
-    name = "user_addresses",
-    indexes = {
-      @Index(name = "idx_user_addresses_user_id", columnList = "user_id"),
-      @Index(name = "idx_user_addresses_is_default", columnList = "is_default")
-    })
+@Table(name = "user_addresses")
 @SQLDelete(sql = "UPDATE user_addresses SET deleted_at = NOW() WHERE id = ?")
 @SQLRestriction("deleted_at IS NULL")
 @Getter
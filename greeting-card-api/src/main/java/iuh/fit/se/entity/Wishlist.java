@@ -15,7 +15,6 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.OneToMany;
 import jakarta.persistence.OneToOne;
@@ -30,16 +29,14 @@ import lombok.Setter;
  * trong localStorage, chỉ sync lên DB khi login
  */
 @Entity
-@Table(
-    name = "wishlists",
-    indexes = {@Index(name = "idx_wishlists_user_id", columnList = "user_id")})
+@Table(name = "wishlists")
 @Getter
 @Setter
 @NoArgsConstructor
 @AllArgsConstructor
 public class Wishlist {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @OneToOne(fetch = FetchType.LAZY)
@@ -10,7 +10,6 @@ import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
-import jakarta.persistence.Index;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.ManyToOne;
 import jakarta.persistence.Table;
@@ -24,10 +23,6 @@ import lombok.Setter;
 @Entity
 @Table(
     name = "wishlist_items",
-    indexes = {
-      @Index(name = "idx_wishlist_items_wishlist_id", columnList = "wishlist_id"),
-      @Index(name = "idx_wishlist_items_product_id", columnList = "product_id")
-    },
     uniqueConstraints = @UniqueConstraint(columnNames = {"wishlist_id", "product_id"}))
 @Getter
 @Setter
@@ -35,7 +30,7 @@ import lombok.Setter;
 @AllArgsConstructor
 public class WishlistItem {
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE)
   private Long id;
 
   @ManyToOne(fetch = FetchType.LAZY)
@@ -0,0 +1,8 @@
+package iuh.fit.se.entity.enumeration;
+
+// Enum định nghĩa loại side effect được ghi vào outbox
+public enum OutboxEventType {
+  ORDER_CONFIRMATION_EMAIL, // Email xác nhận đơn hàng cho khách
+  ADMIN_NEW_ORDER_NOTIFICATION, // Thông báo đơn hàng mới cho admin
+  ORDER_STATUS_NOTIFICATION // Thông báo thay đổi trạng thái đơn hàng cho khách
+}
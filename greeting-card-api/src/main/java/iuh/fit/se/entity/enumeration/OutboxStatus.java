@@ -0,0 +1,9 @@
+package iuh.fit.se.entity.enumeration;
+
+// Enum định nghĩa trạng thái xử lý của outbox event
+public enum OutboxStatus {
+  PENDING, // Chờ xử lý (hoặc chờ retry)
+  PROCESSING, // Đang được một worker xử lý
+  DONE, // Đã xử lý xong
+  FAILED // Hết số lần retry
+}
@@ -0,0 +1,5 @@
+package iuh.fit.se.event;
+
+// Event phát ra khi user đặt hàng từ giỏ hàng nóng trong Redis, giỏ hàng được xóa sau khi đơn
+// hàng commit
+public record CartCheckedOutEvent(Long userId) {}
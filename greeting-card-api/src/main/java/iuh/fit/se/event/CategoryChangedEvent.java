@@ -0,0 +1,6 @@
+package iuh.fit.se.event;
+
+// Event phát ra khi danh mục được tạo / cập nhật / xóa (xử lý sau khi transaction commit).
+// categoryId
+// null khi nhiều danh mục thay đổi cùng lúc (seed / xóa dữ liệu)
+public record CategoryChangedEvent(Long categoryId) {}
@@ -0,0 +1,23 @@
+package iuh.fit.se.event;
+
+// Event phát ra khi giỏ hàng / wishlist của user thay đổi, để cập nhật cache cờ inCart /
+// inWishlist. productId == null nghĩa là nhiều sản phẩm thay đổi cùng lúc (clear, sync, checkout).
+public record MembershipChangedEvent(Long userId, Kind kind, Long productId, boolean member) {
+
+  public enum Kind {
+    CART,
+    WISHLIST
+  }
+
+  public static MembershipChangedEvent added(Kind kind, Long userId, Long productId) {
+    return new MembershipChangedEvent(userId, kind, productId, true);
+  }
+
+  public static MembershipChangedEvent removed(Kind kind, Long userId, Long productId) {
+    return new MembershipChangedEvent(userId, kind, productId, false);
+  }
+
+  public static MembershipChangedEvent reset(Kind kind, Long userId) {
+    return new MembershipChangedEvent(userId, kind, null, false);
+  }
+}
@@ -0,0 +1,4 @@
+package iuh.fit.se.event;
+
+// Phát ra khi một outbox event được ghi, để dispatch ngay sau khi transaction commit
+public record OutboxEventCreated(Long outboxEventId) {}
@@ -0,0 +1,9 @@
+package iuh.fit.se.event;
+
+// Phát ra khi payment PENDING được ghi, để gọi gateway sau khi transaction commit
+public record PaymentAcceptedEvent(
+    Long paymentId,
+    String transactionId,
+    String paymentMethodCode,
+    boolean simulateFailure,
+    String failureReason) {}
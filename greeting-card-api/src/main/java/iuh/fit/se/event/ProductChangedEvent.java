@@ -0,0 +1,16 @@
+package iuh.fit.se.event;
+
+import java.util.Set;
+
+// Event phát ra khi dữ liệu hiển thị của sản phẩm thay đổi (thông tin, ảnh, tag, danh mục, tồn
+// kho). productIds == null nghĩa là tất cả sản phẩm (vd. danh mục bị sửa).
+public record ProductChangedEvent(Set<Long> productIds) {
+
+  public static ProductChangedEvent of(Long productId) {
+    return new ProductChangedEvent(Set.of(productId));
+  }
+
+  public static ProductChangedEvent all() {
+    return new ProductChangedEvent(null);
+  }
+}
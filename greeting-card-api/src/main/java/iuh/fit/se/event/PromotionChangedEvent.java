@@ -0,0 +1,4 @@
+package iuh.fit.se.event;
+
+// Event phát ra khi promotion được tạo / cập nhật / xóa (xử lý sau khi transaction commit)
+public record PromotionChangedEvent(Long promotionId) {}
@@ -0,0 +1,4 @@
+package iuh.fit.se.event;
+
+// Phát ra khi quyền / trạng thái đăng nhập của user thay đổi (đổi role, xóa, logout all)
+public record UserPrincipalChangedEvent(Long userId) {}
@@ -57,6 +57,8 @@ public class ProductMapper {
                 .collect(Collectors.toList()))
         .tags(
             product.getTags().stream().map(this::toProductTagResponse).collect(Collectors.toSet()))
+        .averageRating(product.getRatingSummary().getAverageRating())
+        .reviewCount(product.getRatingSummary().getReviewCount())
         .createdAt(product.getCreatedAt())
         .updatedAt(product.getUpdatedAt())
         .inWishlist(inWishlist)
@@ -4,6 +4,7 @@ import java.util.Optional;
 import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -21,4 +22,73 @@ public interface CartItemRepository extends JpaRepository<CartItem, Long> {
   // Get all product IDs in user's cart (for batch checking)
   @Query("SELECT ci.product.id FROM CartItem ci WHERE ci.cart.user.id = :userId")
   Set<Long> findProductIdsByUserId(@Param("userId") Long userId);
+
+  // Ghi nhiều dòng giỏ hàng trong 1 câu lệnh: thêm mới hoặc ghi đè số lượng của dòng đã có (ON
+  // CONFLICT), không cần nạp trước các dòng đã có như saveAll. Id của dòng mới lấy từ default
+  // nextval('cart_items_seq') của cột.
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      value =
+          """
+          INSERT INTO cart_items (cart_id, product_id, quantity)
+          SELECT :cartId, r.product_id, r.quantity
+          FROM unnest(CAST(:productIds AS bigint[]), CAST(:quantities AS integer[]))
+               AS r(product_id, quantity)
+          ON CONFLICT (cart_id, product_id) DO UPDATE SET quantity = EXCLUDED.quantity
+          """,
+      nativeQuery = true)
+  int upsertItems(
+      @Param("cartId") Long cartId,
+      @Param("productIds") Long[] productIds,
+      @Param("quantities") Integer[] quantities);
+
+  // Xóa toàn bộ dòng trong giỏ hàng của user (sau khi đặt hàng)
+  @Modifying
+  @Query(
+      "DELETE FROM CartItem ci WHERE ci.cart.id IN (SELECT c.id FROM Cart c WHERE c.user.id = :userId)")
+  int deleteByUserId(@Param("userId") Long userId);
+
+  // Write-behind từ Redis: xóa các dòng của các giỏ hàng userIds không còn trong snapshot
+  // (lineUserIds[i], productIds[i])
+  @Modifying
+  @Query(
+      value =
+          """
+          DELETE FROM cart_items ci USING carts c
+          WHERE ci.cart_id = c.id
+            AND c.user_id = ANY(CAST(:userIds AS bigint[]))
+            AND NOT EXISTS (
+              SELECT 1
+              FROM unnest(CAST(:lineUserIds AS bigint[]), CAST(:productIds AS bigint[]))
+                   AS r(user_id, product_id)
+              WHERE r.user_id = c.user_id AND r.product_id = ci.product_id)
+          """,
+      nativeQuery = true)
+  int deleteLinesNotIn(
+      @Param("userIds") Long[] userIds,
+      @Param("lineUserIds") Long[] lineUserIds,
+      @Param("productIds") Long[] productIds);
+
+  // Write-behind từ Redis: ghi số lượng các dòng (lineUserIds[i], productIds[i], quantities[i]) của
+  // nhiều giỏ hàng trong 1 câu lệnh; bỏ qua sản phẩm không còn trong bảng products
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO cart_items (cart_id, product_id, quantity)
+          SELECT c.id, r.product_id, r.quantity
+          FROM unnest(
+                 CAST(:lineUserIds AS bigint[]),
+                 CAST(:productIds AS bigint[]),
+                 CAST(:quantities AS integer[])) AS r(user_id, product_id, quantity)
+          JOIN carts c ON c.user_id = r.user_id
+          WHERE EXISTS (SELECT 1 FROM products p WHERE p.id = r.product_id)
+          ON CONFLICT (cart_id, product_id) DO UPDATE SET quantity = EXCLUDED.quantity
+          WHERE cart_items.quantity <> EXCLUDED.quantity
+          """,
+      nativeQuery = true)
+  int upsertLines(
+      @Param("lineUserIds") Long[] lineUserIds,
+      @Param("productIds") Long[] productIds,
+      @Param("quantities") Integer[] quantities);
 }
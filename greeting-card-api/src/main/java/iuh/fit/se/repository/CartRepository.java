@@ -1,10 +1,13 @@
 package iuh.fit.se.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -25,25 +28,38 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
 
   boolean existsByUserId(Long userId);
 
-  // Admin: Get all carts with user info (pagination optimized)
+  // Admin: Trang ID các carts có ít nhất 1 item (phân trang trong DB, không fetch collection).
+  // Cart, user và items được nạp sau bằng findAllWithUserAndItemsByIdIn
   @Query(
-      value = "SELECT DISTINCT c FROM Cart c " + "JOIN FETCH c.user " + "JOIN FETCH c.items",
-      countQuery = "SELECT COUNT(DISTINCT c) FROM Cart c JOIN c.items")
-  Page<Cart> findAllWithUserAndItems(Pageable pageable);
+      value =
+          "SELECT c.id FROM Cart c " + "WHERE EXISTS (SELECT 1 FROM CartItem i WHERE i.cart = c)",
+      countQuery =
+          "SELECT COUNT(c) FROM Cart c "
+              + "WHERE EXISTS (SELECT 1 FROM CartItem i WHERE i.cart = c)")
+  Page<Long> findIdsWithItems(Pageable pageable);
 
   // Admin: Search carts by user email or name
   @Query(
       value =
-          "SELECT DISTINCT c FROM Cart c "
-              + "JOIN FETCH c.user u "
-              + "JOIN FETCH c.items "
-              + "WHERE LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) "
-              + "OR LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%'))",
+          "SELECT c.id FROM Cart c JOIN c.user u "
+              + "WHERE EXISTS (SELECT 1 FROM CartItem i WHERE i.cart = c) "
+              + "AND (LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) "
+              + "OR LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')))",
       countQuery =
-          "SELECT COUNT(DISTINCT c) FROM Cart c JOIN c.user u JOIN c.items "
-              + "WHERE LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) "
-              + "OR LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-  Page<Cart> searchCarts(@Param("keyword") String keyword, Pageable pageable);
+          "SELECT COUNT(c) FROM Cart c JOIN c.user u "
+              + "WHERE EXISTS (SELECT 1 FROM CartItem i WHERE i.cart = c) "
+              + "AND (LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) "
+              + "OR LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+  Page<Long> searchCartIds(@Param("keyword") String keyword, Pageable pageable);
+
+  // Nạp carts theo trang ID cùng user, items và product của item
+  @Query(
+      "SELECT DISTINCT c FROM Cart c "
+          + "JOIN FETCH c.user "
+          + "LEFT JOIN FETCH c.items i "
+          + "LEFT JOIN FETCH i.product "
+          + "WHERE c.id IN :ids")
+  List<Cart> findAllWithUserAndItemsByIdIn(@Param("ids") Collection<Long> ids);
 
   // Fetch cart by ID with items and product (images loaded via @BatchSize)
   @Query(
@@ -52,4 +68,38 @@ public interface CartRepository extends JpaRepository<Cart, Long> {
           + "LEFT JOIN FETCH ci.product "
           + "WHERE c.id = :cartId")
   Optional<Cart> findByIdWithItems(@Param("cartId") Long cartId);
+
+  // Tăng version giỏ hàng của user sau một thay đổi, trả về id giỏ hàng và version mới (rỗng nếu
+  // user chưa có giỏ hàng)
+  @Query(
+      value =
+          """
+          UPDATE carts SET version = version + 1, updated_at = NOW()
+          WHERE user_id = :userId
+          RETURNING id AS "id", version AS "version"
+          """,
+      nativeQuery = true)
+  Optional<CartVersionRow> incrementVersion(@Param("userId") Long userId);
+
+  // Write-behind từ Redis: tạo giỏ hàng cho user chưa có, ghi version (không lùi) và updated_at
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO carts (user_id, version, created_at, updated_at)
+          SELECT r.user_id, r.version, NOW(), NOW()
+          FROM unnest(CAST(:userIds AS bigint[]), CAST(:versions AS bigint[])) AS r(user_id, version)
+          WHERE EXISTS (SELECT 1 FROM users u WHERE u.id = r.user_id)
+          ON CONFLICT (user_id) DO UPDATE
+          SET version = GREATEST(carts.version, EXCLUDED.version), updated_at = NOW()
+          """,
+      nativeQuery = true)
+  int touchCarts(@Param("userIds") Long[] userIds, @Param("versions") Long[] versions);
+
+  // Một dòng của incrementVersion
+  interface CartVersionRow {
+    Long getId();
+
+    long getVersion();
+  }
 }
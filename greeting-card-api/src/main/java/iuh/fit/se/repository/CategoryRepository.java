@@ -1,5 +1,6 @@
 package iuh.fit.se.repository;
 
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
@@ -17,6 +18,10 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
   boolean existsBySlug(String slug);
 
+  // Toàn bộ danh mục kèm danh mục cha, dùng để dựng CategoryTreeService.Snapshot
+  @Query("SELECT c FROM Category c LEFT JOIN FETCH c.parent")
+  List<Category> findAllWithParent();
+
   @Query(
       value =
           """
@@ -3,6 +3,9 @@ package iuh.fit.se.repository;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import iuh.fit.se.entity.Coupon;
@@ -10,4 +13,12 @@ import iuh.fit.se.entity.Coupon;
 @Repository
 public interface CouponRepository extends JpaRepository<Coupon, Long> {
   Optional<Coupon> findByCode(String code);
+
+  // Tăng số lượt dùng nếu coupon chưa hết lượt, nguyên tử để checkout đồng thời không mất lượt hoặc
+  // vượt usageLimit. Trả về 0 nếu đã hết lượt
+  @Modifying
+  @Query(
+      "UPDATE Coupon c SET c.usedCount = c.usedCount + 1 "
+          + "WHERE c.id = :id AND (c.usageLimit IS NULL OR c.usedCount < c.usageLimit)")
+  int incrementUsedCount(@Param("id") Long id);
 }
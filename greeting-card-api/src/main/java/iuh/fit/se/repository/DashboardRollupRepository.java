@@ -0,0 +1,232 @@
+package iuh.fit.se.repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import iuh.fit.se.entity.DailyOrderStat;
+
+// Truy vấn các bảng rollup của dashboard (daily_order_stats, daily_product_sales,
+// daily_category_sales). Các delta được cộng dồn bằng upsert nên không cần đọc trước khi ghi.
+@Repository
+public interface DashboardRollupRepository
+    extends JpaRepository<DailyOrderStat, DailyOrderStat.Key> {
+
+  // ===== Cập nhật incremental =====
+
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO daily_order_stats (stat_date, status, order_count, revenue)
+          VALUES (:statDate, :status, :orderCount, :revenue)
+          ON CONFLICT (stat_date, status) DO UPDATE
+          SET order_count = daily_order_stats.order_count + EXCLUDED.order_count,
+              revenue = daily_order_stats.revenue + EXCLUDED.revenue
+          """,
+      nativeQuery = true)
+  void addOrderStats(
+      @Param("statDate") LocalDate statDate,
+      @Param("status") String status,
+      @Param("orderCount") long orderCount,
+      @Param("revenue") BigDecimal revenue);
+
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO daily_product_sales (stat_date, product_id, quantity, revenue)
+          VALUES (:statDate, :productId, :quantity, :revenue)
+          ON CONFLICT (stat_date, product_id) DO UPDATE
+          SET quantity = daily_product_sales.quantity + EXCLUDED.quantity,
+              revenue = daily_product_sales.revenue + EXCLUDED.revenue
+          """,
+      nativeQuery = true)
+  void addProductSales(
+      @Param("statDate") LocalDate statDate,
+      @Param("productId") Long productId,
+      @Param("quantity") long quantity,
+      @Param("revenue") BigDecimal revenue);
+
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO daily_category_sales (stat_date, category_id, order_count, revenue)
+          VALUES (:statDate, :categoryId, :orderCount, :revenue)
+          ON CONFLICT (stat_date, category_id) DO UPDATE
+          SET order_count = daily_category_sales.order_count + EXCLUDED.order_count,
+              revenue = daily_category_sales.revenue + EXCLUDED.revenue
+          """,
+      nativeQuery = true)
+  void addCategorySales(
+      @Param("statDate") LocalDate statDate,
+      @Param("categoryId") Long categoryId,
+      @Param("orderCount") long orderCount,
+      @Param("revenue") BigDecimal revenue);
+
+  // ===== Đối soát: tính lại khoảng ngày [from, to) từ bảng gốc =====
+
+  // Khóa advisory theo transaction để chỉ 1 node chạy đối soát tại một thời điểm
+  @Query(value = "SELECT pg_try_advisory_xact_lock(:key)", nativeQuery = true)
+  boolean tryAdvisoryLock(@Param("key") long key);
+
+  @Query(
+      value =
+          "SELECT EXISTS (SELECT 1 FROM orders) AND NOT EXISTS (SELECT 1 FROM daily_order_stats)",
+      nativeQuery = true)
+  boolean isEmptyWithOrders();
+
+  @Modifying
+  @Query(
+      value = "DELETE FROM daily_order_stats WHERE stat_date >= :fromDate AND stat_date < :toDate",
+      nativeQuery = true)
+  void deleteOrderStats(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO daily_order_stats (stat_date, status, order_count, revenue)
+          SELECT CAST(o.order_date AS date), o.status, COUNT(*), COALESCE(SUM(o.final_amount), 0)
+          FROM orders o
+          WHERE o.deleted_at IS NULL
+            AND o.order_date >= :fromDate AND o.order_date < :toDate
+          GROUP BY 1, 2
+          """,
+      nativeQuery = true)
+  void insertOrderStats(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM daily_product_sales WHERE stat_date >= :fromDate AND stat_date < :toDate",
+      nativeQuery = true)
+  void deleteProductSales(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO daily_product_sales (stat_date, product_id, quantity, revenue)
+          SELECT CAST(o.order_date AS date), oi.product_id, SUM(oi.quantity), SUM(oi.subtotal)
+          FROM orders o
+          JOIN order_items oi ON oi.order_id = o.id
+          WHERE o.deleted_at IS NULL AND o.status <> 'CANCELLED'
+            AND o.order_date >= :fromDate AND o.order_date < :toDate
+          GROUP BY 1, 2
+          """,
+      nativeQuery = true)
+  void insertProductSales(@Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+  @Modifying
+  @Query(
+      value =
+          "DELETE FROM daily_category_sales WHERE stat_date >= :fromDate AND stat_date < :toDate",
+      nativeQuery = true)
+  void deleteCategorySales(
+      @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO daily_category_sales (stat_date, category_id, order_count, revenue)
+          SELECT CAST(o.order_date AS date), oi.category_id, COUNT(DISTINCT o.id), SUM(oi.subtotal)
+          FROM orders o
+          JOIN order_items oi ON oi.order_id = o.id
+          WHERE o.deleted_at IS NULL AND o.status <> 'CANCELLED'
+            AND o.order_date >= :fromDate AND o.order_date < :toDate
+          GROUP BY 1, 2
+          """,
+      nativeQuery = true)
+  void insertCategorySales(
+      @Param("fromDate") LocalDate fromDate, @Param("toDate") LocalDate toDate);
+
+  // ===== Đọc cho dashboard =====
+
+  // Mỗi dòng: status, tổng số đơn, tổng doanh thu, số đơn hôm nay, doanh thu hôm nay
+  @Query(
+      value =
+          """
+          SELECT s.status,
+                 SUM(s.order_count),
+                 SUM(s.revenue),
+                 SUM(CASE WHEN s.stat_date = :today THEN s.order_count ELSE 0 END),
+                 SUM(CASE WHEN s.stat_date = :today THEN s.revenue ELSE 0 END)
+          FROM daily_order_stats s
+          GROUP BY s.status
+          """,
+      nativeQuery = true)
+  List<Object[]> sumOrderStatsByStatus(@Param("today") LocalDate today);
+
+  @Query(
+      value =
+          """
+          SELECT TO_CHAR(s.stat_date, :dateFormat) as period,
+                 COALESCE(SUM(s.revenue), 0) as revenue,
+                 COALESCE(SUM(s.order_count), 0) as orderCount
+          FROM daily_order_stats s
+          WHERE s.status <> 'CANCELLED'
+            AND s.stat_date >= :startDate
+          GROUP BY period
+          ORDER BY period
+          """,
+      nativeQuery = true)
+  List<Object[]> getRevenueSummaryByPeriod(
+      @Param("dateFormat") String dateFormat, @Param("startDate") LocalDate startDate);
+
+  @Query(
+      value =
+          """
+          SELECT p.id as productId,
+                 p.name as productName,
+                 p.slug as productSlug,
+                 (SELECT pi.image_url
+                  FROM product_images pi
+                  WHERE pi.product_id = p.id
+                  ORDER BY pi.is_primary DESC, pi.display_order ASC
+                  LIMIT 1) as productImage,
+                 s.total_sold as totalSold,
+                 s.total_revenue as totalRevenue
+          FROM (SELECT product_id, SUM(quantity) as total_sold, SUM(revenue) as total_revenue
+                FROM daily_product_sales
+                GROUP BY product_id) s
+          JOIN products p ON p.id = s.product_id
+          WHERE p.deleted_at IS NULL
+          ORDER BY s.total_sold DESC, p.id
+          """,
+      nativeQuery = true)
+  List<Object[]> findBestSellingProducts(Pageable pageable);
+
+  @Query(
+      value =
+          """
+          SELECT c.id as categoryId,
+                 c.name as categoryName,
+                 c.slug as categorySlug,
+                 s.revenue as revenue,
+                 s.order_count as orderCount,
+                 COALESCE(pc.product_count, 0) as productCount
+          FROM (SELECT category_id, SUM(revenue) as revenue, SUM(order_count) as order_count
+                FROM daily_category_sales
+                GROUP BY category_id) s
+          JOIN categories c ON c.id = s.category_id
+          LEFT JOIN (SELECT p.category_id, COUNT(DISTINCT ps.product_id) as product_count
+                     FROM daily_product_sales ps
+                     JOIN products p ON p.id = ps.product_id
+                     WHERE p.deleted_at IS NULL
+                     GROUP BY p.category_id) pc ON pc.category_id = c.id
+          WHERE c.deleted_at IS NULL AND s.revenue > 0
+          ORDER BY s.revenue DESC
+          """,
+      nativeQuery = true)
+  List<Object[]> getSalesByCategory();
+}
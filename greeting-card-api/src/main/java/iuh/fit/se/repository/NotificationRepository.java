@@ -1,5 +1,8 @@
 package iuh.fit.se.repository;
 
+import java.time.LocalDateTime;
+import java.util.List;
+
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -32,6 +35,21 @@ public interface NotificationRepository extends JpaRepository<Notification, Long
       @Param("type") NotificationType type,
       Pageable pageable);
 
+  // Keyset pagination (created_at, id) giảm dần, lấy các thông báo đứng sau cursor
+  @Query(
+      "SELECT n FROM Notification n WHERE n.user.id = :userId "
+          + "AND (:isRead IS NULL OR n.isRead = :isRead) "
+          + "AND (:type IS NULL OR n.type = :type) "
+          + "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) "
+          + "ORDER BY n.createdAt DESC, n.id DESC")
+  List<Notification> findUserPageAfter(
+      @Param("userId") Long userId,
+      @Param("isRead") Boolean isRead,
+      @Param("type") NotificationType type,
+      @Param("createdAt") LocalDateTime createdAt,
+      @Param("id") Long id,
+      Pageable pageable);
+
   Long countByUserIdAndIsReadFalse(Long userId);
 
   @Modifying
@@ -1,33 +1,61 @@
 package iuh.fit.se.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import iuh.fit.se.entity.Order;
 import iuh.fit.se.entity.enumeration.OrderStatus;
+import jakarta.persistence.LockModeType;
 
 @Repository
 public interface OrderRepository extends JpaRepository<Order, Long> {
+  // Doanh thu theo bucket thời gian cho báo cáo. Lọc bằng khoảng nửa mở [start, end) trên cột
+  // order_date gốc (theo giờ server) để dùng được idx_orders_order_date; bucket được tính theo múi
+  // giờ của báo cáo. Được RevenueReportQueryPlanTest kiểm tra bằng EXPLAIN.
+  String REVENUE_BUCKETS_QUERY =
+      """
+      SELECT date_trunc(:unit, timezone(:zone, timezone(:serverZone, o.order_date)))
+                 AS "bucketStart",
+             COUNT(*) AS "orderCount",
+             COALESCE(SUM(o.final_amount), 0) AS "revenue"
+      FROM orders o
+      WHERE o.order_date >= :start AND o.order_date < :end
+        AND o.status <> 'CANCELLED'
+        AND o.deleted_at IS NULL
+      GROUP BY 1
+      ORDER BY 1
+      """;
+
   boolean existsByUserId(Long userId);
 
-  // Lấy danh sách orders của một user cụ thể với eager fetch
+  // Đọc và khóa dòng order đến hết transaction (SELECT ... FOR UPDATE)
+  @Lock(LockModeType.PESSIMISTIC_WRITE)
+  @Query("SELECT o FROM Order o WHERE o.id = :id")
+  Optional<Order> findByIdForUpdate(@Param("id") Long id);
+
+  // Trang ID orders của một user (phân trang trong DB, không fetch collection). Orders và items
+  // được nạp sau bằng findAllWithItemsByIdIn
   @Query(
       value =
-          "SELECT DISTINCT o FROM Order o "
-              + "LEFT JOIN FETCH o.user "
-              + "LEFT JOIN FETCH o.paymentMethod "
-              + "LEFT JOIN FETCH o.orderItems "
+          "SELECT o.id FROM Order o "
               + "WHERE o.user.id = :userId AND o.deletedAt IS NULL "
-              + "ORDER BY o.orderDate DESC",
+              + "ORDER BY o.orderDate DESC, o.id DESC",
       countQuery = "SELECT COUNT(o) FROM Order o WHERE o.user.id = :userId AND o.deletedAt IS NULL")
-  Page<Order> findByUserIdOrderByOrderDateDesc(@Param("userId") Long userId, Pageable pageable);
+  Page<Long> findIdsByUserId(@Param("userId") Long userId, Pageable pageable);
+
+  @Query("SELECT DISTINCT o FROM Order o LEFT JOIN FETCH o.orderItems WHERE o.id IN :ids")
+  List<Order> findAllWithItemsByIdIn(@Param("ids") Collection<Long> ids);
 
   @Query(
       "SELECT o FROM Order o "
@@ -68,78 +96,75 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
               + "   OR LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')))")
   Page<Order> searchOrders(@Param("keyword") String keyword, Pageable pageable);
 
-  // Tìm order number gần nhất để generate order number mới
-  @Query("SELECT o.orderNumber FROM Order o ORDER BY o.createdAt DESC")
-  List<String> findLatestOrderNumber(Pageable pageable);
+  // Keyset pagination (order_date, id) giảm dần, lấy khóa của các đơn đứng sau cursor. Orders và
+  // items được nạp sau bằng findAllWithItemsByIdIn
+  @Query(
+      "SELECT o.id AS id, o.orderDate AS orderDate FROM Order o "
+          + "WHERE o.deletedAt IS NULL "
+          + "AND (:status IS NULL OR o.status = :status) "
+          + "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id)) "
+          + "ORDER BY o.orderDate DESC, o.id DESC")
+  List<OrderKeyRow> findPageAfter(
+      @Param("status") OrderStatus status,
+      @Param("orderDate") LocalDateTime orderDate,
+      @Param("id") Long id,
+      Pageable pageable);
 
-  // Dashboard: Get total revenue
-  @Query("SELECT COALESCE(SUM(o.finalAmount), 0) FROM Order o WHERE o.status != 'CANCELLED'")
-  java.math.BigDecimal getTotalRevenue();
+  @Query(
+      "SELECT o.id AS id, o.orderDate AS orderDate FROM Order o "
+          + "WHERE o.user.id = :userId AND o.deletedAt IS NULL "
+          + "AND (o.orderDate < :orderDate OR (o.orderDate = :orderDate AND o.id < :id)) "
+          + "ORDER BY o.orderDate DESC, o.id DESC")
+  List<OrderKeyRow> findUserPageAfter(
+      @Param("userId") Long userId,
+      @Param("orderDate") LocalDateTime orderDate,
+      @Param("id") Long id,
+      Pageable pageable);
+
+  // Số dòng ước lượng từ thống kê của planner (pg_class.reltuples), không quét bảng
+  @Query(
+      value = "SELECT GREATEST(reltuples, 0)::bigint FROM pg_class WHERE oid = 'orders'::regclass",
+      nativeQuery = true)
+  long estimateCount();
 
-  // Dashboard: Get revenue summary by period (PostgreSQL)
+  // Số thứ tự lớn nhất đã dùng cho một prefix order number (kể cả đơn đã xóa mềm), dùng để khởi tạo
+  // bộ đếm của OrderNumberAllocator
   @Query(
       value =
           """
-          SELECT TO_CHAR(o.order_date, :dateFormat) as period,
-                 COALESCE(SUM(o.final_amount), 0) as revenue,
-                 COUNT(o.id) as orderCount
-          FROM orders o
-          WHERE o.status != 'CANCELLED'
-            AND o.order_date >= :startDate
-          GROUP BY period
-          ORDER BY period
+          SELECT COALESCE(MAX(CAST(substring(order_number FROM length(:prefix) + 1) AS bigint)), 0)
+          FROM orders
+          WHERE order_number LIKE :prefix || '%'
+            AND substring(order_number FROM length(:prefix) + 1) ~ '^[0-9]+$'
           """,
       nativeQuery = true)
-  List<Object[]> getRevenueSummaryByPeriod(
-      @Param("dateFormat") String dateFormat, @Param("startDate") java.time.LocalDate startDate);
+  long findMaxOrderSequence(@Param("prefix") String prefix);
+
+  @Query(value = REVENUE_BUCKETS_QUERY, nativeQuery = true)
+  List<RevenueBucketRow> sumRevenueByBucket(
+      @Param("unit") String unit,
+      @Param("zone") String zone,
+      @Param("serverZone") String serverZone,
+      @Param("start") LocalDateTime start,
+      @Param("end") LocalDateTime end);
 
   // Dashboard: Get latest orders
   @Query("SELECT o FROM Order o " + "LEFT JOIN FETCH o.user " + "ORDER BY o.orderDate DESC")
   List<Order> findLatestOrders(Pageable pageable);
 
-  // Dashboard: Count orders by status
-  long countByStatus(OrderStatus status);
+  // Khóa keyset của một đơn hàng (findPageAfter, findUserPageAfter)
+  interface OrderKeyRow {
+    Long getId();
 
-  // Dashboard: Get all order status counts in one query (optimized)
-  @Query("SELECT o.status, COUNT(o) FROM Order o WHERE o.deletedAt IS NULL GROUP BY o.status")
-  List<Object[]> countOrdersByAllStatuses();
+    LocalDateTime getOrderDate();
+  }
 
-  // Dashboard: Get today's orders count
-  @Query(
-      value = "SELECT COUNT(*) FROM orders o WHERE o.order_date::date = CURRENT_DATE",
-      nativeQuery = true)
-  Long countTodayOrders();
-
-  // Dashboard: Get today's revenue
-  @Query(
-      value =
-          "SELECT COALESCE(SUM(o.final_amount), 0) FROM orders o WHERE o.order_date::date = CURRENT_DATE AND o.status != 'CANCELLED'",
-      nativeQuery = true)
-  java.math.BigDecimal getTodayRevenue();
+  // Một dòng của sumRevenueByBucket; bucketStart là giờ địa phương theo múi giờ của báo cáo
+  interface RevenueBucketRow {
+    LocalDateTime getBucketStart();
 
-  // Dashboard: Get average order value
-  @Query("SELECT COALESCE(AVG(o.finalAmount), 0) FROM Order o WHERE o.status != 'CANCELLED'")
-  java.math.BigDecimal getAverageOrderValue();
+    long getOrderCount();
 
-  // Dashboard: Get sales by category
-  @Query(
-      value =
-          """
-          SELECT c.id as categoryId,
-                 c.name as categoryName,
-                 c.slug as categorySlug,
-                 COALESCE(SUM(oi.subtotal), 0) as revenue,
-                 COUNT(DISTINCT o.id) as orderCount,
-                 COUNT(DISTINCT oi.product_id) as productCount
-          FROM categories c
-          LEFT JOIN products p ON c.id = p.category_id AND p.deleted_at IS NULL
-          LEFT JOIN order_items oi ON p.id = oi.product_id
-          LEFT JOIN orders o ON oi.order_id = o.id AND o.status != 'CANCELLED'
-          WHERE c.deleted_at IS NULL
-          GROUP BY c.id, c.name, c.slug
-          HAVING COALESCE(SUM(oi.subtotal), 0) > 0
-          ORDER BY revenue DESC
-          """,
-      nativeQuery = true)
-  List<Object[]> getSalesByCategory();
+    BigDecimal getRevenue();
+  }
 }
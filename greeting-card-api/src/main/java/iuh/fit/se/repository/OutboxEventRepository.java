@@ -0,0 +1,40 @@
+package iuh.fit.se.repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import iuh.fit.se.entity.OutboxEvent;
+import iuh.fit.se.entity.enumeration.OutboxStatus;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+  // Các event đến hạn xử lý: PENDING đã hết backoff, hoặc PROCESSING đã hết lease (worker chết)
+  @Query(
+      "SELECT e.id FROM OutboxEvent e "
+          + "WHERE e.status IN :statuses AND e.nextAttemptAt <= :now "
+          + "ORDER BY e.nextAttemptAt ASC")
+  List<Long> findDueIds(
+      @Param("statuses") Collection<OutboxStatus> statuses,
+      @Param("now") LocalDateTime now,
+      Pageable pageable);
+
+  // Nhận xử lý một event (chỉ một worker trên toàn cluster nhận được)
+  @Modifying
+  @Query(
+      "UPDATE OutboxEvent e SET e.status = :processing, e.nextAttemptAt = :leaseUntil "
+          + "WHERE e.id = :id AND e.status IN :statuses AND e.nextAttemptAt <= :now")
+  int claim(
+      @Param("id") Long id,
+      @Param("statuses") Collection<OutboxStatus> statuses,
+      @Param("processing") OutboxStatus processing,
+      @Param("now") LocalDateTime now,
+      @Param("leaseUntil") LocalDateTime leaseUntil);
+}
@@ -1,9 +1,11 @@
 package iuh.fit.se.repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,10 +21,42 @@ public interface PaymentRepository extends JpaRepository<Payment, Long> {
 
   List<Payment> findByStatus(PaymentStatus status);
 
+  List<Payment> findByStatusAndCreatedAtBefore(PaymentStatus status, LocalDateTime before);
+
   @Query("SELECT p FROM Payment p WHERE p.order.id = :orderId AND p.status = :status")
   List<Payment> findByOrderIdAndStatus(
       @Param("orderId") Long orderId, @Param("status") PaymentStatus status);
 
   @Query("SELECT p FROM Payment p WHERE p.order.user.id = :userId ORDER BY p.createdAt DESC")
   List<Payment> findByUserId(@Param("userId") Long userId);
+
+  // Hoàn tất payment còn PENDING. UPDATE có điều kiện nên khi kết quả từ gateway và lượt quét hết
+  // hạn đến cùng lúc chỉ một bên đổi được trạng thái. Trả về 0 nếu payment không còn PENDING
+  @Modifying
+  @Query(
+      """
+      UPDATE Payment p
+      SET p.status = iuh.fit.se.entity.enumeration.PaymentStatus.PAID,
+          p.gatewayResponse = :gatewayResponse, p.paidAt = :now, p.updatedAt = :now
+      WHERE p.id = :id AND p.status = iuh.fit.se.entity.enumeration.PaymentStatus.PENDING
+      """)
+  int markPaid(
+      @Param("id") Long id,
+      @Param("gatewayResponse") String gatewayResponse,
+      @Param("now") LocalDateTime now);
+
+  @Modifying
+  @Query(
+      """
+      UPDATE Payment p
+      SET p.status = iuh.fit.se.entity.enumeration.PaymentStatus.FAILED,
+          p.gatewayResponse = :gatewayResponse, p.failureReason = :failureReason,
+          p.failedAt = :now, p.updatedAt = :now
+      WHERE p.id = :id AND p.status = iuh.fit.se.entity.enumeration.PaymentStatus.PENDING
+      """)
+  int markFailed(
+      @Param("id") Long id,
+      @Param("gatewayResponse") String gatewayResponse,
+      @Param("failureReason") String failureReason,
+      @Param("now") LocalDateTime now);
 }
@@ -1,9 +1,53 @@
 package iuh.fit.se.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import iuh.fit.se.entity.ProductImage;
 
 @Repository
-public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {}
+public interface ProductImageRepository extends JpaRepository<ProductImage, Long> {
+  // Ảnh đại diện của mỗi sản phẩm (ảnh primary, không có thì ảnh đầu tiên theo displayOrder), đọc
+  // theo index idx_product_images_product_order
+  @Query(
+      value =
+          """
+          SELECT DISTINCT ON (pi.product_id) pi.*
+          FROM product_images pi
+          WHERE pi.product_id IN (:productIds)
+          ORDER BY pi.product_id, pi.is_primary DESC, pi.display_order ASC, pi.id ASC
+          """,
+      nativeQuery = true)
+  List<ProductImage> findPrimaryByProductIdIn(@Param("productIds") Collection<Long> productIds);
+
+  // Nhập hàng loạt: thay toàn bộ ảnh của các sản phẩm
+  @Modifying
+  @Query(
+      value = "DELETE FROM product_images WHERE product_id = ANY(CAST(:productIds AS bigint[]))",
+      nativeQuery = true)
+  void deleteByProductIds(@Param("productIds") Long[] productIds);
+
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO product_images (product_id, image_url, alt_text, is_primary, display_order,
+                                      created_at)
+          SELECT r.product_id, r.image_url, r.alt_text, r.display_order = 0, r.display_order, NOW()
+          FROM unnest(CAST(:productIds AS bigint[]), CAST(:imageUrls AS varchar[]),
+                      CAST(:altTexts AS varchar[]), CAST(:displayOrders AS integer[]))
+               AS r(product_id, image_url, alt_text, display_order)
+          """,
+      nativeQuery = true)
+  void insertImages(
+      @Param("productIds") Long[] productIds,
+      @Param("imageUrls") String[] imageUrls,
+      @Param("altTexts") String[] altTexts,
+      @Param("displayOrders") Integer[] displayOrders);
+}
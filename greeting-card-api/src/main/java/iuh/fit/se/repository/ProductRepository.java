@@ -1,19 +1,43 @@
 package iuh.fit.se.repository;
 
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import iuh.fit.se.entity.Product;
+import iuh.fit.se.entity.RatingSummary;
 
 @Repository
 public interface ProductRepository extends JpaRepository<Product, Long> {
+  // Keyset pagination (created_at, id) giảm dần. categoryIds rỗng nghĩa là mọi danh mục. Đọc theo
+  // idx_products_live_created / idx_products_live_category_created, được SoftDeleteIndexPlanTest
+  // kiểm tra bằng EXPLAIN.
+  String PAGE_AFTER_QUERY =
+      """
+      SELECT p.* FROM products p
+      WHERE p.deleted_at IS NULL
+      AND (cardinality(CAST(:categoryIds AS bigint[])) = 0
+          OR p.category_id = ANY(CAST(:categoryIds AS bigint[])))
+      AND (:isActive IS NULL OR p.is_active = :isActive)
+      AND (:isFeatured IS NULL OR p.is_featured = :isFeatured)
+      AND (:minPrice IS NULL OR p.price >= :minPrice)
+      AND (:maxPrice IS NULL OR p.price <= :maxPrice)
+      AND (:inStock IS NULL OR (:inStock = true AND p.stock > 0) OR (:inStock = false))
+      AND (p.created_at, p.id) < (:createdAt, :id)
+      ORDER BY p.created_at DESC, p.id DESC
+      LIMIT :limit
+      """;
+
   // Find product by slug with eager fetch of category
   @Query(
       "SELECT p FROM Product p LEFT JOIN FETCH p.category WHERE p.slug = :slug AND p.deletedAt IS NULL")
@@ -41,6 +65,10 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
           + "WHERE p.id = :id AND p.deletedAt IS NULL")
   Optional<Product> findByIdWithDetails(@Param("id") Long id);
 
+  // Nạp nhiều sản phẩm cùng tags trong 1 query (index search hàng loạt)
+  @Query("SELECT DISTINCT p FROM Product p LEFT JOIN FETCH p.tags WHERE p.id IN :ids")
+  List<Product> findAllWithTagsByIdIn(@Param("ids") Collection<Long> ids);
+
   boolean existsBySlug(String slug);
 
   boolean existsBySku(String sku);
@@ -57,11 +85,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             AND (:minPrice IS NULL OR p.price >= :minPrice)
             AND (:maxPrice IS NULL OR p.price <= :maxPrice)
             AND (:inStock IS NULL OR (:inStock = true AND p.stock > 0) OR (:inStock = false))
-            AND (:keywordPattern IS NULL
-                OR LOWER(p.name) LIKE LOWER(:keywordPattern)
-                OR (p.description IS NOT NULL AND LOWER(p.description) LIKE LOWER(:keywordPattern))
-                OR LOWER(p.sku) LIKE LOWER(:keywordPattern)
-            )
             ORDER BY p.created_at DESC
             """,
       countQuery =
@@ -75,11 +98,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             AND (:minPrice IS NULL OR p.price >= :minPrice)
             AND (:maxPrice IS NULL OR p.price <= :maxPrice)
             AND (:inStock IS NULL OR (:inStock = true AND p.stock > 0) OR (:inStock = false))
-            AND (:keywordPattern IS NULL
-                OR LOWER(p.name) LIKE LOWER(:keywordPattern)
-                OR (p.description IS NOT NULL AND LOWER(p.description) LIKE LOWER(:keywordPattern))
-                OR LOWER(p.sku) LIKE LOWER(:keywordPattern)
-            )
             """,
       nativeQuery = true)
   Page<Product> searchProducts(
@@ -89,7 +107,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
       @Param("minPrice") Double minPrice,
       @Param("maxPrice") Double maxPrice,
       @Param("inStock") Boolean inStock,
-      @Param("keywordPattern") String keywordPattern,
       Pageable pageable);
 
   // Search products with multiple category IDs
@@ -105,11 +122,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             AND (:minPrice IS NULL OR p.price >= :minPrice)
             AND (:maxPrice IS NULL OR p.price <= :maxPrice)
             AND (:inStock IS NULL OR (:inStock = true AND p.stock > 0) OR (:inStock = false))
-            AND (:keywordPattern IS NULL
-                OR LOWER(p.name) LIKE LOWER(:keywordPattern)
-                OR (p.description IS NOT NULL AND LOWER(p.description) LIKE LOWER(:keywordPattern))
-                OR LOWER(p.sku) LIKE LOWER(:keywordPattern)
-            )
             ORDER BY p.created_at DESC
             """,
       countQuery =
@@ -123,11 +135,6 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
             AND (:minPrice IS NULL OR p.price >= :minPrice)
             AND (:maxPrice IS NULL OR p.price <= :maxPrice)
             AND (:inStock IS NULL OR (:inStock = true AND p.stock > 0) OR (:inStock = false))
-            AND (:keywordPattern IS NULL
-                OR LOWER(p.name) LIKE LOWER(:keywordPattern)
-                OR (p.description IS NOT NULL AND LOWER(p.description) LIKE LOWER(:keywordPattern))
-                OR LOWER(p.sku) LIKE LOWER(:keywordPattern)
-            )
             """,
       nativeQuery = true)
   Page<Product> searchProductsByCategories(
@@ -137,45 +144,113 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
       @Param("minPrice") Double minPrice,
       @Param("maxPrice") Double maxPrice,
       @Param("inStock") Boolean inStock,
-      @Param("keywordPattern") String keywordPattern,
+      Pageable pageable);
+
+  @Query(value = PAGE_AFTER_QUERY, nativeQuery = true)
+  List<Product> findPageAfter(
+      @Param("categoryIds") Long[] categoryIds,
+      @Param("isActive") Boolean isActive,
+      @Param("isFeatured") Boolean isFeatured,
+      @Param("minPrice") Double minPrice,
+      @Param("maxPrice") Double maxPrice,
+      @Param("inStock") Boolean inStock,
+      @Param("createdAt") LocalDateTime createdAt,
+      @Param("id") Long id,
+      @Param("limit") int limit);
+
+  // Full-text search (product_search_documents, GIN index), xếp theo độ liên quan. tsQuery được
+  // tạo bởi SearchTextUtil.toPrefixQuery
+  @Query(
+      value =
+          """
+            SELECT p.* FROM products p
+            JOIN product_search_documents d ON d.product_id = p.id
+            WHERE p.deleted_at IS NULL
+            AND d.document @@ to_tsquery('simple', :tsQuery)
+            AND (:categoryId IS NULL OR p.category_id = :categoryId)
+            AND (:isActive IS NULL OR p.is_active = :isActive)
+            AND (:isFeatured IS NULL OR p.is_featured = :isFeatured)
+            AND (:minPrice IS NULL OR p.price >= :minPrice)
+            AND (:maxPrice IS NULL OR p.price <= :maxPrice)
+            AND (:inStock IS NULL OR (:inStock = true AND p.stock > 0) OR (:inStock = false))
+            ORDER BY ts_rank_cd(d.document, to_tsquery('simple', :tsQuery)) DESC, p.created_at DESC
+            """,
+      countQuery =
+          """
+            SELECT COUNT(*) FROM products p
+            JOIN product_search_documents d ON d.product_id = p.id
+            WHERE p.deleted_at IS NULL
+            AND d.document @@ to_tsquery('simple', :tsQuery)
+            AND (:categoryId IS NULL OR p.category_id = :categoryId)
+            AND (:isActive IS NULL OR p.is_active = :isActive)
+            AND (:isFeatured IS NULL OR p.is_featured = :isFeatured)
+            AND (:minPrice IS NULL OR p.price >= :minPrice)
+            AND (:maxPrice IS NULL OR p.price <= :maxPrice)
+            AND (:inStock IS NULL OR (:inStock = true AND p.stock > 0) OR (:inStock = false))
+            """,
+      nativeQuery = true)
+  Page<Product> fullTextSearchProducts(
+      @Param("tsQuery") String tsQuery,
+      @Param("categoryId") Long categoryId,
+      @Param("isActive") Boolean isActive,
+      @Param("isFeatured") Boolean isFeatured,
+      @Param("minPrice") Double minPrice,
+      @Param("maxPrice") Double maxPrice,
+      @Param("inStock") Boolean inStock,
+      Pageable pageable);
+
+  // Full-text search trong nhiều category
+  @Query(
+      value =
+          """
+            SELECT p.* FROM products p
+            JOIN product_search_documents d ON d.product_id = p.id
+            WHERE p.deleted_at IS NULL
+            AND d.document @@ to_tsquery('simple', :tsQuery)
+            AND p.category_id IN (:categoryIds)
+            AND (:isActive IS NULL OR p.is_active = :isActive)
+            AND (:isFeatured IS NULL OR p.is_featured = :isFeatured)
+            AND (:minPrice IS NULL OR p.price >= :minPrice)
+            AND (:maxPrice IS NULL OR p.price <= :maxPrice)
+            AND (:inStock IS NULL OR (:inStock = true AND p.stock > 0) OR (:inStock = false))
+            ORDER BY ts_rank_cd(d.document, to_tsquery('simple', :tsQuery)) DESC, p.created_at DESC
+            """,
+      countQuery =
+          """
+            SELECT COUNT(*) FROM products p
+            JOIN product_search_documents d ON d.product_id = p.id
+            WHERE p.deleted_at IS NULL
+            AND d.document @@ to_tsquery('simple', :tsQuery)
+            AND p.category_id IN (:categoryIds)
+            AND (:isActive IS NULL OR p.is_active = :isActive)
+            AND (:isFeatured IS NULL OR p.is_featured = :isFeatured)
+            AND (:minPrice IS NULL OR p.price >= :minPrice)
+            AND (:maxPrice IS NULL OR p.price <= :maxPrice)
+            AND (:inStock IS NULL OR (:inStock = true AND p.stock > 0) OR (:inStock = false))
+            """,
+      nativeQuery = true)
+  Page<Product> fullTextSearchProductsByCategories(
+      @Param("tsQuery") String tsQuery,
+      @Param("categoryIds") List<Long> categoryIds,
+      @Param("isActive") Boolean isActive,
+      @Param("isFeatured") Boolean isFeatured,
+      @Param("minPrice") Double minPrice,
+      @Param("maxPrice") Double maxPrice,
+      @Param("inStock") Boolean inStock,
       Pageable pageable);
 
   // Dashboard: Get low stock products
+  // Ảnh được nạp theo lô (@BatchSize), không fetch join: fetch collection kèm phân trang bị chặn
+  // bởi fail_on_pagination_over_collection_fetch
   @Query(
       "SELECT p FROM Product p "
           + "LEFT JOIN FETCH p.category "
-          + "LEFT JOIN FETCH p.images "
           + "WHERE p.deletedAt IS NULL "
           + "  AND p.stock <= :threshold "
           + "  AND p.isActive = true "
           + "ORDER BY p.stock ASC")
   List<Product> findLowStockProducts(@Param("threshold") Integer threshold, Pageable pageable);
 
-  // Dashboard: Get best-selling products
-  @Query(
-      value =
-          """
-          SELECT p.id as productId,
-                 p.name as productName,
-                 p.slug as productSlug,
-                 (SELECT pi.image_url
-                  FROM product_images pi
-                  WHERE pi.product_id = p.id
-                  ORDER BY pi.is_primary DESC, pi.display_order ASC
-                  LIMIT 1) as productImage,
-                 COALESCE(SUM(oi.quantity), 0) as totalSold,
-                 COALESCE(SUM(oi.subtotal), 0) as totalRevenue
-          FROM products p
-          LEFT JOIN order_items oi ON p.id = oi.product_id
-          LEFT JOIN orders o ON oi.order_id = o.id
-          WHERE p.deleted_at IS NULL
-            AND (o.status IS NULL OR o.status != 'CANCELLED')
-          GROUP BY p.id, p.name, p.slug
-          ORDER BY totalSold DESC
-          """,
-      nativeQuery = true)
-  List<Object[]> findBestSellingProducts(Pageable pageable);
-
   // Dashboard: Count active products
   long countByIsActiveAndDeletedAtIsNull(Boolean isActive);
 
@@ -184,7 +259,219 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
       "SELECT COUNT(p) FROM Product p WHERE p.deletedAt IS NULL AND p.isActive = true AND p.stock <= :threshold")
   Long countLowStockProducts(@Param("threshold") Integer threshold);
 
+  // Bộ đếm đánh giá đã duyệt của sản phẩm (1 dòng, không aggregate product_reviews)
+  @Query("SELECT p.ratingSummary FROM Product p WHERE p.id = :productId")
+  Optional<RatingSummary> findRatingSummaryById(@Param("productId") Long productId);
+
+  // Cộng (delta = 1) hoặc trừ (delta = -1) một đánh giá đã duyệt vào bộ đếm của sản phẩm, cập
+  // nhật nguyên tử trên dòng products
+  @Modifying
+  @Query(
+      value =
+          """
+          UPDATE products
+          SET
+              rating_count_1 = rating_count_1 + CASE WHEN :rating = 1 THEN :delta ELSE 0 END,
+              rating_count_2 = rating_count_2 + CASE WHEN :rating = 2 THEN :delta ELSE 0 END,
+              rating_count_3 = rating_count_3 + CASE WHEN :rating = 3 THEN :delta ELSE 0 END,
+              rating_count_4 = rating_count_4 + CASE WHEN :rating = 4 THEN :delta ELSE 0 END,
+              rating_count_5 = rating_count_5 + CASE WHEN :rating = 5 THEN :delta ELSE 0 END,
+              rating_sum = rating_sum + :rating * :delta
+          WHERE id = :productId
+          """,
+      nativeQuery = true)
+  void adjustRating(
+      @Param("productId") Long productId, @Param("rating") int rating, @Param("delta") int delta);
+
+  // Tính lại bộ đếm từ product_reviews, chỉ ghi các sản phẩm bị lệch. Trả về số sản phẩm đã sửa
+  @Modifying
+  @Query(
+      value =
+          """
+          UPDATE products p
+          SET
+              rating_count_1 = s.count_1,
+              rating_count_2 = s.count_2,
+              rating_count_3 = s.count_3,
+              rating_count_4 = s.count_4,
+              rating_count_5 = s.count_5,
+              rating_sum = s.rating_sum
+          FROM (SELECT pr.id,
+                     COUNT(r.id) FILTER (WHERE r.rating = 1) AS count_1,
+                     COUNT(r.id) FILTER (WHERE r.rating = 2) AS count_2,
+                     COUNT(r.id) FILTER (WHERE r.rating = 3) AS count_3,
+                     COUNT(r.id) FILTER (WHERE r.rating = 4) AS count_4,
+                     COUNT(r.id) FILTER (WHERE r.rating = 5) AS count_5,
+                     COALESCE(SUM(r.rating), 0) AS rating_sum
+                FROM products pr
+                LEFT JOIN product_reviews r ON r.product_id = pr.id AND r.is_approved = true
+                GROUP BY pr.id) s
+          WHERE p.id = s.id
+            AND (p.rating_count_1, p.rating_count_2, p.rating_count_3, p.rating_count_4, p.rating_count_5, p.rating_sum)
+                IS DISTINCT FROM (s.count_1, s.count_2, s.count_3, s.count_4, s.count_5, s.rating_sum)
+          """,
+      nativeQuery = true)
+  int recalculateRatings();
+
   // Check if product has any order items (for deletion safeguard)
   @Query("SELECT COUNT(oi) > 0 FROM OrderItem oi WHERE oi.product.id = :productId")
   boolean hasOrderItems(@Param("productId") Long productId);
+
+  // Trừ tồn kho có điều kiện cho nhiều sản phẩm trong 1 câu lệnh (stock >= quantity), không đọc
+  // rồi ghi lại entity. Trả về id các sản phẩm đã trừ thành công; mỗi productId chỉ nên xuất hiện 1
+  // lần.
+  @Query(
+      value =
+          """
+          UPDATE products p SET stock = p.stock - r.quantity
+          FROM unnest(CAST(:productIds AS bigint[]), CAST(:quantities AS integer[]))
+               AS r(product_id, quantity)
+          WHERE p.id = r.product_id
+            AND p.deleted_at IS NULL
+            AND p.stock >= r.quantity
+          RETURNING p.id
+          """,
+      nativeQuery = true)
+  List<Long> decrementStock(
+      @Param("productIds") Long[] productIds, @Param("quantities") Integer[] quantities);
+
+  // Cộng/trừ tồn kho của 1 sản phẩm, không cho phép tồn kho âm. Trả về tồn kho sau khi cập nhật,
+  // rỗng nếu không đủ tồn kho hoặc sản phẩm không tồn tại.
+  @Query(
+      value =
+          """
+          UPDATE products SET stock = stock + :delta
+          WHERE id = :id AND deleted_at IS NULL AND stock + :delta >= 0
+          RETURNING stock
+          """,
+      nativeQuery = true)
+  Optional<Integer> adjustStock(@Param("id") Long id, @Param("delta") int delta);
+
+  // Nhập hàng loạt: upsert cả batch theo sku trong 1 câu lệnh. Sản phẩm đã xóa mềm cùng sku được
+  // khôi phục, slug chỉ được ghi khi tạo mới, description null thì giữ nguyên. Mỗi sku chỉ được
+  // xuất hiện 1 lần trong batch.
+  @Query(
+      value =
+          """
+          WITH input AS (
+              SELECT * FROM unnest(
+                  CAST(:skus AS varchar[]), CAST(:names AS varchar[]), CAST(:slugs AS varchar[]),
+                  CAST(:descriptions AS text[]), CAST(:categoryIds AS bigint[]),
+                  CAST(:prices AS numeric[]), CAST(:stocks AS integer[]),
+                  CAST(:active AS boolean[]), CAST(:featured AS boolean[]))
+              AS r(sku, name, slug, description, category_id, price, stock, is_active, is_featured)
+          ),
+          previous AS (
+              SELECT p.sku, p.stock FROM products p JOIN input r ON r.sku = p.sku
+          )
+          INSERT INTO products (sku, name, slug, description, category_id, price, stock,
+                                is_active, is_featured, created_at, updated_at)
+          SELECT sku, name, slug, description, category_id, price, stock,
+                 is_active, is_featured, NOW(), NOW()
+          FROM input
+          ON CONFLICT (sku) DO UPDATE SET
+              name = EXCLUDED.name,
+              description = COALESCE(EXCLUDED.description, products.description),
+              category_id = EXCLUDED.category_id,
+              price = EXCLUDED.price,
+              stock = EXCLUDED.stock,
+              is_active = EXCLUDED.is_active,
+              is_featured = EXCLUDED.is_featured,
+              deleted_at = NULL,
+              updated_at = NOW()
+          RETURNING id AS "id", sku AS "sku", (xmax = 0) AS "inserted",
+                    (SELECT pr.stock FROM previous pr WHERE pr.sku = products.sku) AS "stockBefore",
+                    stock AS "stock"
+          """,
+      nativeQuery = true)
+  List<UpsertedProductRow> upsertBySku(
+      @Param("skus") String[] skus,
+      @Param("names") String[] names,
+      @Param("slugs") String[] slugs,
+      @Param("descriptions") String[] descriptions,
+      @Param("categoryIds") Long[] categoryIds,
+      @Param("prices") BigDecimal[] prices,
+      @Param("stocks") Integer[] stocks,
+      @Param("active") Boolean[] active,
+      @Param("featured") Boolean[] featured);
+
+  // Thay toàn bộ tag của các sản phẩm bằng các cặp (productId, tagId)
+  @Modifying
+  @Query(
+      value = "DELETE FROM product_tag_map WHERE product_id = ANY(CAST(:productIds AS bigint[]))",
+      nativeQuery = true)
+  void deleteTagLinks(@Param("productIds") Long[] productIds);
+
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO product_tag_map (product_id, tag_id)
+          SELECT * FROM unnest(CAST(:productIds AS bigint[]), CAST(:tagIds AS bigint[]))
+          ON CONFLICT DO NOTHING
+          """,
+      nativeQuery = true)
+  void insertTagLinks(@Param("productIds") Long[] productIds, @Param("tagIds") Long[] tagIds);
+
+  // Xuất sản phẩm theo keyset (id > afterId), ảnh (ảnh đại diện trước) và tag nối bằng '|'
+  @Query(
+      value =
+          """
+          SELECT p.id AS "id", p.sku AS "sku", p.name AS "name", p.slug AS "slug",
+                 c.slug AS "category", p.price AS "price", p.stock AS "stock",
+                 p.is_active AS "isActive", p.is_featured AS "isFeatured",
+                 p.description AS "description",
+                 (SELECT string_agg(pi.image_url, '|'
+                                    ORDER BY pi.is_primary DESC, pi.display_order, pi.id)
+                  FROM product_images pi WHERE pi.product_id = p.id) AS "images",
+                 (SELECT string_agg(t.name, '|' ORDER BY t.name)
+                  FROM product_tag_map m JOIN product_tags t ON t.id = m.tag_id
+                  WHERE m.product_id = p.id) AS "tags"
+          FROM products p
+          JOIN categories c ON c.id = p.category_id
+          WHERE p.deleted_at IS NULL AND p.id > :afterId
+          ORDER BY p.id
+          LIMIT :limit
+          """,
+      nativeQuery = true)
+  List<ProductExportRow> findExportPage(@Param("afterId") long afterId, @Param("limit") int limit);
+
+  // Một dòng của upsertBySku; stockBefore null nếu sản phẩm được tạo mới
+  interface UpsertedProductRow {
+    Long getId();
+
+    String getSku();
+
+    boolean getInserted();
+
+    Integer getStockBefore();
+
+    Integer getStock();
+  }
+
+  interface ProductExportRow {
+    Long getId();
+
+    String getSku();
+
+    String getName();
+
+    String getSlug();
+
+    String getCategory();
+
+    BigDecimal getPrice();
+
+    Integer getStock();
+
+    Boolean getIsActive();
+
+    Boolean getIsFeatured();
+
+    String getDescription();
+
+    String getImages();
+
+    String getTags();
+  }
 }
@@ -74,22 +74,22 @@ public interface ProductReviewRepository extends JpaRepository<ProductReview, Lo
       @Param("search") String search,
       Pageable pageable);
 
-  // Stats queries
-  @Query(
-      "SELECT AVG(r.rating) FROM ProductReview r WHERE r.product.id = :productId AND r.isApproved = true")
-  Double getAverageRatingByProductId(@Param("productId") Long productId);
-
-  @Query(
-      "SELECT COUNT(r) FROM ProductReview r WHERE r.product.id = :productId AND r.isApproved = true")
-  Long countApprovedByProductId(@Param("productId") Long productId);
-
-  @Query(
-      "SELECT r.rating, COUNT(r) FROM ProductReview r WHERE r.product.id = :productId AND r.isApproved = true GROUP BY r.rating")
-  List<Object[]> getRatingDistributionByProductId(@Param("productId") Long productId);
-
   // Check if user has purchased product
   @Query(
       "SELECT CASE WHEN COUNT(oi) > 0 THEN true ELSE false END FROM OrderItem oi "
           + "WHERE oi.product.id = :productId AND oi.order.user.id = :userId AND oi.order.status = 'DELIVERED'")
   boolean hasUserPurchasedProduct(@Param("productId") Long productId, @Param("userId") Long userId);
+
+  // Đổi trạng thái duyệt nếu khác trạng thái hiện tại, trả về số sao của đánh giá (rỗng nếu trạng
+  // thái không đổi). UPDATE có điều kiện khóa dòng đến hết transaction nên khi duyệt / sửa / xóa
+  // chạy đồng thời, mỗi lần đổi trạng thái chỉ được một thao tác ghi nhận
+  @Query(
+      value =
+          """
+          UPDATE product_reviews SET is_approved = :approved, updated_at = NOW()
+          WHERE id = :id AND is_approved <> :approved
+          RETURNING rating
+          """,
+      nativeQuery = true)
+  Optional<Integer> updateApproved(@Param("id") Long id, @Param("approved") boolean approved);
 }
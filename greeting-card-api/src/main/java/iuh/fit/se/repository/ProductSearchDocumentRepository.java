@@ -0,0 +1,85 @@
+package iuh.fit.se.repository;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import iuh.fit.se.entity.ProductSearchDocument;
+
+@Repository
+public interface ProductSearchDocumentRepository
+    extends JpaRepository<ProductSearchDocument, Long> {
+  // Ghi (hoặc thay thế) tài liệu search của 1 sản phẩm. Các tham số đã được chuẩn hóa (bỏ dấu)
+  @Modifying
+  @Query(
+      value =
+          """
+            INSERT INTO product_search_documents (product_id, document, updated_at)
+            VALUES (
+                :productId,
+                setweight(to_tsvector('simple', :name), 'A')
+                    || setweight(to_tsvector('simple', :sku), 'A')
+                    || setweight(to_tsvector('simple', :tags), 'B')
+                    || setweight(to_tsvector('simple', :description), 'C'),
+                NOW())
+            ON CONFLICT (product_id)
+            DO UPDATE SET document = EXCLUDED.document, updated_at = EXCLUDED.updated_at
+            """,
+      nativeQuery = true)
+  void upsert(
+      @Param("productId") Long productId,
+      @Param("name") String name,
+      @Param("sku") String sku,
+      @Param("tags") String tags,
+      @Param("description") String description);
+
+  // Như upsert cho nhiều sản phẩm trong 1 câu lệnh
+  @Modifying
+  @Query(
+      value =
+          """
+            INSERT INTO product_search_documents (product_id, document, updated_at)
+            SELECT r.product_id,
+                   setweight(to_tsvector('simple', r.name), 'A')
+                       || setweight(to_tsvector('simple', r.sku), 'A')
+                       || setweight(to_tsvector('simple', r.tags), 'B')
+                       || setweight(to_tsvector('simple', r.description), 'C'),
+                   NOW()
+            FROM unnest(CAST(:productIds AS bigint[]), CAST(:names AS text[]),
+                        CAST(:skus AS text[]), CAST(:tags AS text[]),
+                        CAST(:descriptions AS text[]))
+                 AS r(product_id, name, sku, tags, description)
+            ON CONFLICT (product_id)
+            DO UPDATE SET document = EXCLUDED.document, updated_at = EXCLUDED.updated_at
+            """,
+      nativeQuery = true)
+  void upsertAll(
+      @Param("productIds") Long[] productIds,
+      @Param("names") String[] names,
+      @Param("skus") String[] skus,
+      @Param("tags") String[] tags,
+      @Param("descriptions") String[] descriptions);
+
+  @Modifying
+  @Query(
+      value = "DELETE FROM product_search_documents WHERE product_id = :productId",
+      nativeQuery = true)
+  void deleteByProductId(@Param("productId") Long productId);
+
+  // Sản phẩm chưa có tài liệu search (dữ liệu cũ, dữ liệu seed)
+  @Query(
+      value =
+          """
+            SELECT p.id FROM products p
+            LEFT JOIN product_search_documents d ON d.product_id = p.id
+            WHERE p.deleted_at IS NULL AND d.product_id IS NULL
+            ORDER BY p.id
+            LIMIT :limit
+            """,
+      nativeQuery = true)
+  List<Long> findProductIdsWithoutDocument(@Param("limit") int limit);
+}
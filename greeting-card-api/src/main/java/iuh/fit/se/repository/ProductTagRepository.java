@@ -1,9 +1,33 @@
 package iuh.fit.se.repository;
 
+import java.util.Collection;
+import java.util.List;
+
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import iuh.fit.se.entity.ProductTag;
 
 @Repository
-public interface ProductTagRepository extends JpaRepository<ProductTag, Long> {}
+public interface ProductTagRepository extends JpaRepository<ProductTag, Long> {
+  List<ProductTag> findByNameIn(Collection<String> names);
+
+  // Tạo các tag chưa có theo tên (nhập hàng loạt); slug đã bị tag khác dùng thì để null
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO product_tags (name, slug, created_at)
+          SELECT r.name,
+                 CASE WHEN EXISTS (SELECT 1 FROM product_tags t WHERE t.slug = r.slug)
+                      THEN NULL ELSE r.slug END,
+                 NOW()
+          FROM unnest(CAST(:names AS varchar[]), CAST(:slugs AS varchar[])) AS r(name, slug)
+          ON CONFLICT DO NOTHING
+          """,
+      nativeQuery = true)
+  void insertMissing(@Param("names") String[] names, @Param("slugs") String[] slugs);
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.lang.NonNull;
@@ -21,6 +22,14 @@ public interface PromotionRepository extends JpaRepository<Promotion, Long> {
   @NonNull
   Optional<Promotion> findById(@NonNull Long id);
 
+  // Tăng số lượt dùng nếu promotion chưa hết lượt, nguyên tử để checkout đồng thời không mất lượt
+  // hoặc vượt usageLimit. Trả về 0 nếu đã hết lượt
+  @Modifying
+  @Query(
+      "UPDATE Promotion p SET p.usedCount = p.usedCount + 1 "
+          + "WHERE p.id = :id AND (p.usageLimit IS NULL OR p.usedCount < p.usageLimit)")
+  int incrementUsedCount(@Param("id") Long id);
+
   // Tìm các promotion đang active và hợp lệ
   @Query(
       "SELECT p FROM Promotion p WHERE p.isActive = true "
@@ -70,4 +79,20 @@ public interface PromotionRepository extends JpaRepository<Promotion, Long> {
           + "AND p.validFrom <= :now AND p.validUntil > :now "
           + "AND (p.usageLimit IS NULL OR p.usedCount < p.usageLimit)")
   List<Promotion> findActivePromotionsForOrder(@Param("now") LocalDateTime now);
+
+  // Promotion index: nạp các promotion đang bật (chưa hết hạn) cùng products và category
+  @Query(
+      "SELECT DISTINCT p FROM Promotion p "
+          + "LEFT JOIN FETCH p.products "
+          + "LEFT JOIN FETCH p.category "
+          + "WHERE p.isActive = true AND p.validUntil > :now")
+  List<Promotion> findAllActiveWithTargets(@Param("now") LocalDateTime now);
+
+  // Promotion index: nạp lại một promotion sau khi thay đổi
+  @Query(
+      "SELECT p FROM Promotion p "
+          + "LEFT JOIN FETCH p.products "
+          + "LEFT JOIN FETCH p.category "
+          + "WHERE p.id = :id")
+  Optional<Promotion> findByIdWithTargets(@Param("id") Long id);
 }
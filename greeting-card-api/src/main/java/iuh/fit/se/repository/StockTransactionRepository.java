@@ -5,6 +5,7 @@ import java.util.List;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -69,4 +70,25 @@ public interface StockTransactionRepository extends JpaRepository<StockTransacti
           + "WHERE st.product.id = :productId "
           + "ORDER BY st.createdAt DESC")
   List<StockTransaction> findByProductIdWithUser(@Param("productId") Long productId);
+
+  // Ghi giao dịch điều chỉnh tồn kho cho nhiều sản phẩm trong 1 câu lệnh (nhập hàng loạt)
+  @Modifying
+  @Query(
+      value =
+          """
+          INSERT INTO stock_transactions (product_id, type, quantity, stock_before, stock_after,
+                                          notes, created_by, created_at, updated_at)
+          SELECT r.product_id, 'ADJUSTMENT', r.stock_after - r.stock_before, r.stock_before,
+                 r.stock_after, :notes, :createdBy, NOW(), NOW()
+          FROM unnest(CAST(:productIds AS bigint[]), CAST(:stockBefore AS integer[]),
+                      CAST(:stockAfter AS integer[]))
+               AS r(product_id, stock_before, stock_after)
+          """,
+      nativeQuery = true)
+  void insertAdjustments(
+      @Param("productIds") Long[] productIds,
+      @Param("stockBefore") Integer[] stockBefore,
+      @Param("stockAfter") Integer[] stockAfter,
+      @Param("notes") String notes,
+      @Param("createdBy") Long createdBy);
 }
@@ -4,6 +4,7 @@ import java.util.Optional;
 import java.util.Set;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,4 +20,17 @@ public interface WishlistItemRepository extends JpaRepository<WishlistItem, Long
   // Get all product IDs in user's wishlist (for batch checking)
   @Query("SELECT wi.product.id FROM WishlistItem wi WHERE wi.wishlist.user.id = :userId")
   Set<Long> findProductIdsByUserId(@Param("userId") Long userId);
+
+  // Thêm nhiều sản phẩm vào wishlist trong 1 câu lệnh, bỏ qua sản phẩm đã có
+  @Modifying(flushAutomatically = true, clearAutomatically = true)
+  @Query(
+      value =
+          """
+          INSERT INTO wishlist_items (wishlist_id, product_id, added_at)
+          SELECT :wishlistId, r.product_id, NOW()
+          FROM unnest(CAST(:productIds AS bigint[])) AS r(product_id)
+          ON CONFLICT (wishlist_id, product_id) DO NOTHING
+          """,
+      nativeQuery = true)
+  int insertItems(@Param("wishlistId") Long wishlistId, @Param("productIds") Long[] productIds);
 }
@@ -1,5 +1,7 @@
 package iuh.fit.se.repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
@@ -25,25 +27,39 @@ public interface WishlistRepository extends JpaRepository<Wishlist, Long> {
 
   boolean existsByUserId(Long userId);
 
-  // Admin: Get all wishlists with user info (pagination optimized)
+  // Admin: Trang ID các wishlists có ít nhất 1 item (phân trang trong DB, không fetch collection).
+  // Wishlist, user và items được nạp sau bằng findAllWithUserAndItemsByIdIn
   @Query(
-      value = "SELECT DISTINCT w FROM Wishlist w " + "JOIN FETCH w.user " + "JOIN FETCH w.items",
-      countQuery = "SELECT COUNT(DISTINCT w) FROM Wishlist w JOIN w.items")
-  Page<Wishlist> findAllWithUserAndItems(Pageable pageable);
+      value =
+          "SELECT w.id FROM Wishlist w "
+              + "WHERE EXISTS (SELECT 1 FROM WishlistItem i WHERE i.wishlist = w)",
+      countQuery =
+          "SELECT COUNT(w) FROM Wishlist w "
+              + "WHERE EXISTS (SELECT 1 FROM WishlistItem i WHERE i.wishlist = w)")
+  Page<Long> findIdsWithItems(Pageable pageable);
 
   // Admin: Search wishlists by user email or name
   @Query(
       value =
-          "SELECT DISTINCT w FROM Wishlist w "
-              + "JOIN FETCH w.user u "
-              + "JOIN FETCH w.items "
-              + "WHERE LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) "
-              + "OR LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%'))",
+          "SELECT w.id FROM Wishlist w JOIN w.user u "
+              + "WHERE EXISTS (SELECT 1 FROM WishlistItem i WHERE i.wishlist = w) "
+              + "AND (LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) "
+              + "OR LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')))",
       countQuery =
-          "SELECT COUNT(DISTINCT w) FROM Wishlist w JOIN w.user u JOIN w.items "
-              + "WHERE LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) "
-              + "OR LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%'))")
-  Page<Wishlist> searchWishlists(@Param("keyword") String keyword, Pageable pageable);
+          "SELECT COUNT(w) FROM Wishlist w JOIN w.user u "
+              + "WHERE EXISTS (SELECT 1 FROM WishlistItem i WHERE i.wishlist = w) "
+              + "AND (LOWER(u.email) LIKE LOWER(CONCAT('%', :keyword, '%')) "
+              + "OR LOWER(u.fullName) LIKE LOWER(CONCAT('%', :keyword, '%')))")
+  Page<Long> searchWishlistIds(@Param("keyword") String keyword, Pageable pageable);
+
+  // Nạp wishlists theo trang ID cùng user, items và product của item
+  @Query(
+      "SELECT DISTINCT w FROM Wishlist w "
+          + "JOIN FETCH w.user "
+          + "LEFT JOIN FETCH w.items i "
+          + "LEFT JOIN FETCH i.product "
+          + "WHERE w.id IN :ids")
+  List<Wishlist> findAllWithUserAndItemsByIdIn(@Param("ids") Collection<Long> ids);
 
   // Fetch wishlist by ID with items and product (images loaded via @BatchSize)
   @Query(
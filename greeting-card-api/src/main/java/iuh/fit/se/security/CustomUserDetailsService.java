@@ -5,7 +5,6 @@ import java.util.Collections;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -23,7 +22,7 @@ public class CustomUserDetailsService implements UserDetailsService {
 
   @Override
   @Transactional(readOnly = true)
-  public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
+  public UserPrincipal loadUserByUsername(String email) throws UsernameNotFoundException {
     User user =
         userRepository
             .findByEmailAndEmailVerifiedTrue(email)
@@ -31,8 +30,8 @@ public class CustomUserDetailsService implements UserDetailsService {
                 () ->
                     new UsernameNotFoundException("Không tìm thấy người dùng với email: " + email));
 
-    return new org.springframework.security.core.userdetails.User(
-        user.getEmail(), user.getPassword(), getAuthorities(user));
+    return new UserPrincipal(
+        user.getId(), user.getEmail(), user.getPassword(), getAuthorities(user));
   }
 
   private Collection<? extends GrantedAuthority> getAuthorities(User user) {
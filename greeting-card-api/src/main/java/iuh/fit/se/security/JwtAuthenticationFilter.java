@@ -5,13 +5,14 @@ import java.io.IOException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import iuh.fit.se.service.TokenRedisService;
 import iuh.fit.se.util.JwtTokenProvider;
+import iuh.fit.se.util.ParsedToken;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,7 +24,7 @@ import lombok.RequiredArgsConstructor;
 @RequiredArgsConstructor
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
   private final JwtTokenProvider jwtTokenProvider;
-  private final UserDetailsService userDetailsService;
+  private final PrincipalCache principalCache;
   private final TokenRedisService tokenRedisService;
 
   @Override
@@ -33,24 +34,23 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
       throws ServletException, IOException {
     String token = resolveToken(request);
 
-    // Kiểm tra token có trong blacklist không
-    if (token != null && tokenRedisService.isAccessTokenBlacklisted(token)) {
-      filterChain.doFilter(request, response);
-      return;
-    }
-
-    if (token != null && jwtTokenProvider.validateToken(token)) {
-      String email = jwtTokenProvider.getUsernameFromToken(token);
-
-      if (email != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-        UserDetails userDetails = userDetailsService.loadUserByUsername(email);
+    if (token != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+      // Verify chữ ký + hạn dùng một lần (jjwt từ chối token hết hạn khi parse)
+      ParsedToken parsed = jwtTokenProvider.parseAccessToken(token);
 
-        if (jwtTokenProvider.validateToken(token, userDetails)) {
+      // Kiểm tra token có trong blacklist không
+      if (parsed != null
+          && parsed.subject() != null
+          && !tokenRedisService.isAccessTokenBlacklisted(token)) {
+        try {
+          UserDetails userDetails = principalCache.get(parsed.subject());
           UsernamePasswordAuthenticationToken authentication =
               new UsernamePasswordAuthenticationToken(
                   userDetails, null, userDetails.getAuthorities());
           authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
           SecurityContextHolder.getContext().setAuthentication(authentication);
+        } catch (UsernameNotFoundException e) {
+          // User đã bị xóa hoặc chưa xác thực email: bỏ qua, request tiếp tục như chưa đăng nhập
         }
       }
     }
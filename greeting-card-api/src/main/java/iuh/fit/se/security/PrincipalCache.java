@@ -0,0 +1,60 @@
+package iuh.fit.se.security;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import iuh.fit.se.event.UserPrincipalChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Cache principal theo email cho JwtAuthenticationFilter, TTL ngắn. Bị xóa sau khi commit khi user
+// đổi role, bị xóa hoặc logout all; các node khác nhận thay đổi trong tối đa một TTL.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PrincipalCache {
+  private final CustomUserDetailsService userDetailsService;
+
+  @Value("${app.security.principal-cache.ttl:60000}")
+  private long ttlMillis;
+
+  @Value("${app.security.principal-cache.max-size:10000}")
+  private int maxSize;
+
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+  // Lấy principal từ cache, load từ DB nếu chưa có hoặc đã hết hạn
+  public UserPrincipal get(String email) {
+    long now = System.currentTimeMillis();
+    Entry entry = entries.get(email);
+    if (entry != null && entry.expiresAt() > now) {
+      return entry.principal();
+    }
+
+    UserPrincipal principal = userDetailsService.loadUserByUsername(email);
+    if (entries.size() >= maxSize) {
+      entries.values().removeIf(existing -> existing.expiresAt() <= now);
+      if (entries.size() >= maxSize) {
+        entries.clear();
+      }
+    }
+    entries.put(email, new Entry(principal, now + ttlMillis));
+    return principal;
+  }
+
+  public void evictUser(Long userId) {
+    entries.values().removeIf(entry -> entry.principal().getId().equals(userId));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onUserPrincipalChanged(UserPrincipalChangedEvent event) {
+    evictUser(event.userId());
+    log.debug("Evicted cached principal of user {}", event.userId());
+  }
+
+  private record Entry(UserPrincipal principal, long expiresAt) {}
+}
@@ -32,6 +32,11 @@ public class SecurityUtils {
       throw new AuthenticationException("Chưa đăng nhập", ErrorCode.UNAUTHORIZED);
     }
 
+    // Principal từ JwtAuthenticationFilter đã có sẵn userId
+    if (authentication.getPrincipal() instanceof UserPrincipal principal) {
+      return principal.getId();
+    }
+
     String email = authentication.getName();
 
     User user =
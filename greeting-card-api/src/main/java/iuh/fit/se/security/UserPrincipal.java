@@ -0,0 +1,20 @@
+package iuh.fit.se.security;
+
+import java.util.Collection;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+
+import lombok.Getter;
+
+// Principal của Spring Security kèm userId, để không phải query lại user theo email
+@Getter
+public class UserPrincipal extends User {
+  private final Long id;
+
+  public UserPrincipal(
+      Long id, String email, String password, Collection<? extends GrantedAuthority> authorities) {
+    super(email, password, authorities);
+    this.id = id;
+  }
+}
@@ -0,0 +1,151 @@
+package iuh.fit.se.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import iuh.fit.se.util.BloomFilter;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Near cache của access token blacklist trên mỗi node: bloom filter chứa mọi token bị blacklist
+// (không có false negative) và một tập chính xác các token vừa bị blacklist kèm hạn dùng.
+// Được đồng bộ qua Redis pub/sub và nạp lại định kỳ từ Redis (SCAN) để bù các message bị mất.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class AccessTokenBlacklistCache implements MessageListener {
+  private static final char SEPARATOR = '|';
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+  @Value("${jwt.redis.access-token-blacklist-prefix:blacklist:access_token:}")
+  private String accessTokenBlacklistPrefix;
+
+  @Value("${app.security.blacklist-cache.channel:blacklist:access_token:events}")
+  private String channel;
+
+  @Value("${app.security.blacklist-cache.expected-insertions:100000}")
+  private int expectedInsertions;
+
+  @Value("${app.security.blacklist-cache.false-positive-rate:0.001}")
+  private double falsePositiveRate;
+
+  @Value("${app.security.blacklist-cache.max-exact-size:10000}")
+  private int maxExactSize;
+
+  private volatile BloomFilter filter;
+  // token -> thời điểm hết hạn (epoch millis)
+  private final Map<String, Long> recent = new ConcurrentHashMap<>();
+
+  @PostConstruct
+  void init() {
+    filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+    redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(channel));
+  }
+
+  // Kết quả tra cứu cục bộ
+  public enum Lookup {
+    BLACKLISTED, // Chắc chắn bị blacklist
+    NOT_BLACKLISTED, // Chắc chắn không bị blacklist
+    MAYBE // Bloom filter báo có, cần hỏi Redis
+  }
+
+  public Lookup lookup(String token) {
+    Long expiresAt = recent.get(token);
+    if (expiresAt != null && expiresAt > System.currentTimeMillis()) {
+      return Lookup.BLACKLISTED;
+    }
+    return filter.mightContain(token) ? Lookup.MAYBE : Lookup.NOT_BLACKLISTED;
+  }
+
+  // Ghi nhận token bị blacklist trên node này và phát cho các node khác
+  public void add(String token, long expiresAtMillis) {
+    addLocal(token, expiresAtMillis);
+    try {
+      stringRedisTemplate.convertAndSend(channel, expiresAtMillis + "" + SEPARATOR + token);
+    } catch (Exception e) {
+      // Node khác sẽ nhận token khi nạp lại định kỳ
+      log.warn("Failed to publish blacklisted token: {}", e.getMessage());
+    }
+  }
+
+  // Bỏ token khỏi tập chính xác; bloom filter sẽ quên token ở lần nạp lại tiếp theo
+  public void remove(String token) {
+    recent.remove(token);
+  }
+
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    int separator = body.indexOf(SEPARATOR);
+    if (separator <= 0) {
+      return;
+    }
+    try {
+      addLocal(body.substring(separator + 1), Long.parseLong(body.substring(0, separator)));
+    } catch (NumberFormatException e) {
+      log.warn("Ignoring malformed blacklist message");
+    }
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  public void onApplicationReady() {
+    reload();
+  }
+
+  // Nạp lại bloom filter từ Redis: bỏ các token đã hết hạn và bù message pub/sub bị mất
+  @Scheduled(
+      initialDelayString = "${app.security.blacklist-cache.reload-interval:300000}",
+      fixedDelayString = "${app.security.blacklist-cache.reload-interval:300000}")
+  public void reload() {
+    BloomFilter rebuilt = new BloomFilter(expectedInsertions, falsePositiveRate);
+    int count = 0;
+    ScanOptions options =
+        ScanOptions.scanOptions().match(accessTokenBlacklistPrefix + "*").count(1000).build();
+    try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+      while (cursor.hasNext()) {
+        rebuilt.add(cursor.next().substring(accessTokenBlacklistPrefix.length()));
+        count++;
+      }
+    } catch (Exception e) {
+      // Redis không khả dụng: giữ filter hiện tại
+      log.warn("Failed to reload access token blacklist cache: {}", e.getMessage());
+      return;
+    }
+
+    filter = rebuilt;
+
+    // Token nhận qua pub/sub trong lúc SCAN / trước khi thay filter
+    long now = System.currentTimeMillis();
+    recent.values().removeIf(expiresAt -> expiresAt <= now);
+    recent.keySet().forEach(rebuilt::add);
+    log.debug("Reloaded access token blacklist cache with {} tokens", count);
+  }
+
+  private void addLocal(String token, long expiresAtMillis) {
+    filter.add(token);
+    if (recent.size() >= maxExactSize) {
+      long now = System.currentTimeMillis();
+      recent.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+    if (recent.size() < maxExactSize) {
+      recent.put(token, expiresAtMillis);
+    }
+  }
+}
@@ -1,5 +1,6 @@
 package iuh.fit.se.service;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -12,6 +13,7 @@ import iuh.fit.se.dto.request.admin.AdminUpdateUserRequest;
 import iuh.fit.se.dto.response.UserResponse;
 import iuh.fit.se.entity.User;
 import iuh.fit.se.entity.enumeration.UserRole;
+import iuh.fit.se.event.UserPrincipalChangedEvent;
 import iuh.fit.se.exception.ResourceNotFoundException;
 import iuh.fit.se.exception.ValidationException;
 import iuh.fit.se.mapper.UserMapper;
@@ -26,6 +28,7 @@ public class AdminUserService {
   private final UserRepository userRepository;
   private final OrderRepository orderRepository;
   private final UserMapper userMapper;
+  private final ApplicationEventPublisher eventPublisher;
 
   // Lấy danh sách user với filter vai trò + từ khóa
   @Transactional(readOnly = true)
@@ -94,6 +97,7 @@ public class AdminUserService {
     user.setRole(request.getRole());
 
     User updated = userRepository.save(user);
+    eventPublisher.publishEvent(new UserPrincipalChangedEvent(updated.getId()));
     return userMapper.toResponse(updated);
   }
 
@@ -118,6 +122,7 @@ public class AdminUserService {
     }
 
     userRepository.delete(user); // Soft delete theo @SQLDelete
+    eventPublisher.publishEvent(new UserPrincipalChangedEvent(user.getId()));
   }
 
   private boolean isCurrentUser(String email) {
@@ -5,6 +5,7 @@ import java.time.ZoneId;
 import java.util.Date;
 import java.util.UUID;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -18,6 +19,7 @@ import iuh.fit.se.dto.response.UserResponse;
 import iuh.fit.se.entity.RefreshToken;
 import iuh.fit.se.entity.User;
 import iuh.fit.se.entity.enumeration.UserRole;
+import iuh.fit.se.event.UserPrincipalChangedEvent;
 import iuh.fit.se.exception.AuthenticationException;
 import iuh.fit.se.exception.ErrorCode;
 import iuh.fit.se.exception.ResourceNotFoundException;
@@ -27,6 +29,7 @@ import iuh.fit.se.repository.RefreshTokenRepository;
 import iuh.fit.se.repository.UserRepository;
 import iuh.fit.se.util.CookieUtil;
 import iuh.fit.se.util.JwtTokenProvider;
+import iuh.fit.se.util.ParsedToken;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
@@ -42,6 +45,7 @@ public class AuthService {
   private final CookieUtil cookieUtil;
   private final TokenRedisService tokenRedisService;
   private final UserMapper userMapper;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Transactional
   public UserResponse register(RegisterRequest request) {
@@ -195,9 +199,10 @@ public class AuthService {
 
     // Blacklist old access token if valid
     String oldAccessToken = extractAccessToken(request);
-    if (oldAccessToken != null && jwtTokenProvider.validateToken(oldAccessToken)) {
-      Date accessTokenExpiration = jwtTokenProvider.getExpirationDateFromToken(oldAccessToken);
-      tokenRedisService.blacklistAccessToken(oldAccessToken, accessTokenExpiration.toInstant());
+    ParsedToken oldParsed =
+        oldAccessToken != null ? jwtTokenProvider.tryParse(oldAccessToken) : null;
+    if (oldParsed != null) {
+      tokenRedisService.blacklistAccessToken(oldAccessToken, oldParsed.expiration().toInstant());
     }
 
     String newAccessToken =
@@ -230,9 +235,9 @@ public class AuthService {
   public void logout(HttpServletRequest request, HttpServletResponse response) {
     // Blacklist access token
     String accessToken = extractAccessToken(request);
-    if (accessToken != null && jwtTokenProvider.validateToken(accessToken)) {
-      Date expiration = jwtTokenProvider.getExpirationDateFromToken(accessToken);
-      tokenRedisService.blacklistAccessToken(accessToken, expiration.toInstant());
+    ParsedToken parsed = accessToken != null ? jwtTokenProvider.tryParse(accessToken) : null;
+    if (parsed != null) {
+      tokenRedisService.blacklistAccessToken(accessToken, parsed.expiration().toInstant());
     }
 
     String refreshTokenString = cookieUtil.getRefreshTokenFromCookie(request);
@@ -255,6 +260,7 @@ public class AuthService {
 
     refreshTokenRepository.deleteByUserId(userId);
     cookieUtil.deleteRefreshTokenCookie(response);
+    eventPublisher.publishEvent(new UserPrincipalChangedEvent(userId));
   }
 
   private String extractAccessToken(HttpServletRequest request) {
@@ -1,31 +1,50 @@
 package iuh.fit.se.service;
 
 import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
 
 import iuh.fit.se.dto.request.AddToCartRequest;
 import iuh.fit.se.dto.request.SyncCartRequest;
 import iuh.fit.se.dto.request.UpdateCartItemRequest;
+import iuh.fit.se.dto.response.CartDeltaResponse;
 import iuh.fit.se.dto.response.CartItemResponse;
 import iuh.fit.se.dto.response.CartResponse;
 import iuh.fit.se.dto.response.CartSummaryResponse;
-import iuh.fit.se.dto.response.ProductImageResponse;
-import iuh.fit.se.dto.response.ProductResponse;
+import iuh.fit.se.dto.response.CartSyncResponse;
+import iuh.fit.se.dto.response.SyncItemResult;
 import iuh.fit.se.entity.Cart;
 import iuh.fit.se.entity.CartItem;
 import iuh.fit.se.entity.Product;
 import iuh.fit.se.entity.User;
+import iuh.fit.se.event.CartCheckedOutEvent;
+import iuh.fit.se.event.MembershipChangedEvent;
+import iuh.fit.se.event.MembershipChangedEvent.Kind;
 import iuh.fit.se.exception.ResourceNotFoundException;
 import iuh.fit.se.repository.CartItemRepository;
 import iuh.fit.se.repository.CartRepository;
+import iuh.fit.se.repository.ProductImageRepository;
 import iuh.fit.se.repository.ProductRepository;
 import iuh.fit.se.repository.UserRepository;
+import iuh.fit.se.service.HotCartStore.HotCart;
+import iuh.fit.se.service.HotCartStore.Line;
+import iuh.fit.se.util.PaginationUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -37,12 +56,18 @@ public class CartService {
   private final CartRepository cartRepository;
   private final CartItemRepository cartItemRepository;
   private final ProductRepository productRepository;
+  private final ProductImageRepository productImageRepository;
   private final UserRepository userRepository;
+  private final HotCartStore hotCartStore;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ManagedEntityRefresher managedEntityRefresher;
 
   @Transactional
   public CartResponse getCart(Long userId) {
-    Cart cart = getOrCreateCart(userId);
-    return mapToCartResponse(cart);
+    if (hotCartStore.isEnabled()) {
+      return toCartResponse(stateOf(hotCart(userId)));
+    }
+    return toCartResponse(stateOf(getOrCreateCart(userId)));
   }
 
   // Lấy giỏ hàng theo cartId (dùng cho admin)
@@ -52,11 +77,178 @@ public class CartService {
         cartRepository
             .findByIdWithItems(cartId)
             .orElseThrow(() -> new ResourceNotFoundException("Giỏ hàng không tồn tại"));
-    return mapToCartResponse(cart);
+    return toCartResponse(stateOf(cart));
+  }
+
+  // Thêm sản phẩm vào giỏ hàng: trả về dòng thay đổi và tổng mới, kèm cả giỏ hàng nếu withCart
+  public CartDeltaResponse addToCart(Long userId, AddToCartRequest request, boolean withCart) {
+    CartState cart = add(userId, request);
+    publishMembership(MembershipChangedEvent.added(Kind.CART, userId, request.getProductId()));
+    return toDeltaResponse(cart, request.getProductId(), withCart);
+  }
+
+  // Cập nhật số lượng của item trong giỏ hàng (quantity = 0 sẽ xóa item)
+  public CartDeltaResponse updateCartItem(
+      Long userId, Long productId, UpdateCartItemRequest request, boolean withCart) {
+    CartState cart = update(userId, productId, request);
+    publishMembership(membershipAfterUpdate(userId, productId, request));
+    return toDeltaResponse(cart, productId, withCart);
+  }
+
+  // Xóa item khỏi giỏ hàng
+  public void removeCartItem(Long userId, Long productId) {
+    remove(userId, productId);
+    publishMembership(MembershipChangedEvent.removed(Kind.CART, userId, productId));
+  }
+
+  public CartDeltaResponse removeCartItemDelta(Long userId, Long productId) {
+    CartState cart = remove(userId, productId);
+    publishMembership(MembershipChangedEvent.removed(Kind.CART, userId, productId));
+    return toDeltaResponse(cart, productId, false);
+  }
+
+  // Xóa toàn bộ giỏ hàng
+  @SuppressWarnings("null")
+  public void clearCart(Long userId) {
+    if (hotCartStore.isEnabled()) {
+      applyToHotCart(userId, true, List.of());
+      publishMembership(MembershipChangedEvent.reset(Kind.CART, userId));
+      log.info("Cleared cart for user {}", userId);
+      return;
+    }
+    Cart cart = getCartByUserIdOrThrow(userId);
+    cart.clearItems();
+    cartItemRepository.deleteAll(cart.getItems());
+    incrementVersion(userId);
+    publishMembership(MembershipChangedEvent.reset(Kind.CART, userId));
+    log.info("Cleared cart for user {}", userId);
+  }
+
+  // Sync giỏ hàng từ localStorage lên server khi user login (merge với cart hiện tại). Sản phẩm và
+  // các dòng hiện có được đọc 1 lần, merge trong bộ nhớ rồi ghi bằng 1 câu upsert.
+  public CartSyncResponse syncCart(Long userId, SyncCartRequest request) {
+    List<SyncItemResult> results = new ArrayList<>();
+
+    if (hotCartStore.isEnabled()) {
+      HotCart cart = hotCart(userId);
+      Map<Long, CartItem> changes = mergeSyncItems(request, cart.quantities(), results);
+      if (!changes.isEmpty()) {
+        cart =
+            applyToHotCart(
+                userId,
+                false,
+                changes.values().stream()
+                    .map(line -> lineOf(line.getProduct(), line.getQuantity()))
+                    .toList());
+        publishMembership(MembershipChangedEvent.reset(Kind.CART, userId));
+      }
+      log.info(
+          "Synced cart from localStorage for user {}: {} products applied", userId, changes.size());
+      return new CartSyncResponse(toCartResponse(stateOf(cart)), results);
+    }
+
+    Cart cart = getOrCreateCart(userId);
+    Map<Long, Integer> existingQuantities =
+        cart.getItems().stream()
+            .collect(Collectors.toMap(item -> item.getProduct().getId(), CartItem::getQuantity));
+    Map<Long, CartItem> changes = mergeSyncItems(request, existingQuantities, results);
+
+    if (!changes.isEmpty()) {
+      cartItemRepository.upsertItems(
+          cart.getId(),
+          changes.keySet().toArray(Long[]::new),
+          changes.values().stream().map(CartItem::getQuantity).toArray(Integer[]::new));
+      incrementVersion(userId);
+      publishMembership(MembershipChangedEvent.reset(Kind.CART, userId));
+      cart = getCartByUserIdOrThrow(userId);
+    }
+
+    log.info(
+        "Synced cart from localStorage for user {}: {} products applied", userId, changes.size());
+
+    return new CartSyncResponse(toCartResponse(stateOf(cart)), results);
+  }
+
+  // Các dòng giỏ hàng từ nơi lưu chính (Redis nếu giỏ hàng đang nóng, ngược lại là DB), dùng cho
+  // checkout và preview khuyến mãi. Với giỏ hàng nóng các CartItem chỉ là bản tạm, không được lưu.
+  @Transactional(readOnly = true)
+  public List<CartItem> getCartItems(Long userId) {
+    if (hotCartStore.isEnabled()) {
+      Optional<HotCart> hotCart = hotCartStore.peek(userId);
+      if (hotCart.isPresent()) {
+        return toCartItems(hotCart.get());
+      }
+    }
+    return cartRepository.findByUserIdWithItems(userId).map(Cart::getItems).orElse(List.of());
+  }
+
+  // Id các sản phẩm trong giỏ hàng của user (đánh dấu inCart trong danh sách sản phẩm)
+  @Transactional(readOnly = true)
+  public Set<Long> getCartProductIds(Long userId) {
+    if (hotCartStore.isEnabled()) {
+      Optional<HotCart> hotCart = hotCartStore.peek(userId);
+      if (hotCart.isPresent()) {
+        return Set.copyOf(hotCart.get().quantities().keySet());
+      }
+    }
+    return cartItemRepository.findProductIdsByUserId(userId);
   }
 
-  // Thêm sản phẩm vào giỏ hàng
-  public CartResponse addToCart(Long userId, AddToCartRequest request) {
+  // Xóa giỏ hàng sau khi đặt hàng trong transaction của đơn hàng. Giỏ hàng nóng chỉ bị xóa sau khi
+  // đơn hàng commit để không mất giỏ hàng nếu đặt hàng thất bại.
+  public void clearAfterCheckout(Long userId) {
+    if (hotCartStore.isEnabled()) {
+      eventPublisher.publishEvent(new CartCheckedOutEvent(userId));
+      return;
+    }
+    cartItemRepository.deleteByUserId(userId);
+    incrementVersion(userId);
+    publishMembership(MembershipChangedEvent.reset(Kind.CART, userId));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  @Transactional(propagation = Propagation.REQUIRES_NEW)
+  public void onCartCheckedOut(CartCheckedOutEvent event) {
+    applyToHotCart(event.userId(), true, List.of());
+    publishMembership(MembershipChangedEvent.reset(Kind.CART, event.userId()));
+  }
+
+  // Write-behind: ghi snapshot các giỏ hàng nóng xuống carts / cart_items bằng 3 câu lệnh cho cả
+  // batch
+  public void writeBehind(Map<Long, HotCart> snapshots) {
+    if (snapshots.isEmpty()) {
+      return;
+    }
+    List<Long> lineUserIds = new ArrayList<>();
+    List<Long> productIds = new ArrayList<>();
+    List<Integer> quantities = new ArrayList<>();
+    snapshots.forEach(
+        (userId, cart) ->
+            cart.quantities()
+                .forEach(
+                    (productId, quantity) -> {
+                      lineUserIds.add(userId);
+                      productIds.add(productId);
+                      quantities.add(quantity);
+                    }));
+
+    Long[] userIds = snapshots.keySet().toArray(Long[]::new);
+    Long[] versions = snapshots.values().stream().map(HotCart::version).toArray(Long[]::new);
+    cartRepository.touchCarts(userIds, versions);
+    cartItemRepository.deleteLinesNotIn(
+        userIds, lineUserIds.toArray(Long[]::new), productIds.toArray(Long[]::new));
+    cartItemRepository.upsertLines(
+        lineUserIds.toArray(Long[]::new),
+        productIds.toArray(Long[]::new),
+        quantities.toArray(Integer[]::new));
+  }
+
+  // === Thay đổi giỏ hàng ===
+
+  private CartState add(Long userId, AddToCartRequest request) {
+    if (hotCartStore.isEnabled()) {
+      return addToHotCart(userId, request);
+    }
     Cart cart = getOrCreateCart(userId);
     Product product = getProductOrThrow(request.getProductId());
 
@@ -91,12 +283,15 @@ public class CartService {
 
     log.info("Added product {} to cart for user {}", request.getProductId(), userId);
 
-    return mapToCartResponse(cart);
+    incrementVersion(userId);
+    return stateOf(cart, product.getId());
   }
 
-  // Cập nhật số lượng của item trong giỏ hàng (quantity = 0 sẽ xóa item)
   @SuppressWarnings("null")
-  public CartResponse updateCartItem(Long userId, Long productId, UpdateCartItemRequest request) {
+  private CartState update(Long userId, Long productId, UpdateCartItemRequest request) {
+    if (hotCartStore.isEnabled()) {
+      return updateHotCartItem(userId, productId, request);
+    }
     Cart cart = getCartByUserIdOrThrow(userId);
 
     CartItem cartItem =
@@ -125,12 +320,15 @@ public class CartService {
           userId);
     }
 
-    return mapToCartResponse(cart);
+    incrementVersion(userId);
+    return stateOf(cart, productId);
   }
 
-  // Xóa item khỏi giỏ hàng
   @SuppressWarnings("null")
-  public void removeCartItem(Long userId, Long productId) {
+  private CartState remove(Long userId, Long productId) {
+    if (hotCartStore.isEnabled()) {
+      return removeHotCartItem(userId, productId);
+    }
     Cart cart = getCartByUserIdOrThrow(userId);
 
     CartItem cartItem =
@@ -142,63 +340,236 @@ public class CartService {
     cartItemRepository.delete(cartItem);
 
     log.info("Removed product {} from cart for user {}", productId, userId);
+
+    incrementVersion(userId);
+    return stateOf(cart, productId);
   }
 
-  // Xóa toàn bộ giỏ hàng
-  @SuppressWarnings("null")
-  public void clearCart(Long userId) {
-    Cart cart = getCartByUserIdOrThrow(userId);
-    cart.clearItems();
-    cartItemRepository.deleteAll(cart.getItems());
-    log.info("Cleared cart for user {}", userId);
+  // Cập nhật cache cờ inCart sau khi thay đổi commit (ProductMembershipCache)
+  private void publishMembership(MembershipChangedEvent event) {
+    eventPublisher.publishEvent(event);
+  }
+
+  private MembershipChangedEvent membershipAfterUpdate(
+      Long userId, Long productId, UpdateCartItemRequest request) {
+    return request.getQuantity() > 0
+        ? MembershipChangedEvent.added(Kind.CART, userId, productId)
+        : MembershipChangedEvent.removed(Kind.CART, userId, productId);
+  }
+
+  // Cart đã nạp trong transaction được gán version mới (cột không ghi qua entity nên chỉ cần cập
+  // nhật bản trong bộ nhớ, không phải đọc lại)
+  private long incrementVersion(Long userId) {
+    return cartRepository
+        .incrementVersion(userId)
+        .map(
+            row -> {
+              managedEntityRefresher.ifLoaded(
+                  Cart.class, row.getId(), cart -> cart.setVersion(row.getVersion()));
+              return row.getVersion();
+            })
+        .orElse(0L);
+  }
+
+  // === Redis hot cart ===
+
+  // Cộng dồn và kiểm tra tồn kho ngay trong script Redis nên các lần thêm đồng thời không mất lượt
+  private CartState addToHotCart(Long userId, AddToCartRequest request) {
+    Product product = getProductOrThrow(request.getProductId());
+
+    // Validate stock
+    if (product.getStock() < request.getQuantity()) {
+      throw new IllegalArgumentException(
+          "Sản phẩm không đủ số lượng trong kho. Còn lại: " + product.getStock());
+    }
+
+    HotCart cart =
+        hotCartStore
+            .add(
+                userId,
+                lineOf(product, request.getQuantity()),
+                product.getStock(),
+                () -> loadHotCart(userId))
+            .orElseThrow(
+                () ->
+                    new IllegalArgumentException(
+                        "Không thể thêm. Tồn kho chỉ còn: " + product.getStock()));
+
+    log.info("Added product {} to cart for user {}", request.getProductId(), userId);
+
+    return stateOf(cart, product);
+  }
+
+  private CartState updateHotCartItem(Long userId, Long productId, UpdateCartItemRequest request) {
+    HotCart cart = hotCart(userId);
+    if (!cart.quantities().containsKey(productId)) {
+      throw new ResourceNotFoundException("Sản phẩm không có trong giỏ hàng");
+    }
+
+    // quantity = 0 sẽ xóa item
+    Product product = null;
+    if (request.getQuantity() > 0) {
+      product = getProductOrThrow(productId);
+      if (product.getStock() < request.getQuantity()) {
+        throw new IllegalArgumentException(
+            "Số lượng vượt quá tồn kho. Còn lại: " + product.getStock());
+      }
+      cart = applyToHotCart(userId, false, List.of(lineOf(product, request.getQuantity())));
+    } else {
+      cart = applyToHotCart(userId, false, List.of(removedLine(productId)));
+    }
+    log.info(
+        "Updated product {} quantity to {} in cart for user {}",
+        productId,
+        request.getQuantity(),
+        userId);
+
+    return stateOf(cart, product);
+  }
+
+  private CartState removeHotCartItem(Long userId, Long productId) {
+    HotCart cart = hotCart(userId);
+    if (!cart.quantities().containsKey(productId)) {
+      throw new ResourceNotFoundException("Sản phẩm không có trong giỏ hàng");
+    }
+    cart = applyToHotCart(userId, false, List.of(removedLine(productId)));
+    log.info("Removed product {} from cart for user {}", productId, userId);
+    return stateOf(cart, (Product) null);
+  }
+
+  private HotCart hotCart(Long userId) {
+    return hotCartStore.get(userId, () -> loadHotCart(userId));
+  }
+
+  // Ghi thay đổi vào Redis, trả về giỏ hàng sau thay đổi
+  private HotCart applyToHotCart(Long userId, boolean clear, List<Line> lines) {
+    return hotCartStore.apply(userId, clear, lines, () -> loadHotCart(userId));
   }
 
-  // Sync giỏ hàng từ localStorage lên server khi user login (merge với cart hiện tại)
-  public CartResponse syncCart(Long userId, SyncCartRequest request) {
+  private static Line lineOf(Product product, int quantity) {
+    return new Line(product.getId(), quantity, product.getPrice());
+  }
+
+  private static Line removedLine(Long productId) {
+    return new Line(productId, 0, BigDecimal.ZERO);
+  }
+
+  // Nạp giỏ hàng từ DB (tạo mới nếu chưa có) để đưa vào Redis
+  private HotCart loadHotCart(Long userId) {
     Cart cart = getOrCreateCart(userId);
+    Map<Long, Integer> quantities = new TreeMap<>();
+    Map<Long, BigDecimal> prices = new TreeMap<>();
+    cart.getItems()
+        .forEach(
+            item -> {
+              quantities.put(item.getProduct().getId(), item.getQuantity());
+              prices.put(item.getProduct().getId(), item.getProduct().getPrice());
+            });
+    return HotCart.of(cart.getId(), cart.getVersion(), quantities, prices);
+  }
+
+  // CartItem tạm cho các dòng của giỏ hàng nóng; sản phẩm đã bị xóa được bỏ qua
+  private List<CartItem> toCartItems(HotCart cart) {
+    Map<Long, Product> products =
+        productRepository.findAllById(cart.quantities().keySet()).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+    List<CartItem> items = new ArrayList<>(cart.quantities().size());
+    cart.quantities()
+        .forEach(
+            (productId, quantity) -> {
+              Product product = products.get(productId);
+              if (product != null) {
+                items.add(new CartItem(null, null, product, quantity));
+              }
+            });
+    return items;
+  }
 
+  private CartState stateOf(HotCart cart) {
+    return stateOf(cart, (Product) null);
+  }
+
+  // Tổng lấy từ hash; chỉ dòng của product (đã nạp) được dựng sẵn, các dòng còn lại chỉ được nạp
+  // khi cần cả giỏ hàng
+  private CartState stateOf(HotCart cart, Product product) {
+    Integer quantity = product == null ? null : cart.quantities().get(product.getId());
+    CartItem line = quantity == null ? null : new CartItem(null, null, product, quantity);
+    return new CartState(
+        cart.cartId(),
+        cart.version(),
+        cart.total(),
+        cart.totalItems(),
+        line,
+        () -> toCartItems(cart));
+  }
+
+  // === Helper Methods ===
+
+  // Merge các dòng từ localStorage vào số lượng hiện có, ghi kết quả từng sản phẩm vào results.
+  // Trả về productId -> dòng tạm (sản phẩm, số lượng mới) của các dòng cần ghi.
+  private Map<Long, CartItem> mergeSyncItems(
+      SyncCartRequest request,
+      Map<Long, Integer> existingQuantities,
+      List<SyncItemResult> results) {
+    // Gộp các dòng trùng sản phẩm
+    Map<Long, Integer> requested = new LinkedHashMap<>();
     for (SyncCartRequest.CartItemData item : request.getItems()) {
-      Product product = getProductOrThrow(item.getProductId());
-
-      // Skip if out of stock
-      if (product.getStock() < item.getQuantity()) {
-        log.warn(
-            "Skipping product {} - out of stock. Requested: {}, Available: {}",
-            item.getProductId(),
-            item.getQuantity(),
-            product.getStock());
+      if (item.getProductId() == null || item.getQuantity() == null || item.getQuantity() < 1) {
+        results.add(
+            SyncItemResult.builder()
+                .productId(item.getProductId())
+                .status(SyncItemResult.Status.INVALID)
+                .requestedQuantity(item.getQuantity())
+                .build());
         continue;
       }
+      requested.merge(item.getProductId(), item.getQuantity(), Integer::sum);
+    }
+
+    Map<Long, Product> products =
+        productRepository.findAllById(requested.keySet()).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
 
-      CartItem existingItem =
-          cartItemRepository
-              .findByCartIdAndProductId(cart.getId(), item.getProductId())
-              .orElse(null);
+    Map<Long, CartItem> changes = new LinkedHashMap<>();
+    for (Map.Entry<Long, Integer> entry : requested.entrySet()) {
+      Long productId = entry.getKey();
+      int quantity = entry.getValue();
+      SyncItemResult.SyncItemResultBuilder result =
+          SyncItemResult.builder().productId(productId).requestedQuantity(quantity);
 
-      if (existingItem != null) {
+      Product product = products.get(productId);
+      if (product == null) {
+        results.add(result.status(SyncItemResult.Status.NOT_FOUND).build());
+        continue;
+      }
+      int stock = product.getStock();
+      result.availableStock(stock);
+
+      // Bỏ qua nếu không đủ tồn kho cho số lượng yêu cầu
+      if (stock < quantity) {
+        results.add(result.status(SyncItemResult.Status.OUT_OF_STOCK).build());
+        continue;
+      }
+
+      Integer existingQuantity = existingQuantities.get(productId);
+      SyncItemResult.Status status;
+      int newQuantity;
+      if (existingQuantity != null) {
         // Merge: cộng dồn số lượng, nhưng không vượt quá stock
-        int newQuantity =
-            Math.min(existingItem.getQuantity() + item.getQuantity(), product.getStock());
-        existingItem.setQuantity(newQuantity);
-        cartItemRepository.save(existingItem);
+        long merged = (long) existingQuantity + quantity;
+        newQuantity = (int) Math.min(merged, stock);
+        status =
+            newQuantity < merged ? SyncItemResult.Status.CLAMPED : SyncItemResult.Status.MERGED;
       } else {
-        // Add new item
-        CartItem newItem = new CartItem();
-        newItem.setCart(cart);
-        newItem.setProduct(product);
-        newItem.setQuantity(Math.min(item.getQuantity(), product.getStock()));
-        cart.addItem(newItem);
-        cartItemRepository.save(newItem);
+        newQuantity = quantity;
+        status = SyncItemResult.Status.ADDED;
       }
+      changes.put(productId, new CartItem(null, null, product, newQuantity));
+      results.add(result.status(status).quantity(newQuantity).build());
     }
-
-    log.info("Synced cart from localStorage for user {}", userId);
-
-    return mapToCartResponse(cart);
+    return changes;
   }
 
-  // === Helper Methods ===
-
   @SuppressWarnings("null")
   private Cart getOrCreateCart(Long userId) {
     return cartRepository
@@ -228,63 +599,121 @@ public class CartService {
         .orElseThrow(() -> new ResourceNotFoundException("Sản phẩm không tồn tại"));
   }
 
-  private CartResponse mapToCartResponse(Cart cart) {
-    List<CartItemResponse> items =
-        cart.getItems().stream().map(this::mapToCartItemResponse).collect(Collectors.toList());
-
-    return new CartResponse(cart.getId(), items);
+  private CartState stateOf(Cart cart) {
+    return stateOf(cart, null);
   }
 
-  private CartItemResponse mapToCartItemResponse(CartItem item) {
-    Product product = item.getProduct();
+  private CartState stateOf(Cart cart, Long productId) {
+    List<CartItem> items = cart.getItems();
+    BigDecimal total = BigDecimal.ZERO;
+    int totalItems = 0;
+    CartItem line = null;
+    for (CartItem item : items) {
+      total =
+          total.add(item.getProduct().getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
+      totalItems += item.getQuantity();
+      if (item.getProduct().getId().equals(productId)) {
+        line = item;
+      }
+    }
+    return new CartState(cart.getId(), cart.getVersion(), total, totalItems, line, () -> items);
+  }
 
-    // Map product images
-    List<ProductImageResponse> images =
-        product.getImages().stream()
+  // Giỏ hàng đầy đủ: mỗi sản phẩm chỉ kèm URL ảnh đại diện (1 query cho cả giỏ)
+  private CartResponse toCartResponse(CartState cart) {
+    List<CartItem> lines = cart.items().get();
+    Map<Long, String> primaryImageUrls =
+        primaryImageUrls(lines.stream().map(item -> item.getProduct().getId()).toList());
+    List<CartItemResponse> items =
+        lines.stream()
             .map(
-                img ->
-                    new ProductImageResponse(
-                        img.getId(),
-                        img.getImageUrl(),
-                        img.getAltText(),
-                        img.getIsPrimary(),
-                        img.getDisplayOrder()))
+                item ->
+                    mapToCartItemResponse(item, primaryImageUrls.get(item.getProduct().getId())))
             .collect(Collectors.toList());
 
-    ProductResponse productResponse =
-        new ProductResponse(
-            product.getId(),
-            product.getName(),
-            product.getSlug(),
-            product.getDescription(),
-            product.getPrice(),
-            product.getStock(),
-            product.getSku(),
-            product.getIsActive(),
-            product.getIsFeatured(),
-            null, // category
-            images, // images
-            null, // tags
-            product.getCreatedAt(),
-            product.getUpdatedAt(),
-            null, // inWishlist - not needed in cart context
-            true // inCart - item is in cart since it's a cart item
-            );
-
-    return new CartItemResponse(item.getId(), productResponse, item.getQuantity());
+    return new CartResponse(cart.cartId(), cart.version(), items);
+  }
+
+  // Dòng của productId (null nếu đã bị xóa) cùng version và tổng mới của giỏ hàng; withCart thì kèm
+  // cả giỏ hàng và dòng được lấy từ đó (không query ảnh lần nữa)
+  private CartDeltaResponse toDeltaResponse(CartState cart, Long productId, boolean withCart) {
+    if (withCart) {
+      CartResponse full = toCartResponse(cart);
+      return CartDeltaResponse.builder()
+          .id(full.getId())
+          .version(full.getVersion())
+          .productId(productId)
+          .item(
+              full.getItems().stream()
+                  .filter(line -> line.getProduct().getId().equals(productId))
+                  .findFirst()
+                  .orElse(null))
+          .total(full.getTotal())
+          .totalItems(full.getTotalItems())
+          .cart(full)
+          .build();
+    }
+
+    // Chỉ dòng vừa thay đổi được dựng (1 query ảnh), tổng lấy từ trạng thái sau thay đổi
+    CartItem line = cart.line();
+    CartItemResponse item =
+        line == null
+            ? null
+            : mapToCartItemResponse(line, primaryImageUrls(List.of(productId)).get(productId));
+
+    return CartDeltaResponse.builder()
+        .id(cart.cartId())
+        .version(cart.version())
+        .productId(productId)
+        .item(item)
+        .total(cart.total())
+        .totalItems(cart.totalItems())
+        .build();
+  }
+
+  private Map<Long, String> primaryImageUrls(List<Long> productIds) {
+    if (productIds.isEmpty()) {
+      return Map.of();
+    }
+    return productImageRepository.findPrimaryByProductIdIn(productIds).stream()
+        .collect(Collectors.toMap(img -> img.getProduct().getId(), img -> img.getImageUrl()));
+  }
+
+  private CartItemResponse mapToCartItemResponse(CartItem item, String primaryImageUrl) {
+    Product product = item.getProduct();
+    CartItemResponse.ProductInfo productInfo =
+        CartItemResponse.ProductInfo.builder()
+            .id(product.getId())
+            .name(product.getName())
+            .slug(product.getSlug())
+            .price(product.getPrice())
+            .stock(product.getStock())
+            .isActive(product.getIsActive())
+            .imageUrl(primaryImageUrl)
+            .build();
+
+    return new CartItemResponse(item.getId(), productInfo, item.getQuantity());
   }
 
   // Admin: Lấy tất cả giỏ hàng (phân trang)
   @Transactional(readOnly = true)
   public Page<CartSummaryResponse> getAllCarts(Pageable pageable) {
-    Page<Cart> carts = cartRepository.findAllWithUserAndItems(pageable);
+    Page<Cart> carts =
+        PaginationUtil.fetchPage(
+            cartRepository.findIdsWithItems(pageable),
+            cartRepository::findAllWithUserAndItemsByIdIn,
+            Cart::getId);
     return carts.map(this::mapToCartSummary);
   }
 
   // Admin: Tìm kiếm giỏ hàng theo email hoặc tên user
   @Transactional(readOnly = true)
   public Page<CartSummaryResponse> searchCarts(String keyword, Pageable pageable) {
-    Page<Cart> carts = cartRepository.searchCarts(keyword, pageable);
+    Page<Cart> carts =
+        PaginationUtil.fetchPage(
+            cartRepository.searchCartIds(keyword, pageable),
+            cartRepository::findAllWithUserAndItemsByIdIn,
+            Cart::getId);
     return carts.map(this::mapToCartSummary);
   }
 
@@ -308,4 +737,14 @@ public class CartService {
         .updatedAt(cart.getUpdatedAt())
         .build();
   }
+
+  // Trạng thái giỏ hàng sau khi đọc / thay đổi, dùng chung cho giỏ hàng trong DB và trong Redis:
+  // line là dòng vừa thay đổi (null nếu đã bị xóa), items chỉ được nạp khi cần cả giỏ hàng
+  private record CartState(
+      Long cartId,
+      long version,
+      BigDecimal total,
+      int totalItems,
+      CartItem line,
+      Supplier<List<CartItem>> items) {}
 }
@@ -0,0 +1,70 @@
+package iuh.fit.se.service;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import iuh.fit.se.service.HotCartStore.HotCart;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Ghi các giỏ hàng nóng đã thay đổi từ Redis xuống carts / cart_items theo batch (write-behind).
+// Tập dirty nằm trong Redis nên thay đổi chưa ghi không mất khi node dừng, node khác sẽ ghi tiếp.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CartWriteBehindFlusher {
+  private final HotCartStore hotCartStore;
+  private final CartService cartService;
+
+  @Value("${app.cart-store.flush-batch-size:200}")
+  private int batchSize;
+
+  @Value("${app.cart-store.flush-lock-lease:60000}")
+  private long lockLeaseMillis;
+
+  @Scheduled(
+      initialDelayString = "${app.cart-store.flush-interval:5000}",
+      fixedDelayString = "${app.cart-store.flush-interval:5000}")
+  public void flush() {
+    Duration lease = Duration.ofMillis(lockLeaseMillis);
+    if (!hotCartStore.isEnabled() || !hotCartStore.tryLockFlush(lease)) {
+      return;
+    }
+    try {
+      List<Long> userIds;
+      do {
+        // Gia hạn khóa trước mỗi batch để khóa không hết hạn giữa chừng khi tập dirty lớn; batch
+        // trước chạy quá lease thì node khác có thể đã lấy khóa, dừng để không ghi chồng lên nhau
+        if (!hotCartStore.renewFlushLock(lease)) {
+          log.warn("Lost the cart flush lock, stopping this flush run");
+          return;
+        }
+        userIds = hotCartStore.popDirty(batchSize);
+        if (!userIds.isEmpty()) {
+          flushBatch(userIds);
+        }
+      } while (userIds.size() == batchSize);
+    } finally {
+      hotCartStore.unlockFlush();
+    }
+  }
+
+  private void flushBatch(List<Long> userIds) {
+    try {
+      Map<Long, HotCart> snapshots = hotCartStore.snapshots(userIds);
+      cartService.writeBehind(snapshots);
+      hotCartStore.expireClean(snapshots.keySet());
+      log.debug("Flushed {} hot carts to the database", snapshots.size());
+    } catch (Exception e) {
+      // Đánh dấu lại để lần flush sau ghi lại (ghi là idempotent)
+      hotCartStore.markDirty(userIds);
+      log.error("Failed to flush {} hot carts to the database", userIds.size(), e);
+      throw e;
+    }
+  }
+}
@@ -1,7 +1,9 @@
 package iuh.fit.se.service;
 
 import java.util.List;
+import java.util.Optional;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -13,6 +15,8 @@ import iuh.fit.se.dto.request.UpdateCategoryRequest;
 import iuh.fit.se.dto.response.CategoryResponse;
 import iuh.fit.se.dto.response.PaginationResponse;
 import iuh.fit.se.entity.Category;
+import iuh.fit.se.event.CategoryChangedEvent;
+import iuh.fit.se.event.ProductChangedEvent;
 import iuh.fit.se.exception.ResourceNotFoundException;
 import iuh.fit.se.exception.ValidationException;
 import iuh.fit.se.mapper.CategoryMapper;
@@ -27,11 +31,12 @@ public class CategoryService {
   private final CategoryRepository categoryRepository;
   private final CategoryMapper categoryMapper;
   private final CloudinaryService cloudinaryService;
+  private final ApplicationEventPublisher eventPublisher;
+  private final CategoryTreeService categoryTreeService;
 
-  @Transactional(readOnly = true)
+  // Đọc từ cây danh mục in-memory, không query DB
   public List<CategoryResponse> getAllCategories() {
-    List<Category> categories = categoryRepository.findAll();
-    return categories.stream().map(categoryMapper::toResponse).toList();
+    return categoryTreeService.snapshot().categories();
   }
 
   @Transactional(readOnly = true)
@@ -51,6 +56,10 @@ public class CategoryService {
   @SuppressWarnings("null")
   @Transactional(readOnly = true)
   public CategoryResponse getCategoryById(Long id) {
+    Optional<CategoryTreeService.Node> node = categoryTreeService.snapshot().get(id);
+    if (node.isPresent()) {
+      return node.get().response();
+    }
     Category category =
         categoryRepository
             .findById(id)
@@ -61,6 +70,10 @@ public class CategoryService {
 
   @Transactional(readOnly = true)
   public CategoryResponse getCategoryBySlug(String slug) {
+    Optional<CategoryTreeService.Node> node = categoryTreeService.snapshot().getBySlug(slug);
+    if (node.isPresent()) {
+      return node.get().response();
+    }
     Category category =
         categoryRepository
             .findBySlug(slug)
@@ -101,6 +114,7 @@ public class CategoryService {
     category.setIsFeatured(request.getIsFeatured() != null ? request.getIsFeatured() : false);
 
     category = categoryRepository.save(category);
+    eventPublisher.publishEvent(new CategoryChangedEvent(category.getId()));
     return categoryMapper.toResponse(category);
   }
 
@@ -118,6 +132,9 @@ public class CategoryService {
       if (request.getParentId().equals(id)) {
         throw new ValidationException("Danh mục không thể là cha của chính nó");
       }
+      if (categoryTreeService.snapshot().descendantIds(id).contains(request.getParentId())) {
+        throw new ValidationException("Không thể chọn danh mục con làm danh mục cha");
+      }
       Category parent =
           categoryRepository
               .findById(request.getParentId())
@@ -161,6 +178,9 @@ public class CategoryService {
     }
 
     category = categoryRepository.save(category);
+    // Chi tiết sản phẩm nhúng thông tin danh mục
+    eventPublisher.publishEvent(ProductChangedEvent.all());
+    eventPublisher.publishEvent(new CategoryChangedEvent(id));
     return categoryMapper.toResponse(category);
   }
 
@@ -194,6 +214,7 @@ public class CategoryService {
     }
 
     categoryRepository.delete(category);
+    eventPublisher.publishEvent(new CategoryChangedEvent(id));
   }
 
   private String generateUniqueSlug(String name) {
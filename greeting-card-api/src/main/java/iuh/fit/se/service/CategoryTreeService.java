@@ -0,0 +1,225 @@
+package iuh.fit.se.service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import iuh.fit.se.dto.response.CategoryResponse;
+import iuh.fit.se.entity.Category;
+import iuh.fit.se.event.CategoryChangedEvent;
+import iuh.fit.se.mapper.CategoryMapper;
+import iuh.fit.se.repository.CategoryRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Cây danh mục in-memory: liên kết cha / con, đường dẫn từ gốc và tập id con cháu được tính sẵn.
+// Snapshot là immutable, được dựng lại nguyên khối sau mỗi thay đổi danh mục (và định kỳ để nhận
+// thay đổi từ các node khác), nên đọc danh mục / mở rộng bộ lọc theo danh mục không cần query.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CategoryTreeService {
+  private static final Comparator<Node> MENU_ORDER =
+      Comparator.comparing((Node node) -> displayOrderOf(node.response())).thenComparing(Node::id);
+
+  private final CategoryRepository categoryRepository;
+  private final CategoryMapper categoryMapper;
+
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  public Snapshot snapshot() {
+    return snapshot;
+  }
+
+  // Id các danh mục được chọn cùng toàn bộ danh mục con cháu, rỗng nếu không lọc theo danh mục
+  public List<Long> expandCategoryFilter(Long categoryId, Collection<Long> categoryIds) {
+    Snapshot current = snapshot;
+    Set<Long> expanded = new LinkedHashSet<>();
+    if (categoryIds != null && !categoryIds.isEmpty()) {
+      categoryIds.forEach(id -> expanded.addAll(current.descendantIds(id)));
+    } else if (categoryId != null) {
+      expanded.addAll(current.descendantIds(categoryId));
+    }
+    return List.copyOf(expanded);
+  }
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void onApplicationReady() {
+    rebuild();
+  }
+
+  @Scheduled(
+      initialDelayString = "${app.category-tree.refresh-interval:300000}",
+      fixedDelayString = "${app.category-tree.refresh-interval:300000}")
+  @Transactional(readOnly = true)
+  public void scheduledRebuild() {
+    rebuild();
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+  public void onCategoryChanged(CategoryChangedEvent event) {
+    rebuild();
+  }
+
+  private synchronized void rebuild() {
+    snapshot = Snapshot.of(categoryRepository.findAllWithParent(), categoryMapper);
+    log.debug("Rebuilt category tree with {} categories", snapshot.size());
+  }
+
+  private static int displayOrderOf(CategoryResponse response) {
+    return response.getDisplayOrder() != null ? response.getDisplayOrder() : 0;
+  }
+
+  // Một danh mục trong cây. path: id từ gốc đến danh mục này; descendantIds gồm cả chính nó
+  public record Node(
+      Long id,
+      Long parentId,
+      List<Long> childIds,
+      List<Long> path,
+      Set<Long> descendantIds,
+      CategoryResponse response) {}
+
+  public static final class Snapshot {
+    static final Snapshot EMPTY = new Snapshot(Map.of(), Map.of(), List.of(), List.of());
+
+    private final Map<Long, Node> nodes;
+    private final Map<String, Long> idsBySlug;
+    private final List<Node> ordered;
+    private final List<Node> roots;
+
+    private Snapshot(
+        Map<Long, Node> nodes, Map<String, Long> idsBySlug, List<Node> ordered, List<Node> roots) {
+      this.nodes = nodes;
+      this.idsBySlug = idsBySlug;
+      this.ordered = ordered;
+      this.roots = roots;
+    }
+
+    static Snapshot of(List<Category> categories, CategoryMapper categoryMapper) {
+      Map<Long, CategoryResponse> responses = new HashMap<>();
+      Map<Long, List<Long>> childIds = new HashMap<>();
+      for (Category category : categories) {
+        responses.put(category.getId(), categoryMapper.toResponse(category));
+        childIds.put(category.getId(), new ArrayList<>());
+      }
+
+      // Danh mục có cha không còn tồn tại (đã xóa) được coi là gốc
+      List<Long> rootIds = new ArrayList<>();
+      for (CategoryResponse response : responses.values()) {
+        Long parentId = response.getParentId();
+        if (parentId != null && childIds.containsKey(parentId)) {
+          childIds.get(parentId).add(response.getId());
+        } else {
+          rootIds.add(response.getId());
+        }
+      }
+
+      Map<Long, Node> nodes = new HashMap<>();
+      for (Long rootId : rootIds) {
+        build(rootId, List.of(), responses, childIds, nodes);
+      }
+      // Dữ liệu lỗi có vòng cha / con: các danh mục không đi tới được từ gốc được coi là gốc
+      for (Long id : responses.keySet()) {
+        if (!nodes.containsKey(id)) {
+          rootIds.add(id);
+          build(id, List.of(), responses, childIds, nodes);
+        }
+      }
+
+      Map<String, Long> idsBySlug = new HashMap<>();
+      for (Node node : nodes.values()) {
+        if (node.response().getSlug() != null) {
+          idsBySlug.put(node.response().getSlug(), node.id());
+        }
+      }
+
+      return new Snapshot(
+          Map.copyOf(nodes),
+          Map.copyOf(idsBySlug),
+          nodes.values().stream().sorted(MENU_ORDER).toList(),
+          rootIds.stream().map(nodes::get).sorted(MENU_ORDER).toList());
+    }
+
+    // Dựng node và toàn bộ cây con (DFS), trả về tập id con cháu của node
+    private static Set<Long> build(
+        Long id,
+        List<Long> parentPath,
+        Map<Long, CategoryResponse> responses,
+        Map<Long, List<Long>> childIds,
+        Map<Long, Node> nodes) {
+      List<Long> path = new ArrayList<>(parentPath);
+      path.add(id);
+      // Đánh dấu đã thăm trước khi đi xuống để không lặp vô hạn khi có vòng
+      nodes.put(id, null);
+
+      Set<Long> descendants = new HashSet<>();
+      descendants.add(id);
+      List<Long> children = new ArrayList<>();
+      for (Long childId : childIds.get(id)) {
+        if (!nodes.containsKey(childId)) {
+          children.add(childId);
+          descendants.addAll(build(childId, path, responses, childIds, nodes));
+        }
+      }
+      children.sort(
+          Comparator.comparing((Long childId) -> displayOrderOf(responses.get(childId)))
+              .thenComparing(childId -> childId));
+
+      CategoryResponse response = responses.get(id);
+      nodes.put(
+          id,
+          new Node(
+              id,
+              parentPath.isEmpty() ? null : response.getParentId(),
+              List.copyOf(children),
+              List.copyOf(path),
+              Set.copyOf(descendants),
+              response));
+      return descendants;
+    }
+
+    public int size() {
+      return nodes.size();
+    }
+
+    public Optional<Node> get(Long id) {
+      return Optional.ofNullable(nodes.get(id));
+    }
+
+    public Optional<Node> getBySlug(String slug) {
+      return Optional.ofNullable(idsBySlug.get(slug)).map(nodes::get);
+    }
+
+    // Id danh mục cùng các danh mục con cháu; danh mục không có trong cây chỉ gồm chính nó
+    public Set<Long> descendantIds(Long id) {
+      Node node = nodes.get(id);
+      return node != null ? node.descendantIds() : Set.of(id);
+    }
+
+    // Tất cả danh mục theo displayOrder, id
+    public List<CategoryResponse> categories() {
+      return ordered.stream().map(Node::response).toList();
+    }
+
+    public List<Node> roots() {
+      return roots;
+    }
+  }
+}
@@ -0,0 +1,193 @@
+package iuh.fit.se.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import iuh.fit.se.entity.Order;
+import iuh.fit.se.entity.OrderItem;
+import iuh.fit.se.entity.enumeration.OrderStatus;
+import iuh.fit.se.repository.DashboardRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Duy trì các bảng rollup theo ngày của dashboard. OrderService ghi delta trong cùng transaction
+// với thay đổi đơn hàng (tạo đơn, đổi trạng thái / hủy, sửa số lượng); job đối soát tính lại các
+// ngày gần nhất từ bảng gốc để sửa sai lệch (đơn ghi trực tiếp vào DB, lỗi giữa chừng...).
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DashboardRollupService {
+  // Khóa advisory của job đối soát, dùng chung giữa các node
+  private static final long RECONCILE_LOCK_KEY = 7_316_001L;
+  private static final LocalDate FULL_REBUILD_FROM = LocalDate.EPOCH;
+
+  private final DashboardRollupRepository dashboardRollupRepository;
+
+  @Value("${app.dashboard-rollup.reconcile-days:3}")
+  private int reconcileDays;
+
+  // Ghi nhận thay đổi của một đơn hàng: before là trạng thái trước khi sửa (null khi tạo đơn),
+  // after là trạng thái sau khi sửa. Chỉ ghi các dòng rollup có delta khác 0.
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void recordChange(OrderFacts before, OrderFacts after) {
+    OrderFacts current = after != null ? after : before;
+    if (current == null) {
+      return;
+    }
+
+    Map<OrderStatus, Delta> statusDeltas = new EnumMap<>(OrderStatus.class);
+    Map<Long, Delta> productDeltas = new HashMap<>();
+    Map<Long, Delta> categoryDeltas = new HashMap<>();
+    accumulate(before, -1, statusDeltas, productDeltas, categoryDeltas);
+    accumulate(after, 1, statusDeltas, productDeltas, categoryDeltas);
+
+    LocalDate date = current.date();
+    statusDeltas.forEach(
+        (status, delta) -> {
+          if (!delta.isZero()) {
+            dashboardRollupRepository.addOrderStats(date, status.name(), delta.count, delta.amount);
+          }
+        });
+    productDeltas.forEach(
+        (productId, delta) -> {
+          if (!delta.isZero()) {
+            dashboardRollupRepository.addProductSales(date, productId, delta.count, delta.amount);
+          }
+        });
+    categoryDeltas.forEach(
+        (categoryId, delta) -> {
+          if (!delta.isZero()) {
+            dashboardRollupRepository.addCategorySales(date, categoryId, delta.count, delta.amount);
+          }
+        });
+  }
+
+  // Lần đầu chạy (hoặc sau khi thêm bảng rollup): dựng lại toàn bộ lịch sử
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void onApplicationReady() {
+    if (dashboardRollupRepository.isEmptyWithOrders()) {
+      rebuildAll();
+    }
+  }
+
+  // Đối soát định kỳ các ngày gần nhất (gồm hôm nay)
+  @Scheduled(
+      initialDelayString = "${app.dashboard-rollup.reconcile-interval:3600000}",
+      fixedDelayString = "${app.dashboard-rollup.reconcile-interval:3600000}")
+  @Transactional
+  public void scheduledReconcile() {
+    if (dashboardRollupRepository.isEmptyWithOrders()) {
+      rebuildAll();
+      return;
+    }
+    LocalDate today = LocalDate.now();
+    rebuild(today.minusDays(reconcileDays - 1L), today.plusDays(1));
+  }
+
+  @Transactional
+  public boolean rebuildAll() {
+    return rebuild(FULL_REBUILD_FROM, LocalDate.now().plusDays(1));
+  }
+
+  // Tính lại rollup của các ngày trong [from, to) từ orders / order_items. Trả về false nếu node
+  // khác đang đối soát.
+  @Transactional
+  public boolean rebuild(LocalDate from, LocalDate to) {
+    if (!dashboardRollupRepository.tryAdvisoryLock(RECONCILE_LOCK_KEY)) {
+      log.debug("Dashboard rollup reconcile is running on another node, skipping");
+      return false;
+    }
+    dashboardRollupRepository.deleteOrderStats(from, to);
+    dashboardRollupRepository.insertOrderStats(from, to);
+    dashboardRollupRepository.deleteProductSales(from, to);
+    dashboardRollupRepository.insertProductSales(from, to);
+    dashboardRollupRepository.deleteCategorySales(from, to);
+    dashboardRollupRepository.insertCategorySales(from, to);
+    log.info("Rebuilt dashboard rollups from {} to {}", from, to);
+    return true;
+  }
+
+  private void accumulate(
+      OrderFacts facts,
+      int sign,
+      Map<OrderStatus, Delta> statusDeltas,
+      Map<Long, Delta> productDeltas,
+      Map<Long, Delta> categoryDeltas) {
+    if (facts == null) {
+      return;
+    }
+    statusDeltas
+        .computeIfAbsent(facts.status(), k -> new Delta())
+        .add(sign, 1, facts.finalAmount());
+
+    // Đơn đã hủy không tính vào doanh số sản phẩm / danh mục
+    if (facts.status() == OrderStatus.CANCELLED) {
+      return;
+    }
+    Map<Long, BigDecimal> categoryRevenue = new HashMap<>();
+    for (LineFacts line : facts.lines()) {
+      productDeltas
+          .computeIfAbsent(line.productId(), k -> new Delta())
+          .add(sign, line.quantity(), line.subtotal());
+      categoryRevenue.merge(line.categoryId(), line.subtotal(), BigDecimal::add);
+    }
+    categoryRevenue.forEach(
+        (categoryId, revenue) ->
+            categoryDeltas.computeIfAbsent(categoryId, k -> new Delta()).add(sign, 1, revenue));
+  }
+
+  // Các giá trị của một đơn hàng cần cho rollup, chụp lại trước / sau khi sửa đơn
+  public record OrderFacts(
+      LocalDate date, OrderStatus status, BigDecimal finalAmount, List<LineFacts> lines) {
+
+    public static OrderFacts of(Order order, Collection<OrderItem> items) {
+      List<LineFacts> lines = new ArrayList<>(items.size());
+      for (OrderItem item : items) {
+        // Danh mục lúc đặt hàng, không phải danh mục hiện tại của sản phẩm
+        lines.add(
+            new LineFacts(
+                item.getProduct().getId(),
+                item.getCategoryId(),
+                item.getQuantity(),
+                item.getSubtotal()));
+      }
+      return new OrderFacts(
+          order.getOrderDate().toLocalDate(), order.getStatus(), order.getFinalAmount(), lines);
+    }
+
+    public static OrderFacts of(Order order) {
+      return of(order, order.getOrderItems());
+    }
+  }
+
+  public record LineFacts(Long productId, Long categoryId, int quantity, BigDecimal subtotal) {}
+
+  private static final class Delta {
+    private long count;
+    private BigDecimal amount = BigDecimal.ZERO;
+
+    void add(int sign, long count, BigDecimal amount) {
+      this.count += sign * count;
+      this.amount = this.amount.add(sign < 0 ? amount.negate() : amount);
+    }
+
+    boolean isZero() {
+      return count == 0 && amount.signum() == 0;
+    }
+  }
+}
@@ -26,6 +26,7 @@ import iuh.fit.se.entity.Order;
 import iuh.fit.se.entity.Product;
 import iuh.fit.se.entity.enumeration.OrderStatus;
 import iuh.fit.se.mapper.OrderMapper;
+import iuh.fit.se.repository.DashboardRollupRepository;
 import iuh.fit.se.repository.OrderRepository;
 import iuh.fit.se.repository.ProductRepository;
 import iuh.fit.se.repository.UserRepository;
@@ -40,63 +41,65 @@ public class DashboardService {
   private final UserRepository userRepository;
   private final OrderRepository orderRepository;
   private final ProductRepository productRepository;
+  private final DashboardRollupRepository dashboardRollupRepository;
   private final OrderMapper orderMapper;
 
+  // Các chỉ số đơn hàng / doanh thu đọc từ bảng rollup theo ngày (DashboardRollupService), không
+  // quét bảng orders
   public DashboardStatsResponse getDashboardStats() {
     Long totalUsers = userRepository.count();
-    Long totalOrders = orderRepository.count();
-    BigDecimal totalRevenue = orderRepository.getTotalRevenue();
     Long totalProducts = productRepository.count();
 
-    // Today's metrics
-    Long todayOrders = orderRepository.countTodayOrders();
-    BigDecimal todayRevenue = orderRepository.getTodayRevenue();
-
-    // Order status counts - OPTIMIZED: single query instead of 5 separate queries
-    Map<OrderStatus, Long> statusCounts = getOrderStatusCounts();
-    Long pendingOrders = statusCounts.getOrDefault(OrderStatus.PENDING, 0L);
-    Long confirmedOrders = statusCounts.getOrDefault(OrderStatus.CONFIRMED, 0L);
-    Long shippedOrders = statusCounts.getOrDefault(OrderStatus.SHIPPED, 0L);
-    Long deliveredOrders = statusCounts.getOrDefault(OrderStatus.DELIVERED, 0L);
-    Long cancelledOrders = statusCounts.getOrDefault(OrderStatus.CANCELLED, 0L);
+    Map<OrderStatus, Long> statusCounts = new EnumMap<>(OrderStatus.class);
+    long totalOrders = 0;
+    long todayOrders = 0;
+    long completedOrders = 0;
+    BigDecimal totalRevenue = BigDecimal.ZERO;
+    BigDecimal todayRevenue = BigDecimal.ZERO;
+    for (Object[] row : dashboardRollupRepository.sumOrderStatsByStatus(LocalDate.now())) {
+      OrderStatus status = OrderStatus.valueOf((String) row[0]);
+      long count = ((Number) row[1]).longValue();
+      statusCounts.put(status, count);
+      totalOrders += count;
+      todayOrders += ((Number) row[3]).longValue();
+      // Doanh thu không tính đơn đã hủy
+      if (status != OrderStatus.CANCELLED) {
+        completedOrders += count;
+        totalRevenue = totalRevenue.add((BigDecimal) row[2]);
+        todayRevenue = todayRevenue.add((BigDecimal) row[4]);
+      }
+    }
 
     // Additional metrics
     Long activeProducts = productRepository.countByIsActiveAndDeletedAtIsNull(true);
     Long lowStockProducts = productRepository.countLowStockProducts(10);
-    BigDecimal averageOrderValue = orderRepository.getAverageOrderValue();
+    BigDecimal averageOrderValue =
+        completedOrders > 0
+            ? totalRevenue.divide(BigDecimal.valueOf(completedOrders), 2, RoundingMode.HALF_UP)
+            : BigDecimal.ZERO;
 
     return DashboardStatsResponse.builder()
         .totalUsers(totalUsers)
         .totalOrders(totalOrders)
-        .totalRevenue(totalRevenue != null ? totalRevenue : BigDecimal.ZERO)
+        .totalRevenue(totalRevenue)
         .totalProducts(totalProducts)
-        .todayOrders(todayOrders != null ? todayOrders : 0L)
-        .todayRevenue(todayRevenue != null ? todayRevenue : BigDecimal.ZERO)
-        .pendingOrders(pendingOrders)
-        .confirmedOrders(confirmedOrders)
-        .shippedOrders(shippedOrders)
-        .deliveredOrders(deliveredOrders)
-        .cancelledOrders(cancelledOrders)
+        .todayOrders(todayOrders)
+        .todayRevenue(todayRevenue)
+        .pendingOrders(statusCounts.getOrDefault(OrderStatus.PENDING, 0L))
+        .confirmedOrders(statusCounts.getOrDefault(OrderStatus.CONFIRMED, 0L))
+        .shippedOrders(statusCounts.getOrDefault(OrderStatus.SHIPPED, 0L))
+        .deliveredOrders(statusCounts.getOrDefault(OrderStatus.DELIVERED, 0L))
+        .cancelledOrders(statusCounts.getOrDefault(OrderStatus.CANCELLED, 0L))
         .activeProducts(activeProducts)
         .lowStockProducts(lowStockProducts)
-        .averageOrderValue(
-            averageOrderValue != null
-                ? averageOrderValue.setScale(2, RoundingMode.HALF_UP)
-                : BigDecimal.ZERO)
+        .averageOrderValue(averageOrderValue)
         .build();
   }
 
-  /**
-   * Get all order status counts in a single query. This replaces 5 separate countByStatus() calls
-   * with 1 grouped query.
-   */
   private Map<OrderStatus, Long> getOrderStatusCounts() {
-    List<Object[]> results = orderRepository.countOrdersByAllStatuses();
     Map<OrderStatus, Long> counts = new EnumMap<>(OrderStatus.class);
-    for (Object[] result : results) {
-      OrderStatus status = (OrderStatus) result[0];
-      Long count = (Long) result[1];
-      counts.put(status, count);
+    for (Object[] row : dashboardRollupRepository.sumOrderStatsByStatus(LocalDate.now())) {
+      counts.put(OrderStatus.valueOf((String) row[0]), ((Number) row[1]).longValue());
     }
     return counts;
   }
@@ -105,7 +108,8 @@ public class DashboardService {
     String dateFormat = getDateFormatByPeriod(period);
     LocalDate startDate = LocalDate.now().minusDays(days);
 
-    List<Object[]> results = orderRepository.getRevenueSummaryByPeriod(dateFormat, startDate);
+    List<Object[]> results =
+        dashboardRollupRepository.getRevenueSummaryByPeriod(dateFormat, startDate);
 
     return results.stream()
         .map(
@@ -126,7 +130,7 @@ public class DashboardService {
 
   public List<BestSellingProductResponse> getBestSellingProducts(int limit) {
     Pageable pageable = PageRequest.of(0, limit);
-    List<Object[]> results = productRepository.findBestSellingProducts(pageable);
+    List<Object[]> results = dashboardRollupRepository.findBestSellingProducts(pageable);
 
     return results.stream()
         .map(
@@ -172,7 +176,6 @@ public class DashboardService {
         .collect(Collectors.toList());
   }
 
-  /** Get order status distribution - OPTIMIZED: uses single query instead of 5 separate queries. */
   public List<OrderStatusDistributionResponse> getOrderStatusDistribution() {
     Map<OrderStatus, Long> statusCounts = getOrderStatusCounts();
     List<OrderStatusDistributionResponse> distribution = new ArrayList<>();
@@ -212,7 +215,7 @@ public class DashboardService {
   }
 
   public List<CategorySalesResponse> getCategorySales() {
-    List<Object[]> results = orderRepository.getSalesByCategory();
+    List<Object[]> results = dashboardRollupRepository.getSalesByCategory();
 
     return results.stream()
         .map(
@@ -17,6 +17,7 @@ import java.util.UUID;
 
 import javax.imageio.ImageIO;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
@@ -43,6 +44,7 @@ import iuh.fit.se.entity.enumeration.NotificationType;
 import iuh.fit.se.entity.enumeration.OrderStatus;
 import iuh.fit.se.entity.enumeration.PaymentStatus;
 import iuh.fit.se.entity.enumeration.UserRole;
+import iuh.fit.se.event.CategoryChangedEvent;
 import iuh.fit.se.repository.CategoryRepository;
 import iuh.fit.se.repository.CouponRepository;
 import iuh.fit.se.repository.NotificationRepository;
@@ -85,6 +87,9 @@ public class DataSeederService {
   private final WishlistRepository wishlistRepository;
   private final WishlistItemRepository wishlistItemRepository;
   private final NotificationRepository notificationRepository;
+  private final ProductSearchService productSearchService;
+  private final DashboardRollupService dashboardRollupService;
+  private final ApplicationEventPublisher eventPublisher;
 
   private final PasswordEncoder passwordEncoder;
   private final CloudinaryService cloudinaryService;
@@ -136,10 +141,12 @@ public class DataSeederService {
 
       seedOrders();
       entityManager.flush();
+      dashboardRollupService.rebuildAll();
       log.info("✓ Orders seeded");
 
       seedProductReviews();
       entityManager.flush();
+      productRepository.recalculateRatings();
       log.info("✓ ProductReviews seeded");
 
       seedWishlists();
@@ -172,6 +179,9 @@ public class DataSeederService {
     entityManager.createNativeQuery("DELETE FROM product_reviews").executeUpdate();
     entityManager.createNativeQuery("DELETE FROM order_status_history").executeUpdate();
     entityManager.createNativeQuery("DELETE FROM order_items").executeUpdate();
+    entityManager.createNativeQuery("DELETE FROM daily_order_stats").executeUpdate();
+    entityManager.createNativeQuery("DELETE FROM daily_product_sales").executeUpdate();
+    entityManager.createNativeQuery("DELETE FROM daily_category_sales").executeUpdate();
 
     // 2. Xóa payments trước (có FK đến orders và payment_methods)
     entityManager.createNativeQuery("DELETE FROM payments").executeUpdate();
@@ -188,7 +198,8 @@ public class DataSeederService {
     // 6. Xóa product_tag_map (bảng trung gian)
     entityManager.createNativeQuery("DELETE FROM product_tag_map").executeUpdate();
 
-    // 7. Xóa products (có FK đến categories)
+    // 7. Xóa products (có FK đến categories) và tài liệu search của products
+    entityManager.createNativeQuery("DELETE FROM product_search_documents").executeUpdate();
     entityManager.createNativeQuery("DELETE FROM products").executeUpdate();
 
     // 8. Xóa categories (có self-reference)
@@ -211,6 +222,8 @@ public class DataSeederService {
 
     entityManager.flush();
     entityManager.clear();
+    // Cây danh mục được dựng lại sau khi commit (gồm cả danh mục vừa seed nếu chạy trong seedAll)
+    eventPublisher.publishEvent(new CategoryChangedEvent(null));
 
     log.info("Đã xóa sạch tất cả dữ liệu");
   }
@@ -458,10 +471,11 @@ public class DataSeederService {
 
     List<Product> savedProducts = productRepository.saveAll(products);
     entityManager.flush();
+    savedProducts.forEach(productSearchService::index);
     log.info("Đã seed {} products", savedProducts.size());
 
     // Add images to products
-    int totalImages = 0;
+    List<ProductImage> images = new ArrayList<>();
     for (Product product : savedProducts) {
       int imageCount = faker.number().numberBetween(1, 5);
       for (int i = 0; i < imageCount; i++) {
@@ -474,15 +488,15 @@ public class DataSeederService {
           image.setAltText(product.getName());
           image.setIsPrimary(i == 0);
           image.setDisplayOrder(i);
-          productImageRepository.save(image);
-          totalImages++;
+          images.add(image);
         } catch (Exception e) {
           log.warn("Không thể upload ảnh cho product {}: {}", product.getName(), e.getMessage());
         }
       }
     }
+    productImageRepository.saveAll(images);
     entityManager.flush();
-    log.info("Đã seed {} products với {} images", savedProducts.size(), totalImages);
+    log.info("Đã seed {} products với {} images", savedProducts.size(), images.size());
   }
 
   @Transactional
@@ -638,6 +652,7 @@ public class DataSeederService {
         OrderItem item = new OrderItem();
         item.setOrder(order);
         item.setProduct(product);
+        item.setCategoryId(product.getCategory().getId());
         item.setQuantity(quantity);
         item.setPrice(price);
         item.setSubtotal(subtotal);
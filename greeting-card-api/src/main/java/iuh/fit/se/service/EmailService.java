@@ -13,6 +13,8 @@ import org.springframework.stereotype.Service;
 import iuh.fit.se.entity.Order;
 import iuh.fit.se.entity.OrderItem;
 import iuh.fit.se.entity.User;
+import iuh.fit.se.exception.AppException;
+import iuh.fit.se.exception.ErrorCode;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
@@ -29,7 +31,7 @@ public class EmailService {
   private static final NumberFormat CURRENCY_FORMATTER =
       NumberFormat.getCurrencyInstance(Locale.of("vi", "VN"));
 
-  @Async
+  // Gọi từ outbox worker (đã bất đồng bộ), ném lỗi để outbox retry
   @SuppressWarnings("null")
   public void sendOrderConfirmationEmail(User user, Order order) {
     try {
@@ -48,6 +50,7 @@ public class EmailService {
     } catch (MessagingException e) {
       log.error(
           "Failed to send order confirmation email to {}: {}", user.getEmail(), e.getMessage());
+      throw new AppException(e.getMessage(), ErrorCode.EMAIL_SEND_FAILED);
     }
   }
 
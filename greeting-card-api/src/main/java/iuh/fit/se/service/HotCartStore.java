@@ -0,0 +1,418 @@
+package iuh.fit.se.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Giỏ hàng "nóng" của user trong Redis (app.cart-store.mode=redis): mỗi user một hash
+// productId -> quantity, price:productId -> đơn giá, kèm các field cart (id giỏ hàng trong DB),
+// version, total và items. Mỗi thay đổi là một script Lua chỉ đụng tới các dòng thay đổi: tổng được
+// cập nhật theo phần chênh lệch, user được đánh dấu vào tập dirty và hash mới được trả về luôn.
+// CartWriteBehindFlusher ghi các giỏ dirty xuống carts / cart_items theo batch. Khi hash có trong
+// Redis thì Redis là bản chính; hash chỉ được cho hết hạn sau khi đã ghi xuống DB, lúc đó DB lại là
+// bản chính và được nạp lại khi cần.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class HotCartStore {
+  private static final String CART_ID_FIELD = "cart";
+  private static final String VERSION_FIELD = "version";
+  private static final String TOTAL_FIELD = "total";
+  private static final String ITEMS_FIELD = "items";
+  private static final String PRICE_FIELD_PREFIX = "price:";
+  // Giá lưu trong hash theo đơn vị nhỏ nhất (numeric(10,2)) để Lua cộng trừ bằng số nguyên
+  private static final int PRICE_SCALE = 2;
+
+  // Nạp giỏ hàng từ DB nếu hash chưa có (nhiều node cùng nạp thì chỉ bản đầu tiên được ghi)
+  private static final RedisScript<Long> LOAD_SCRIPT =
+      new DefaultRedisScript<>(
+          """
+          if redis.call('EXISTS', KEYS[1]) == 0 then
+            redis.call('HSET', KEYS[1], unpack(ARGV, 2))
+            redis.call('PEXPIRE', KEYS[1], ARGV[1])
+          end
+          return 1
+          """,
+          Long.class);
+
+  // Ghi số lượng và đơn giá (đơn vị nhỏ nhất) của một dòng, cập nhật tổng tiền / tổng số lượng của
+  // giỏ hàng theo phần chênh lệch của dòng đó
+  private static final String SET_LINE_FUNCTION =
+      """
+      local function setLine(productId, quantity, price)
+        local old = redis.call('HMGET', KEYS[1], productId, 'price:' .. productId, 'total', 'items')
+        local oldQuantity = tonumber(old[1] or '0')
+        local total = tonumber(old[3] or '0') - oldQuantity * tonumber(old[2] or '0')
+        local items = tonumber(old[4] or '0') - oldQuantity
+        if quantity > 0 then
+          total = total + quantity * price
+          items = items + quantity
+          redis.call('HSET', KEYS[1], productId, string.format('%d', quantity),
+            'price:' .. productId, string.format('%.0f', price))
+        else
+          redis.call('HDEL', KEYS[1], productId, 'price:' .. productId)
+        end
+        redis.call('HSET', KEYS[1], 'total', string.format('%.0f', total),
+          'items', string.format('%d', items))
+      end
+      """;
+
+  // Tăng version, đánh dấu dirty và trả về hash sau thay đổi (không phải đọc lại)
+  private static final String COMMIT_CHANGE =
+      """
+      redis.call('HINCRBY', KEYS[1], 'version', 1)
+      redis.call('PERSIST', KEYS[1])
+      redis.call('SADD', KEYS[2], ARGV[1])
+      return redis.call('HGETALL', KEYS[1])
+      """;
+
+  // ARGV: userId, clear (1/0), các bộ productId, quantity, price (quantity <= 0 là xóa dòng).
+  // Trả về hash mới, hoặc rỗng nếu hash không có (đã hết hạn) để caller nạp lại từ DB rồi thử lại.
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> APPLY_SCRIPT =
+      new DefaultRedisScript<>(
+          SET_LINE_FUNCTION
+              + """
+              if redis.call('EXISTS', KEYS[1]) == 0 then
+                return {}
+              end
+              if ARGV[2] == '1' then
+                local cart = redis.call('HMGET', KEYS[1], 'cart', 'version')
+                redis.call('DEL', KEYS[1])
+                redis.call('HSET', KEYS[1], 'cart', cart[1], 'version', cart[2], 'total', 0, 'items', 0)
+              end
+              for i = 3, #ARGV, 3 do
+                setLine(ARGV[i], tonumber(ARGV[i + 1]), tonumber(ARGV[i + 2]))
+              end
+              """
+              + COMMIT_CHANGE,
+          List.class);
+
+  // ARGV: userId, productId, quantity cộng thêm, stock, price. Cộng dồn ngay trong Redis để các lần
+  // thêm đồng thời không ghi đè nhau; trả về { 0 } nếu số lượng mới vượt tồn kho, rỗng nếu hash
+  // không có.
+  @SuppressWarnings("rawtypes")
+  private static final RedisScript<List> ADD_SCRIPT =
+      new DefaultRedisScript<>(
+          SET_LINE_FUNCTION
+              + """
+              if redis.call('EXISTS', KEYS[1]) == 0 then
+                return {}
+              end
+              local quantity = tonumber(redis.call('HGET', KEYS[1], ARGV[2]) or '0') + tonumber(ARGV[3])
+              if quantity > tonumber(ARGV[4]) then
+                return { 0 }
+              end
+              setLine(ARGV[2], quantity, tonumber(ARGV[5]))
+              """
+              + COMMIT_CHANGE,
+          List.class);
+
+  // Sau khi ghi xuống DB: cho hash hết hạn nếu không bị thay đổi lại trong lúc ghi
+  private static final RedisScript<Long> EXPIRE_CLEAN_SCRIPT =
+      new DefaultRedisScript<>(
+          """
+          if redis.call('SISMEMBER', KEYS[2], ARGV[1]) == 0 then
+            return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+          end
+          return 0
+          """,
+          Long.class);
+
+  private static final RedisScript<Long> RELEASE_LOCK_SCRIPT =
+      new DefaultRedisScript<>(
+          """
+          if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('DEL', KEYS[1])
+          end
+          return 0
+          """,
+          Long.class);
+
+  private static final RedisScript<Long> RENEW_LOCK_SCRIPT =
+      new DefaultRedisScript<>(
+          """
+          if redis.call('GET', KEYS[1]) == ARGV[1] then
+            return redis.call('PEXPIRE', KEYS[1], ARGV[2])
+          end
+          return 0
+          """,
+          Long.class);
+
+  private final StringRedisTemplate stringRedisTemplate;
+
+  @Value("${app.cart-store.mode:database}")
+  private String mode;
+
+  @Value("${app.cart-store.key-prefix:cart:}")
+  private String keyPrefix;
+
+  @Value("${app.cart-store.idle-ttl:86400000}")
+  private long idleTtlMillis;
+
+  private final String nodeId = UUID.randomUUID().toString();
+
+  public boolean isEnabled() {
+    return "redis".equalsIgnoreCase(mode);
+  }
+
+  // Giỏ hàng nóng của user, nạp từ DB bằng loader nếu chưa có trong Redis
+  public HotCart get(Long userId, Supplier<HotCart> loader) {
+    return peek(userId).orElseGet(() -> load(userId, loader));
+  }
+
+  // Giỏ hàng nóng nếu đang có trong Redis, không nạp từ DB
+  public Optional<HotCart> peek(Long userId) {
+    Map<Object, Object> entries = stringRedisTemplate.opsForHash().entries(cartKey(userId));
+    return entries.isEmpty() ? Optional.empty() : Optional.of(HotCart.of(entries));
+  }
+
+  // Ghi các dòng (quantity <= 0 là xóa dòng), clear = xóa toàn bộ dòng trước khi ghi. Trả về giỏ
+  // hàng sau thay đổi.
+  public HotCart apply(Long userId, boolean clear, List<Line> lines, Supplier<HotCart> loader) {
+    List<String> args = new ArrayList<>(2 + lines.size() * 3);
+    args.add(userId.toString());
+    args.add(clear ? "1" : "0");
+    lines.forEach(
+        line -> {
+          args.add(line.productId().toString());
+          args.add(Integer.toString(line.quantity()));
+          args.add(Long.toString(toMinorUnits(line.price())));
+        });
+    return execute(APPLY_SCRIPT, userId, args, loader)
+        .orElseThrow(
+            () -> new IllegalStateException("Không thể cập nhật giỏ hàng của user " + userId));
+  }
+
+  // Cộng quantity vào dòng của sản phẩm (tạo dòng nếu chưa có) trong một script. Rỗng nếu số lượng
+  // sau khi cộng vượt quá stock, khi đó giỏ hàng không đổi.
+  public Optional<HotCart> add(Long userId, Line line, int stock, Supplier<HotCart> loader) {
+    List<String> args =
+        List.of(
+            userId.toString(),
+            line.productId().toString(),
+            Integer.toString(line.quantity()),
+            Integer.toString(stock),
+            Long.toString(toMinorUnits(line.price())));
+    return execute(ADD_SCRIPT, userId, args, loader);
+  }
+
+  // Chạy script thay đổi, nạp lại từ DB rồi thử lại một lần nếu hash không có. Kết quả chỉ có một
+  // phần tử nghĩa là script từ chối thay đổi.
+  @SuppressWarnings("rawtypes")
+  private Optional<HotCart> execute(
+      RedisScript<List> script, Long userId, List<String> args, Supplier<HotCart> loader) {
+    List<String> keys = List.of(cartKey(userId), dirtyKey());
+    Object[] argv = args.toArray();
+    List<?> result = stringRedisTemplate.execute(script, keys, argv);
+    if (result == null || result.isEmpty()) {
+      load(userId, loader);
+      result = stringRedisTemplate.execute(script, keys, argv);
+      if (result == null || result.isEmpty()) {
+        throw new IllegalStateException("Không thể cập nhật giỏ hàng của user " + userId);
+      }
+    }
+    return result.size() == 1 ? Optional.empty() : Optional.of(HotCart.of(result));
+  }
+
+  // === Write-behind ===
+
+  // Lấy ra tối đa limit user có giỏ hàng chưa ghi xuống DB
+  public List<Long> popDirty(int limit) {
+    List<String> members = stringRedisTemplate.opsForSet().pop(dirtyKey(), limit);
+    return members == null ? List.of() : members.stream().map(Long::valueOf).toList();
+  }
+
+  // Đánh dấu lại khi ghi xuống DB thất bại
+  public void markDirty(Collection<Long> userIds) {
+    if (!userIds.isEmpty()) {
+      stringRedisTemplate
+          .opsForSet()
+          .add(dirtyKey(), userIds.stream().map(String::valueOf).toArray(String[]::new));
+    }
+  }
+
+  // Đọc giỏ hàng của nhiều user trong 1 round trip (pipeline); user không còn hash bị bỏ qua
+  public Map<Long, HotCart> snapshots(List<Long> userIds) {
+    List<Object> results =
+        stringRedisTemplate.executePipelined(
+            (RedisCallback<Object>)
+                connection -> {
+                  for (Long userId : userIds) {
+                    connection.hashCommands().hGetAll(bytes(cartKey(userId)));
+                  }
+                  return null;
+                });
+
+    Map<Long, HotCart> snapshots = new LinkedHashMap<>();
+    for (int i = 0; i < userIds.size(); i++) {
+      if (results.get(i) instanceof Map<?, ?> entries && !entries.isEmpty()) {
+        snapshots.put(userIds.get(i), HotCart.of(entries));
+      }
+    }
+    return snapshots;
+  }
+
+  public void expireClean(Collection<Long> userIds) {
+    for (Long userId : userIds) {
+      stringRedisTemplate.execute(
+          EXPIRE_CLEAN_SCRIPT,
+          List.of(cartKey(userId), dirtyKey()),
+          userId.toString(),
+          Long.toString(idleTtlMillis));
+    }
+  }
+
+  // Chỉ một node ghi xuống DB tại một thời điểm, để các lần ghi cùng một giỏ không bị đảo thứ tự
+  public boolean tryLockFlush(Duration lease) {
+    return Boolean.TRUE.equals(
+        stringRedisTemplate.opsForValue().setIfAbsent(flushLockKey(), nodeId, lease));
+  }
+
+  // Gia hạn khóa đang giữ; false nếu khóa đã hết hạn (node khác có thể đã lấy khóa)
+  public boolean renewFlushLock(Duration lease) {
+    Long renewed =
+        stringRedisTemplate.execute(
+            RENEW_LOCK_SCRIPT, List.of(flushLockKey()), nodeId, Long.toString(lease.toMillis()));
+    return renewed != null && renewed == 1;
+  }
+
+  public void unlockFlush() {
+    stringRedisTemplate.execute(RELEASE_LOCK_SCRIPT, List.of(flushLockKey()), nodeId);
+  }
+
+  private HotCart load(Long userId, Supplier<HotCart> loader) {
+    HotCart cart = loader.get();
+    List<String> args = new ArrayList<>(9 + cart.quantities().size() * 4);
+    args.add(Long.toString(idleTtlMillis));
+    args.add(CART_ID_FIELD);
+    args.add(cart.cartId().toString());
+    args.add(VERSION_FIELD);
+    args.add(Long.toString(cart.version()));
+    args.add(TOTAL_FIELD);
+    args.add(Long.toString(toMinorUnits(cart.total())));
+    args.add(ITEMS_FIELD);
+    args.add(Integer.toString(cart.totalItems()));
+    cart.quantities()
+        .forEach(
+            (productId, quantity) -> {
+              args.add(productId.toString());
+              args.add(quantity.toString());
+              args.add(PRICE_FIELD_PREFIX + productId);
+              args.add(Long.toString(toMinorUnits(cart.prices().get(productId))));
+            });
+    stringRedisTemplate.execute(LOAD_SCRIPT, List.of(cartKey(userId)), args.toArray());
+    log.debug("Loaded cart of user {} into Redis", userId);
+    // Node khác có thể đã nạp / thay đổi trước, đọc lại bản trong Redis
+    return peek(userId).orElse(cart);
+  }
+
+  private static long toMinorUnits(BigDecimal amount) {
+    return amount.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  private static byte[] bytes(String value) {
+    return value.getBytes(StandardCharsets.UTF_8);
+  }
+
+  private String cartKey(Long userId) {
+    return keyPrefix + userId;
+  }
+
+  private String dirtyKey() {
+    return keyPrefix + "dirty";
+  }
+
+  private String flushLockKey() {
+    return keyPrefix + "flush-lock";
+  }
+
+  // Dòng cần ghi: đơn giá được lưu cùng dòng để tính tổng giỏ hàng mà không phải nạp sản phẩm
+  public record Line(Long productId, int quantity, BigDecimal price) {}
+
+  // Giỏ hàng trong Redis: id giỏ hàng trong DB, version, productId -> quantity / đơn giá theo thứ
+  // tự
+  // productId, tổng tiền và tổng số lượng. Đơn giá là giá lúc dòng được ghi lần cuối (giỏ hàng đầy
+  // đủ vẫn tính theo giá hiện tại của sản phẩm).
+  public record HotCart(
+      Long cartId,
+      long version,
+      Map<Long, Integer> quantities,
+      Map<Long, BigDecimal> prices,
+      BigDecimal total,
+      int totalItems) {
+
+    // Giỏ hàng nạp từ DB: tổng được tính từ các dòng
+    public static HotCart of(
+        Long cartId, long version, Map<Long, Integer> quantities, Map<Long, BigDecimal> prices) {
+      BigDecimal total = BigDecimal.ZERO;
+      int totalItems = 0;
+      for (Map.Entry<Long, Integer> line : quantities.entrySet()) {
+        total = total.add(prices.get(line.getKey()).multiply(BigDecimal.valueOf(line.getValue())));
+        totalItems += line.getValue();
+      }
+      return new HotCart(cartId, version, quantities, prices, total, totalItems);
+    }
+
+    static HotCart of(Map<?, ?> entries) {
+      Long cartId = null;
+      long version = 0;
+      BigDecimal total = BigDecimal.ZERO;
+      int totalItems = 0;
+      Map<Long, Integer> quantities = new TreeMap<>();
+      Map<Long, BigDecimal> prices = new TreeMap<>();
+      for (Map.Entry<?, ?> entry : entries.entrySet()) {
+        String field = String.valueOf(entry.getKey());
+        String value = String.valueOf(entry.getValue());
+        if (CART_ID_FIELD.equals(field)) {
+          cartId = Long.valueOf(value);
+        } else if (VERSION_FIELD.equals(field)) {
+          version = Long.parseLong(value);
+        } else if (TOTAL_FIELD.equals(field)) {
+          total = fromMinorUnits(value);
+        } else if (ITEMS_FIELD.equals(field)) {
+          totalItems = Integer.parseInt(value);
+        } else if (field.startsWith(PRICE_FIELD_PREFIX)) {
+          prices.put(
+              Long.valueOf(field.substring(PRICE_FIELD_PREFIX.length())), fromMinorUnits(value));
+        } else {
+          quantities.put(Long.valueOf(field), Integer.valueOf(value));
+        }
+      }
+      return new HotCart(cartId, version, quantities, prices, total, totalItems);
+    }
+
+    // Kết quả HGETALL trả về từ script: field, value xen kẽ
+    static HotCart of(List<?> fieldsAndValues) {
+      Map<Object, Object> entries = new LinkedHashMap<>();
+      for (int i = 0; i + 1 < fieldsAndValues.size(); i += 2) {
+        entries.put(fieldsAndValues.get(i), fieldsAndValues.get(i + 1));
+      }
+      return of(entries);
+    }
+
+    private static BigDecimal fromMinorUnits(String value) {
+      return BigDecimal.valueOf(Long.parseLong(value), PRICE_SCALE);
+    }
+  }
+}
@@ -0,0 +1,36 @@
+package iuh.fit.se.service;
+
+import java.util.Collection;
+import java.util.function.Consumer;
+
+import org.hibernate.Hibernate;
+import org.hibernate.Session;
+import org.springframework.stereotype.Component;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Đồng bộ entity đang được quản lý trong transaction sau các câu UPDATE ... RETURNING native (không
+// qua entity, không dùng được @Modifying(clearAutomatically)). Entity chưa được nạp thì bỏ qua,
+// không phát sinh query; entity đã nạp mà không refresh sẽ giữ giá trị cũ và có thể ghi đè lại khi
+// flush.
+@Component
+public class ManagedEntityRefresher {
+  @PersistenceContext private EntityManager entityManager;
+
+  // Đọc lại từ DB các entity đã được nạp trong persistence context
+  public <T> void refreshIfLoaded(Class<T> type, Collection<?> ids) {
+    for (Object id : ids) {
+      ifLoaded(type, id, entityManager::refresh);
+    }
+  }
+
+  // Chạy action trên entity nếu nó đã được nạp. getReference trả về instance đang được quản lý nếu
+  // có, ngược lại là proxy chưa khởi tạo (không query)
+  public <T> void ifLoaded(Class<T> type, Object id, Consumer<T> action) {
+    T entity = entityManager.unwrap(Session.class).getReference(type, id);
+    if (Hibernate.isInitialized(entity)) {
+      action.accept(entity);
+    }
+  }
+}
@@ -19,6 +19,8 @@ import iuh.fit.se.exception.ResourceNotFoundException;
 import iuh.fit.se.mapper.NotificationMapper;
 import iuh.fit.se.repository.NotificationRepository;
 import iuh.fit.se.repository.UserRepository;
+import iuh.fit.se.util.Cursor;
+import iuh.fit.se.util.CursorPage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -66,6 +68,22 @@ public class NotificationService {
     return notifications.map(notificationMapper::toNotificationResponse);
   }
 
+  /** Lấy notifications của user theo cursor (createdAt, id), không đếm tổng số */
+  @Transactional(readOnly = true)
+  public CursorPage<NotificationResponse> getUserNotifications(
+      Long userId, Boolean isRead, NotificationType type, String cursor, int size) {
+    Cursor after = Cursor.decode(cursor);
+    List<Notification> notifications =
+        notificationRepository.findUserPageAfter(
+            userId, isRead, type, after.timestamp(), after.id(), PageRequest.of(0, size + 1));
+    return CursorPage.of(
+            notifications,
+            size,
+            notification -> new Cursor(notification.getCreatedAt(), notification.getId()),
+            null)
+        .map(notificationMapper::toNotificationResponse);
+  }
+
   /** Đánh dấu notification là đã đọc */
   @Transactional
   public void markAsRead(Long userId, Long notificationId) {
@@ -143,9 +161,22 @@ public class NotificationService {
             customerName, orderNumber, totalAmount);
     String linkUrl = "/admin/orders/" + orderId;
 
-    for (User admin : admins) {
-      createNotification(admin.getId(), NotificationType.ORDER, title, message, linkUrl);
-    }
+    // Tạo notification trực tiếp từ danh sách admin đã load, không query lại từng user
+    List<Notification> notifications =
+        admins.stream()
+            .map(
+                admin -> {
+                  Notification notification = new Notification();
+                  notification.setUser(admin);
+                  notification.setType(NotificationType.ORDER);
+                  notification.setTitle(title);
+                  notification.setMessage(message);
+                  notification.setLinkUrl(linkUrl);
+                  notification.setIsRead(false);
+                  return notification;
+                })
+            .toList();
+    notificationRepository.saveAll(notifications);
 
     log.info("Sent new order notification to {} admins for order {}", admins.size(), orderNumber);
   }
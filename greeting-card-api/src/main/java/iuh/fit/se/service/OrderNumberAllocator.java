@@ -0,0 +1,103 @@
+package iuh.fit.se.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Service;
+
+import iuh.fit.se.repository.OrderRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Cấp phát order number dạng ORD-yyyy-MM-dd-NNN. Bộ đếm theo ngày nằm trong Redis, mỗi node lấy
+// một block số bằng INCRBY rồi cấp dần từ block trong bộ nhớ, nên phần lớn đơn hàng không cần round
+// trip nào và các node không bao giờ trùng số (số có thể không liên tục giữa các node).
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OrderNumberAllocator {
+  private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd");
+  private static final Duration COUNTER_TTL = Duration.ofDays(2);
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final OrderRepository orderRepository;
+
+  @Value("${app.order-number.block-size:20}")
+  private int blockSize;
+
+  @Value("${app.order-number.key-prefix:order_number:}")
+  private String keyPrefix;
+
+  private volatile Block block = Block.EXHAUSTED;
+
+  public String nextOrderNumber() {
+    LocalDate today = LocalDate.now();
+    long sequence = nextSequence(today);
+    return String.format("ORD-%s-%03d", today.format(DATE_FORMAT), sequence);
+  }
+
+  private long nextSequence(LocalDate date) {
+    // Fast path: lấy số tiếp theo trong block hiện tại, không khóa
+    Block current = block;
+    long sequence = current.take(date);
+    if (sequence > 0) {
+      return sequence;
+    }
+
+    synchronized (this) {
+      // Thread khác có thể đã lấy block mới trong lúc chờ
+      sequence = block.take(date);
+      if (sequence > 0) {
+        return sequence;
+      }
+      block = allocateBlock(date);
+      return block.take(date);
+    }
+  }
+
+  private Block allocateBlock(LocalDate date) {
+    String key = keyPrefix + date.format(DATE_FORMAT);
+
+    // Bộ đếm chưa có (ngày mới, Redis bị flush, lần deploy đầu): khởi tạo từ số lớn nhất trong DB
+    if (!Boolean.TRUE.equals(stringRedisTemplate.hasKey(key))) {
+      String prefix = "ORD-" + date.format(DATE_FORMAT) + "-";
+      long seed = orderRepository.findMaxOrderSequence(prefix);
+      stringRedisTemplate.opsForValue().setIfAbsent(key, Long.toString(seed), COUNTER_TTL);
+    }
+
+    Long end = stringRedisTemplate.opsForValue().increment(key, blockSize);
+    if (end == null) {
+      throw new IllegalStateException("Không thể cấp phát order number");
+    }
+    log.debug("Allocated order number block {}..{} for {}", end - blockSize + 1, end, date);
+    return new Block(date, end - blockSize + 1, end);
+  }
+
+  // Block số [next, end] của một ngày
+  private static final class Block {
+    static final Block EXHAUSTED = new Block(LocalDate.MIN, 1, 0);
+
+    private final LocalDate date;
+    private final AtomicLong next;
+    private final long end;
+
+    Block(LocalDate date, long start, long end) {
+      this.date = date;
+      this.next = new AtomicLong(start);
+      this.end = end;
+    }
+
+    // Trả về số tiếp theo, hoặc 0 nếu block đã hết hoặc thuộc ngày khác
+    long take(LocalDate today) {
+      if (!date.equals(today)) {
+        return 0;
+      }
+      long sequence = next.getAndIncrement();
+      return sequence <= end ? sequence : 0;
+    }
+  }
+}
@@ -1,13 +1,14 @@
 package iuh.fit.se.service;
 
 import java.math.BigDecimal;
-import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -16,7 +17,6 @@ import iuh.fit.se.dto.request.CreateOrderRequest;
 import iuh.fit.se.dto.request.UpdateOrderStatusRequest;
 import iuh.fit.se.dto.response.OrderResponse;
 import iuh.fit.se.dto.response.OrderStatusHistoryResponse;
-import iuh.fit.se.entity.Cart;
 import iuh.fit.se.entity.CartItem;
 import iuh.fit.se.entity.Coupon;
 import iuh.fit.se.entity.Order;
@@ -28,20 +28,29 @@ import iuh.fit.se.entity.Promotion;
 import iuh.fit.se.entity.User;
 import iuh.fit.se.entity.UserAddress;
 import iuh.fit.se.entity.enumeration.OrderStatus;
+import iuh.fit.se.entity.enumeration.OutboxEventType;
 import iuh.fit.se.entity.enumeration.PaymentStatus;
-import iuh.fit.se.entity.enumeration.PromotionType;
+import iuh.fit.se.event.PromotionChangedEvent;
 import iuh.fit.se.exception.ResourceNotFoundException;
 import iuh.fit.se.mapper.OrderMapper;
-import iuh.fit.se.repository.CartRepository;
 import iuh.fit.se.repository.CouponRepository;
 import iuh.fit.se.repository.OrderItemRepository;
 import iuh.fit.se.repository.OrderRepository;
+import iuh.fit.se.repository.OrderRepository.OrderKeyRow;
 import iuh.fit.se.repository.OrderStatusHistoryRepository;
 import iuh.fit.se.repository.PaymentMethodRepository;
-import iuh.fit.se.repository.ProductRepository;
 import iuh.fit.se.repository.PromotionRepository;
 import iuh.fit.se.repository.UserAddressRepository;
 import iuh.fit.se.repository.UserRepository;
+import iuh.fit.se.service.DashboardRollupService.OrderFacts;
+import iuh.fit.se.service.PricingEngine.CartLine;
+import iuh.fit.se.service.PricingEngine.CouponTerms;
+import iuh.fit.se.service.PricingEngine.LinePrice;
+import iuh.fit.se.service.PricingEngine.PricingResult;
+import iuh.fit.se.service.StockService.StockLine;
+import iuh.fit.se.util.Cursor;
+import iuh.fit.se.util.CursorPage;
+import iuh.fit.se.util.PaginationUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -50,23 +59,26 @@ import lombok.extern.slf4j.Slf4j;
 @Transactional
 @Slf4j
 public class OrderService {
-  // Shipping fee constants
-  private static final BigDecimal SHIPPING_FEE = new BigDecimal("30000");
-  private static final BigDecimal FREE_SHIPPING_THRESHOLD = new BigDecimal("500000");
+  private static final Function<OrderKeyRow, Cursor> ORDER_CURSOR =
+      key -> new Cursor(key.getOrderDate(), key.getId());
 
   private final OrderRepository orderRepository;
   private final OrderItemRepository orderItemRepository;
   private final OrderStatusHistoryRepository orderStatusHistoryRepository;
-  private final CartRepository cartRepository;
   private final UserRepository userRepository;
   private final UserAddressRepository userAddressRepository;
   private final PaymentMethodRepository paymentMethodRepository;
   private final CouponRepository couponRepository;
   private final PromotionRepository promotionRepository;
-  private final ProductRepository productRepository;
+  private final PricingEngine pricingEngine;
+  private final OrderNumberAllocator orderNumberAllocator;
+  private final StockService stockService;
   private final OrderMapper orderMapper;
-  private final NotificationService notificationService;
-  private final EmailService emailService;
+  private final OutboxService outboxService;
+  private final DashboardRollupService dashboardRollupService;
+  private final CartService cartService;
+  private final ManagedEntityRefresher managedEntityRefresher;
+  private final ApplicationEventPublisher eventPublisher;
 
   // Tạo đơn hàng mới từ giỏ hàng của user (yêu cầu: user đã login, giỏ hàng không rỗng)
   @SuppressWarnings("null")
@@ -77,13 +89,10 @@ public class OrderService {
             .findById(userId)
             .orElseThrow(() -> new ResourceNotFoundException("User không tồn tại"));
 
-    // 2. Get cart and validate
-    Cart cart =
-        cartRepository
-            .findByUserIdWithItems(userId)
-            .orElseThrow(() -> new IllegalArgumentException("Giỏ hàng trống"));
+    // 2. Get cart and validate (đọc từ nơi lưu chính của giỏ hàng: DB hoặc Redis)
+    List<CartItem> cartItems = cartService.getCartItems(userId);
 
-    if (cart.getItems().isEmpty()) {
+    if (cartItems.isEmpty()) {
       throw new IllegalArgumentException("Giỏ hàng trống");
     }
 
@@ -106,7 +115,6 @@ public class OrderService {
 
     // 5. Validate and apply coupon (if provided)
     Coupon coupon = null;
-    BigDecimal discountAmount = BigDecimal.ZERO;
     if (request.getCouponCode() != null && !request.getCouponCode().trim().isEmpty()) {
       coupon =
           couponRepository
@@ -118,202 +126,107 @@ public class OrderService {
       }
     }
 
-    // 6. Calculate total amount and validate stock
-    BigDecimal totalAmount = BigDecimal.ZERO;
-    for (CartItem item : cart.getItems()) {
-      Product product = item.getProduct();
+    // 6. Price the cart (promotions + coupon + shipping) with the shared pricing engine
+    PricingResult pricing = pricingEngine.price(CartLine.of(cartItems), CouponTerms.of(coupon));
 
-      // Validate stock
-      if (product.getStock() < item.getQuantity()) {
-        throw new IllegalArgumentException(
-            "Sản phẩm '"
-                + product.getName()
-                + "' không đủ số lượng. Còn lại: "
-                + product.getStock());
-      }
-
-      totalAmount =
-          totalAmount.add(product.getPrice().multiply(BigDecimal.valueOf(item.getQuantity())));
-    }
-
-    // 7. Apply coupon discount
     if (coupon != null) {
       // Check minimum purchase
-      if (coupon.getMinPurchase() != null && totalAmount.compareTo(coupon.getMinPurchase()) < 0) {
+      if (!pricing.couponEligible()) {
         throw new IllegalArgumentException(
             "Đơn hàng phải từ " + coupon.getMinPurchase() + "đ trở lên để áp dụng mã giảm giá");
       }
 
-      // Calculate discount
-      if (coupon.getDiscountType().name().equals("PERCENTAGE")) {
-        discountAmount =
-            totalAmount.multiply(coupon.getDiscountValue()).divide(BigDecimal.valueOf(100));
-        // Apply max discount if set
-        if (coupon.getMaxDiscount() != null
-            && discountAmount.compareTo(coupon.getMaxDiscount()) > 0) {
-          discountAmount = coupon.getMaxDiscount();
-        }
-      } else {
-        // FIXED_AMOUNT
-        discountAmount = coupon.getDiscountValue();
+      // Tăng lượt dùng bằng UPDATE có điều kiện (checkout đồng thời có thể dùng lượt cuối trước)
+      if (couponRepository.incrementUsedCount(coupon.getId()) == 0) {
+        throw new IllegalArgumentException("Mã giảm giá đã hết lượt sử dụng");
       }
-
-      // Update coupon usage
-      coupon.setUsedCount(coupon.getUsedCount() + 1);
-      couponRepository.save(coupon);
-    }
-
-    // 7.5. Find and apply promotions
-    Promotion appliedPromotion = null;
-    BigDecimal promotionDiscountAmount = BigDecimal.ZERO;
-    LocalDateTime now = LocalDateTime.now();
-
-    // Note: ORDER scope promotions are now only for BOGO, BUY_X_GET_Y, BUY_X_PAY_Y
-    // DISCOUNT type has been moved to Coupon
-    // ORDER scope promotions will be applied at item level if applicable
-
-    BigDecimal subtotalAfterDiscount =
-        totalAmount.subtract(discountAmount).subtract(promotionDiscountAmount);
-    if (subtotalAfterDiscount.compareTo(BigDecimal.ZERO) < 0) {
-      subtotalAfterDiscount = BigDecimal.ZERO;
+      managedEntityRefresher.refreshIfLoaded(Coupon.class, List.of(coupon.getId()));
     }
 
-    // 7.6. Calculate shipping fee (free if subtotal >= 500k)
-    BigDecimal shippingFee =
-        subtotalAfterDiscount.compareTo(FREE_SHIPPING_THRESHOLD) >= 0
-            ? BigDecimal.ZERO
-            : SHIPPING_FEE;
-
-    BigDecimal finalAmount = subtotalAfterDiscount.add(shippingFee);
+    // ORDER scope promotion (DISCOUNT) if any
+    Promotion appliedPromotion =
+        pricing.orderPromotion() != null
+            ? promotionRepository.getReferenceById(pricing.orderPromotion().id())
+            : null;
 
-    // 8. Create order
+    // 7. Create order
     Order order = new Order();
     order.setUser(user);
-    order.setOrderNumber(generateOrderNumber());
-    order.setTotalAmount(totalAmount);
-    order.setDiscountAmount(discountAmount);
-    order.setShippingFee(shippingFee);
-    order.setFinalAmount(finalAmount);
+    order.setOrderNumber(orderNumberAllocator.nextOrderNumber());
+    order.setTotalAmount(pricing.originalTotalAmount());
+    order.setDiscountAmount(pricing.couponDiscountAmount());
+    order.setShippingFee(pricing.shippingFeeAmount());
+    order.setFinalAmount(pricing.finalTotalAmount());
     order.setStatus(OrderStatus.PENDING);
     order.setPaymentStatus(PaymentStatus.PENDING);
     order.setShippingAddress(shippingAddress);
     order.setPaymentMethod(paymentMethod);
     order.setCoupon(coupon);
     order.setPromotion(appliedPromotion);
-    order.setPromotionDiscountAmount(promotionDiscountAmount);
+    order.setPromotionDiscountAmount(pricing.promotionDiscountAmount());
     order.setNotes(request.getNotes());
 
     order = orderRepository.save(order);
 
-    // 9. Create order items, apply promotions, and update stock
-    for (CartItem cartItem : cart.getItems()) {
+    // 8. Create order items
+    List<StockLine> stockLines = new ArrayList<>(cartItems.size());
+    List<OrderItem> orderItems = new ArrayList<>(cartItems.size());
+    for (int i = 0; i < cartItems.size(); i++) {
+      CartItem cartItem = cartItems.get(i);
+      LinePrice line = pricing.lines().get(i);
       Product product = cartItem.getProduct();
 
-      // Find PRODUCT scope promotions for this product
-      List<Promotion> productPromotions =
-          new java.util.ArrayList<>(
-              promotionRepository.findActivePromotionsForProduct(product.getId(), now));
-
-      // Also check CATEGORY scope promotions
-      if (product.getCategory() != null) {
-        List<Promotion> categoryPromotions =
-            promotionRepository.findActivePromotionsForCategory(product.getCategory().getId(), now);
-        productPromotions.addAll(categoryPromotions);
-      }
-
-      Promotion itemPromotion = null;
-      BigDecimal itemPromotionDiscount = BigDecimal.ZERO;
-      Integer itemPromotionQuantityFree = 0;
-
-      // Apply first valid promotion (BOGO, BUY_X_GET_Y, BUY_X_PAY_Y)
-      // Note: DISCOUNT type has been moved to Coupon
-      for (Promotion promotion : productPromotions) {
-        if (promotion.getType() == PromotionType.BOGO) {
-          // Buy 1 Get 1 Free - mua bao nhiêu tặng bấy nhiêu
-          int freeQuantity = cartItem.getQuantity(); // Mua 1 tặng 1, mua 2 tặng 2, ...
-          if (freeQuantity > 0) {
-            itemPromotion = promotion;
-            itemPromotionQuantityFree = freeQuantity;
-            itemPromotionDiscount = product.getPrice().multiply(BigDecimal.valueOf(freeQuantity));
-            break;
-          }
-        } else if (promotion.getType() == PromotionType.BUY_X_GET_Y) {
-          // Buy X Get Y
-          int sets =
-              cartItem.getQuantity() / (promotion.getBuyQuantity() + promotion.getGetQuantity());
-          int freeQuantity = sets * promotion.getGetQuantity();
-          if (freeQuantity > 0) {
-            itemPromotion = promotion;
-            itemPromotionQuantityFree = freeQuantity;
-            itemPromotionDiscount = product.getPrice().multiply(BigDecimal.valueOf(freeQuantity));
-            break;
-          }
-        } else if (promotion.getType() == PromotionType.BUY_X_PAY_Y) {
-          // Buy X Pay Y
-          int sets = cartItem.getQuantity() / promotion.getBuyQuantity();
-          int paidQuantity = sets * promotion.getPayQuantity();
-          int freeQuantity = cartItem.getQuantity() - paidQuantity;
-          if (freeQuantity > 0) {
-            itemPromotion = promotion;
-            itemPromotionQuantityFree = freeQuantity;
-            itemPromotionDiscount = product.getPrice().multiply(BigDecimal.valueOf(freeQuantity));
-            break;
-          }
-        }
-      }
-
       OrderItem orderItem = new OrderItem();
       orderItem.setOrder(order);
       orderItem.setProduct(product);
+      orderItem.setCategoryId(product.getCategory().getId());
       orderItem.setQuantity(cartItem.getQuantity());
       orderItem.setPrice(product.getPrice());
-      orderItem.setSubtotal(
-          product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity())));
-      orderItem.setPromotion(itemPromotion);
-      orderItem.setPromotionDiscountAmount(itemPromotionDiscount);
-      orderItem.setPromotionQuantityFree(itemPromotionQuantityFree);
-
-      // Validate stock including free items
-      int totalQuantityNeeded = cartItem.getQuantity() + itemPromotionQuantityFree;
-      if (product.getStock() < totalQuantityNeeded) {
-        throw new IllegalArgumentException(
-            "Sản phẩm '"
-                + product.getName()
-                + "' không đủ số lượng (cần "
-                + totalQuantityNeeded
-                + " bao gồm sản phẩm tặng). Còn lại: "
-                + product.getStock());
-      }
+      orderItem.setSubtotal(line.subtotalAmount());
+      orderItem.setPromotion(
+          line.promotion() != null
+              ? promotionRepository.getReferenceById(line.promotion().id())
+              : null);
+      orderItem.setPromotionDiscountAmount(line.discountAmount());
+      orderItem.setPromotionQuantityFree(line.freeQuantity());
 
       orderItemRepository.save(orderItem);
+      orderItems.add(orderItem);
 
-      // Update product stock (subtract quantity + free items - cả sản phẩm mua và tặng)
-      product.setStock(product.getStock() - totalQuantityNeeded);
-      productRepository.save(product);
+      // Tồn kho cần giữ gồm cả sản phẩm tặng (BOGO / BUY_X_GET_Y)
+      stockLines.add(new StockLine(product.getId(), cartItem.getQuantity() + line.bonusQuantity()));
     }
 
-    // Update promotion usage count if applied
+    // 9. Reserve stock - trừ tồn kho có điều kiện cho tất cả các dòng trong 1 câu lệnh, để cuối
+    // transaction để giữ khóa dòng products ngắn nhất
+    List<StockLine> outOfStock = stockService.reserveStock(stockLines);
+    if (!outOfStock.isEmpty()) {
+      throw new IllegalArgumentException(outOfStockMessage(cartItems, outOfStock));
+    }
+
+    // Tăng lượt dùng promotion bằng UPDATE có điều kiện; sau khi commit PromotionIndexService nạp
+    // lại promotion để không tiếp tục áp dụng promotion đã hết lượt
     if (appliedPromotion != null) {
-      appliedPromotion.setUsedCount(appliedPromotion.getUsedCount() + 1);
-      promotionRepository.save(appliedPromotion);
+      if (promotionRepository.incrementUsedCount(appliedPromotion.getId()) == 0) {
+        throw new IllegalArgumentException(
+            "Khuyến mãi " + pricing.orderPromotion().name() + " đã hết lượt sử dụng");
+      }
+      managedEntityRefresher.refreshIfLoaded(Promotion.class, List.of(appliedPromotion.getId()));
+      eventPublisher.publishEvent(new PromotionChangedEvent(appliedPromotion.getId()));
     }
 
     // 10. Create order status history
     createStatusHistory(order, OrderStatus.PENDING, "Đơn hàng mới được tạo", user);
+    dashboardRollupService.recordChange(null, OrderFacts.of(order, orderItems));
 
     // 11. Clear cart
-    cart.clearItems();
-    cartRepository.save(cart);
+    cartService.clearAfterCheckout(userId);
 
     log.info("Created order {} for user {}", order.getOrderNumber(), userId);
 
-    // 12. Send notification to admins about new order
-    String orderTotalAmount = order.getFinalAmount().toString();
-    notificationService.notifyAdminsNewOrder(
-        order.getId(), order.getOrderNumber(), user.getFullName(), orderTotalAmount);
-
-    // 13. Send email notification
-    emailService.sendOrderConfirmationEmail(user, order);
+    // 12. Queue admin notifications and confirmation email (xử lý sau khi commit qua outbox)
+    outboxService.enqueue(OutboxEventType.ADMIN_NEW_ORDER_NOTIFICATION, order.getId(), null);
+    outboxService.enqueue(OutboxEventType.ORDER_CONFIRMATION_EMAIL, order.getId(), null);
 
     return orderMapper.toOrderResponse(order);
   }
@@ -321,10 +234,24 @@ public class OrderService {
   // Get user orders (pagination)
   @Transactional(readOnly = true)
   public Page<OrderResponse.Simple> getUserOrders(Long userId, Pageable pageable) {
-    Page<Order> orders = orderRepository.findByUserIdOrderByOrderDateDesc(userId, pageable);
+    Page<Order> orders =
+        PaginationUtil.fetchPage(
+            orderRepository.findIdsByUserId(userId, pageable),
+            orderRepository::findAllWithItemsByIdIn,
+            Order::getId);
     return orders.map(orderMapper::toSimpleOrderResponse);
   }
 
+  // Get user orders (cursor pagination theo orderDate, id)
+  @Transactional(readOnly = true)
+  public CursorPage<OrderResponse.Simple> getUserOrders(Long userId, String cursor, int size) {
+    Cursor after = Cursor.decode(cursor);
+    List<OrderKeyRow> keys =
+        orderRepository.findUserPageAfter(
+            userId, after.timestamp(), after.id(), PageRequest.of(0, size + 1));
+    return withItems(CursorPage.of(keys, size, ORDER_CURSOR, null));
+  }
+
   // Lấy chi tiết đơn hàng (user chỉ xem được đơn của mình)
   @Transactional(readOnly = true)
   public OrderResponse getOrderDetail(Long userId, Long orderId) {
@@ -370,6 +297,25 @@ public class OrderService {
     return orders.map(orderMapper::toSimpleOrderResponse);
   }
 
+  // Admin: Get orders (cursor pagination theo orderDate, id), tổng số đơn là số ước lượng
+  @Transactional(readOnly = true)
+  public CursorPage<OrderResponse.Simple> getAllOrders(
+      OrderStatus status, String cursor, int size) {
+    Cursor after = Cursor.decode(cursor);
+    List<OrderKeyRow> keys =
+        orderRepository.findPageAfter(
+            status, after.timestamp(), after.id(), PageRequest.of(0, size + 1));
+    Long estimatedTotal = status == null ? orderRepository.estimateCount() : null;
+    return withItems(CursorPage.of(keys, size, ORDER_CURSOR, estimatedTotal));
+  }
+
+  // Nạp orders của trang khóa cùng items trong 1 query (toSimpleOrderResponse đọc orderItems)
+  private CursorPage<OrderResponse.Simple> withItems(CursorPage<OrderKeyRow> keys) {
+    return PaginationUtil.fetchPage(
+            keys, OrderKeyRow::getId, orderRepository::findAllWithItemsByIdIn, Order::getId)
+        .map(orderMapper::toSimpleOrderResponse);
+  }
+
   // Admin: Get orders by status
   @Transactional(readOnly = true)
   public Page<OrderResponse.Simple> getOrdersByStatus(OrderStatus status, Pageable pageable) {
@@ -425,10 +371,12 @@ public class OrderService {
 
     // Validate status transition
     validateStatusTransition(order.getStatus(), request.getStatus());
+    OrderFacts before = OrderFacts.of(order);
 
     // Update status
     order.setStatus(request.getStatus());
     orderRepository.save(order);
+    dashboardRollupService.recordChange(before, OrderFacts.of(order));
 
     // Create status history
     createStatusHistory(order, request.getStatus(), request.getNotes(), admin);
@@ -441,8 +389,7 @@ public class OrderService {
 
     // Send notification to customer
     String statusLabel = getOrderStatusLabel(request.getStatus());
-    notificationService.notifyOrderStatusChange(
-        order.getUser().getId(), order.getId(), order.getOrderNumber(), statusLabel);
+    outboxService.enqueue(OutboxEventType.ORDER_STATUS_NOTIFICATION, order.getId(), statusLabel);
 
     return orderMapper.toOrderResponse(order);
   }
@@ -474,20 +421,23 @@ public class OrderService {
       throw new IllegalArgumentException("Số lượng phải lớn hơn 0");
     }
 
-    // Check stock availability
+    // Reserve / release stock for the difference
     Product product = orderItem.getProduct();
     int stockDiff = newQuantity - orderItem.getQuantity();
-    if (stockDiff > 0 && product.getStock() < stockDiff) {
+    if (stockDiff > 0 && !stockService.reserveStock(product.getId(), stockDiff)) {
       throw new IllegalArgumentException(
           "Sản phẩm '" + product.getName() + "' không đủ số lượng. Còn lại: " + product.getStock());
     }
+    if (stockDiff < 0) {
+      stockService.releaseStock(product.getId(), -stockDiff);
+    }
 
-    // Update stock
-    product.setStock(product.getStock() - stockDiff);
-    productRepository.save(product);
+    OrderFacts before = OrderFacts.of(order);
 
-    // Update order item quantity (subtotal is calculated by @PreUpdate)
+    // Update order item quantity. Subtotal được tính lại ngay (không chờ @PreUpdate lúc flush) để
+    // tổng tiền bên dưới dùng giá trị mới
     orderItem.setQuantity(newQuantity);
+    orderItem.setSubtotal(orderItem.getPrice().multiply(BigDecimal.valueOf(newQuantity)));
     orderItemRepository.save(orderItem);
 
     // Recalculate order totals
@@ -498,6 +448,7 @@ public class OrderService {
     order.setTotalAmount(newTotalAmount);
     order.setFinalAmount(newTotalAmount.subtract(order.getDiscountAmount()));
     orderRepository.save(order);
+    dashboardRollupService.recordChange(before, OrderFacts.of(order));
 
     // Add to status history
     User admin =
@@ -523,27 +474,25 @@ public class OrderService {
 
   // === HELPER METHODS ===
 
-  private String generateOrderNumber() {
-    LocalDate today = LocalDate.now();
-    String datePrefix = today.format(DateTimeFormatter.ofPattern("yyyy-MM-dd"));
-
-    Pageable pageable = Pageable.ofSize(1);
-    List<String> latestNumbers = orderRepository.findLatestOrderNumber(pageable);
-
-    int sequence = 1;
-    if (!latestNumbers.isEmpty()) {
-      String latestNumber = latestNumbers.get(0);
-      if (latestNumber.startsWith("ORD-" + datePrefix)) {
-        try {
-          String seqStr = latestNumber.substring(latestNumber.lastIndexOf('-') + 1);
-          sequence = Integer.parseInt(seqStr) + 1;
-        } catch (Exception e) {
-          log.warn("Failed to parse sequence from order number: {}", latestNumber);
-        }
-      }
-    }
-
-    return String.format("ORD-%s-%03d", datePrefix, sequence);
+  // Thông báo lỗi cho các dòng không giữ được tồn kho
+  private String outOfStockMessage(List<CartItem> items, List<StockLine> outOfStock) {
+    return outOfStock.stream()
+        .map(
+            line -> {
+              Product product =
+                  items.stream()
+                      .map(CartItem::getProduct)
+                      .filter(p -> p.getId().equals(line.productId()))
+                      .findFirst()
+                      .orElseThrow();
+              return "Sản phẩm '"
+                  + product.getName()
+                  + "' không đủ số lượng (cần "
+                  + line.quantity()
+                  + " bao gồm sản phẩm tặng). Còn lại: "
+                  + product.getStock();
+            })
+        .collect(Collectors.joining("; "));
   }
 
   // Create order status history record
@@ -0,0 +1,98 @@
+package iuh.fit.se.service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import iuh.fit.se.event.OutboxEventCreated;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Đưa outbox event lên worker pool có giới hạn: ngay sau khi transaction ghi event commit, và định
+// kỳ quét lại các event đến hạn retry / bị bỏ qua khi pool đầy / worker bị dừng giữa chừng.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxDispatcher {
+  private final OutboxService outboxService;
+
+  @Value("${app.outbox.workers:4}")
+  private int workers;
+
+  @Value("${app.outbox.queue-capacity:500}")
+  private int queueCapacity;
+
+  @Value("${app.outbox.batch-size:100}")
+  private int batchSize;
+
+  private ThreadPoolExecutor executor;
+
+  @PostConstruct
+  void start() {
+    AtomicInteger threadCount = new AtomicInteger();
+    executor =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+              Thread thread = new Thread(runnable, "outbox-" + threadCount.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            },
+            // Pool đầy: bỏ qua, event vẫn PENDING và sẽ được poll() nhận lại
+            new ThreadPoolExecutor.DiscardPolicy());
+  }
+
+  @PreDestroy
+  void stop() throws InterruptedException {
+    executor.shutdown();
+    executor.awaitTermination(10, TimeUnit.SECONDS);
+  }
+
+  @TransactionalEventListener
+  public void onOutboxEventCreated(OutboxEventCreated event) {
+    submit(event.outboxEventId());
+  }
+
+  @Scheduled(
+      initialDelayString = "${app.outbox.poll-interval:10000}",
+      fixedDelayString = "${app.outbox.poll-interval:10000}")
+  public void poll() {
+    int capacity = Math.min(batchSize, executor.getQueue().remainingCapacity());
+    if (capacity <= 0) {
+      return;
+    }
+    outboxService.findDueIds(capacity).forEach(this::submit);
+  }
+
+  private void submit(Long id) {
+    executor.execute(() -> dispatch(id));
+  }
+
+  private void dispatch(Long id) {
+    try {
+      if (!outboxService.claim(id)) {
+        return;
+      }
+      outboxService.process(id);
+    } catch (Exception e) {
+      try {
+        outboxService.markFailed(id, e);
+      } catch (Exception markError) {
+        // Event vẫn PROCESSING, sẽ được nhận lại khi hết lease
+        log.error("Failed to record outbox failure for event {}", id, markError);
+      }
+    }
+  }
+}
@@ -0,0 +1,174 @@
+package iuh.fit.se.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import iuh.fit.se.entity.Order;
+import iuh.fit.se.entity.OutboxEvent;
+import iuh.fit.se.entity.enumeration.OutboxEventType;
+import iuh.fit.se.entity.enumeration.OutboxStatus;
+import iuh.fit.se.event.OutboxEventCreated;
+import iuh.fit.se.exception.ResourceNotFoundException;
+import iuh.fit.se.repository.OrderRepository;
+import iuh.fit.se.repository.OutboxEventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Transactional outbox cho các side effect của đơn hàng (email, thông báo). Event được ghi cùng
+// transaction nghiệp vụ, sau đó OutboxDispatcher xử lý trên worker pool riêng với retry + backoff.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class OutboxService {
+  private static final List<OutboxStatus> DUE_STATUSES =
+      List.of(OutboxStatus.PENDING, OutboxStatus.PROCESSING);
+  private static final int MAX_ERROR_LENGTH = 2000;
+
+  private final OutboxEventRepository outboxEventRepository;
+  private final OrderRepository orderRepository;
+  private final NotificationService notificationService;
+  private final EmailService emailService;
+  private final ApplicationEventPublisher eventPublisher;
+
+  @Value("${app.outbox.max-attempts:8}")
+  private int maxAttempts;
+
+  @Value("${app.outbox.base-backoff:5000}")
+  private long baseBackoffMillis;
+
+  @Value("${app.outbox.max-backoff:600000}")
+  private long maxBackoffMillis;
+
+  @Value("${app.outbox.lease:300000}")
+  private long leaseMillis;
+
+  // Ghi một side effect vào outbox, trong transaction hiện tại
+  @Transactional(propagation = Propagation.MANDATORY)
+  public void enqueue(OutboxEventType type, Long aggregateId, String payload) {
+    OutboxEvent event = new OutboxEvent();
+    event.setType(type);
+    event.setAggregateId(aggregateId);
+    event.setPayload(payload);
+    event.setStatus(OutboxStatus.PENDING);
+    event.setAttempts(0);
+    event.setNextAttemptAt(LocalDateTime.now());
+
+    event = outboxEventRepository.save(event);
+    eventPublisher.publishEvent(new OutboxEventCreated(event.getId()));
+  }
+
+  @Transactional(readOnly = true)
+  public List<Long> findDueIds(int limit) {
+    return outboxEventRepository.findDueIds(
+        DUE_STATUSES, LocalDateTime.now(), Pageable.ofSize(limit));
+  }
+
+  // Nhận xử lý event, trả về false nếu event đã được worker khác nhận hoặc chưa đến hạn
+  @Transactional
+  public boolean claim(Long id) {
+    LocalDateTime now = LocalDateTime.now();
+    return outboxEventRepository.claim(
+            id,
+            DUE_STATUSES,
+            OutboxStatus.PROCESSING,
+            now,
+            now.plus(Duration.ofMillis(leaseMillis)))
+        > 0;
+  }
+
+  // Thực hiện side effect và đánh dấu DONE trong cùng transaction
+  @Transactional
+  @SuppressWarnings("null")
+  public void process(Long id) {
+    OutboxEvent event =
+        outboxEventRepository
+            .findById(id)
+            .orElseThrow(() -> new ResourceNotFoundException("Outbox event không tồn tại"));
+
+    switch (event.getType()) {
+      case ORDER_CONFIRMATION_EMAIL -> {
+        Order order = findOrder(event.getAggregateId(), true);
+        emailService.sendOrderConfirmationEmail(order.getUser(), order);
+      }
+      case ADMIN_NEW_ORDER_NOTIFICATION -> {
+        Order order = findOrder(event.getAggregateId(), false);
+        notificationService.notifyAdminsNewOrder(
+            order.getId(),
+            order.getOrderNumber(),
+            order.getUser().getFullName(),
+            order.getFinalAmount().toString());
+      }
+      case ORDER_STATUS_NOTIFICATION -> {
+        Order order = findOrder(event.getAggregateId(), false);
+        notificationService.notifyOrderStatusChange(
+            order.getUser().getId(), order.getId(), order.getOrderNumber(), event.getPayload());
+      }
+    }
+
+    event.setStatus(OutboxStatus.DONE);
+    event.setAttempts(event.getAttempts() + 1);
+    event.setProcessedAt(LocalDateTime.now());
+    event.setLastError(null);
+    outboxEventRepository.save(event);
+  }
+
+  // Ghi nhận lần xử lý thất bại: lên lịch retry với exponential backoff hoặc đánh dấu FAILED
+  @Transactional
+  @SuppressWarnings("null")
+  public void markFailed(Long id, Exception error) {
+    outboxEventRepository
+        .findById(id)
+        .ifPresent(
+            event -> {
+              int attempts = event.getAttempts() + 1;
+              event.setAttempts(attempts);
+              event.setLastError(truncate(String.valueOf(error.getMessage())));
+
+              if (attempts >= maxAttempts) {
+                event.setStatus(OutboxStatus.FAILED);
+                log.error(
+                    "Outbox event {} ({}) failed after {} attempts: {}",
+                    id,
+                    event.getType(),
+                    attempts,
+                    error.getMessage());
+              } else {
+                event.setStatus(OutboxStatus.PENDING);
+                event.setNextAttemptAt(LocalDateTime.now().plus(backoff(attempts)));
+                log.warn(
+                    "Outbox event {} ({}) failed on attempt {}, retrying at {}: {}",
+                    id,
+                    event.getType(),
+                    attempts,
+                    event.getNextAttemptAt(),
+                    error.getMessage());
+              }
+              outboxEventRepository.save(event);
+            });
+  }
+
+  private Duration backoff(int attempts) {
+    long delay = baseBackoffMillis << Math.min(attempts - 1, 20);
+    return Duration.ofMillis(Math.min(delay, maxBackoffMillis));
+  }
+
+  @SuppressWarnings("null")
+  private Order findOrder(Long orderId, boolean withDetails) {
+    return (withDetails
+            ? orderRepository.findByIdWithDetails(orderId)
+            : orderRepository.findById(orderId))
+        .orElseThrow(() -> new ResourceNotFoundException("Đơn hàng không tồn tại"));
+  }
+
+  private static String truncate(String message) {
+    return message.length() > MAX_ERROR_LENGTH ? message.substring(0, MAX_ERROR_LENGTH) : message;
+  }
+}
@@ -0,0 +1,67 @@
+package iuh.fit.se.service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import iuh.fit.se.event.PaymentAcceptedEvent;
+import iuh.fit.se.service.StubPaymentGateway.GatewayResult;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Gọi payment gateway trên virtual thread sau khi payment PENDING đã commit, rồi hoàn tất payment
+// trong một transaction ngắn. Request thread và DB connection không bị giữ trong lúc chờ gateway.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class PaymentProcessor {
+  private final PaymentService paymentService;
+  private final StubPaymentGateway paymentGateway;
+
+  private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+  @Value("${app.payment.pending-timeout:600000}")
+  private long pendingTimeoutMillis;
+
+  @TransactionalEventListener
+  public void onPaymentAccepted(PaymentAcceptedEvent event) {
+    executor.execute(() -> execute(event));
+  }
+
+  // Payment PENDING quá lâu (node bị dừng khi đang chờ gateway) được đánh dấu thất bại
+  @Scheduled(fixedDelayString = "${app.payment.pending-sweep-interval:60000}")
+  public void expireStalePayments() {
+    LocalDateTime before = LocalDateTime.now().minus(Duration.ofMillis(pendingTimeoutMillis));
+    int expired = paymentService.expireStalePayments(before);
+    if (expired > 0) {
+      log.warn("Expired {} payments stuck in PENDING since before {}", expired, before);
+    }
+  }
+
+  @PreDestroy
+  void stop() {
+    executor.shutdown();
+  }
+
+  private void execute(PaymentAcceptedEvent event) {
+    try {
+      GatewayResult result =
+          paymentGateway.charge(
+              event.transactionId(),
+              event.paymentMethodCode(),
+              event.simulateFailure(),
+              event.failureReason());
+      paymentService.completePayment(event.paymentId(), result);
+    } catch (Exception e) {
+      // Payment vẫn PENDING, sẽ được expireStalePayments() xử lý
+      log.error("Failed to process payment {}", event.paymentId(), e);
+    }
+  }
+}
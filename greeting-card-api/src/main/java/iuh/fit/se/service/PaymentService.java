@@ -7,12 +7,10 @@ import java.util.Random;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.node.ObjectNode;
-
 import iuh.fit.se.dto.request.ProcessPaymentRequest;
 import iuh.fit.se.dto.request.RefundPaymentRequest;
 import iuh.fit.se.dto.response.PaymentResponse;
@@ -20,10 +18,12 @@ import iuh.fit.se.entity.Order;
 import iuh.fit.se.entity.Payment;
 import iuh.fit.se.entity.PaymentMethod;
 import iuh.fit.se.entity.enumeration.PaymentStatus;
+import iuh.fit.se.event.PaymentAcceptedEvent;
 import iuh.fit.se.exception.ResourceNotFoundException;
 import iuh.fit.se.mapper.PaymentMapper;
 import iuh.fit.se.repository.OrderRepository;
 import iuh.fit.se.repository.PaymentRepository;
+import iuh.fit.se.service.StubPaymentGateway.GatewayResult;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -36,16 +36,18 @@ public class PaymentService {
   private final OrderRepository orderRepository;
   private final PaymentMapper paymentMapper;
   private final NotificationService notificationService;
-  private final ObjectMapper objectMapper;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ManagedEntityRefresher managedEntityRefresher;
   private final Random random = new Random();
 
-  /** Xử lý thanh toán giả lập */
+  /** Tiếp nhận thanh toán: ghi payment PENDING, gateway được gọi bất đồng bộ sau khi commit */
   @SuppressWarnings("null")
   public PaymentResponse processPayment(Long userId, ProcessPaymentRequest request) {
-    // 1. Validate order
+    // 1. Validate order - khóa dòng order để 2 request thanh toán đồng thời không cùng qua bước
+    // kiểm tra payment PENDING bên dưới
     Order order =
         orderRepository
-            .findById(request.getOrderId())
+            .findByIdForUpdate(request.getOrderId())
             .orElseThrow(() -> new ResourceNotFoundException("Đơn hàng không tồn tại"));
 
     // 2. Validate ownership
@@ -58,6 +60,10 @@ public class PaymentService {
       throw new IllegalArgumentException("Đơn hàng đã được thanh toán");
     }
 
+    if (!paymentRepository.findByOrderIdAndStatus(order.getId(), PaymentStatus.PENDING).isEmpty()) {
+      throw new IllegalArgumentException("Đơn hàng đang được xử lý thanh toán");
+    }
+
     // 4. Get payment method
     PaymentMethod paymentMethod = order.getPaymentMethod();
     if (paymentMethod == null) {
@@ -74,56 +80,93 @@ public class PaymentService {
 
     payment = paymentRepository.save(payment);
 
-    // 6. Simulate payment processing (giả lập)
-    try {
-      // Simulate network delay (2-3 seconds)
-      Thread.sleep(2000 + random.nextInt(1000));
-
-      // Simulate failure if explicitly requested
-      if (request.getSimulateFailure() != null && request.getSimulateFailure()) {
-        payment.setStatus(PaymentStatus.FAILED);
-        payment.setFailedAt(LocalDateTime.now());
-        String failureReason =
-            request.getFailureReason() != null
-                ? request.getFailureReason()
-                : "Thanh toán thất bại (giả lập)";
-        payment.setFailureReason(failureReason);
-        payment.setGatewayResponse(createFailureResponse(paymentMethod.getCode()));
-
-        // Send notification
-        notificationService.notifyPaymentFailure(
-            userId, order.getId(), order.getOrderNumber(), failureReason);
-      } else {
-        // Luôn thành công (trừ khi simulateFailure = true)
-        payment.setStatus(PaymentStatus.PAID);
-        payment.setPaidAt(LocalDateTime.now());
-        payment.setGatewayResponse(createSuccessResponse(paymentMethod.getCode()));
-
-        // Update order payment status
-        order.setPaymentStatus(PaymentStatus.PAID);
-        orderRepository.save(order);
-
-        // Send notification
-        notificationService.notifyPaymentSuccess(
-            userId, order.getId(), order.getOrderNumber(), payment.getAmount().toString());
-      }
+    // 6. Gọi gateway sau khi commit (PaymentProcessor)
+    eventPublisher.publishEvent(
+        new PaymentAcceptedEvent(
+            payment.getId(),
+            payment.getTransactionId(),
+            paymentMethod.getCode(),
+            Boolean.TRUE.equals(request.getSimulateFailure()),
+            request.getFailureReason()));
 
-      payment = paymentRepository.save(payment);
-      log.info(
-          "Payment {} processed for order {}: {}",
-          payment.getTransactionId(),
-          order.getOrderNumber(),
-          payment.getStatus());
+    log.info(
+        "Payment {} accepted for order {}", payment.getTransactionId(), order.getOrderNumber());
 
-      return paymentMapper.toPaymentResponse(payment);
-    } catch (InterruptedException e) {
-      Thread.currentThread().interrupt();
-      payment.setStatus(PaymentStatus.FAILED);
-      payment.setFailedAt(LocalDateTime.now());
-      payment.setFailureReason("Lỗi xử lý thanh toán");
-      payment = paymentRepository.save(payment);
-      throw new RuntimeException("Lỗi xử lý thanh toán", e);
+    return paymentMapper.toPaymentResponse(payment);
+  }
+
+  /** Hoàn tất thanh toán theo kết quả từ gateway */
+  @SuppressWarnings("null")
+  public void completePayment(Long paymentId, GatewayResult result) {
+    Payment payment =
+        paymentRepository
+            .findById(paymentId)
+            .orElseThrow(() -> new ResourceNotFoundException("Giao dịch thanh toán không tồn tại"));
+
+    // Đổi trạng thái bằng UPDATE có điều kiện: chỉ lần đổi được PENDING (kết quả gateway hoặc lượt
+    // quét hết hạn) mới cập nhật đơn hàng và gửi thông báo
+    LocalDateTime now = LocalDateTime.now();
+    int completed =
+        result.success()
+            ? paymentRepository.markPaid(paymentId, result.response(), now)
+            : paymentRepository.markFailed(
+                paymentId, result.response(), result.failureReason(), now);
+    managedEntityRefresher.refreshIfLoaded(Payment.class, List.of(paymentId));
+
+    // Payment đã được hoàn tất hoặc đã hết hạn
+    if (completed == 0) {
+      log.warn("Payment {} is already {}", payment.getTransactionId(), payment.getStatus());
+      return;
     }
+
+    Order order = payment.getOrder();
+    Long userId = order.getUser().getId();
+
+    if (result.success()) {
+      // Update order payment status
+      order.setPaymentStatus(PaymentStatus.PAID);
+      orderRepository.save(order);
+
+      // Send notification
+      notificationService.notifyPaymentSuccess(
+          userId, order.getId(), order.getOrderNumber(), payment.getAmount().toString());
+    } else {
+      // Send notification
+      notificationService.notifyPaymentFailure(
+          userId, order.getId(), order.getOrderNumber(), result.failureReason());
+    }
+
+    log.info(
+        "Payment {} processed for order {}: {}",
+        payment.getTransactionId(),
+        order.getOrderNumber(),
+        payment.getStatus());
+  }
+
+  /** Đánh dấu thất bại các payment PENDING tạo trước thời điểm before */
+  public int expireStalePayments(LocalDateTime before) {
+    List<Payment> payments =
+        paymentRepository.findByStatusAndCreatedAtBefore(PaymentStatus.PENDING, before);
+    for (Payment payment : payments) {
+      completePayment(
+          payment.getId(), new GatewayResult(false, "Hết thời gian xử lý thanh toán", null));
+    }
+    return payments.size();
+  }
+
+  /** Lấy trạng thái payment theo transaction ID (client polling sau khi nhận 202) */
+  @Transactional(readOnly = true)
+  public PaymentResponse getPaymentStatus(Long userId, String transactionId) {
+    Payment payment =
+        paymentRepository
+            .findByTransactionId(transactionId)
+            .orElseThrow(() -> new ResourceNotFoundException("Giao dịch thanh toán không tồn tại"));
+
+    if (!payment.getOrder().getUser().getId().equals(userId)) {
+      throw new IllegalArgumentException("Bạn không có quyền xem giao dịch này");
+    }
+
+    return paymentMapper.toPaymentResponse(payment);
   }
 
   /** Hoàn tiền */
@@ -236,32 +279,4 @@ public class PaymentService {
         + "-"
         + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
   }
-
-  private String createSuccessResponse(String paymentMethodCode) {
-    try {
-      ObjectNode response = objectMapper.createObjectNode();
-      response.put("status", "success");
-      response.put("code", "00");
-      response.put("message", "Thanh toán thành công");
-      response.put("paymentMethod", paymentMethodCode);
-      response.put("timestamp", LocalDateTime.now().toString());
-      return objectMapper.writeValueAsString(response);
-    } catch (Exception e) {
-      return "{\"status\":\"success\",\"message\":\"Thanh toán thành công\"}";
-    }
-  }
-
-  private String createFailureResponse(String paymentMethodCode) {
-    try {
-      ObjectNode response = objectMapper.createObjectNode();
-      response.put("status", "failed");
-      response.put("code", "99");
-      response.put("message", "Thanh toán thất bại");
-      response.put("paymentMethod", paymentMethodCode);
-      response.put("timestamp", LocalDateTime.now().toString());
-      return objectMapper.writeValueAsString(response);
-    } catch (Exception e) {
-      return "{\"status\":\"failed\",\"message\":\"Thanh toán thất bại\"}";
-    }
-  }
 }
@@ -0,0 +1,283 @@
+package iuh.fit.se.service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.stereotype.Component;
+
+import iuh.fit.se.entity.CartItem;
+import iuh.fit.se.entity.Coupon;
+import iuh.fit.se.entity.Product;
+import iuh.fit.se.entity.enumeration.DiscountType;
+import iuh.fit.se.entity.enumeration.PromotionType;
+import iuh.fit.se.service.PromotionIndexService.PromotionRule;
+import lombok.RequiredArgsConstructor;
+
+// Engine tính giá dùng chung cho checkout (OrderService) và preview giỏ hàng (PromotionService).
+// Tiền được tính bằng long theo đơn vị nhỏ nhất (1/100 - khớp scale 2 của các cột tiền), chỉ
+// chuyển về BigDecimal ở đầu vào / đầu ra. Mỗi lần tính giá chỉ duyệt các dòng của giỏ một lần.
+@Component
+@RequiredArgsConstructor
+public class PricingEngine {
+  // Shipping fee constants
+  public static final BigDecimal SHIPPING_FEE = new BigDecimal("30000");
+  public static final BigDecimal FREE_SHIPPING_THRESHOLD = new BigDecimal("500000");
+
+  private static final int MINOR_SCALE = 2;
+  private static final long SHIPPING_FEE_MINOR = toMinor(SHIPPING_FEE);
+  private static final long FREE_SHIPPING_THRESHOLD_MINOR = toMinor(FREE_SHIPPING_THRESHOLD);
+  // Phần trăm được lưu dạng basis points (10.5% -> 1050)
+  private static final long BASIS_POINTS = 10_000L;
+
+  private final PromotionIndexService promotionIndexService;
+
+  // Tính giá với snapshot promotion hiện tại
+  public PricingResult price(List<CartLine> lines, CouponTerms coupon) {
+    return price(lines, coupon, promotionIndexService.snapshot(), LocalDateTime.now());
+  }
+
+  public PricingResult price(
+      List<CartLine> lines,
+      CouponTerms coupon,
+      PromotionIndexService.Snapshot promotions,
+      LocalDateTime now) {
+    List<LinePrice> linePrices = new ArrayList<>(lines.size());
+    long originalTotal = 0;
+    long lineDiscount = 0;
+
+    for (CartLine line : lines) {
+      LinePrice linePrice =
+          priceLine(line, promotions.forProduct(line.productId(), line.categoryId(), now));
+      linePrices.add(linePrice);
+      originalTotal += linePrice.subtotal();
+      if (linePrice.reducesTotal()) {
+        lineDiscount += linePrice.discount();
+      }
+    }
+
+    // ORDER scope: chỉ áp dụng 1 khuyến mãi DISCOUNT tốt nhất trên tổng tiền gốc
+    PromotionRule orderPromotion = null;
+    long orderDiscount = 0;
+    for (PromotionRule rule : promotions.forOrder(now)) {
+      if (rule.type() != PromotionType.DISCOUNT || !meetsMinPurchase(rule, originalTotal)) {
+        continue;
+      }
+      long discount = discountOf(rule, originalTotal);
+      if (discount > orderDiscount) {
+        orderPromotion = rule;
+        orderDiscount = discount;
+      }
+    }
+
+    // Coupon được tính trên tổng tiền gốc
+    long couponDiscount = 0;
+    boolean couponEligible = true;
+    if (coupon != null) {
+      couponEligible = coupon.minPurchase() <= originalTotal;
+      if (couponEligible) {
+        couponDiscount = coupon.discountOf(originalTotal);
+      }
+    }
+
+    long promotionDiscount = lineDiscount + orderDiscount;
+    long subtotalAfterDiscount = Math.max(0, originalTotal - promotionDiscount - couponDiscount);
+    long shippingFee =
+        subtotalAfterDiscount >= FREE_SHIPPING_THRESHOLD_MINOR ? 0 : SHIPPING_FEE_MINOR;
+
+    return new PricingResult(
+        linePrices,
+        originalTotal,
+        promotionDiscount,
+        orderPromotion,
+        orderDiscount,
+        couponDiscount,
+        couponEligible,
+        shippingFee,
+        subtotalAfterDiscount + shippingFee);
+  }
+
+  // Áp dụng promotion hợp lệ đầu tiên cho một dòng (BOGO / BUY_X_GET_Y / BUY_X_PAY_Y / DISCOUNT)
+  private LinePrice priceLine(CartLine line, List<PromotionRule> rules) {
+    long subtotal = line.unitPrice() * line.quantity();
+
+    for (PromotionRule rule : rules) {
+      if (rule.type() == PromotionType.DISCOUNT) {
+        long discount = meetsMinPurchase(rule, subtotal) ? discountOf(rule, subtotal) : 0;
+        if (discount > 0) {
+          return new LinePrice(line, subtotal, rule, 0, discount);
+        }
+        continue;
+      }
+
+      int freeQuantity = freeQuantityOf(rule, line.quantity());
+      if (freeQuantity > 0) {
+        return new LinePrice(line, subtotal, rule, freeQuantity, line.unitPrice() * freeQuantity);
+      }
+    }
+
+    return new LinePrice(line, subtotal, null, 0, 0);
+  }
+
+  private static int freeQuantityOf(PromotionRule rule, int quantity) {
+    return switch (rule.type()) {
+        // Mua 1 tặng 1, mua 2 tặng 2, ...
+      case BOGO -> quantity;
+        // Cứ mỗi (X+Y) sản phẩm thì Y sản phẩm được tặng
+      case BUY_X_GET_Y -> quantity / (rule.buyQuantity() + rule.getQuantity()) * rule.getQuantity();
+        // Cứ mỗi X sản phẩm chỉ trả tiền Y, phần lẻ trả đủ giá
+      case BUY_X_PAY_Y -> quantity / rule.buyQuantity() * (rule.buyQuantity() - rule.payQuantity());
+      case DISCOUNT -> 0;
+    };
+  }
+
+  private static boolean meetsMinPurchase(PromotionRule rule, long amount) {
+    return rule.minPurchase() == null || amount >= toMinor(rule.minPurchase());
+  }
+
+  private static long discountOf(PromotionRule rule, long amount) {
+    if (rule.discountType() == DiscountType.PERCENTAGE) {
+      long discount = percentOf(amount, toBasisPoints(rule.discountValue()));
+      // Apply max discount cap if set
+      return rule.maxDiscount() != null
+          ? Math.min(discount, toMinor(rule.maxDiscount()))
+          : discount;
+    }
+    // FIXED amount - không giảm quá số tiền
+    return Math.min(toMinor(rule.discountValue()), amount);
+  }
+
+  private static long percentOf(long amount, long basisPoints) {
+    return (Math.multiplyExact(amount, basisPoints) + BASIS_POINTS / 2) / BASIS_POINTS;
+  }
+
+  private static long toBasisPoints(BigDecimal percent) {
+    return percent.setScale(MINOR_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  public static long toMinor(BigDecimal amount) {
+    return amount.setScale(MINOR_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+  }
+
+  public static BigDecimal toAmount(long minor) {
+    return BigDecimal.valueOf(minor, MINOR_SCALE);
+  }
+
+  // Một dòng của giỏ hàng tại thời điểm tính giá
+  public record CartLine(Long productId, Long categoryId, long unitPrice, int quantity) {
+
+    public static CartLine of(CartItem item) {
+      Product product = item.getProduct();
+      return new CartLine(
+          product.getId(),
+          product.getCategory() != null ? product.getCategory().getId() : null,
+          toMinor(product.getPrice()),
+          item.getQuantity());
+    }
+
+    public static List<CartLine> of(List<CartItem> items) {
+      List<CartLine> lines = new ArrayList<>(items.size());
+      for (CartItem item : items) {
+        lines.add(of(item));
+      }
+      return lines;
+    }
+  }
+
+  // Điều kiện của coupon, đã quy về đơn vị nhỏ nhất
+  public record CouponTerms(
+      DiscountType discountType, long discountValue, long minPurchase, Long maxDiscount) {
+
+    public static CouponTerms of(Coupon coupon) {
+      if (coupon == null) {
+        return null;
+      }
+      long value =
+          coupon.getDiscountType() == DiscountType.PERCENTAGE
+              ? toBasisPoints(coupon.getDiscountValue())
+              : toMinor(coupon.getDiscountValue());
+      return new CouponTerms(
+          coupon.getDiscountType(),
+          value,
+          coupon.getMinPurchase() != null ? toMinor(coupon.getMinPurchase()) : 0,
+          coupon.getMaxDiscount() != null ? toMinor(coupon.getMaxDiscount()) : null);
+    }
+
+    long discountOf(long amount) {
+      if (discountType == DiscountType.PERCENTAGE) {
+        long discount = percentOf(amount, discountValue);
+        return maxDiscount != null ? Math.min(discount, maxDiscount) : discount;
+      }
+      // FIXED_AMOUNT
+      return discountValue;
+    }
+  }
+
+  // Kết quả tính giá một dòng
+  public record LinePrice(
+      CartLine line, long subtotal, PromotionRule promotion, int freeQuantity, long discount) {
+
+    // BUY_X_PAY_Y và DISCOUNT giảm số tiền phải trả của dòng
+    public boolean reducesTotal() {
+      return promotion != null
+          && (promotion.type() == PromotionType.BUY_X_PAY_Y
+              || promotion.type() == PromotionType.DISCOUNT);
+    }
+
+    // BOGO và BUY_X_GET_Y tặng thêm sản phẩm ngoài số lượng mua (cần thêm tồn kho)
+    public int bonusQuantity() {
+      return promotion != null
+              && (promotion.type() == PromotionType.BOGO
+                  || promotion.type() == PromotionType.BUY_X_GET_Y)
+          ? freeQuantity
+          : 0;
+    }
+
+    public BigDecimal subtotalAmount() {
+      return toAmount(subtotal);
+    }
+
+    public BigDecimal discountAmount() {
+      return toAmount(discount);
+    }
+  }
+
+  // Kết quả tính giá toàn bộ giỏ hàng
+  public record PricingResult(
+      List<LinePrice> lines,
+      long originalTotal,
+      long promotionDiscount,
+      PromotionRule orderPromotion,
+      long orderDiscount,
+      long couponDiscount,
+      boolean couponEligible,
+      long shippingFee,
+      long finalTotal) {
+
+    public BigDecimal originalTotalAmount() {
+      return toAmount(originalTotal);
+    }
+
+    public BigDecimal promotionDiscountAmount() {
+      return toAmount(promotionDiscount);
+    }
+
+    public BigDecimal orderDiscountAmount() {
+      return toAmount(orderDiscount);
+    }
+
+    public BigDecimal couponDiscountAmount() {
+      return toAmount(couponDiscount);
+    }
+
+    public BigDecimal shippingFeeAmount() {
+      return toAmount(shippingFee);
+    }
+
+    public BigDecimal finalTotalAmount() {
+      return toAmount(finalTotal);
+    }
+  }
+}
@@ -0,0 +1,662 @@
+package iuh.fit.se.service;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import iuh.fit.se.dto.request.ProductImportRow;
+import iuh.fit.se.dto.response.ProductImportResponse;
+import iuh.fit.se.entity.Product;
+import iuh.fit.se.entity.ProductTag;
+import iuh.fit.se.event.ProductChangedEvent;
+import iuh.fit.se.exception.ValidationException;
+import iuh.fit.se.repository.ProductImageRepository;
+import iuh.fit.se.repository.ProductRepository;
+import iuh.fit.se.repository.ProductRepository.ProductExportRow;
+import iuh.fit.se.repository.ProductRepository.UpsertedProductRow;
+import iuh.fit.se.repository.ProductTagRepository;
+import iuh.fit.se.repository.StockTransactionRepository;
+import iuh.fit.se.service.CategoryTreeService.Node;
+import iuh.fit.se.util.CsvReader;
+import iuh.fit.se.util.CsvWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Nhập / xuất sản phẩm hàng loạt (kèm ảnh, tag, tồn kho) dạng CSV hoặc JSONL. File nhập được đọc
+// lần lượt từng dòng; mỗi batch được ghi trong 1 transaction bằng vài câu lệnh theo mảng (unnest)
+// cho cả batch. Batch bị lỗi được ghi lại từng dòng để chỉ ra đúng dòng lỗi. File xuất được đọc
+// theo keyset và ghi thẳng ra response.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductBulkService {
+  public static final List<String> COLUMNS =
+      List.of(
+          "sku",
+          "name",
+          "slug",
+          "category",
+          "price",
+          "stock",
+          "isActive",
+          "isFeatured",
+          "description",
+          "images",
+          "tags");
+  private static final Set<String> REQUIRED_COLUMNS =
+      Set.of("sku", "name", "category", "price", "stock");
+  // Phân tách danh sách ảnh / tag trong 1 ô CSV
+  private static final Pattern LIST_SEPARATOR = Pattern.compile("\\|");
+  private static final BigDecimal MIN_PRICE = new BigDecimal("1000");
+  private static final BigDecimal MAX_PRICE = new BigDecimal("99999999.99");
+  private static final String STOCK_NOTES = "Nhập sản phẩm hàng loạt";
+
+  private final ProductRepository productRepository;
+  private final ProductImageRepository productImageRepository;
+  private final ProductTagRepository productTagRepository;
+  private final StockTransactionRepository stockTransactionRepository;
+  private final CategoryTreeService categoryTreeService;
+  private final ProductSearchService productSearchService;
+  private final TransactionTemplate transactionTemplate;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ObjectMapper objectMapper;
+  private final ManagedEntityRefresher managedEntityRefresher;
+
+  @Value("${app.product-bulk.batch-size:500}")
+  private int batchSize;
+
+  @Value("${app.product-bulk.max-errors:1000}")
+  private int maxErrors;
+
+  public enum Format {
+    CSV,
+    JSONL;
+
+    // Đoán định dạng theo đuôi file, mặc định CSV
+    public static Format fromFilename(String filename) {
+      String name = filename != null ? filename.toLowerCase(Locale.ROOT) : "";
+      return name.endsWith(".jsonl") || name.endsWith(".ndjson") ? JSONL : CSV;
+    }
+  }
+
+  // === Nhập ===
+
+  public ProductImportResponse importProducts(InputStream input, Format format, Long adminUserId)
+      throws IOException {
+    BufferedReader reader =
+        new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    RowSource source = format == Format.CSV ? new CsvRowSource(reader) : new JsonlRowSource(reader);
+    ImportProgress progress = new ImportProgress();
+    List<ImportRow> batch = new ArrayList<>(batchSize);
+    Set<String> batchSkus = new HashSet<>();
+
+    try {
+      ParsedRow parsed;
+      while ((parsed = source.next()) != null) {
+        progress.totalRows++;
+        ImportRow row;
+        try {
+          row = validate(parsed);
+        } catch (IllegalArgumentException e) {
+          progress.fail(parsed.row(), parsed.data() != null ? parsed.data().getSku() : null, e);
+          continue;
+        }
+        // SKU lặp lại: ghi batch hiện tại trước để dòng sau ghi đè dòng trước
+        if (!batchSkus.add(row.data().getSku())) {
+          write(batch, adminUserId, progress);
+          batch.clear();
+          batchSkus.clear();
+          batchSkus.add(row.data().getSku());
+        }
+        batch.add(row);
+        if (batch.size() == batchSize) {
+          write(batch, adminUserId, progress);
+          batch.clear();
+          batchSkus.clear();
+        }
+      }
+    } catch (IllegalArgumentException e) {
+      // File hỏng (vd. dấu nháy kép chưa đóng): dừng đọc, giữ các dòng đã đọc được
+      progress.totalRows++;
+      progress.fail(source.lineNumber(), null, e);
+    }
+    write(batch, adminUserId, progress);
+
+    log.info(
+        "Imported products ({}): {} rows, {} created, {} updated, {} failed",
+        format,
+        progress.totalRows,
+        progress.created,
+        progress.updated,
+        progress.failed);
+    return progress.toResponse();
+  }
+
+  private ImportRow validate(ParsedRow parsed) {
+    if (parsed.error() != null) {
+      throw new IllegalArgumentException(parsed.error());
+    }
+    ProductImportRow data = parsed.data();
+    data.setSku(trimToNull(data.getSku()));
+    data.setName(trimToNull(data.getName()));
+    data.setSlug(trimToNull(data.getSlug()));
+    data.setCategory(trimToNull(data.getCategory()));
+
+    require(data.getSku() != null, "Thiếu sku");
+    require(data.getSku().length() <= 100, "sku không được dài quá 100 ký tự");
+    require(
+        data.getName() != null && data.getName().length() >= 2,
+        "Tên sản phẩm phải có ít nhất 2 ký tự");
+    require(data.getName().length() <= 255, "Tên sản phẩm không được dài quá 255 ký tự");
+    require(
+        data.getSlug() == null || data.getSlug().length() <= 255,
+        "Slug không được dài quá 255 ký tự");
+    require(data.getCategory() != null, "Danh mục không được để trống");
+    Long categoryId =
+        categoryTreeService
+            .snapshot()
+            .getBySlug(data.getCategory())
+            .map(Node::id)
+            .orElseThrow(
+                () ->
+                    new IllegalArgumentException("Không tìm thấy danh mục: " + data.getCategory()));
+    require(data.getPrice() != null, "Giá sản phẩm không được để trống");
+    require(data.getPrice().compareTo(MIN_PRICE) >= 0, "Giá phải lớn hơn 1.000đ");
+    require(data.getPrice().compareTo(MAX_PRICE) <= 0, "Giá sản phẩm quá lớn");
+    require(data.getStock() != null, "Số lượng tồn kho không được để trống");
+    require(data.getStock() >= 0, "Số lượng tồn kho phải >= 0");
+
+    if (data.getImages() != null) {
+      data.setImages(
+          data.getImages().stream().map(this::trimToNull).filter(Objects::nonNull).toList());
+      require(
+          data.getImages().stream().allMatch(url -> url.length() <= 500),
+          "URL ảnh không được dài quá 500 ký tự");
+    }
+    if (data.getTags() != null) {
+      data.setTags(
+          data.getTags().stream()
+              .map(this::trimToNull)
+              .filter(Objects::nonNull)
+              .distinct()
+              .toList());
+      require(
+          data.getTags().stream().allMatch(tag -> tag.length() <= 100),
+          "Tên tag không được dài quá 100 ký tự");
+    }
+    return new ImportRow(parsed.row(), data, categoryId);
+  }
+
+  // Ghi 1 batch; nếu lỗi thì ghi lại từng dòng trong transaction riêng để tìm ra dòng lỗi
+  private void write(List<ImportRow> rows, Long adminUserId, ImportProgress progress) {
+    if (rows.isEmpty()) {
+      return;
+    }
+    try {
+      int created = transactionTemplate.execute(status -> writeBatch(rows, adminUserId));
+      progress.created += created;
+      progress.updated += rows.size() - created;
+    } catch (RuntimeException e) {
+      if (rows.size() == 1) {
+        ImportRow row = rows.get(0);
+        progress.fail(row.row(), row.data().getSku(), e);
+        return;
+      }
+      log.warn("Product import batch failed, retrying {} rows one by one", rows.size());
+      for (ImportRow row : rows) {
+        write(List.of(row), adminUserId, progress);
+      }
+      return;
+    }
+    log.info(
+        "Product import progress: {} rows, {} created, {} updated, {} failed",
+        progress.totalRows,
+        progress.created,
+        progress.updated,
+        progress.failed);
+  }
+
+  // Trả về số sản phẩm được tạo mới
+  private int writeBatch(List<ImportRow> rows, Long adminUserId) {
+    List<UpsertedProductRow> upserted =
+        productRepository.upsertBySku(
+            rows.stream().map(row -> row.data().getSku()).toArray(String[]::new),
+            rows.stream().map(row -> row.data().getName()).toArray(String[]::new),
+            rows.stream().map(this::slugOf).toArray(String[]::new),
+            rows.stream().map(row -> row.data().getDescription()).toArray(String[]::new),
+            rows.stream().map(ImportRow::categoryId).toArray(Long[]::new),
+            rows.stream().map(row -> row.data().getPrice()).toArray(BigDecimal[]::new),
+            rows.stream().map(row -> row.data().getStock()).toArray(Integer[]::new),
+            rows.stream()
+                .map(row -> Optional.ofNullable(row.data().getIsActive()).orElse(true))
+                .toArray(Boolean[]::new),
+            rows.stream()
+                .map(row -> Optional.ofNullable(row.data().getIsFeatured()).orElse(false))
+                .toArray(Boolean[]::new));
+    Map<String, Long> productIds =
+        upserted.stream()
+            .collect(Collectors.toMap(UpsertedProductRow::getSku, UpsertedProductRow::getId));
+
+    // Tồn kho thay đổi của sản phẩm đã có được ghi thành giao dịch điều chỉnh
+    List<UpsertedProductRow> adjusted =
+        upserted.stream()
+            .filter(
+                row -> !row.getInserted() && !Objects.equals(row.getStockBefore(), row.getStock()))
+            .toList();
+    if (!adjusted.isEmpty()) {
+      stockTransactionRepository.insertAdjustments(
+          adjusted.stream().map(UpsertedProductRow::getId).toArray(Long[]::new),
+          adjusted.stream().map(UpsertedProductRow::getStockBefore).toArray(Integer[]::new),
+          adjusted.stream().map(UpsertedProductRow::getStock).toArray(Integer[]::new),
+          STOCK_NOTES,
+          adminUserId);
+    }
+
+    replaceImages(rows, productIds);
+    replaceTags(rows, productIds);
+    // Sản phẩm đã nạp trong transaction không thấy các thay đổi ghi bằng SQL native ở trên
+    managedEntityRefresher.refreshIfLoaded(Product.class, productIds.values());
+    productSearchService.indexAll(productIds.values());
+    eventPublisher.publishEvent(new ProductChangedEvent(Set.copyOf(productIds.values())));
+    return (int) upserted.stream().filter(UpsertedProductRow::getInserted).count();
+  }
+
+  private void replaceImages(List<ImportRow> rows, Map<String, Long> productIds) {
+    List<ImportRow> withImages =
+        rows.stream().filter(row -> row.data().getImages() != null).toList();
+    if (withImages.isEmpty()) {
+      return;
+    }
+    productImageRepository.deleteByProductIds(
+        withImages.stream().map(row -> productIds.get(row.data().getSku())).toArray(Long[]::new));
+
+    List<Long> imageProductIds = new ArrayList<>();
+    List<String> urls = new ArrayList<>();
+    List<String> altTexts = new ArrayList<>();
+    List<Integer> displayOrders = new ArrayList<>();
+    for (ImportRow row : withImages) {
+      List<String> images = row.data().getImages();
+      for (int i = 0; i < images.size(); i++) {
+        imageProductIds.add(productIds.get(row.data().getSku()));
+        urls.add(images.get(i));
+        altTexts.add(row.data().getName());
+        displayOrders.add(i);
+      }
+    }
+    if (!urls.isEmpty()) {
+      productImageRepository.insertImages(
+          imageProductIds.toArray(Long[]::new),
+          urls.toArray(String[]::new),
+          altTexts.toArray(String[]::new),
+          displayOrders.toArray(Integer[]::new));
+    }
+  }
+
+  private void replaceTags(List<ImportRow> rows, Map<String, Long> productIds) {
+    List<ImportRow> withTags = rows.stream().filter(row -> row.data().getTags() != null).toList();
+    if (withTags.isEmpty()) {
+      return;
+    }
+    Map<String, Long> tagIds =
+        resolveTags(
+            withTags.stream()
+                .flatMap(row -> row.data().getTags().stream())
+                .collect(Collectors.toCollection(LinkedHashSet::new)));
+
+    productRepository.deleteTagLinks(
+        withTags.stream().map(row -> productIds.get(row.data().getSku())).toArray(Long[]::new));
+    List<Long> linkProductIds = new ArrayList<>();
+    List<Long> linkTagIds = new ArrayList<>();
+    for (ImportRow row : withTags) {
+      for (String tag : row.data().getTags()) {
+        Long tagId = tagIds.get(tag);
+        if (tagId != null) {
+          linkProductIds.add(productIds.get(row.data().getSku()));
+          linkTagIds.add(tagId);
+        }
+      }
+    }
+    if (!linkTagIds.isEmpty()) {
+      productRepository.insertTagLinks(
+          linkProductIds.toArray(Long[]::new), linkTagIds.toArray(Long[]::new));
+    }
+  }
+
+  // Tên tag -> id, tạo các tag chưa có
+  private Map<String, Long> resolveTags(Set<String> names) {
+    Map<String, Long> tagIds =
+        productTagRepository.findByNameIn(names).stream()
+            .collect(Collectors.toMap(ProductTag::getName, ProductTag::getId));
+    List<String> missing = names.stream().filter(name -> !tagIds.containsKey(name)).toList();
+    if (missing.isEmpty()) {
+      return tagIds;
+    }
+    // Hai tên mới có cùng slug thì tên sau không có slug (slug là unique)
+    Set<String> slugs = new HashSet<>();
+    productTagRepository.insertMissing(
+        missing.toArray(String[]::new),
+        missing.stream()
+            .map(this::toSlug)
+            .map(slug -> !slug.isEmpty() && slugs.add(slug) ? slug : null)
+            .toArray(String[]::new));
+    productTagRepository
+        .findByNameIn(missing)
+        .forEach(tag -> tagIds.put(tag.getName(), tag.getId()));
+    return tagIds;
+  }
+
+  // Slug cho sản phẩm mới: slug trong file, hoặc sinh từ tên và sku (sku là unique)
+  private String slugOf(ImportRow row) {
+    if (row.data().getSlug() != null) {
+      return row.data().getSlug();
+    }
+    String slug = toSlug(row.data().getName() + " " + row.data().getSku());
+    return slug.length() <= 255 ? slug : slug.substring(0, 255);
+  }
+
+  private String toSlug(String input) {
+    if (input == null) return "";
+    return input.toLowerCase().replaceAll("[^a-z0-9\\s-]", "").replaceAll("\\s+", "-");
+  }
+
+  private String trimToNull(String value) {
+    if (value == null || value.isBlank()) {
+      return null;
+    }
+    return value.trim();
+  }
+
+  private static void require(boolean condition, String message) {
+    if (!condition) {
+      throw new IllegalArgumentException(message);
+    }
+  }
+
+  // === Xuất ===
+
+  public void exportProducts(Format format, OutputStream output) throws IOException {
+    Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+    CsvWriter csv = null;
+    if (format == Format.CSV) {
+      // BOM để Excel nhận đúng UTF-8
+      writer.write('\uFEFF');
+      csv = new CsvWriter(writer);
+      csv.writeRecord(COLUMNS);
+    }
+
+    long afterId = 0;
+    long total = 0;
+    List<ProductExportRow> page;
+    do {
+      page = productRepository.findExportPage(afterId, batchSize);
+      for (ProductExportRow row : page) {
+        if (csv != null) {
+          csv.writeRecord(toCsvRecord(row));
+        } else {
+          writer.write(objectMapper.writeValueAsString(toImportRow(row)));
+          writer.write('\n');
+        }
+      }
+      if (!page.isEmpty()) {
+        afterId = page.get(page.size() - 1).getId();
+        total += page.size();
+      }
+      writer.flush();
+    } while (page.size() == batchSize);
+
+    log.info("Exported {} products ({})", total, format);
+  }
+
+  private List<String> toCsvRecord(ProductExportRow row) {
+    return Arrays.asList(
+        row.getSku(),
+        row.getName(),
+        row.getSlug(),
+        row.getCategory(),
+        row.getPrice().toPlainString(),
+        String.valueOf(row.getStock()),
+        String.valueOf(row.getIsActive()),
+        String.valueOf(row.getIsFeatured()),
+        row.getDescription(),
+        row.getImages(),
+        row.getTags());
+  }
+
+  private ProductImportRow toImportRow(ProductExportRow row) {
+    ProductImportRow data = new ProductImportRow();
+    data.setSku(row.getSku());
+    data.setName(row.getName());
+    data.setSlug(row.getSlug());
+    data.setCategory(row.getCategory());
+    data.setPrice(row.getPrice());
+    data.setStock(row.getStock());
+    data.setIsActive(row.getIsActive());
+    data.setIsFeatured(row.getIsFeatured());
+    data.setDescription(row.getDescription());
+    data.setImages(splitList(row.getImages()));
+    data.setTags(splitList(row.getTags()));
+    return data;
+  }
+
+  private static List<String> splitList(String value) {
+    if (value == null || value.isBlank()) {
+      return List.of();
+    }
+    return Arrays.stream(LIST_SEPARATOR.split(value))
+        .map(String::trim)
+        .filter(item -> !item.isEmpty())
+        .toList();
+  }
+
+  // === Đọc file ===
+
+  // Dòng đã đọc từ file: data == null và error != null nếu dòng không đọc được
+  private record ParsedRow(long row, ProductImportRow data, String error) {}
+
+  private record ImportRow(long row, ProductImportRow data, Long categoryId) {}
+
+  private interface RowSource {
+    // Dòng tiếp theo, null khi hết file
+    ParsedRow next() throws IOException;
+
+    long lineNumber();
+  }
+
+  private static final class CsvRowSource implements RowSource {
+    private final CsvReader reader;
+    private final Map<String, Integer> columns = new HashMap<>();
+
+    CsvRowSource(BufferedReader input) throws IOException {
+      reader = new CsvReader(input);
+      List<String> header = reader.readRecord();
+      if (header == null) {
+        throw new ValidationException("File CSV rỗng");
+      }
+      Map<String, String> known =
+          COLUMNS.stream()
+              .collect(Collectors.toMap(c -> c.toLowerCase(Locale.ROOT), Function.identity()));
+      for (int i = 0; i < header.size(); i++) {
+        String column = known.get(header.get(i).trim().toLowerCase(Locale.ROOT));
+        if (column != null) {
+          columns.putIfAbsent(column, i);
+        }
+      }
+      List<String> missing =
+          COLUMNS.stream()
+              .filter(REQUIRED_COLUMNS::contains)
+              .filter(c -> !columns.containsKey(c))
+              .toList();
+      if (!missing.isEmpty()) {
+        throw new ValidationException("File CSV thiếu cột: " + String.join(", ", missing));
+      }
+    }
+
+    @Override
+    public ParsedRow next() throws IOException {
+      List<String> record;
+      do {
+        record = reader.readRecord();
+        if (record == null) {
+          return null;
+        }
+      } while (record.stream().allMatch(String::isBlank));
+
+      long row = reader.getLineNumber();
+      ProductImportRow data = new ProductImportRow();
+      try {
+        data.setSku(get(record, "sku"));
+        data.setName(get(record, "name"));
+        data.setSlug(get(record, "slug"));
+        data.setCategory(get(record, "category"));
+        data.setDescription(get(record, "description"));
+        String price = get(record, "price");
+        data.setPrice(price != null ? parseNumber(price, BigDecimal::new, "Giá") : null);
+        String stock = get(record, "stock");
+        data.setStock(stock != null ? parseNumber(stock, Integer::valueOf, "Tồn kho") : null);
+        data.setIsActive(parseBoolean(get(record, "isActive"), "isActive"));
+        data.setIsFeatured(parseBoolean(get(record, "isFeatured"), "isFeatured"));
+        String images = get(record, "images");
+        data.setImages(images != null ? splitList(images) : null);
+        String tags = get(record, "tags");
+        data.setTags(tags != null ? splitList(tags) : null);
+      } catch (IllegalArgumentException e) {
+        return new ParsedRow(row, data, e.getMessage());
+      }
+      return new ParsedRow(row, data, null);
+    }
+
+    @Override
+    public long lineNumber() {
+      return reader.getLineNumber();
+    }
+
+    // Giá trị của cột, null nếu không có cột hoặc ô trống
+    private String get(List<String> record, String column) {
+      Integer index = columns.get(column);
+      if (index == null || index >= record.size() || record.get(index).isBlank()) {
+        return null;
+      }
+      return record.get(index).trim();
+    }
+
+    private static <T> T parseNumber(String value, Function<String, T> parser, String field) {
+      try {
+        return parser.apply(value);
+      } catch (NumberFormatException e) {
+        throw new IllegalArgumentException(field + " không hợp lệ: " + value);
+      }
+    }
+
+    private static Boolean parseBoolean(String value, String field) {
+      if (value == null) {
+        return null;
+      }
+      return switch (value.toLowerCase(Locale.ROOT)) {
+        case "true", "1" -> true;
+        case "false", "0" -> false;
+        default -> throw new IllegalArgumentException(field + " không hợp lệ: " + value);
+      };
+    }
+  }
+
+  private final class JsonlRowSource implements RowSource {
+    private final BufferedReader reader;
+    private long lineNumber;
+
+    JsonlRowSource(BufferedReader reader) {
+      this.reader = reader;
+    }
+
+    @Override
+    public ParsedRow next() throws IOException {
+      String line;
+      do {
+        line = reader.readLine();
+        if (line == null) {
+          return null;
+        }
+        lineNumber++;
+      } while (line.isBlank());
+
+      try {
+        // Dòng null, số, chuỗi hay mảng không phải một sản phẩm: báo lỗi dòng thay vì trả data null
+        JsonNode node = objectMapper.readTree(line);
+        if (!node.isObject()) {
+          return new ParsedRow(lineNumber, null, "Mỗi dòng JSON phải là một object sản phẩm");
+        }
+        return new ParsedRow(
+            lineNumber, objectMapper.treeToValue(node, ProductImportRow.class), null);
+      } catch (JsonProcessingException e) {
+        return new ParsedRow(lineNumber, null, "Dòng JSON không hợp lệ: " + e.getOriginalMessage());
+      }
+    }
+
+    @Override
+    public long lineNumber() {
+      return lineNumber;
+    }
+  }
+
+  // === Kết quả ===
+
+  private final class ImportProgress {
+    private long totalRows;
+    private long created;
+    private long updated;
+    private long failed;
+    private final List<ProductImportResponse.RowError> errors = new ArrayList<>();
+
+    void fail(long row, String sku, Exception e) {
+      failed++;
+      if (errors.size() < maxErrors) {
+        String message =
+            e instanceof IllegalArgumentException
+                ? e.getMessage()
+                : NestedExceptionUtils.getMostSpecificCause(e).getMessage();
+        errors.add(new ProductImportResponse.RowError(row, sku, message));
+      }
+    }
+
+    ProductImportResponse toResponse() {
+      return ProductImportResponse.builder()
+          .totalRows(totalRows)
+          .created(created)
+          .updated(updated)
+          .failed(failed)
+          .errors(errors)
+          .errorsTruncated(failed > errors.size())
+          .build();
+    }
+  }
+}
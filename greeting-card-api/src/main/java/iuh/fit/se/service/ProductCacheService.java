@@ -0,0 +1,254 @@
+package iuh.fit.se.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import iuh.fit.se.dto.response.ProductResponse;
+import iuh.fit.se.event.ProductChangedEvent;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Cache 2 tầng cho trang chi tiết sản phẩm: LRU trong bộ nhớ mỗi node (L1) và Redis (L2) dùng
+// chung giữa các node. Chỉ lưu ProductResponse không có cờ của user (inWishlist / inCart), cờ được
+// gắn vào bản sao sau khi đọc cache. Bị xóa sau khi commit qua ProductChangedEvent, các node khác
+// xóa L1 qua Redis pub/sub; TTL giới hạn thời gian dữ liệu cũ nếu message bị mất.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductCacheService implements MessageListener {
+  private static final String ALL = "*";
+
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RedisMessageListenerContainer redisMessageListenerContainer;
+  private final ObjectMapper objectMapper;
+
+  @Value("${app.product-cache.key-prefix:product:}")
+  private String keyPrefix;
+
+  @Value("${app.product-cache.channel:product:events}")
+  private String channel;
+
+  @Value("${app.product-cache.local-ttl:60000}")
+  private long localTtlMillis;
+
+  @Value("${app.product-cache.local-max-size:1000}")
+  private int localMaxSize;
+
+  @Value("${app.product-cache.redis-ttl:600000}")
+  private long redisTtlMillis;
+
+  // L1: productId -> snapshot, theo thứ tự truy cập để bỏ entry ít dùng nhất khi đầy
+  private Map<Long, Entry> entries;
+  // slug -> productId (slug không đổi sau khi tạo sản phẩm)
+  private Map<String, Long> slugIds;
+  // Tăng sau mỗi lần xóa cache; kết quả load từ DB chỉ được ghi vào cache nếu không có lần xóa
+  // nào xảy ra trong lúc load (tránh ghi đè bằng dữ liệu trước commit)
+  private final AtomicLong invalidations = new AtomicLong();
+
+  @PostConstruct
+  void init() {
+    entries = new LruMap<>(localMaxSize);
+    slugIds = new LruMap<>(localMaxSize);
+    redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(channel));
+  }
+
+  public ProductResponse getById(Long id, Supplier<ProductResponse> loader) {
+    ProductResponse cached = lookup(id);
+    return cached != null ? cached : load(loader);
+  }
+
+  public ProductResponse getBySlug(String slug, Supplier<ProductResponse> loader) {
+    Long id = resolveSlug(slug);
+    if (id != null) {
+      ProductResponse cached = lookup(id);
+      if (cached != null && slug.equals(cached.getSlug())) {
+        return cached;
+      }
+    }
+    return load(loader);
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onProductChanged(ProductChangedEvent event) {
+    if (event.productIds() == null) {
+      evictAll();
+    } else {
+      evict(event.productIds());
+    }
+  }
+
+  private void evict(Set<Long> productIds) {
+    if (productIds.isEmpty()) {
+      return;
+    }
+    evictLocal(productIds);
+    try {
+      stringRedisTemplate.delete(productIds.stream().map(this::idKey).toList());
+      stringRedisTemplate.convertAndSend(
+          channel, productIds.stream().map(String::valueOf).collect(Collectors.joining(",")));
+    } catch (Exception e) {
+      log.warn("Failed to evict products {} from Redis: {}", productIds, e.getMessage());
+    }
+  }
+
+  private void evictAll() {
+    evictLocalAll();
+    try {
+      List<String> keys = new ArrayList<>();
+      ScanOptions options = ScanOptions.scanOptions().match(keyPrefix + "*").count(1000).build();
+      try (Cursor<String> cursor = stringRedisTemplate.scan(options)) {
+        cursor.forEachRemaining(keys::add);
+      }
+      if (!keys.isEmpty()) {
+        stringRedisTemplate.delete(keys);
+      }
+      stringRedisTemplate.convertAndSend(channel, ALL);
+      log.debug("Evicted {} cached product keys", keys.size());
+    } catch (Exception e) {
+      log.warn("Failed to evict product cache from Redis: {}", e.getMessage());
+    }
+  }
+
+  // Message từ node khác (hoặc chính node này): chỉ cần xóa L1, Redis đã được node gửi xóa
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    if (ALL.equals(body)) {
+      evictLocalAll();
+      return;
+    }
+    try {
+      evictLocal(
+          Arrays.stream(body.split(","))
+              .map(Long::valueOf)
+              .collect(Collectors.toUnmodifiableSet()));
+    } catch (NumberFormatException e) {
+      log.warn("Ignoring malformed product cache message: {}", body);
+    }
+  }
+
+  private ProductResponse lookup(Long id) {
+    long now = System.currentTimeMillis();
+    synchronized (this) {
+      Entry entry = entries.get(id);
+      if (entry != null && entry.expiresAt() > now) {
+        return entry.response();
+      }
+    }
+
+    long generation = invalidations.get();
+    try {
+      String json = stringRedisTemplate.opsForValue().get(idKey(id));
+      if (json != null) {
+        ProductResponse response = objectMapper.readValue(json, ProductResponse.class);
+        putLocal(response, generation);
+        return response;
+      }
+    } catch (Exception e) {
+      log.warn("Failed to read product {} from Redis: {}", id, e.getMessage());
+    }
+    return null;
+  }
+
+  private Long resolveSlug(String slug) {
+    synchronized (this) {
+      Long id = slugIds.get(slug);
+      if (id != null) {
+        return id;
+      }
+    }
+    try {
+      String id = stringRedisTemplate.opsForValue().get(slugKey(slug));
+      return id != null ? Long.valueOf(id) : null;
+    } catch (Exception e) {
+      log.warn("Failed to resolve product slug {} from Redis: {}", slug, e.getMessage());
+      return null;
+    }
+  }
+
+  private ProductResponse load(Supplier<ProductResponse> loader) {
+    long generation = invalidations.get();
+    ProductResponse response = loader.get();
+    if (!putLocal(response, generation)) {
+      return response;
+    }
+    try {
+      Duration ttl = Duration.ofMillis(redisTtlMillis);
+      stringRedisTemplate
+          .opsForValue()
+          .set(idKey(response.getId()), objectMapper.writeValueAsString(response), ttl);
+      stringRedisTemplate
+          .opsForValue()
+          .set(slugKey(response.getSlug()), String.valueOf(response.getId()), ttl);
+    } catch (Exception e) {
+      log.warn("Failed to cache product {} in Redis: {}", response.getId(), e.getMessage());
+    }
+    return response;
+  }
+
+  private synchronized boolean putLocal(ProductResponse response, long generation) {
+    if (invalidations.get() != generation) {
+      return false;
+    }
+    entries.put(response.getId(), new Entry(response, System.currentTimeMillis() + localTtlMillis));
+    slugIds.put(response.getSlug(), response.getId());
+    return true;
+  }
+
+  private synchronized void evictLocal(Set<Long> productIds) {
+    invalidations.incrementAndGet();
+    productIds.forEach(entries::remove);
+  }
+
+  private synchronized void evictLocalAll() {
+    invalidations.incrementAndGet();
+    entries.clear();
+  }
+
+  private String idKey(Long id) {
+    return keyPrefix + "id:" + id;
+  }
+
+  private String slugKey(String slug) {
+    return keyPrefix + "slug:" + slug;
+  }
+
+  private record Entry(ProductResponse response, long expiresAt) {}
+
+  private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+    private final int maxSize;
+
+    LruMap(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > maxSize;
+    }
+  }
+}
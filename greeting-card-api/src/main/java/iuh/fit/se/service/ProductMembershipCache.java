@@ -0,0 +1,166 @@
+package iuh.fit.se.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import iuh.fit.se.event.MembershipChangedEvent;
+import iuh.fit.se.event.MembershipChangedEvent.Kind;
+import iuh.fit.se.repository.WishlistItemRepository;
+import iuh.fit.se.util.SortedLongSet;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Cache id sản phẩm trong giỏ hàng / wishlist của từng user (cờ inCart / inWishlist khi hiển thị
+// sản phẩm), lưu trong LRU mỗi node dưới dạng SortedLongSet. Node thực hiện thay đổi cập nhật tại
+// chỗ sau khi commit qua MembershipChangedEvent, các node khác xóa entry của user qua Redis pub/sub
+// và nạp lại khi cần; TTL giới hạn thời gian dữ liệu cũ nếu message bị mất.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ProductMembershipCache implements MessageListener {
+  private final CartService cartService;
+  private final WishlistItemRepository wishlistItemRepository;
+  private final StringRedisTemplate stringRedisTemplate;
+  private final RedisMessageListenerContainer redisMessageListenerContainer;
+
+  @Value("${app.membership-cache.channel:membership:events}")
+  private String channel;
+
+  @Value("${app.membership-cache.ttl:300000}")
+  private long ttlMillis;
+
+  @Value("${app.membership-cache.max-size:10000}")
+  private int maxSize;
+
+  private final String nodeId = UUID.randomUUID().toString();
+
+  // (kind, userId) -> tập productId, theo thứ tự truy cập để bỏ user ít dùng nhất khi đầy
+  private Map<Key, Entry> entries;
+  // Tăng sau mỗi thay đổi; kết quả load từ DB chỉ được ghi vào cache nếu không có thay đổi nào xảy
+  // ra trong lúc load
+  private final AtomicLong invalidations = new AtomicLong();
+
+  @PostConstruct
+  void init() {
+    entries = new LruMap<>(maxSize);
+    redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(channel));
+  }
+
+  public Set<Long> getCartProductIds(Long userId) {
+    return get(new Key(Kind.CART, userId), () -> cartService.getCartProductIds(userId));
+  }
+
+  public Set<Long> getWishlistProductIds(Long userId) {
+    return get(
+        new Key(Kind.WISHLIST, userId),
+        () -> wishlistItemRepository.findProductIdsByUserId(userId));
+  }
+
+  @TransactionalEventListener(fallbackExecution = true)
+  public void onMembershipChanged(MembershipChangedEvent event) {
+    Key key = new Key(event.kind(), event.userId());
+    applyLocal(key, event.productId(), event.member());
+    try {
+      stringRedisTemplate.convertAndSend(channel, nodeId + "|" + key.kind() + "|" + key.userId());
+    } catch (Exception e) {
+      log.warn(
+          "Failed to publish {} membership change of user {}: {}",
+          key.kind(),
+          key.userId(),
+          e.getMessage());
+    }
+  }
+
+  // Message từ node khác: xóa entry của user, lần đọc sau nạp lại từ DB
+  @Override
+  public void onMessage(Message message, byte[] pattern) {
+    String body = new String(message.getBody(), StandardCharsets.UTF_8);
+    String[] parts = body.split("\\|");
+    if (parts.length != 3) {
+      log.warn("Ignoring malformed membership cache message: {}", body);
+      return;
+    }
+    if (nodeId.equals(parts[0])) {
+      return;
+    }
+    try {
+      evictLocal(new Key(Kind.valueOf(parts[1]), Long.valueOf(parts[2])));
+    } catch (IllegalArgumentException e) {
+      log.warn("Ignoring malformed membership cache message: {}", body);
+    }
+  }
+
+  private Set<Long> get(Key key, Supplier<Set<Long>> loader) {
+    long now = System.currentTimeMillis();
+    long generation;
+    synchronized (this) {
+      Entry entry = entries.get(key);
+      if (entry != null && entry.expiresAt() > now) {
+        return entry.productIds();
+      }
+      generation = invalidations.get();
+    }
+
+    SortedLongSet productIds = SortedLongSet.of(loader.get());
+    synchronized (this) {
+      if (invalidations.get() == generation) {
+        entries.put(key, new Entry(productIds, now + ttlMillis));
+      }
+    }
+    return productIds;
+  }
+
+  // Cập nhật tại chỗ entry còn hạn; thay đổi nhiều sản phẩm (productId == null) thì xóa entry
+  private synchronized void applyLocal(Key key, Long productId, boolean member) {
+    invalidations.incrementAndGet();
+    Entry entry = entries.get(key);
+    if (entry == null) {
+      return;
+    }
+    if (productId == null || entry.expiresAt() <= System.currentTimeMillis()) {
+      entries.remove(key);
+      return;
+    }
+    SortedLongSet productIds =
+        member ? entry.productIds().with(productId) : entry.productIds().without(productId);
+    entries.put(key, new Entry(productIds, entry.expiresAt()));
+  }
+
+  private synchronized void evictLocal(Key key) {
+    invalidations.incrementAndGet();
+    entries.remove(key);
+  }
+
+  private record Key(Kind kind, Long userId) {}
+
+  private record Entry(SortedLongSet productIds, long expiresAt) {}
+
+  private static final class LruMap<K, V> extends LinkedHashMap<K, V> {
+    private final int maxSize;
+
+    LruMap(int maxSize) {
+      super(16, 0.75f, true);
+      this.maxSize = maxSize;
+    }
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+      return size() > maxSize;
+    }
+  }
+}
@@ -0,0 +1,95 @@
+package iuh.fit.se.service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import iuh.fit.se.entity.Product;
+import iuh.fit.se.entity.ProductTag;
+import iuh.fit.se.repository.ProductRepository;
+import iuh.fit.se.repository.ProductSearchDocumentRepository;
+import iuh.fit.se.util.SearchTextUtil;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Duy trì index full-text search của sản phẩm (bảng product_search_documents + GIN index).
+// ProductService cập nhật tài liệu trong cùng transaction ghi sản phẩm; sản phẩm chưa có tài liệu
+// (dữ liệu cũ, seed) được index bù khi khởi động.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ProductSearchService {
+  private final ProductSearchDocumentRepository productSearchDocumentRepository;
+  private final ProductRepository productRepository;
+
+  @Value("${app.product-search.backfill-batch-size:500}")
+  private int backfillBatchSize;
+
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void onApplicationReady() {
+    int indexed = indexMissing();
+    if (indexed > 0) {
+      log.info("Indexed {} products for full-text search", indexed);
+    }
+  }
+
+  // Ghi lại tài liệu search của sản phẩm (gọi sau khi tạo / cập nhật)
+  @Transactional
+  public void index(Product product) {
+    productSearchDocumentRepository.upsert(
+        product.getId(),
+        SearchTextUtil.normalize(product.getName()),
+        SearchTextUtil.normalize(product.getSku()),
+        SearchTextUtil.normalize(tagText(product)),
+        SearchTextUtil.normalize(product.getDescription()));
+  }
+
+  // Ghi lại tài liệu search của nhiều sản phẩm bằng 1 câu upsert (nhập hàng loạt, index bù)
+  @Transactional
+  public void indexAll(Collection<Long> productIds) {
+    if (productIds.isEmpty()) {
+      return;
+    }
+    List<Product> products = productRepository.findAllWithTagsByIdIn(productIds);
+    if (products.isEmpty()) {
+      return;
+    }
+    productSearchDocumentRepository.upsertAll(
+        products.stream().map(Product::getId).toArray(Long[]::new),
+        products.stream().map(p -> SearchTextUtil.normalize(p.getName())).toArray(String[]::new),
+        products.stream().map(p -> SearchTextUtil.normalize(p.getSku())).toArray(String[]::new),
+        products.stream().map(p -> SearchTextUtil.normalize(tagText(p))).toArray(String[]::new),
+        products.stream()
+            .map(p -> SearchTextUtil.normalize(p.getDescription()))
+            .toArray(String[]::new));
+  }
+
+  private static String tagText(Product product) {
+    return product.getTags().stream().map(ProductTag::getName).collect(Collectors.joining(" "));
+  }
+
+  @Transactional
+  public void remove(Long productId) {
+    productSearchDocumentRepository.deleteByProductId(productId);
+  }
+
+  // Index các sản phẩm chưa có tài liệu search, trả về số sản phẩm đã index
+  @Transactional
+  public int indexMissing() {
+    int total = 0;
+    List<Long> ids;
+    do {
+      ids = productSearchDocumentRepository.findProductIdsWithoutDocument(backfillBatchSize);
+      indexAll(ids);
+      total += ids.size();
+    } while (ids.size() == backfillBatchSize);
+    return total;
+  }
+}
@@ -5,12 +5,17 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Supplier;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import iuh.fit.se.dto.request.CreateProductRequest;
 import iuh.fit.se.dto.request.ProductImageRequest;
@@ -20,13 +25,15 @@ import iuh.fit.se.entity.Category;
 import iuh.fit.se.entity.Product;
 import iuh.fit.se.entity.ProductImage;
 import iuh.fit.se.entity.ProductTag;
+import iuh.fit.se.event.ProductChangedEvent;
 import iuh.fit.se.exception.ResourceNotFoundException;
 import iuh.fit.se.mapper.ProductMapper;
-import iuh.fit.se.repository.CartItemRepository;
 import iuh.fit.se.repository.CategoryRepository;
 import iuh.fit.se.repository.ProductRepository;
 import iuh.fit.se.repository.ProductTagRepository;
-import iuh.fit.se.repository.WishlistItemRepository;
+import iuh.fit.se.util.Cursor;
+import iuh.fit.se.util.CursorPage;
+import iuh.fit.se.util.SearchTextUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -36,11 +43,15 @@ import lombok.extern.slf4j.Slf4j;
 public class ProductService {
   private final ProductRepository productRepository;
   private final CategoryRepository categoryRepository;
+  private final CategoryTreeService categoryTreeService;
   private final ProductTagRepository productTagRepository;
   private final ProductMapper productMapper;
   private final CloudinaryService cloudinaryService;
-  private final WishlistItemRepository wishlistItemRepository;
-  private final CartItemRepository cartItemRepository;
+  private final ProductMembershipCache productMembershipCache;
+  private final ProductCacheService productCacheService;
+  private final ProductSearchService productSearchService;
+  private final ApplicationEventPublisher eventPublisher;
+  private final PlatformTransactionManager transactionManager;
 
   /**
    * Get products with optional user-specific flags (inWishlist, inCart).
@@ -61,41 +72,116 @@ public class ProductService {
       Long userId) {
     Pageable pageableWithoutSort = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
 
-    // Create keyword pattern for LIKE query (case-insensitive search)
-    // Normalize keyword: trim, collapse multiple spaces, remove special characters
-    String keywordPattern = null;
-    if (keyword != null && !keyword.trim().isEmpty()) {
-      String normalizedKeyword =
-          keyword
-              .trim()
-              .replaceAll("\\s+", " ") // Collapse multiple spaces to single space
-              .replaceAll("[%_]", ""); // Remove SQL wildcard characters for safety
-      if (!normalizedKeyword.isEmpty()) {
-        keywordPattern = "%" + normalizedKeyword + "%";
-      }
-    }
+    // Full-text search khi có từ khóa (bỏ dấu, khớp theo tiền tố, xếp theo độ liên quan)
+    String tsQuery = SearchTextUtil.toPrefixQuery(keyword);
+
+    // Danh mục được chọn cùng các danh mục con cháu (từ cây danh mục in-memory) - 1 query IN
+    List<Long> categoryFilter = categoryTreeService.expandCategoryFilter(categoryId, categoryIds);
 
     Page<Product> productPage;
-    // Use different query methods based on whether we have multiple categories
-    if (categoryIds != null && !categoryIds.isEmpty()) {
-      // Multiple categories - use IN query
-      productPage = productRepository.searchProductsByCategories(
-          categoryIds, isActive, isFeatured, minPrice, maxPrice, inStock, keywordPattern, pageableWithoutSort);
+    if (!categoryFilter.isEmpty()) {
+      productPage =
+          tsQuery != null
+              ? productRepository.fullTextSearchProductsByCategories(
+                  tsQuery,
+                  categoryFilter,
+                  isActive,
+                  isFeatured,
+                  minPrice,
+                  maxPrice,
+                  inStock,
+                  pageableWithoutSort)
+              : productRepository.searchProductsByCategories(
+                  categoryFilter,
+                  isActive,
+                  isFeatured,
+                  minPrice,
+                  maxPrice,
+                  inStock,
+                  pageableWithoutSort);
     } else {
-      // Single category or no category filter
-      productPage = productRepository.searchProducts(
-          categoryId, isActive, isFeatured, minPrice, maxPrice, inStock, keywordPattern, pageableWithoutSort);
+      // No category filter
+      productPage =
+          tsQuery != null
+              ? productRepository.fullTextSearchProducts(
+                  tsQuery,
+                  null,
+                  isActive,
+                  isFeatured,
+                  minPrice,
+                  maxPrice,
+                  inStock,
+                  pageableWithoutSort)
+              : productRepository.searchProducts(
+                  null,
+                  isActive,
+                  isFeatured,
+                  minPrice,
+                  maxPrice,
+                  inStock,
+                  pageableWithoutSort);
+    }
+
+    return new PageImpl<>(
+        toResponses(productPage.getContent(), userId),
+        productPage.getPageable(),
+        productPage.getTotalElements());
+  }
+
+  /**
+   * Get products with keyset (cursor) pagination by (createdAt, id), newest first. Không chạy COUNT
+   * và không hỗ trợ tìm theo từ khóa (kết quả full-text search được xếp theo độ liên quan).
+   *
+   * @param cursor nextCursor của trang trước, rỗng cho trang đầu tiên
+   */
+  @Transactional(readOnly = true)
+  public CursorPage<ProductResponse> getProductsByCursor(
+      Long categoryId,
+      List<Long> categoryIds,
+      Boolean isActive,
+      Boolean isFeatured,
+      Double minPrice,
+      Double maxPrice,
+      Boolean inStock,
+      String keyword,
+      String cursor,
+      int size,
+      Long userId) {
+    if (SearchTextUtil.toPrefixQuery(keyword) != null) {
+      throw new IllegalArgumentException(
+          "Không hỗ trợ phân trang theo cursor khi tìm kiếm theo từ khóa");
     }
 
+    List<Long> categoryFilter = categoryTreeService.expandCategoryFilter(categoryId, categoryIds);
+    Cursor after = Cursor.decode(cursor);
+    List<Product> products =
+        productRepository.findPageAfter(
+            categoryFilter.toArray(Long[]::new),
+            isActive,
+            isFeatured,
+            minPrice,
+            maxPrice,
+            inStock,
+            after.timestamp(),
+            after.id(),
+            size + 1);
+
+    CursorPage<Product> page =
+        CursorPage.of(
+            products, size, product -> new Cursor(product.getCreatedAt(), product.getId()), null);
+    return new CursorPage<>(toResponses(page.content(), userId), size, page.nextCursor(), null);
+  }
+
+  /** Map products to responses, querying the user's wishlist/cart product IDs once. */
+  private List<ProductResponse> toResponses(List<Product> products, Long userId) {
     // Query wishlist/cart product IDs once for the user (not per product!)
     Set<Long> wishlistProductIds = Collections.emptySet();
     Set<Long> cartProductIds = Collections.emptySet();
 
     if (userId != null) {
-      // Single query to get all product IDs in user's wishlist
-      wishlistProductIds = wishlistItemRepository.findProductIdsByUserId(userId);
-      // Single query to get all product IDs in user's cart
-      cartProductIds = cartItemRepository.findProductIdsByUserId(userId);
+      // Served from the per-user membership cache (no query once the user is cached)
+      wishlistProductIds = productMembershipCache.getWishlistProductIds(userId);
+      cartProductIds = productMembershipCache.getCartProductIds(userId);
     }
 
     // Use final variables for lambda
@@ -104,16 +190,15 @@ public class ProductService {
 
     // Initialize collections to trigger batch loading within transaction
     // This ensures images and tags are loaded efficiently via @BatchSize
-    productPage
-        .getContent()
-        .forEach(
-            product -> {
-              product.getImages().size(); // Trigger batch load for images
-              product.getTags().size(); // Trigger batch load for tags
-            });
-
-    return productPage.map(
-        product -> productMapper.toResponse(product, finalWishlistIds, finalCartIds));
+    products.forEach(
+        product -> {
+          product.getImages().size(); // Trigger batch load for images
+          product.getTags().size(); // Trigger batch load for tags
+        });
+
+    return products.stream()
+        .map(product -> productMapper.toResponse(product, finalWishlistIds, finalCartIds))
+        .toList();
   }
 
   /** Get products without user context (for backward compatibility). */
@@ -123,48 +208,72 @@ public class ProductService {
     return getProducts(categoryId, null, isActive, isFeatured, null, null, null, keyword, pageable, null);
   }
 
-  @Transactional(readOnly = true)
+  // Không có @Transactional: cache hit không mượn connection, chỉ loader mở transaction read-only
   public ProductResponse getProductBySlug(String slug, Long userId) {
-    // Use optimized query that fetches all related data in one query
-    Product product =
-        productRepository
-            .findBySlugWithDetails(slug)
-            .orElseThrow(
-                () -> new ResourceNotFoundException("Không tìm thấy sản phẩm với slug: " + slug));
-    return toProductResponseWithUserFlags(product, userId);
+    ProductResponse response =
+        productCacheService.getBySlug(
+            slug,
+            () ->
+                inReadOnlyTransaction(
+                    () ->
+                        // Use optimized query that fetches all related data in one query
+                        productMapper.toResponse(
+                            productRepository
+                                .findBySlugWithDetails(slug)
+                                .orElseThrow(
+                                    () ->
+                                        new ResourceNotFoundException(
+                                            "Không tìm thấy sản phẩm với slug: " + slug)))));
+    return withUserFlags(response, userId);
   }
 
-  @Transactional(readOnly = true)
   public ProductResponse getProductBySlug(String slug) {
     return getProductBySlug(slug, null);
   }
 
-  @Transactional(readOnly = true)
   @SuppressWarnings("null")
   public ProductResponse getProductById(Long id, Long userId) {
-    // Use optimized query that fetches all related data in one query
-    Product product =
-        productRepository
-            .findByIdWithDetails(id)
-            .orElseThrow(
-                () -> new ResourceNotFoundException("Không tìm thấy sản phẩm với ID: " + id));
-    return toProductResponseWithUserFlags(product, userId);
+    ProductResponse response =
+        productCacheService.getById(
+            id,
+            () ->
+                inReadOnlyTransaction(
+                    () ->
+                        // Use optimized query that fetches all related data in one query
+                        productMapper.toResponse(
+                            productRepository
+                                .findByIdWithDetails(id)
+                                .orElseThrow(
+                                    () ->
+                                        new ResourceNotFoundException(
+                                            "Không tìm thấy sản phẩm với ID: " + id)))));
+    return withUserFlags(response, userId);
   }
 
-  @Transactional(readOnly = true)
   public ProductResponse getProductById(Long id) {
     return getProductById(id, null);
   }
 
-  /** Helper method to convert Product to ProductResponse with user flags. */
-  private ProductResponse toProductResponseWithUserFlags(Product product, Long userId) {
+  // Transaction read-only chỉ cho lần nạp từ DB khi cache miss (tham gia transaction đang có)
+  private <T> T inReadOnlyTransaction(Supplier<T> loader) {
+    TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+    transactionTemplate.setReadOnly(true);
+    return transactionTemplate.execute(status -> loader.get());
+  }
+
+  /** Overlay user flags on a copy of the cached (user-independent) response. */
+  private ProductResponse withUserFlags(ProductResponse response, Long userId) {
     if (userId == null) {
-      return productMapper.toResponse(product);
+      return response;
     }
 
-    Set<Long> wishlistProductIds = wishlistItemRepository.findProductIdsByUserId(userId);
-    Set<Long> cartProductIds = cartItemRepository.findProductIdsByUserId(userId);
-    return productMapper.toResponse(product, wishlistProductIds, cartProductIds);
+    Set<Long> wishlistProductIds = productMembershipCache.getWishlistProductIds(userId);
+    Set<Long> cartProductIds = productMembershipCache.getCartProductIds(userId);
+    return response.toBuilder()
+        .inWishlist(
+            wishlistProductIds.isEmpty() ? null : wishlistProductIds.contains(response.getId()))
+        .inCart(cartProductIds.isEmpty() ? null : cartProductIds.contains(response.getId()))
+        .build();
   }
 
   @Transactional
@@ -199,6 +308,8 @@ public class ProductService {
     }
 
     product = productRepository.save(product);
+    productSearchService.index(product);
+    eventPublisher.publishEvent(ProductChangedEvent.of(product.getId()));
 
     return productMapper.toResponse(product);
   }
@@ -250,6 +361,8 @@ public class ProductService {
     }
 
     product = productRepository.save(product);
+    productSearchService.index(product);
+    eventPublisher.publishEvent(ProductChangedEvent.of(product.getId()));
     return productMapper.toResponse(product);
   }
 
@@ -285,6 +398,8 @@ public class ProductService {
     }
 
     productRepository.deleteById(id);
+    productSearchService.remove(id);
+    eventPublisher.publishEvent(ProductChangedEvent.of(id));
   }
 
   private String generateUniqueSlug(String name) {
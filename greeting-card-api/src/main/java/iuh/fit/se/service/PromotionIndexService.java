@@ -0,0 +1,320 @@
+package iuh.fit.se.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import iuh.fit.se.dto.response.PromotionResponse;
+import iuh.fit.se.entity.Promotion;
+import iuh.fit.se.entity.enumeration.DiscountType;
+import iuh.fit.se.entity.enumeration.PromotionScope;
+import iuh.fit.se.entity.enumeration.PromotionType;
+import iuh.fit.se.event.PromotionChangedEvent;
+import iuh.fit.se.mapper.PromotionMapper;
+import iuh.fit.se.repository.PromotionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Index in-memory các promotion đang bật, tra cứu theo product / category / ORDER scope.
+// Snapshot là immutable, được thay thế nguyên khối (copy-on-write) mỗi khi promotion thay đổi,
+// nên việc tính giá giỏ hàng không cần query promotion nào.
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PromotionIndexService {
+  private static final Comparator<PromotionRule> BY_ID = Comparator.comparing(PromotionRule::id);
+
+  private final PromotionRepository promotionRepository;
+  private final PromotionMapper promotionMapper;
+
+  private final AtomicLong versionSequence = new AtomicLong();
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  // Snapshot hiện tại - caller nên giữ một snapshot cho cả lần tính giá
+  public Snapshot snapshot() {
+    return snapshot;
+  }
+
+  // Nạp toàn bộ index khi ứng dụng khởi động
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional(readOnly = true)
+  public void onApplicationReady() {
+    rebuildAll();
+  }
+
+  // Nạp lại định kỳ để nhận thay đổi từ các node khác và usedCount mới
+  @Scheduled(
+      initialDelayString = "${app.promotion-index.refresh-interval:300000}",
+      fixedDelayString = "${app.promotion-index.refresh-interval:300000}")
+  @Transactional(readOnly = true)
+  public void scheduledRebuild() {
+    rebuildAll();
+  }
+
+  // Cập nhật incremental một promotion sau khi transaction ghi đã commit
+  @TransactionalEventListener
+  @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+  public void onPromotionChanged(PromotionChangedEvent event) {
+    refresh(event.promotionId());
+  }
+
+  private synchronized void rebuildAll() {
+    LocalDateTime now = LocalDateTime.now();
+    List<PromotionRule> rules =
+        promotionRepository.findAllActiveWithTargets(now).stream()
+            .filter(promotion -> isIndexable(promotion, now))
+            .map(this::compile)
+            .toList();
+
+    snapshot = Snapshot.of(versionSequence.incrementAndGet(), rules);
+    log.info("Rebuilt promotion index v{} with {} rules", snapshot.version(), rules.size());
+  }
+
+  private synchronized void refresh(Long promotionId) {
+    LocalDateTime now = LocalDateTime.now();
+    PromotionRule updated =
+        promotionRepository
+            .findByIdWithTargets(promotionId)
+            .filter(promotion -> isIndexable(promotion, now))
+            .map(this::compile)
+            .orElse(null);
+
+    snapshot = snapshot.withRule(versionSequence.incrementAndGet(), promotionId, updated);
+    log.debug("Refreshed promotion {} in index v{}", promotionId, snapshot.version());
+  }
+
+  private boolean isIndexable(Promotion promotion, LocalDateTime now) {
+    return Boolean.TRUE.equals(promotion.getIsActive())
+        && promotion.getValidUntil().isAfter(now)
+        && (promotion.getUsageLimit() == null
+            || promotion.getUsedCount() < promotion.getUsageLimit());
+  }
+
+  private PromotionRule compile(Promotion promotion) {
+    Set<Long> productIds =
+        promotion.getScope() == PromotionScope.PRODUCT && promotion.getProducts() != null
+            ? promotion.getProducts().stream()
+                .map(product -> product.getId())
+                .collect(Collectors.toUnmodifiableSet())
+            : Set.of();
+
+    return new PromotionRule(
+        promotion.getId(),
+        promotion.getName(),
+        promotion.getType(),
+        promotion.getScope(),
+        promotion.getDiscountType(),
+        promotion.getDiscountValue(),
+        promotion.getMinPurchase(),
+        promotion.getMaxDiscount(),
+        promotion.getBuyQuantity(),
+        promotion.getGetQuantity(),
+        promotion.getPayQuantity(),
+        productIds,
+        promotion.getCategory() != null ? promotion.getCategory().getId() : null,
+        promotion.getValidFrom(),
+        promotion.getValidUntil(),
+        promotionMapper.toResponse(promotion));
+  }
+
+  // Bản "biên dịch" của Promotion, chỉ giữ các field cần cho việc tính giá
+  public record PromotionRule(
+      Long id,
+      String name,
+      PromotionType type,
+      PromotionScope scope,
+      DiscountType discountType,
+      BigDecimal discountValue,
+      BigDecimal minPurchase,
+      BigDecimal maxDiscount,
+      Integer buyQuantity,
+      Integer getQuantity,
+      Integer payQuantity,
+      Set<Long> productIds,
+      Long categoryId,
+      LocalDateTime validFrom,
+      LocalDateTime validUntil,
+      PromotionResponse response) {
+
+    // Cùng điều kiện với PromotionRepository: validFrom <= now < validUntil
+    public boolean isApplicableAt(LocalDateTime now) {
+      return !validFrom.isAfter(now) && validUntil.isAfter(now);
+    }
+  }
+
+  public static final class Snapshot {
+    static final Snapshot EMPTY = new Snapshot(0, Map.of(), Map.of(), Map.of(), List.of());
+
+    private final long version;
+    private final Map<Long, PromotionRule> rulesById;
+    private final Map<Long, List<PromotionRule>> byProduct;
+    private final Map<Long, List<PromotionRule>> byCategory;
+    private final List<PromotionRule> orderScope;
+
+    private Snapshot(
+        long version,
+        Map<Long, PromotionRule> rulesById,
+        Map<Long, List<PromotionRule>> byProduct,
+        Map<Long, List<PromotionRule>> byCategory,
+        List<PromotionRule> orderScope) {
+      this.version = version;
+      this.rulesById = rulesById;
+      this.byProduct = byProduct;
+      this.byCategory = byCategory;
+      this.orderScope = orderScope;
+    }
+
+    static Snapshot of(long version, List<PromotionRule> rules) {
+      Map<Long, PromotionRule> rulesById = new HashMap<>();
+      Map<Long, List<PromotionRule>> byProduct = new HashMap<>();
+      Map<Long, List<PromotionRule>> byCategory = new HashMap<>();
+      List<PromotionRule> orderScope = new ArrayList<>();
+
+      for (PromotionRule rule : rules) {
+        rulesById.put(rule.id(), rule);
+        switch (rule.scope()) {
+          case PRODUCT ->
+              rule.productIds()
+                  .forEach(id -> byProduct.computeIfAbsent(id, k -> new ArrayList<>()).add(rule));
+          case CATEGORY -> {
+            if (rule.categoryId() != null) {
+              byCategory.computeIfAbsent(rule.categoryId(), k -> new ArrayList<>()).add(rule);
+            }
+          }
+          case ORDER -> orderScope.add(rule);
+        }
+      }
+
+      return new Snapshot(
+          version,
+          Map.copyOf(rulesById),
+          freeze(byProduct),
+          freeze(byCategory),
+          sorted(orderScope));
+    }
+
+    // Tạo snapshot mới thay thế (hoặc xóa nếu updated == null) một rule, chỉ copy các bucket bị
+    // ảnh hưởng
+    Snapshot withRule(long newVersion, Long promotionId, PromotionRule updated) {
+      PromotionRule previous = rulesById.get(promotionId);
+
+      Map<Long, PromotionRule> newRulesById = new HashMap<>(rulesById);
+      Map<Long, List<PromotionRule>> newByProduct = new HashMap<>(byProduct);
+      Map<Long, List<PromotionRule>> newByCategory = new HashMap<>(byCategory);
+      List<PromotionRule> newOrderScope = new ArrayList<>(orderScope);
+
+      if (previous != null) {
+        newRulesById.remove(promotionId);
+        previous.productIds().forEach(id -> removeFromBucket(newByProduct, id, promotionId));
+        if (previous.categoryId() != null) {
+          removeFromBucket(newByCategory, previous.categoryId(), promotionId);
+        }
+        newOrderScope.removeIf(rule -> rule.id().equals(promotionId));
+      }
+
+      if (updated != null) {
+        newRulesById.put(promotionId, updated);
+        switch (updated.scope()) {
+          case PRODUCT ->
+              updated.productIds().forEach(id -> addToBucket(newByProduct, id, updated));
+          case CATEGORY -> {
+            if (updated.categoryId() != null) {
+              addToBucket(newByCategory, updated.categoryId(), updated);
+            }
+          }
+          case ORDER -> newOrderScope.add(updated);
+        }
+      }
+
+      return new Snapshot(
+          newVersion,
+          Map.copyOf(newRulesById),
+          Map.copyOf(newByProduct),
+          Map.copyOf(newByCategory),
+          sorted(newOrderScope));
+    }
+
+    public long version() {
+      return version;
+    }
+
+    public int size() {
+      return rulesById.size();
+    }
+
+    // Promotion áp dụng cho sản phẩm: PRODUCT scope trước, sau đó CATEGORY scope
+    public List<PromotionRule> forProduct(Long productId, Long categoryId, LocalDateTime now) {
+      List<PromotionRule> productRules = byProduct.getOrDefault(productId, List.of());
+      List<PromotionRule> categoryRules =
+          categoryId != null ? byCategory.getOrDefault(categoryId, List.of()) : List.of();
+      if (productRules.isEmpty() && categoryRules.isEmpty()) {
+        return List.of();
+      }
+
+      List<PromotionRule> result = new ArrayList<>(productRules.size() + categoryRules.size());
+      for (PromotionRule rule : productRules) {
+        if (rule.isApplicableAt(now)) {
+          result.add(rule);
+        }
+      }
+      for (PromotionRule rule : categoryRules) {
+        if (rule.isApplicableAt(now)) {
+          result.add(rule);
+        }
+      }
+      return result;
+    }
+
+    // Promotion ORDER scope đang hiệu lực
+    public List<PromotionRule> forOrder(LocalDateTime now) {
+      return orderScope.stream().filter(rule -> rule.isApplicableAt(now)).toList();
+    }
+
+    private static void addToBucket(
+        Map<Long, List<PromotionRule>> buckets, Long key, PromotionRule rule) {
+      List<PromotionRule> bucket = new ArrayList<>(buckets.getOrDefault(key, List.of()));
+      bucket.add(rule);
+      buckets.put(key, sorted(bucket));
+    }
+
+    private static void removeFromBucket(
+        Map<Long, List<PromotionRule>> buckets, Long key, Long promotionId) {
+      List<PromotionRule> bucket = buckets.get(key);
+      if (bucket == null) {
+        return;
+      }
+      List<PromotionRule> remaining =
+          bucket.stream().filter(rule -> !rule.id().equals(promotionId)).toList();
+      if (remaining.isEmpty()) {
+        buckets.remove(key);
+      } else {
+        buckets.put(key, remaining);
+      }
+    }
+
+    private static Map<Long, List<PromotionRule>> freeze(Map<Long, List<PromotionRule>> buckets) {
+      Map<Long, List<PromotionRule>> frozen = new HashMap<>();
+      buckets.forEach((key, bucket) -> frozen.put(key, sorted(bucket)));
+      return Map.copyOf(frozen);
+    }
+
+    private static List<PromotionRule> sorted(List<PromotionRule> rules) {
+      return rules.stream().sorted(BY_ID).toList();
+    }
+  }
+}
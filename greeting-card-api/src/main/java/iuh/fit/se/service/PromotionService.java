@@ -7,6 +7,7 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -18,7 +19,6 @@ import iuh.fit.se.dto.request.CreatePromotionRequest;
 import iuh.fit.se.dto.request.UpdatePromotionRequest;
 import iuh.fit.se.dto.response.CartPromotionPreviewResponse;
 import iuh.fit.se.dto.response.PromotionResponse;
-import iuh.fit.se.entity.Cart;
 import iuh.fit.se.entity.CartItem;
 import iuh.fit.se.entity.Category;
 import iuh.fit.se.entity.Product;
@@ -26,30 +26,32 @@ import iuh.fit.se.entity.Promotion;
 import iuh.fit.se.entity.enumeration.DiscountType;
 import iuh.fit.se.entity.enumeration.PromotionScope;
 import iuh.fit.se.entity.enumeration.PromotionType;
+import iuh.fit.se.event.PromotionChangedEvent;
 import iuh.fit.se.exception.AppException;
 import iuh.fit.se.exception.ErrorCode;
 import iuh.fit.se.exception.ResourceNotFoundException;
 import iuh.fit.se.mapper.PromotionMapper;
-import iuh.fit.se.repository.CartRepository;
 import iuh.fit.se.repository.CategoryRepository;
 import iuh.fit.se.repository.ProductRepository;
 import iuh.fit.se.repository.PromotionRepository;
 import iuh.fit.se.repository.UserRepository;
+import iuh.fit.se.service.PricingEngine.CartLine;
+import iuh.fit.se.service.PricingEngine.LinePrice;
+import iuh.fit.se.service.PricingEngine.PricingResult;
+import iuh.fit.se.service.PromotionIndexService.PromotionRule;
 import lombok.RequiredArgsConstructor;
 
 @Service
 @RequiredArgsConstructor
 public class PromotionService {
-  // Shipping fee constants
-  private static final BigDecimal SHIPPING_FEE = new BigDecimal("30000");
-  private static final BigDecimal FREE_SHIPPING_THRESHOLD = new BigDecimal("500000");
-
   private final PromotionRepository promotionRepository;
   private final PromotionMapper promotionMapper;
   private final ProductRepository productRepository;
   private final CategoryRepository categoryRepository;
-  private final CartRepository cartRepository;
+  private final CartService cartService;
   private final UserRepository userRepository;
+  private final PricingEngine pricingEngine;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Transactional(readOnly = true)
   public Page<PromotionResponse> getAllPromotions(
@@ -149,6 +151,7 @@ public class PromotionService {
     promotion.setIsActive(request.getIsActive() != null ? request.getIsActive() : true);
 
     Promotion savedPromotion = promotionRepository.save(promotion);
+    eventPublisher.publishEvent(new PromotionChangedEvent(savedPromotion.getId()));
     return promotionMapper.toResponse(savedPromotion);
   }
 
@@ -276,6 +279,7 @@ public class PromotionService {
     }
 
     Promotion updatedPromotion = promotionRepository.save(promotion);
+    eventPublisher.publishEvent(new PromotionChangedEvent(updatedPromotion.getId()));
     return promotionMapper.toResponse(updatedPromotion);
   }
 
@@ -287,6 +291,7 @@ public class PromotionService {
             .findById(id)
             .orElseThrow(() -> new ResourceNotFoundException("Khuyến mãi không tồn tại"));
     promotionRepository.delete(promotion);
+    eventPublisher.publishEvent(new PromotionChangedEvent(id));
   }
 
   @Transactional(readOnly = true)
@@ -301,135 +306,29 @@ public class PromotionService {
         .findById(userId)
         .orElseThrow(() -> new ResourceNotFoundException("User không tồn tại"));
 
-    Cart cart =
-        cartRepository
-            .findByUserIdWithItems(userId)
-            .orElseThrow(() -> new ResourceNotFoundException("Giỏ hàng trống"));
+    List<CartItem> cartItems = cartService.getCartItems(userId);
 
-    if (cart.getItems().isEmpty()) {
+    if (cartItems.isEmpty()) {
       return CartPromotionPreviewResponse.builder()
           .originalTotal(BigDecimal.ZERO)
           .promotionDiscount(BigDecimal.ZERO)
-          .shippingFee(SHIPPING_FEE)
-          .freeShippingThreshold(FREE_SHIPPING_THRESHOLD)
-          .finalTotal(SHIPPING_FEE)
+          .shippingFee(PricingEngine.SHIPPING_FEE)
+          .freeShippingThreshold(PricingEngine.FREE_SHIPPING_THRESHOLD)
+          .finalTotal(PricingEngine.SHIPPING_FEE)
           .itemPromotions(new ArrayList<>())
           .freeItems(new ArrayList<>())
           .build();
     }
 
-    LocalDateTime now = LocalDateTime.now();
-    BigDecimal originalTotal = BigDecimal.ZERO;
-    BigDecimal totalPromotionDiscount = BigDecimal.ZERO;
+    PricingResult pricing = pricingEngine.price(CartLine.of(cartItems), null);
     List<CartPromotionPreviewResponse.ItemPromotion> itemPromotions = new ArrayList<>();
     List<CartPromotionPreviewResponse.FreeItem> freeItems = new ArrayList<>();
 
-    // Tính tổng tiền gốc trước
-    for (CartItem cartItem : cart.getItems()) {
-      Product product = cartItem.getProduct();
-      BigDecimal itemSubtotal =
-          product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity()));
-      originalTotal = originalTotal.add(itemSubtotal);
-    }
-
-    // Lấy khuyến mãi ORDER scope (áp dụng cho toàn bộ đơn hàng)
-    List<Promotion> orderPromotions = promotionRepository.findActivePromotionsForOrder(now);
-    Promotion appliedOrderPromotion = null;
-    BigDecimal orderDiscountAmount = BigDecimal.ZERO;
-
-    // Áp dụng khuyến mãi ORDER scope (chỉ áp dụng 1 khuyến mãi tốt nhất)
-    for (Promotion promotion : orderPromotions) {
-      if (promotion.getType() == PromotionType.DISCOUNT) {
-        // Kiểm tra điều kiện minPurchase
-        if (promotion.getMinPurchase() != null
-            && originalTotal.compareTo(promotion.getMinPurchase()) < 0) {
-          continue;
-        }
-
-        BigDecimal discount = calculateDiscountAmount(promotion, originalTotal);
-        if (discount.compareTo(orderDiscountAmount) > 0) {
-          appliedOrderPromotion = promotion;
-          orderDiscountAmount = discount;
-        }
-      }
-    }
-
-    if (appliedOrderPromotion != null) {
-      totalPromotionDiscount = totalPromotionDiscount.add(orderDiscountAmount);
-    }
-
     // Xử lý từng item trong giỏ hàng
-    for (CartItem cartItem : cart.getItems()) {
-      Product product = cartItem.getProduct();
-      BigDecimal itemSubtotal =
-          product.getPrice().multiply(BigDecimal.valueOf(cartItem.getQuantity()));
-
-      // Find promotions for this product (PRODUCT scope)
-      List<Promotion> productPromotions =
-          new ArrayList<>(promotionRepository.findActivePromotionsForProduct(product.getId(), now));
-
-      // Also check category promotions (CATEGORY scope)
-      if (product.getCategory() != null) {
-        List<Promotion> categoryPromotions =
-            promotionRepository.findActivePromotionsForCategory(product.getCategory().getId(), now);
-        productPromotions.addAll(categoryPromotions);
-      }
-
-      Promotion appliedPromotion = null;
-      int freeQuantity = 0;
-      BigDecimal discountAmount = BigDecimal.ZERO;
-
-      // Apply first valid promotion (ưu tiên BOGO/BUY_X_GET_Y/BUY_X_PAY_Y trước, sau đó DISCOUNT)
-      for (Promotion promotion : productPromotions) {
-        if (promotion.getType() == PromotionType.BOGO) {
-          // Buy 1 Get 1 Free - mua bao nhiêu tặng bấy nhiêu
-          int qty = cartItem.getQuantity(); // Mua 1 tặng 1, mua 2 tặng 2, ...
-          if (qty > 0) {
-            appliedPromotion = promotion;
-            freeQuantity = qty;
-            discountAmount = product.getPrice().multiply(BigDecimal.valueOf(freeQuantity));
-            break;
-          }
-        } else if (promotion.getType() == PromotionType.BUY_X_GET_Y) {
-          // Buy X Get Y - for every (X+Y) items, Y are free
-          int sets =
-              cartItem.getQuantity() / (promotion.getBuyQuantity() + promotion.getGetQuantity());
-          int qty = sets * promotion.getGetQuantity();
-          if (qty > 0) {
-            appliedPromotion = promotion;
-            freeQuantity = qty;
-            discountAmount = product.getPrice().multiply(BigDecimal.valueOf(freeQuantity));
-            break;
-          }
-        } else if (promotion.getType() == PromotionType.BUY_X_PAY_Y) {
-          // Buy X Pay Y - for every X items, only pay for Y
-          int sets = cartItem.getQuantity() / promotion.getBuyQuantity();
-          int paidQuantity = sets * promotion.getPayQuantity();
-          int remainder = cartItem.getQuantity() % promotion.getBuyQuantity();
-          paidQuantity += remainder;
-          int qty = cartItem.getQuantity() - paidQuantity;
-          if (qty > 0) {
-            appliedPromotion = promotion;
-            freeQuantity = qty;
-            discountAmount = product.getPrice().multiply(BigDecimal.valueOf(freeQuantity));
-            break;
-          }
-        } else if (promotion.getType() == PromotionType.DISCOUNT) {
-          // DISCOUNT type cho PRODUCT/CATEGORY scope
-          // Kiểm tra điều kiện minPurchase
-          if (promotion.getMinPurchase() != null
-              && itemSubtotal.compareTo(promotion.getMinPurchase()) < 0) {
-            continue;
-          }
-
-          BigDecimal discount = calculateDiscountAmount(promotion, itemSubtotal);
-          if (discount.compareTo(BigDecimal.ZERO) > 0) {
-            appliedPromotion = promotion;
-            discountAmount = discount;
-            break;
-          }
-        }
-      }
+    for (int i = 0; i < cartItems.size(); i++) {
+      Product product = cartItems.get(i).getProduct();
+      LinePrice line = pricing.lines().get(i);
+      PromotionRule appliedPromotion = line.promotion();
 
       // Get primary image
       String productImage = null;
@@ -449,100 +348,51 @@ public class PromotionService {
               .productName(product.getName())
               .productImage(productImage)
               .price(product.getPrice())
-              .quantity(cartItem.getQuantity())
-              .subtotal(itemSubtotal)
-              .promotionId(appliedPromotion != null ? appliedPromotion.getId() : null)
-              .promotionName(appliedPromotion != null ? appliedPromotion.getName() : null)
-              .promotionType(appliedPromotion != null ? appliedPromotion.getType() : null)
-              .freeQuantity(freeQuantity)
-              .discountAmount(discountAmount)
+              .quantity(line.line().quantity())
+              .subtotal(line.subtotalAmount())
+              .promotionId(appliedPromotion != null ? appliedPromotion.id() : null)
+              .promotionName(appliedPromotion != null ? appliedPromotion.name() : null)
+              .promotionType(appliedPromotion != null ? appliedPromotion.type() : null)
+              .freeQuantity(line.freeQuantity())
+              .discountAmount(line.discountAmount())
               .build();
       itemPromotions.add(itemPromo);
 
       // Add to free items list if has promotion (BOGO, BUY_X_GET_Y, BUY_X_PAY_Y)
-      if (appliedPromotion != null && freeQuantity > 0) {
+      if (appliedPromotion != null && line.freeQuantity() > 0) {
         CartPromotionPreviewResponse.FreeItem freeItem =
             CartPromotionPreviewResponse.FreeItem.builder()
                 .productId(product.getId())
                 .productName(product.getName())
                 .productImage(productImage)
                 .originalPrice(product.getPrice())
-                .freeQuantity(freeQuantity)
-                .promotionId(appliedPromotion.getId())
-                .promotionName(appliedPromotion.getName())
-                .promotionType(appliedPromotion.getType())
+                .freeQuantity(line.freeQuantity())
+                .promotionId(appliedPromotion.id())
+                .promotionName(appliedPromotion.name())
+                .promotionType(appliedPromotion.type())
                 .build();
         freeItems.add(freeItem);
-
-        // Only BUY_X_PAY_Y reduces the total (you pay less for what you buy)
-        // BOGO and BUY_X_GET_Y give free items (added to order, not reducing price)
-        if (appliedPromotion.getType() == PromotionType.BUY_X_PAY_Y) {
-          totalPromotionDiscount = totalPromotionDiscount.add(discountAmount);
-        }
-      }
-
-      // Add DISCOUNT type discount to total
-      if (appliedPromotion != null
-          && appliedPromotion.getType() == PromotionType.DISCOUNT
-          && discountAmount.compareTo(BigDecimal.ZERO) > 0) {
-        totalPromotionDiscount = totalPromotionDiscount.add(discountAmount);
       }
     }
 
-    BigDecimal subtotalAfterDiscount = originalTotal.subtract(totalPromotionDiscount);
-    if (subtotalAfterDiscount.compareTo(BigDecimal.ZERO) < 0) {
-      subtotalAfterDiscount = BigDecimal.ZERO;
-    }
-
-    // Calculate shipping fee (free if subtotal >= 500k)
-    BigDecimal shippingFee =
-        subtotalAfterDiscount.compareTo(FREE_SHIPPING_THRESHOLD) >= 0
-            ? BigDecimal.ZERO
-            : SHIPPING_FEE;
-
-    BigDecimal finalTotal = subtotalAfterDiscount.add(shippingFee);
-
     return CartPromotionPreviewResponse.builder()
-        .originalTotal(originalTotal)
-        .promotionDiscount(totalPromotionDiscount)
-        .shippingFee(shippingFee)
-        .freeShippingThreshold(FREE_SHIPPING_THRESHOLD)
-        .finalTotal(finalTotal)
+        .originalTotal(pricing.originalTotalAmount())
+        .promotionDiscount(pricing.promotionDiscountAmount())
+        .shippingFee(pricing.shippingFeeAmount())
+        .freeShippingThreshold(PricingEngine.FREE_SHIPPING_THRESHOLD)
+        .finalTotal(pricing.finalTotalAmount())
         .itemPromotions(itemPromotions)
         .freeItems(freeItems)
         .appliedOrderPromotion(
-            appliedOrderPromotion != null ? promotionMapper.toResponse(appliedOrderPromotion) : null)
-        .orderDiscountAmount(orderDiscountAmount)
+            pricing.orderPromotion() != null ? pricing.orderPromotion().response() : null)
+        .orderDiscountAmount(pricing.orderDiscountAmount())
         .build();
   }
 
-  // Helper method to calculate discount amount based on promotion type
-  private BigDecimal calculateDiscountAmount(Promotion promotion, BigDecimal amount) {
-    BigDecimal discount;
-    if (promotion.getDiscountType() == DiscountType.PERCENTAGE) {
-      discount =
-          amount.multiply(promotion.getDiscountValue()).divide(BigDecimal.valueOf(100));
-      // Apply max discount cap if set
-      if (promotion.getMaxDiscount() != null
-          && discount.compareTo(promotion.getMaxDiscount()) > 0) {
-        discount = promotion.getMaxDiscount();
-      }
-    } else {
-      // FIXED amount
-      discount = promotion.getDiscountValue();
-      // Don't discount more than the amount
-      if (discount.compareTo(amount) > 0) {
-        discount = amount;
-      }
-    }
-    return discount;
-  }
-
   // Helper method to validate promotion configuration
   private void validatePromotionConfiguration(CreatePromotionRequest request) {
     // Validate: ORDER scope chỉ cho phép DISCOUNT type
-    if (request.getScope() == PromotionScope.ORDER
-        && request.getType() != PromotionType.DISCOUNT) {
+    if (request.getScope() == PromotionScope.ORDER && request.getType() != PromotionType.DISCOUNT) {
       throw new AppException(
           "Phạm vi 'Toàn bộ đơn hàng' chỉ hỗ trợ loại khuyến mãi 'Giảm giá'",
           ErrorCode.VALIDATION_ERROR);
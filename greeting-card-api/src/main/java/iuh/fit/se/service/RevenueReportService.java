@@ -0,0 +1,171 @@
+package iuh.fit.se.service;
+
+import java.math.BigDecimal;
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import iuh.fit.se.dto.response.RevenueReportResponse;
+import iuh.fit.se.repository.OrderRepository;
+import iuh.fit.se.repository.OrderRepository.RevenueBucketRow;
+import lombok.RequiredArgsConstructor;
+
+// Báo cáo doanh thu theo ngày / tuần / tháng trong một múi giờ bất kỳ. Khoảng thời gian được quy
+// về [start, end) theo giờ server (cột order_date) để query dùng index; ranh giới bucket do
+// Postgres tính theo múi giờ của báo cáo.
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class RevenueReportService {
+  private static final int DEFAULT_DAYS = 30;
+  private static final int MAX_BUCKETS = 1000;
+
+  private final OrderRepository orderRepository;
+
+  @Value("${app.reporting.time-zone:}")
+  private String defaultTimeZone;
+
+  // from: ngày bắt đầu (inclusive), to: ngày kết thúc (exclusive), theo múi giờ timeZone
+  public RevenueReportResponse getRevenueReport(
+      String period, LocalDate from, LocalDate to, String timeZone) {
+    Granularity granularity = Granularity.of(period);
+    ZoneId zone = parseZone(timeZone != null ? timeZone : defaultTimeZone);
+    LocalDate end = to != null ? to : LocalDate.now(zone).plusDays(1);
+    LocalDate start = from != null ? from : end.minusDays(DEFAULT_DAYS);
+    if (!start.isBefore(end)) {
+      throw new IllegalArgumentException("Ngày bắt đầu phải trước ngày kết thúc");
+    }
+
+    // Bucket đầu / cuối bị cắt theo [start, end)
+    List<LocalDate> periodStarts = new ArrayList<>();
+    for (LocalDate date = granularity.truncate(start);
+        date.isBefore(end);
+        date = granularity.next(date)) {
+      if (periodStarts.size() == MAX_BUCKETS) {
+        throw new IllegalArgumentException("Khoảng thời gian báo cáo quá dài");
+      }
+      periodStarts.add(date);
+    }
+
+    ZoneId serverZone = ZoneId.systemDefault();
+    Map<LocalDate, RevenueBucketRow> rows = new HashMap<>();
+    for (RevenueBucketRow row :
+        orderRepository.sumRevenueByBucket(
+            granularity.unit,
+            zone.getId(),
+            serverZone.getId(),
+            toServerTime(start, zone, serverZone),
+            toServerTime(end, zone, serverZone))) {
+      rows.put(row.getBucketStart().toLocalDate(), row);
+    }
+
+    List<RevenueReportResponse.Bucket> buckets = new ArrayList<>(periodStarts.size());
+    BigDecimal totalRevenue = BigDecimal.ZERO;
+    long totalOrders = 0;
+    for (LocalDate periodStart : periodStarts) {
+      RevenueBucketRow row = rows.get(periodStart);
+      BigDecimal revenue = row != null ? row.getRevenue() : BigDecimal.ZERO;
+      long orderCount = row != null ? row.getOrderCount() : 0;
+      totalRevenue = totalRevenue.add(revenue);
+      totalOrders += orderCount;
+
+      LocalDate bucketStart = periodStart.isBefore(start) ? start : periodStart;
+      LocalDate periodEnd = granularity.next(periodStart);
+      LocalDate bucketEnd = periodEnd.isAfter(end) ? end : periodEnd;
+      buckets.add(
+          RevenueReportResponse.Bucket.builder()
+              .start(toOffsetDateTime(bucketStart, zone))
+              .end(toOffsetDateTime(bucketEnd, zone))
+              .revenue(revenue)
+              .orderCount(orderCount)
+              .build());
+    }
+
+    return RevenueReportResponse.builder()
+        .timeZone(zone.getId())
+        .period(granularity.name().toLowerCase())
+        .from(start)
+        .to(end)
+        .totalRevenue(totalRevenue)
+        .totalOrders(totalOrders)
+        .buckets(buckets)
+        .build();
+  }
+
+  // Chỉ nhận tên vùng (Asia/Ho_Chi_Minh, UTC...): Postgres hiểu offset dạng "+07:00" theo kiểu
+  // POSIX (ngược dấu)
+  private ZoneId parseZone(String timeZone) {
+    if (timeZone == null || timeZone.isBlank()) {
+      return ZoneId.systemDefault();
+    }
+    try {
+      ZoneId zone = ZoneId.of(timeZone);
+      if (zone instanceof ZoneOffset && !zone.equals(ZoneOffset.UTC)) {
+        throw new IllegalArgumentException(
+            "Múi giờ phải là tên vùng (ví dụ Asia/Ho_Chi_Minh), không phải offset");
+      }
+      return zone instanceof ZoneOffset ? ZoneId.of("UTC") : zone;
+    } catch (DateTimeException e) {
+      throw new IllegalArgumentException("Múi giờ không hợp lệ: " + timeZone);
+    }
+  }
+
+  private LocalDateTime toServerTime(LocalDate date, ZoneId zone, ZoneId serverZone) {
+    return date.atStartOfDay(zone).withZoneSameInstant(serverZone).toLocalDateTime();
+  }
+
+  private OffsetDateTime toOffsetDateTime(LocalDate date, ZoneId zone) {
+    return date.atStartOfDay(zone).toOffsetDateTime();
+  }
+
+  public enum Granularity {
+    DAILY("day"),
+    WEEKLY("week"),
+    MONTHLY("month");
+
+    // Đơn vị của date_trunc trong Postgres
+    private final String unit;
+
+    Granularity(String unit) {
+      this.unit = unit;
+    }
+
+    // Giống getRevenueSummary: kỳ không hợp lệ được hiểu là daily
+    public static Granularity of(String period) {
+      return switch (period == null ? "" : period) {
+        case "weekly" -> WEEKLY;
+        case "monthly" -> MONTHLY;
+        default -> DAILY;
+      };
+    }
+
+    LocalDate truncate(LocalDate date) {
+      return switch (this) {
+        case DAILY -> date;
+        case WEEKLY -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        case MONTHLY -> date.withDayOfMonth(1);
+      };
+    }
+
+    LocalDate next(LocalDate date) {
+      return switch (this) {
+        case DAILY -> date.plusDays(1);
+        case WEEKLY -> date.plusWeeks(1);
+        case MONTHLY -> date.plusMonths(1);
+      };
+    }
+  }
+}
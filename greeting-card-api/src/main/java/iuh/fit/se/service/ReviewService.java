@@ -1,9 +1,10 @@
 package iuh.fit.se.service;
 
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
@@ -17,7 +18,9 @@ import iuh.fit.se.dto.response.ReviewResponse;
 import iuh.fit.se.dto.response.ReviewStatsResponse;
 import iuh.fit.se.entity.Product;
 import iuh.fit.se.entity.ProductReview;
+import iuh.fit.se.entity.RatingSummary;
 import iuh.fit.se.entity.User;
+import iuh.fit.se.event.ProductChangedEvent;
 import iuh.fit.se.exception.AppException;
 import iuh.fit.se.exception.ErrorCode;
 import iuh.fit.se.repository.ProductRepository;
@@ -35,6 +38,8 @@ public class ReviewService {
   private final ProductReviewRepository reviewRepository;
   private final ProductRepository productRepository;
   private final UserRepository userRepository;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ManagedEntityRefresher managedEntityRefresher;
 
   // Customer: Get reviews for a product
   public Page<ReviewResponse> getProductReviews(
@@ -52,29 +57,28 @@ public class ReviewService {
     return reviews.map(this::toResponse);
   }
 
-  // Customer: Get review stats for a product
+  // Customer: Get review stats for a product - đọc bộ đếm đã lưu trên dòng products
   public ReviewStatsResponse getProductReviewStats(Long productId) {
-    Double averageRating = reviewRepository.getAverageRatingByProductId(productId);
-    Long totalReviews = reviewRepository.countApprovedByProductId(productId);
-    List<Object[]> distribution = reviewRepository.getRatingDistributionByProductId(productId);
-
-    Map<Integer, Long> ratingDistribution = new HashMap<>();
-    for (int i = 1; i <= 5; i++) {
-      ratingDistribution.put(i, 0L);
-    }
-    for (Object[] row : distribution) {
-      Integer ratingValue = (Integer) row[0];
-      Long count = (Long) row[1];
-      ratingDistribution.put(ratingValue, count);
-    }
+    RatingSummary summary =
+        productRepository.findRatingSummaryById(productId).orElse(RatingSummary.EMPTY);
 
     return ReviewStatsResponse.builder()
-        .averageRating(averageRating != null ? averageRating : 0.0)
-        .totalReviews(totalReviews)
-        .ratingDistribution(ratingDistribution)
+        .averageRating(summary.getAverageRating())
+        .totalReviews(summary.getReviewCount())
+        .ratingDistribution(summary.getDistribution())
         .build();
   }
 
+  // Sửa bộ đếm đánh giá bị lệch (dữ liệu cũ, ghi trực tiếp vào DB) khi khởi động
+  @EventListener(ApplicationReadyEvent.class)
+  @Transactional
+  public void onApplicationReady() {
+    int fixed = productRepository.recalculateRatings();
+    if (fixed > 0) {
+      log.info("Recalculated rating counters for {} products", fixed);
+    }
+  }
+
   // Customer: Create a review
   @Transactional
   @SuppressWarnings("null")
@@ -140,6 +144,9 @@ public class ReviewService {
       throw new AppException("Đánh giá không thuộc sản phẩm này", ErrorCode.NOT_FOUND);
     }
 
+    // Đánh giá đã duyệt bị sửa sẽ chờ duyệt lại: bỏ khỏi bộ đếm theo số sao cũ
+    setApproved(review, false);
+
     if (request.getRating() != null) {
       review.setRating(request.getRating());
     }
@@ -176,6 +183,7 @@ public class ReviewService {
       throw new AppException("Đánh giá không thuộc sản phẩm này", ErrorCode.NOT_FOUND);
     }
 
+    setApproved(review, false);
     reviewRepository.delete(review);
     log.info("Deleted review {} by user {}", reviewId, userId);
   }
@@ -238,8 +246,7 @@ public class ReviewService {
             .findById(reviewId)
             .orElseThrow(() -> new AppException("Không tìm thấy đánh giá", ErrorCode.NOT_FOUND));
 
-    review.setIsApproved(true);
-    review = reviewRepository.save(review);
+    setApproved(review, true);
     log.info("Approved review {}", reviewId);
 
     return toResponse(review);
@@ -254,8 +261,7 @@ public class ReviewService {
             .findById(reviewId)
             .orElseThrow(() -> new AppException("Không tìm thấy đánh giá", ErrorCode.NOT_FOUND));
 
-    review.setIsApproved(false);
-    review = reviewRepository.save(review);
+    setApproved(review, false);
     log.info("Rejected review {} with reason: {}", reviewId, reason);
 
     return toResponse(review);
@@ -269,10 +275,25 @@ public class ReviewService {
         reviewRepository
             .findById(reviewId)
             .orElseThrow(() -> new AppException("Không tìm thấy đánh giá", ErrorCode.NOT_FOUND));
+    setApproved(review, false);
     reviewRepository.delete(review);
     log.info("Admin deleted review {}", reviewId);
   }
 
+  // Đổi trạng thái duyệt bằng UPDATE có điều kiện; chỉ khi trạng thái thực sự đổi mới cộng / trừ
+  // đánh giá (theo số sao đang lưu trong DB) vào bộ đếm của sản phẩm
+  private void setApproved(ProductReview review, boolean approved) {
+    Long productId = review.getProduct().getId();
+    reviewRepository
+        .updateApproved(review.getId(), approved)
+        .ifPresent(
+            rating -> {
+              productRepository.adjustRating(productId, rating, approved ? 1 : -1);
+              eventPublisher.publishEvent(ProductChangedEvent.of(productId));
+            });
+    managedEntityRefresher.refreshIfLoaded(ProductReview.class, List.of(review.getId()));
+  }
+
   private ReviewResponse toResponse(ProductReview review) {
     return ReviewResponse.builder()
         .id(review.getId())
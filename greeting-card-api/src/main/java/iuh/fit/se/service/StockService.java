@@ -1,7 +1,14 @@
 package iuh.fit.se.service;
 
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -15,6 +22,7 @@ import iuh.fit.se.entity.Product;
 import iuh.fit.se.entity.StockTransaction;
 import iuh.fit.se.entity.User;
 import iuh.fit.se.entity.enumeration.StockTransactionType;
+import iuh.fit.se.event.ProductChangedEvent;
 import iuh.fit.se.exception.ResourceNotFoundException;
 import iuh.fit.se.mapper.StockTransactionMapper;
 import iuh.fit.se.repository.ProductRepository;
@@ -31,6 +39,8 @@ public class StockService {
   private final ProductRepository productRepository;
   private final UserRepository userRepository;
   private final StockTransactionMapper stockTransactionMapper;
+  private final ApplicationEventPublisher eventPublisher;
+  private final ManagedEntityRefresher managedEntityRefresher;
 
   @Transactional
   @SuppressWarnings("null")
@@ -61,61 +71,61 @@ public class StockService {
           "Số lượng phải lớn hơn 0 cho loại giao dịch: " + request.getType());
     }
 
-    // Lấy tồn kho hiện tại
-    Integer stockBefore = product.getStock();
+    // Số lượng thay đổi: dương cho IN, âm cho OUT, có thể âm/dương cho ADJUSTMENT
     Integer quantity = request.getQuantity();
-
-    // Tính toán tồn kho sau
-    Integer stockAfter;
+    int delta;
     switch (request.getType()) {
       case IN:
         // Nhập kho: tăng tồn kho
         if (quantity <= 0) {
           throw new IllegalArgumentException("Số lượng nhập kho phải lớn hơn 0");
         }
-        stockAfter = stockBefore + quantity;
+        delta = quantity;
         break;
       case OUT:
         // Xuất kho: giảm tồn kho
         if (quantity <= 0) {
           throw new IllegalArgumentException("Số lượng xuất kho phải lớn hơn 0");
         }
-        if (stockBefore < quantity) {
-          throw new IllegalArgumentException(
-              String.format(
-                  "Không đủ tồn kho. Tồn kho hiện tại: %d, yêu cầu xuất: %d",
-                  stockBefore, quantity));
-        }
-        stockAfter = stockBefore - quantity;
+        delta = -quantity;
         break;
       case ADJUSTMENT:
         // Điều chỉnh: quantity là số thay đổi (có thể âm hoặc dương)
         // Ví dụ: quantity = 10 -> tăng 10, quantity = -5 -> giảm 5
-        stockAfter = stockBefore + quantity;
-        if (stockAfter < 0) {
-          throw new IllegalArgumentException("Tồn kho sau điều chỉnh không thể âm: " + stockAfter);
-        }
+        delta = quantity;
         break;
       default:
         throw new IllegalArgumentException("Loại giao dịch không hợp lệ: " + request.getType());
     }
 
+    // Cập nhật tồn kho bằng 1 câu UPDATE có điều kiện (không ghi đè cập nhật đồng thời). Product
+    // đã nạp được đọc lại để thông báo đúng tồn kho hiện tại và không ghi đè tồn kho mới khi flush
+    Optional<Integer> adjusted = productRepository.adjustStock(product.getId(), delta);
+    managedEntityRefresher.refreshIfLoaded(Product.class, List.of(product.getId()));
+    Integer stockAfter =
+        adjusted.orElseThrow(
+            () ->
+                request.getType() == StockTransactionType.OUT
+                    ? new IllegalArgumentException(
+                        String.format(
+                            "Không đủ tồn kho. Tồn kho hiện tại: %d, yêu cầu xuất: %d",
+                            product.getStock(), quantity))
+                    : new IllegalArgumentException(
+                        "Tồn kho sau điều chỉnh không thể âm: " + (product.getStock() + delta)));
+    Integer stockBefore = stockAfter - delta;
+
     // Tạo giao dịch
     StockTransaction transaction = new StockTransaction();
     transaction.setProduct(product);
     transaction.setType(request.getType());
-    // Lưu quantity: dương cho IN, âm cho OUT, có thể âm/dương cho ADJUSTMENT
-    transaction.setQuantity(request.getType() == StockTransactionType.OUT ? -quantity : quantity);
+    transaction.setQuantity(delta);
     transaction.setStockBefore(stockBefore);
     transaction.setStockAfter(stockAfter);
     transaction.setNotes(request.getNotes());
     transaction.setCreatedBy(admin);
 
     transaction = stockTransactionRepository.save(transaction);
-
-    // Cập nhật tồn kho sản phẩm
-    product.setStock(stockAfter);
-    productRepository.save(product);
+    eventPublisher.publishEvent(ProductChangedEvent.of(product.getId()));
 
     log.info(
         "Stock transaction created: {} - Product: {} - Type: {} - Quantity: {} - Stock: {} -> {}",
@@ -129,6 +139,55 @@ public class StockService {
     return stockTransactionMapper.toResponse(transaction);
   }
 
+  // Giữ tồn kho cho nhiều dòng (vd. các dòng của giỏ hàng) trong 1 round trip. Mỗi dòng chỉ bị
+  // trừ khi còn đủ tồn kho; trả về các dòng không đủ để caller báo lỗi và rollback transaction.
+  @Transactional
+  public List<StockLine> reserveStock(List<StockLine> lines) {
+    // Gộp các dòng trùng sản phẩm để mỗi sản phẩm chỉ bị trừ 1 lần
+    Map<Long, Integer> quantities = new LinkedHashMap<>();
+    for (StockLine line : lines) {
+      quantities.merge(line.productId(), line.quantity(), Integer::sum);
+    }
+    if (quantities.isEmpty()) {
+      return List.of();
+    }
+
+    Set<Long> reserved =
+        new HashSet<>(
+            productRepository.decrementStock(
+                quantities.keySet().toArray(Long[]::new),
+                quantities.values().toArray(Integer[]::new)));
+    // Product đã nạp trong transaction (vd. qua giỏ hàng) giữ tồn kho cũ, đọc lại để không ghi đè
+    managedEntityRefresher.refreshIfLoaded(Product.class, quantities.keySet());
+
+    if (!reserved.isEmpty()) {
+      eventPublisher.publishEvent(new ProductChangedEvent(reserved));
+    }
+
+    List<StockLine> failed = new ArrayList<>();
+    quantities.forEach(
+        (productId, quantity) -> {
+          if (!reserved.contains(productId)) {
+            failed.add(new StockLine(productId, quantity));
+          }
+        });
+    return failed;
+  }
+
+  // Giữ tồn kho cho 1 sản phẩm, trả về false nếu không đủ tồn kho
+  @Transactional
+  public boolean reserveStock(Long productId, int quantity) {
+    return reserveStock(List.of(new StockLine(productId, quantity))).isEmpty();
+  }
+
+  // Trả lại tồn kho đã giữ (vd. giảm số lượng sản phẩm trong đơn)
+  @Transactional
+  public void releaseStock(Long productId, int quantity) {
+    Optional<Integer> adjusted = productRepository.adjustStock(productId, quantity);
+    managedEntityRefresher.refreshIfLoaded(Product.class, List.of(productId));
+    adjusted.ifPresent(stock -> eventPublisher.publishEvent(ProductChangedEvent.of(productId)));
+  }
+
   @Transactional(readOnly = true)
   @SuppressWarnings("null")
   public Page<StockTransactionResponse> getStockTransactions(
@@ -195,4 +254,7 @@ public class StockService {
         stockTransactionRepository.findByProductIdOrderByCreatedAtDesc(productId, pageable);
     return transactions.map(stockTransactionMapper::toResponse);
   }
+
+  // Số lượng tồn kho cần giữ của một sản phẩm
+  public record StockLine(Long productId, int quantity) {}
 }
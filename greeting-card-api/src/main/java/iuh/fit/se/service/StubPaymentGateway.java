@@ -0,0 +1,85 @@
+package iuh.fit.se.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+// Payment gateway giả lập chạy local, độ trễ và tỉ lệ thất bại cấu hình qua app.payment.gateway.*
+// Lời gọi là blocking, nên được chạy trên virtual thread (PaymentProcessor), không phải request
+// thread.
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StubPaymentGateway {
+  private final ObjectMapper objectMapper;
+
+  @Value("${app.payment.gateway.min-latency:2000}")
+  private long minLatencyMillis;
+
+  @Value("${app.payment.gateway.max-latency:3000}")
+  private long maxLatencyMillis;
+
+  @Value("${app.payment.gateway.failure-rate:0.0}")
+  private double failureRate;
+
+  public GatewayResult charge(
+      String transactionId, String paymentMethodCode, boolean forceFailure, String failureReason) {
+    try {
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      long latency =
+          maxLatencyMillis > minLatencyMillis
+              ? random.nextLong(minLatencyMillis, maxLatencyMillis + 1)
+              : minLatencyMillis;
+      Thread.sleep(latency);
+
+      if (forceFailure || random.nextDouble() < failureRate) {
+        String reason = failureReason != null ? failureReason : "Thanh toán thất bại (giả lập)";
+        return new GatewayResult(false, reason, createFailureResponse(paymentMethodCode));
+      }
+      return new GatewayResult(true, null, createSuccessResponse(paymentMethodCode));
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      log.warn("Payment {} interrupted while waiting for gateway", transactionId);
+      return new GatewayResult(false, "Lỗi xử lý thanh toán", null);
+    }
+  }
+
+  private String createSuccessResponse(String paymentMethodCode) {
+    try {
+      ObjectNode response = objectMapper.createObjectNode();
+      response.put("status", "success");
+      response.put("code", "00");
+      response.put("message", "Thanh toán thành công");
+      response.put("paymentMethod", paymentMethodCode);
+      response.put("timestamp", LocalDateTime.now().toString());
+      return objectMapper.writeValueAsString(response);
+    } catch (Exception e) {
+      return "{\"status\":\"success\",\"message\":\"Thanh toán thành công\"}";
+    }
+  }
+
+  private String createFailureResponse(String paymentMethodCode) {
+    try {
+      ObjectNode response = objectMapper.createObjectNode();
+      response.put("status", "failed");
+      response.put("code", "99");
+      response.put("message", "Thanh toán thất bại");
+      response.put("paymentMethod", paymentMethodCode);
+      response.put("timestamp", LocalDateTime.now().toString());
+      return objectMapper.writeValueAsString(response);
+    } catch (Exception e) {
+      return "{\"status\":\"failed\",\"message\":\"Thanh toán thất bại\"}";
+    }
+  }
+
+  // Kết quả trả về từ gateway
+  public record GatewayResult(boolean success, String failureReason, String response) {}
+}
@@ -18,6 +18,7 @@ import lombok.extern.slf4j.Slf4j;
 public class TokenRedisService {
 
   private final RedisTemplate<String, Object> redisTemplate;
+  private final AccessTokenBlacklistCache blacklistCache;
 
   @Value("${jwt.redis.access-token-blacklist-prefix:blacklist:access_token:}")
   private String accessTokenBlacklistPrefix;
@@ -30,20 +31,34 @@ public class TokenRedisService {
     long ttlSeconds = Duration.between(Instant.now(), expiresAt).getSeconds();
     if (ttlSeconds > 0) {
       redisTemplate.opsForValue().set(key, "blacklisted", ttlSeconds, TimeUnit.SECONDS);
+      blacklistCache.add(token, expiresAt.toEpochMilli());
       log.debug("Blacklisted access token with TTL {} seconds", ttlSeconds);
     }
   }
 
-  // Kiểm tra access token có trong blacklist không
+  // Kiểm tra access token có trong blacklist không. Near cache trả lời phần lớn request; chỉ hỏi
+  // Redis khi bloom filter báo có thể bị blacklist.
   public boolean isAccessTokenBlacklisted(String token) {
-    String key = accessTokenBlacklistPrefix + token;
-    return Boolean.TRUE.equals(redisTemplate.hasKey(key));
+    return switch (blacklistCache.lookup(token)) {
+      case BLACKLISTED -> true;
+      case NOT_BLACKLISTED -> false;
+      case MAYBE -> {
+        try {
+          yield Boolean.TRUE.equals(redisTemplate.hasKey(accessTokenBlacklistPrefix + token));
+        } catch (Exception e) {
+          // Redis không khả dụng: từ chối token nằm trong filter
+          log.warn("Cannot check access token blacklist in Redis: {}", e.getMessage());
+          yield true;
+        }
+      }
+    };
   }
 
   // Xóa access token khỏi blacklist (nếu cần)
   public void removeAccessTokenFromBlacklist(String token) {
     String key = accessTokenBlacklistPrefix + token;
     redisTemplate.delete(key);
+    blacklistCache.remove(token);
   }
 
   // Xóa tất cả tokens đã hết hạn (cleanup job)
@@ -1,8 +1,14 @@
 package iuh.fit.se.service;
 
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
@@ -12,18 +18,23 @@ import iuh.fit.se.dto.request.AddToWishlistRequest;
 import iuh.fit.se.dto.request.SyncWishlistRequest;
 import iuh.fit.se.dto.response.ProductImageResponse;
 import iuh.fit.se.dto.response.ProductResponse;
+import iuh.fit.se.dto.response.SyncItemResult;
 import iuh.fit.se.dto.response.WishlistItemResponse;
 import iuh.fit.se.dto.response.WishlistResponse;
 import iuh.fit.se.dto.response.WishlistSummaryResponse;
+import iuh.fit.se.dto.response.WishlistSyncResponse;
 import iuh.fit.se.entity.Product;
 import iuh.fit.se.entity.User;
 import iuh.fit.se.entity.Wishlist;
 import iuh.fit.se.entity.WishlistItem;
+import iuh.fit.se.event.MembershipChangedEvent;
+import iuh.fit.se.event.MembershipChangedEvent.Kind;
 import iuh.fit.se.exception.ResourceNotFoundException;
 import iuh.fit.se.repository.ProductRepository;
 import iuh.fit.se.repository.UserRepository;
 import iuh.fit.se.repository.WishlistItemRepository;
 import iuh.fit.se.repository.WishlistRepository;
+import iuh.fit.se.util.PaginationUtil;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -36,6 +47,7 @@ public class WishlistService {
   private final WishlistItemRepository wishlistItemRepository;
   private final ProductRepository productRepository;
   private final UserRepository userRepository;
+  private final ApplicationEventPublisher eventPublisher;
 
   @Transactional
   public WishlistResponse getWishlist(Long userId) {
@@ -72,6 +84,8 @@ public class WishlistService {
     newItem.setProduct(product);
     wishlist.addItem(newItem);
     wishlistItemRepository.save(newItem);
+    eventPublisher.publishEvent(
+        MembershipChangedEvent.added(Kind.WISHLIST, userId, request.getProductId()));
 
     log.info("Added product {} to wishlist for user {}", request.getProductId(), userId);
 
@@ -91,6 +105,7 @@ public class WishlistService {
 
     wishlist.removeItem(wishlistItem);
     wishlistItemRepository.delete(wishlistItem);
+    eventPublisher.publishEvent(MembershipChangedEvent.removed(Kind.WISHLIST, userId, productId));
 
     log.info("Removed product {} from wishlist for user {}", productId, userId);
   }
@@ -101,34 +116,61 @@ public class WishlistService {
     Wishlist wishlist = getWishlistByUserIdOrThrow(userId);
     wishlist.clearItems();
     wishlistItemRepository.deleteAll(wishlist.getItems());
+    eventPublisher.publishEvent(MembershipChangedEvent.reset(Kind.WISHLIST, userId));
     log.info("Cleared wishlist for user {}", userId);
   }
 
   // Sync wishlist từ localStorage lên server khi user login
-  public WishlistResponse syncWishlist(Long userId, SyncWishlistRequest request) {
+  public WishlistSyncResponse syncWishlist(Long userId, SyncWishlistRequest request) {
     Wishlist wishlist = getOrCreateWishlist(userId);
+    List<SyncItemResult> results = new ArrayList<>();
 
+    Set<Long> requested = new LinkedHashSet<>();
     for (SyncWishlistRequest.ProductIdData item : request.getProductIds()) {
-      Product product = getProductOrThrow(item.getProductId());
-
-      // Check if already exists
-      boolean exists =
-          wishlistItemRepository.existsByWishlistIdAndProductId(
-              wishlist.getId(), item.getProductId());
-
-      if (!exists) {
-        // Add new item
-        WishlistItem newItem = new WishlistItem();
-        newItem.setWishlist(wishlist);
-        newItem.setProduct(product);
-        wishlist.addItem(newItem);
-        wishlistItemRepository.save(newItem);
+      if (item == null || item.getProductId() == null) {
+        results.add(SyncItemResult.builder().status(SyncItemResult.Status.INVALID).build());
+        continue;
       }
+      requested.add(item.getProductId());
     }
 
-    log.info("Synced wishlist from localStorage for user {}", userId);
+    Map<Long, Product> products =
+        productRepository.findAllById(requested).stream()
+            .collect(Collectors.toMap(Product::getId, Function.identity()));
+    Set<Long> existingIds =
+        wishlist.getItems().stream()
+            .map(item -> item.getProduct().getId())
+            .collect(Collectors.toSet());
+
+    List<Long> productIds = new ArrayList<>();
+    for (Long productId : requested) {
+      Product product = products.get(productId);
+      SyncItemResult.SyncItemResultBuilder result = SyncItemResult.builder().productId(productId);
+      if (product == null) {
+        results.add(result.status(SyncItemResult.Status.NOT_FOUND).build());
+        continue;
+      }
+      result.availableStock(product.getStock());
+      if (existingIds.contains(productId)) {
+        results.add(result.status(SyncItemResult.Status.UNCHANGED).build());
+      } else {
+        productIds.add(productId);
+        results.add(result.status(SyncItemResult.Status.ADDED).build());
+      }
+    }
 
-    return mapToWishlistResponse(wishlist);
+    if (!productIds.isEmpty()) {
+      wishlistItemRepository.insertItems(wishlist.getId(), productIds.toArray(Long[]::new));
+      eventPublisher.publishEvent(MembershipChangedEvent.reset(Kind.WISHLIST, userId));
+      wishlist = getWishlistByUserIdOrThrow(userId);
+    }
+
+    log.info(
+        "Synced wishlist from localStorage for user {}: {} products added",
+        userId,
+        productIds.size());
+
+    return new WishlistSyncResponse(mapToWishlistResponse(wishlist), results);
   }
 
   // Check if product is in wishlist
@@ -211,6 +253,8 @@ public class WishlistService {
             null, // category
             images, // images
             null, // tags
+            product.getRatingSummary().getAverageRating(),
+            product.getRatingSummary().getReviewCount(),
             product.getCreatedAt(),
             product.getUpdatedAt(),
             true, // inWishlist - item is in wishlist since it's a wishlist item
@@ -223,14 +267,22 @@ public class WishlistService {
   // Admin: Lấy tất cả wishlist (phân trang)
   @Transactional(readOnly = true)
   public Page<WishlistSummaryResponse> getAllWishlists(Pageable pageable) {
-    Page<Wishlist> wishlists = wishlistRepository.findAllWithUserAndItems(pageable);
+    Page<Wishlist> wishlists =
+        PaginationUtil.fetchPage(
+            wishlistRepository.findIdsWithItems(pageable),
+            wishlistRepository::findAllWithUserAndItemsByIdIn,
+            Wishlist::getId);
     return wishlists.map(this::mapToWishlistSummary);
   }
 
   // Admin: Tìm kiếm wishlist theo email hoặc tên user
   @Transactional(readOnly = true)
   public Page<WishlistSummaryResponse> searchWishlists(String keyword, Pageable pageable) {
-    Page<Wishlist> wishlists = wishlistRepository.searchWishlists(keyword, pageable);
+    Page<Wishlist> wishlists =
+        PaginationUtil.fetchPage(
+            wishlistRepository.searchWishlistIds(keyword, pageable),
+            wishlistRepository::findAllWithUserAndItemsByIdIn,
+            Wishlist::getId);
     return wishlists.map(this::mapToWishlistSummary);
   }
 
@@ -0,0 +1,64 @@
+package iuh.fit.se.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Bloom filter cho chuỗi, thread-safe khi thêm và kiểm tra đồng thời. Không có false negative;
+// tỉ lệ false positive xấp xỉ falsePositiveRate khi số phần tử không vượt expectedInsertions.
+public class BloomFilter {
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int hashCount;
+
+  public BloomFilter(int expectedInsertions, double falsePositiveRate) {
+    int n = Math.max(1, expectedInsertions);
+    long m = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+    this.bitCount = Math.max(64, m);
+    this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    this.bits = new AtomicLongArray((int) ((bitCount + 63) / 64));
+  }
+
+  public void add(String value) {
+    long hash = hash64(value);
+    long h1 = hash;
+    long h2 = mix(hash);
+    for (int i = 0; i < hashCount; i++) {
+      long index = Math.floorMod(h1 + i * h2, bitCount);
+      long mask = 1L << (index & 63);
+      bits.accumulateAndGet((int) (index >>> 6), mask, (current, bit) -> current | bit);
+    }
+  }
+
+  public boolean mightContain(String value) {
+    long hash = hash64(value);
+    long h1 = hash;
+    long h2 = mix(hash);
+    for (int i = 0; i < hashCount; i++) {
+      long index = Math.floorMod(h1 + i * h2, bitCount);
+      if ((bits.get((int) (index >>> 6)) & (1L << (index & 63))) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  // FNV-1a 64-bit
+  private static long hash64(String value) {
+    long hash = 0xcbf29ce484222325L;
+    for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+      hash ^= b & 0xff;
+      hash *= 0x100000001b3L;
+    }
+    return hash;
+  }
+
+  // Finalizer của MurmurHash3, tạo hash thứ hai độc lập cho double hashing
+  private static long mix(long hash) {
+    hash ^= hash >>> 33;
+    hash *= 0xff51afd7ed558ccdL;
+    hash ^= hash >>> 33;
+    hash *= 0xc4ceb9fe1a85ec53L;
+    hash ^= hash >>> 33;
+    return hash | 1;
+  }
+}
@@ -0,0 +1,78 @@
+package iuh.fit.se.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+
+// Đọc CSV (RFC 4180) lần lượt từng bản ghi, không đọc cả file vào bộ nhớ. Field trong dấu nháy kép
+// có thể chứa dấu phẩy và xuống dòng, "" là một dấu nháy kép. Chấp nhận cả \n và \r\n, bỏ qua BOM.
+public class CsvReader {
+  private static final int BOM = '\uFEFF';
+
+  private final Reader reader;
+  private long nextLine = 1;
+  private long lineNumber;
+  private boolean started;
+
+  public CsvReader(Reader reader) {
+    this.reader = reader instanceof BufferedReader ? reader : new BufferedReader(reader);
+  }
+
+  // Dòng bắt đầu của bản ghi vừa đọc (tính từ 1)
+  public long getLineNumber() {
+    return lineNumber;
+  }
+
+  // Bản ghi tiếp theo, null khi hết file. Dòng trống là bản ghi có 1 field rỗng.
+  public List<String> readRecord() throws IOException {
+    int c = reader.read();
+    if (!started) {
+      started = true;
+      if (c == BOM) {
+        c = reader.read();
+      }
+    }
+    if (c == -1) {
+      return null;
+    }
+    lineNumber = nextLine;
+
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    while (true) {
+      if (quoted) {
+        if (c == -1) {
+          throw new IllegalArgumentException(
+              "Dấu nháy kép chưa được đóng (bản ghi bắt đầu ở dòng " + lineNumber + ")");
+        }
+        if (c == '"') {
+          c = reader.read();
+          if (c != '"') {
+            quoted = false;
+            continue;
+          }
+        } else if (c == '\n') {
+          nextLine++;
+        }
+        field.append((char) c);
+      } else if (c == '"' && field.isEmpty()) {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else if (c == '\n' || c == -1) {
+        if (c == '\n') {
+          nextLine++;
+        }
+        fields.add(field.toString());
+        return fields;
+      } else if (c != '\r') {
+        field.append((char) c);
+      }
+      c = reader.read();
+    }
+  }
+}
@@ -0,0 +1,38 @@
+package iuh.fit.se.util;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+// Ghi CSV (RFC 4180) lần lượt từng bản ghi. Field chứa dấu phẩy, dấu nháy kép hoặc xuống dòng được
+// đặt trong dấu nháy kép; null được ghi là field rỗng.
+public class CsvWriter {
+  private final Writer writer;
+
+  public CsvWriter(Writer writer) {
+    this.writer = writer;
+  }
+
+  public void writeRecord(List<String> values) throws IOException {
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        writer.write(',');
+      }
+      writer.write(escape(values.get(i)));
+    }
+    writer.write("\r\n");
+  }
+
+  private static String escape(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.indexOf(',') < 0
+        && value.indexOf('"') < 0
+        && value.indexOf('\n') < 0
+        && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
+}
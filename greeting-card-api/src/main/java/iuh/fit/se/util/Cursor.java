@@ -0,0 +1,40 @@
+package iuh.fit.se.util;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+// Vị trí của keyset pagination: (thời điểm, id) của bản ghi cuối cùng trên trang trước. Danh sách
+// được sắp xếp giảm dần theo (thời điểm, id) nên trang tiếp theo là các bản ghi nhỏ hơn cursor.
+// Client nhận giá trị dạng chuỗi opaque (base64url), không nên tự tạo.
+public record Cursor(LocalDateTime timestamp, Long id) {
+  private static final char SEPARATOR = '|';
+
+  // Cursor trước bản ghi mới nhất (trang đầu tiên)
+  public static final Cursor START =
+      new Cursor(LocalDateTime.of(9999, 12, 31, 0, 0), Long.MAX_VALUE);
+
+  public String encode() {
+    String raw = timestamp.toString() + SEPARATOR + id;
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  // Chuỗi rỗng nghĩa là bắt đầu từ trang đầu tiên
+  public static Cursor decode(String value) {
+    if (value == null || value.isBlank()) {
+      return START;
+    }
+    try {
+      String raw = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+      int separator = raw.lastIndexOf(SEPARATOR);
+      return new Cursor(
+          LocalDateTime.parse(raw.substring(0, separator)),
+          Long.valueOf(raw.substring(separator + 1)));
+    } catch (IllegalArgumentException | DateTimeParseException | IndexOutOfBoundsException e) {
+      throw new IllegalArgumentException("Cursor phân trang không hợp lệ");
+    }
+  }
+}
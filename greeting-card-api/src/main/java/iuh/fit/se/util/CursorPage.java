@@ -0,0 +1,25 @@
+package iuh.fit.se.util;
+
+import java.util.List;
+import java.util.function.Function;
+
+// Một trang của keyset pagination. Không chạy COUNT: estimatedTotal (nếu có) lấy từ thống kê của
+// query planner, nextCursor == null nghĩa là đã hết dữ liệu.
+public record CursorPage<T>(List<T> content, int size, String nextCursor, Long estimatedTotal) {
+
+  // rows được query với limit size + 1 để biết còn trang tiếp theo hay không
+  public static <E> CursorPage<E> of(
+      List<E> rows, int size, Function<E, Cursor> cursorOf, Long estimatedTotal) {
+    if (rows.size() <= size) {
+      return new CursorPage<>(rows, size, null, estimatedTotal);
+    }
+    List<E> content = rows.subList(0, size);
+    return new CursorPage<>(
+        content, size, cursorOf.apply(content.get(size - 1)).encode(), estimatedTotal);
+  }
+
+  public <R> CursorPage<R> map(Function<T, R> mapper) {
+    return new CursorPage<>(
+        content.stream().map(mapper).toList(), size, nextCursor, estimatedTotal);
+  }
+}
@@ -1,8 +1,13 @@
 package iuh.fit.se.util;
 
 import java.nio.charset.StandardCharsets;
+import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
 import java.util.Map;
 import java.util.function.Function;
 
@@ -13,24 +18,77 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.LocatorAdapter;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 
-// JWT Token Provider - Tạo và validate JWT tokens
+// JWT Token Provider - Tạo và validate JWT tokens.
+// Key và parser được tạo một lần khi khởi động. Token được ký bằng jwt.secret và mang header kid;
+// các secret trong jwt.previous-secrets vẫn được chấp nhận khi verify để xoay key không làm mất
+// phiên đăng nhập.
 @Component
 public class JwtTokenProvider {
   @Value("${jwt.secret:your-secret-key-change-this-in-production-min-256-bits}")
   private String secretKey;
 
+  // Các secret cũ (phân tách bằng dấu phẩy), chỉ dùng để verify
+  @Value("${jwt.previous-secrets:}")
+  private String previousSecretKeys;
+
   @Value("${jwt.access-token-validity:900000}") // 15 minutes default
   private long accessTokenValidityInMilliseconds;
 
   @Value("${jwt.refresh-token-validity:604800000}") // 7 days default
   private long refreshTokenValidityInMilliseconds;
 
-  private SecretKey getSigningKey() {
-    byte[] keyBytes = secretKey.getBytes(StandardCharsets.UTF_8);
-    return Keys.hmacShaKeyFor(keyBytes);
+  private SecretKey signingKey;
+  private String signingKeyId;
+  private JwtParser parser;
+
+  @PostConstruct
+  public void init() {
+    signingKey = toKey(secretKey);
+    signingKeyId = keyIdOf(signingKey);
+
+    Map<String, SecretKey> verificationKeys = new HashMap<>();
+    verificationKeys.put(signingKeyId, signingKey);
+    Arrays.stream(previousSecretKeys.split(","))
+        .map(String::trim)
+        .filter(secret -> !secret.isEmpty())
+        .map(JwtTokenProvider::toKey)
+        .forEach(key -> verificationKeys.putIfAbsent(keyIdOf(key), key));
+
+    parser =
+        Jwts.parser()
+            .keyLocator(
+                new LocatorAdapter<Key>() {
+                  @Override
+                  protected Key locate(JwsHeader header) {
+                    // Token cũ không có kid được verify bằng key hiện tại
+                    String keyId = header.getKeyId();
+                    return keyId != null
+                        ? verificationKeys.getOrDefault(keyId, signingKey)
+                        : signingKey;
+                  }
+                })
+            .build();
+  }
+
+  private static SecretKey toKey(String secret) {
+    return Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8));
+  }
+
+  // kid = 8 byte đầu của SHA-256(key), không lộ secret
+  private static String keyIdOf(SecretKey key) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(key.getEncoded());
+      return HexFormat.of().formatHex(digest, 0, 8);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
   }
 
   // Tạo Access Token từ UserDetails
@@ -67,60 +125,62 @@ public class JwtTokenProvider {
         .subject(subject)
         .issuedAt(now)
         .expiration(validityDate)
-        .signWith(getSigningKey())
+        .header()
+        .keyId(signingKeyId)
+        .and()
+        .signWith(signingKey)
         .compact();
   }
 
+  // Parse và verify token một lần; ném JwtException nếu không hợp lệ hoặc đã hết hạn
+  public ParsedToken parse(String token) {
+    return new ParsedToken(parser.parseSignedClaims(token).getPayload());
+  }
+
+  // Như parse() nhưng trả về null nếu token không hợp lệ
+  public ParsedToken tryParse(String token) {
+    try {
+      return parse(token);
+    } catch (Exception e) {
+      return null;
+    }
+  }
+
+  // Parse access token; trả về null nếu token không hợp lệ, hết hạn hoặc là refresh token
+  public ParsedToken parseAccessToken(String token) {
+    ParsedToken parsed = tryParse(token);
+    return parsed != null && !parsed.isRefreshToken() ? parsed : null;
+  }
+
   // Lấy username từ token
   public String getUsernameFromToken(String token) {
-    return getClaimFromToken(token, Claims::getSubject);
+    return parse(token).subject();
   }
 
   // Lấy userId từ token
   public Long getUserIdFromToken(String token) {
-    Claims claims = getAllClaimsFromToken(token);
-    Object userId = claims.get("userId");
-    if (userId instanceof Integer) {
-      return ((Integer) userId).longValue();
-    }
-    return (Long) userId;
+    return parse(token).userId();
   }
 
   // Lấy expiration date từ token
   public Date getExpirationDateFromToken(String token) {
-    return getClaimFromToken(token, Claims::getExpiration);
+    return parse(token).expiration();
   }
 
   // Lấy claim từ token
   public <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
-    final Claims claims = getAllClaimsFromToken(token);
-    return claimsResolver.apply(claims);
-  }
-
-  // Lấy tất cả claims từ token
-  private Claims getAllClaimsFromToken(String token) {
-    return Jwts.parser().verifyWith(getSigningKey()).build().parseSignedClaims(token).getPayload();
-  }
-
-  // Kiểm tra token đã hết hạn chưa
-  private Boolean isTokenExpired(String token) {
-    final Date expiration = getExpirationDateFromToken(token);
-    return expiration.before(new Date());
+    return claimsResolver.apply(parse(token).claims());
   }
 
-  // Validate token
+  // Validate token với UserDetails
   public Boolean validateToken(String token, UserDetails userDetails) {
-    final String username = getUsernameFromToken(token);
-    return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+    ParsedToken parsed = tryParse(token);
+    return parsed != null && userDetails.getUsername().equals(parsed.subject());
   }
 
   // Validate token (không cần UserDetails)
   public Boolean validateToken(String token) {
-    try {
-      return !isTokenExpired(token);
-    } catch (Exception e) {
-      return false;
-    }
+    return tryParse(token) != null;
   }
 
   // Lấy expiration time cho refresh token (milliseconds)
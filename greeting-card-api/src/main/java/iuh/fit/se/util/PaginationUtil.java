@@ -1,6 +1,13 @@
 package iuh.fit.se.util;
 
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
 
 import iuh.fit.se.dto.response.PaginationResponse;
 
@@ -13,4 +20,43 @@ public class PaginationUtil {
         .totalPages(page.getTotalPages())
         .build();
   }
+
+  // Phân trang 2 bước cho query cần fetch collection: trang ID được phân trang trong DB, sau đó
+  // entity (kèm collection) được nạp theo ID và sắp xếp lại theo thứ tự của trang ID. Tránh việc
+  // Hibernate phân trang trong bộ nhớ (HHH90003004) khi JOIN FETCH collection cùng Pageable
+  public static <E> Page<E> fetchPage(
+      Page<Long> ids, Function<List<Long>, List<E>> loader, Function<E, Long> idOf) {
+    List<E> content = loadInOrder(ids.getContent(), loader, idOf);
+    return new PageImpl<>(content, ids.getPageable(), ids.getTotalElements());
+  }
+
+  // Như trên cho keyset pagination: trang khóa (id + cột của cursor) được query trước, cursor của
+  // trang tiếp theo giữ nguyên
+  public static <K, E> CursorPage<E> fetchPage(
+      CursorPage<K> keys,
+      Function<K, Long> idOfKey,
+      Function<List<Long>, List<E>> loader,
+      Function<E, Long> idOf) {
+    List<Long> ids = keys.content().stream().map(idOfKey).toList();
+    return new CursorPage<>(
+        loadInOrder(ids, loader, idOf), keys.size(), keys.nextCursor(), keys.estimatedTotal());
+  }
+
+  private static <E> List<E> loadInOrder(
+      List<Long> ids, Function<List<Long>, List<E>> loader, Function<E, Long> idOf) {
+    Map<Long, E> byId =
+        ids.isEmpty()
+            ? Map.of()
+            : loader.apply(ids).stream().collect(Collectors.toMap(idOf, Function.identity()));
+    return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+  }
+
+  public static PaginationResponse createPaginationResponse(CursorPage<?> page) {
+    return PaginationResponse.builder()
+        .size(page.size())
+        .total(page.estimatedTotal())
+        .totalEstimated(page.estimatedTotal() != null ? true : null)
+        .nextCursor(page.nextCursor())
+        .build();
+  }
 }
@@ -0,0 +1,37 @@
+package iuh.fit.se.util;
+
+import java.util.Date;
+
+import io.jsonwebtoken.Claims;
+
+// JWT đã được verify (chữ ký + hạn dùng) một lần, cho phép đọc mọi claim mà không parse lại
+public record ParsedToken(Claims claims) {
+
+  public String subject() {
+    return claims.getSubject();
+  }
+
+  public Long userId() {
+    Object userId = claims.get("userId");
+    if (userId instanceof Number number) {
+      return number.longValue();
+    }
+    return null;
+  }
+
+  public String email() {
+    return claims.get("email", String.class);
+  }
+
+  public String role() {
+    return claims.get("role", String.class);
+  }
+
+  public Date expiration() {
+    return claims.getExpiration();
+  }
+
+  public boolean isRefreshToken() {
+    return "refresh".equals(claims.get("type"));
+  }
+}
@@ -0,0 +1,38 @@
+package iuh.fit.se.util;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+// Chuẩn hóa văn bản cho full-text search: bỏ dấu tiếng Việt (kể cả đ -> d), chữ thường, chỉ giữ
+// chữ và số. Tài liệu và từ khóa được chuẩn hóa giống nhau nên tìm "thiep" khớp "Thiệp".
+public class SearchTextUtil {
+  private static final int MAX_QUERY_TERMS = 10;
+
+  public static String normalize(String input) {
+    if (input == null || input.isBlank()) {
+      return "";
+    }
+    String decomposed =
+        Normalizer.normalize(input.replace('đ', 'd').replace('Đ', 'D'), Normalizer.Form.NFD);
+    return decomposed
+        .replaceAll("\\p{M}+", "")
+        .toLowerCase()
+        .replaceAll("[^\\p{L}\\p{N}]+", " ")
+        .trim();
+  }
+
+  // Tạo tsquery dạng "thiep:* & sinh:* & nhat:*" (mỗi từ khớp theo tiền tố), null nếu không có từ
+  // nào. Chỉ chứa chữ / số nên an toàn khi truyền vào to_tsquery.
+  public static String toPrefixQuery(String keyword) {
+    String normalized = normalize(keyword);
+    if (normalized.isEmpty()) {
+      return null;
+    }
+    return Arrays.stream(normalized.split(" "))
+        .distinct()
+        .limit(MAX_QUERY_TERMS)
+        .map(term -> term + ":*")
+        .collect(Collectors.joining(" & "));
+  }
+}
@@ -0,0 +1,88 @@
+package iuh.fit.se.util;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+// Tập id bất biến lưu trong mảng long đã sắp xếp (8 byte / phần tử, không boxing). contains là tìm
+// kiếm nhị phân; with / without tạo bản sao mới nên có thể chia sẻ giữa các thread không cần khóa.
+public final class SortedLongSet extends AbstractSet<Long> {
+  public static final SortedLongSet EMPTY = new SortedLongSet(new long[0]);
+
+  private final long[] values;
+
+  private SortedLongSet(long[] values) {
+    this.values = values;
+  }
+
+  public static SortedLongSet of(Collection<Long> ids) {
+    if (ids.isEmpty()) {
+      return EMPTY;
+    }
+    long[] values = ids.stream().mapToLong(Long::longValue).sorted().distinct().toArray();
+    return new SortedLongSet(values);
+  }
+
+  public boolean contains(long value) {
+    return Arrays.binarySearch(values, value) >= 0;
+  }
+
+  @Override
+  public boolean contains(Object value) {
+    return value instanceof Long id && contains(id.longValue());
+  }
+
+  public SortedLongSet with(long value) {
+    int index = Arrays.binarySearch(values, value);
+    if (index >= 0) {
+      return this;
+    }
+    int insertAt = -index - 1;
+    long[] updated = new long[values.length + 1];
+    System.arraycopy(values, 0, updated, 0, insertAt);
+    updated[insertAt] = value;
+    System.arraycopy(values, insertAt, updated, insertAt + 1, values.length - insertAt);
+    return new SortedLongSet(updated);
+  }
+
+  public SortedLongSet without(long value) {
+    int index = Arrays.binarySearch(values, value);
+    if (index < 0) {
+      return this;
+    }
+    if (values.length == 1) {
+      return EMPTY;
+    }
+    long[] updated = new long[values.length - 1];
+    System.arraycopy(values, 0, updated, 0, index);
+    System.arraycopy(values, index + 1, updated, index, values.length - index - 1);
+    return new SortedLongSet(updated);
+  }
+
+  @Override
+  public int size() {
+    return values.length;
+  }
+
+  @Override
+  public Iterator<Long> iterator() {
+    return new Iterator<>() {
+      private int next;
+
+      @Override
+      public boolean hasNext() {
+        return next < values.length;
+      }
+
+      @Override
+      public Long next() {
+        if (next >= values.length) {
+          throw new NoSuchElementException();
+        }
+        return values[next++];
+      }
+    };
+  }
+}
@@ -0,0 +1,11 @@
+-- Danh mục của sản phẩm lúc đặt hàng, để doanh số theo danh mục không đổi khi sản phẩm chuyển danh
+-- mục. Dòng cũ không biết danh mục lúc đặt nên lấy danh mục hiện tại của sản phẩm.
+
+ALTER TABLE order_items ADD COLUMN IF NOT EXISTS category_id bigint;
+
+UPDATE order_items oi
+SET category_id = p.category_id
+FROM products p
+WHERE p.id = oi.product_id AND oi.category_id IS NULL;
+
+ALTER TABLE order_items ALTER COLUMN category_id SET NOT NULL;
@@ -0,0 +1,521 @@
+-- Schema gốc: trùng với schema mà hibernate.ddl-auto=update đã tạo trước khi có migration (id
+-- IDENTITY, index từ @Table(indexes)). DB đã có sẵn các bảng này thì V1 chỉ được ghi nhận (baseline),
+-- không chạy lại; mọi thay đổi sau đó nằm ở V2 trở đi.
+
+CREATE TABLE cart_items (
+    quantity integer NOT NULL,
+    cart_id bigint NOT NULL,
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    product_id bigint NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE (cart_id, product_id)
+);
+
+CREATE TABLE carts (
+    created_at timestamp(6) NOT NULL,
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    updated_at timestamp(6),
+    user_id bigint NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE categories (
+    display_order integer,
+    is_active boolean NOT NULL,
+    is_featured boolean NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    created_by bigint,
+    deleted_at timestamp(6),
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    parent_id bigint,
+    updated_at timestamp(6),
+    updated_by bigint,
+    image_url varchar(500),
+    description text,
+    name varchar(255) NOT NULL,
+    slug varchar(255) UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE contact_messages (
+    created_at timestamp(6) NOT NULL,
+    created_by bigint,
+    deleted_at timestamp(6),
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    updated_at timestamp(6),
+    updated_by bigint,
+    phone varchar(30),
+    category varchar(50) NOT NULL,
+    status varchar(50) NOT NULL CHECK (status IN ('NEW','IN_PROGRESS','RESOLVED','CLOSED')),
+    email varchar(255) NOT NULL,
+    full_name varchar(255) NOT NULL,
+    message text NOT NULL,
+    subject varchar(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE coupons (
+    discount_value numeric(10,2) NOT NULL,
+    is_active boolean NOT NULL,
+    max_discount numeric(10,2),
+    min_purchase numeric(10,2),
+    usage_limit integer,
+    used_count integer NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    created_by bigint,
+    deleted_at timestamp(6),
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    updated_at timestamp(6),
+    updated_by bigint,
+    valid_from timestamp(6) NOT NULL,
+    valid_until timestamp(6) NOT NULL,
+    discount_type varchar(20) NOT NULL CHECK (discount_type IN ('PERCENTAGE','FIXED_AMOUNT')),
+    code varchar(50) NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE notifications (
+    is_read boolean NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    read_at timestamp(6),
+    user_id bigint NOT NULL,
+    type varchar(50) NOT NULL CHECK (type IN ('ORDER','PRODUCT','SYSTEM')),
+    link_url varchar(500),
+    message text NOT NULL,
+    title varchar(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE order_items (
+    price numeric(10,2) NOT NULL,
+    promotion_discount_amount numeric(10,2),
+    promotion_quantity_free integer,
+    quantity integer NOT NULL,
+    subtotal numeric(10,2) NOT NULL,
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    order_id bigint NOT NULL,
+    product_id bigint NOT NULL,
+    promotion_id bigint,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE order_status_history (
+    changed_by bigint NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    order_id bigint NOT NULL,
+    status varchar(20) NOT NULL CHECK (status IN ('PENDING','CONFIRMED','SHIPPED','DELIVERED','CANCELLED')),
+    notes text,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE orders (
+    discount_amount numeric(10,2),
+    final_amount numeric(10,2) NOT NULL,
+    promotion_discount_amount numeric(10,2),
+    shipping_fee numeric(10,2),
+    total_amount numeric(10,2) NOT NULL,
+    coupon_id bigint,
+    created_at timestamp(6) NOT NULL,
+    created_by bigint,
+    deleted_at timestamp(6),
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    order_date timestamp(6) NOT NULL,
+    payment_method_id bigint,
+    promotion_id bigint,
+    shipping_address_id bigint,
+    updated_at timestamp(6),
+    updated_by bigint,
+    user_id bigint NOT NULL,
+    payment_status varchar(20) CHECK (payment_status IN ('PENDING','PAID','FAILED','REFUNDED')),
+    status varchar(20) NOT NULL CHECK (status IN ('PENDING','CONFIRMED','SHIPPED','DELIVERED','CANCELLED')),
+    order_number varchar(50) UNIQUE,
+    notes text,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE payment_methods (
+    display_order integer,
+    is_active boolean NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    updated_at timestamp(6),
+    code varchar(50) UNIQUE,
+    name varchar(100) NOT NULL,
+    description text,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE payments (
+    amount numeric(10,2) NOT NULL,
+    refund_amount numeric(10,2),
+    created_at timestamp(6) NOT NULL,
+    failed_at timestamp(6),
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    order_id bigint NOT NULL,
+    paid_at timestamp(6),
+    payment_method_id bigint NOT NULL,
+    refunded_at timestamp(6),
+    updated_at timestamp(6),
+    status varchar(20) NOT NULL CHECK (status IN ('PENDING','PAID','FAILED','REFUNDED')),
+    transaction_id varchar(100) UNIQUE,
+    failure_reason text,
+    gateway_response text,
+    refund_reason text,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE product_images (
+    display_order integer,
+    is_primary boolean NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    product_id bigint NOT NULL,
+    image_url varchar(500) NOT NULL,
+    alt_text varchar(255),
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE product_reviews (
+    is_approved boolean NOT NULL,
+    is_verified_purchase boolean NOT NULL,
+    rating integer NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    product_id bigint NOT NULL,
+    updated_at timestamp(6),
+    user_id bigint NOT NULL,
+    comment text,
+    PRIMARY KEY (id),
+    UNIQUE (product_id, user_id)
+);
+
+CREATE TABLE product_tag_map (
+    product_id bigint NOT NULL,
+    tag_id bigint NOT NULL,
+    PRIMARY KEY (product_id, tag_id)
+);
+
+CREATE TABLE product_tags (
+    created_at timestamp(6) NOT NULL,
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    name varchar(100) NOT NULL UNIQUE,
+    slug varchar(100) UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE products (
+    is_active boolean NOT NULL,
+    is_featured boolean NOT NULL,
+    price numeric(10,2) NOT NULL,
+    stock integer NOT NULL,
+    category_id bigint NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    created_by bigint,
+    deleted_at timestamp(6),
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    updated_at timestamp(6),
+    updated_by bigint,
+    sku varchar(100) UNIQUE,
+    description text,
+    name varchar(255) NOT NULL,
+    slug varchar(255) UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE promotion_products (
+    product_id bigint NOT NULL,
+    promotion_id bigint NOT NULL,
+    PRIMARY KEY (promotion_id, product_id)
+);
+
+CREATE TABLE promotions (
+    buy_quantity integer,
+    discount_value numeric(10,2),
+    get_quantity integer,
+    is_active boolean NOT NULL,
+    max_discount numeric(10,2),
+    min_purchase numeric(10,2),
+    pay_quantity integer,
+    usage_limit integer,
+    used_count integer NOT NULL,
+    category_id bigint,
+    created_at timestamp(6) NOT NULL,
+    created_by bigint,
+    deleted_at timestamp(6),
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    updated_at timestamp(6),
+    updated_by bigint,
+    valid_from timestamp(6) NOT NULL,
+    valid_until timestamp(6) NOT NULL,
+    discount_type varchar(20) CHECK (discount_type IN ('PERCENTAGE','FIXED_AMOUNT')),
+    scope varchar(50) NOT NULL CHECK (scope IN ('ORDER','PRODUCT','CATEGORY')),
+    type varchar(50) NOT NULL CHECK (type IN ('DISCOUNT','BOGO','BUY_X_GET_Y','BUY_X_PAY_Y')),
+    description text,
+    name varchar(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE refresh_tokens (
+    created_at timestamp(6) NOT NULL,
+    expires_at timestamp(6) NOT NULL,
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    user_id bigint NOT NULL,
+    token varchar(500) NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE stock_transactions (
+    quantity integer NOT NULL,
+    stock_after integer NOT NULL,
+    stock_before integer NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    created_by bigint,
+    deleted_at timestamp(6),
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    product_id bigint NOT NULL,
+    updated_at timestamp(6),
+    updated_by bigint,
+    type varchar(20) NOT NULL CHECK (type IN ('IN','OUT','ADJUSTMENT')),
+    notes text,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE user_addresses (
+    is_default boolean NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    created_by bigint,
+    deleted_at timestamp(6),
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    updated_at timestamp(6),
+    updated_by bigint,
+    user_id bigint NOT NULL,
+    phone varchar(20) NOT NULL,
+    postal_code varchar(20),
+    city varchar(100) NOT NULL,
+    district varchar(100),
+    ward varchar(100),
+    address_line1 varchar(255) NOT NULL,
+    address_line2 varchar(255),
+    recipient_name varchar(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE users (
+    email_verified boolean NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    created_by bigint,
+    deleted_at timestamp(6),
+    email_verification_expires_at timestamp(6),
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    updated_at timestamp(6),
+    updated_by bigint,
+    phone varchar(20),
+    role varchar(20) NOT NULL CHECK (role IN ('CUSTOMER','ADMIN')),
+    avatar_url varchar(500),
+    email varchar(255) NOT NULL UNIQUE,
+    email_verification_token varchar(255),
+    full_name varchar(255) NOT NULL,
+    password varchar(255) NOT NULL,
+    PRIMARY KEY (id)
+);
+
+CREATE TABLE wishlist_items (
+    added_at timestamp(6) NOT NULL,
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    product_id bigint NOT NULL,
+    wishlist_id bigint NOT NULL,
+    PRIMARY KEY (id),
+    UNIQUE (wishlist_id, product_id)
+);
+
+CREATE TABLE wishlists (
+    created_at timestamp(6) NOT NULL,
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    updated_at timestamp(6),
+    user_id bigint NOT NULL UNIQUE,
+    PRIMARY KEY (id)
+);
+
+-- Index
+
+-- carts
+CREATE INDEX idx_carts_user_id ON carts (user_id);
+
+-- cart_items
+CREATE INDEX idx_cart_items_cart_id ON cart_items (cart_id);
+CREATE INDEX idx_cart_items_product_id ON cart_items (product_id);
+
+-- categories
+CREATE INDEX idx_categories_name ON categories (name);
+CREATE INDEX idx_categories_slug ON categories (slug);
+CREATE INDEX idx_categories_parent_id ON categories (parent_id);
+CREATE INDEX idx_categories_deleted_at ON categories (deleted_at);
+
+-- contact_messages
+CREATE INDEX idx_contact_messages_status ON contact_messages (status);
+CREATE INDEX idx_contact_messages_category ON contact_messages (category);
+CREATE INDEX idx_contact_messages_created_at ON contact_messages (created_at);
+
+-- coupons
+CREATE INDEX idx_coupons_code ON coupons (code);
+CREATE INDEX idx_coupons_is_active ON coupons (is_active);
+CREATE INDEX idx_coupons_valid_from ON coupons (valid_from);
+CREATE INDEX idx_coupons_valid_until ON coupons (valid_until);
+
+-- notifications
+CREATE INDEX idx_notifications_user_id ON notifications (user_id);
+CREATE INDEX idx_notifications_is_read ON notifications (is_read);
+CREATE INDEX idx_notifications_type ON notifications (type);
+CREATE INDEX idx_notifications_created_at ON notifications (created_at);
+
+-- orders
+CREATE INDEX idx_orders_user_id ON orders (user_id);
+CREATE INDEX idx_orders_order_date ON orders (order_date);
+CREATE INDEX idx_orders_status ON orders (status);
+CREATE INDEX idx_orders_order_number ON orders (order_number);
+CREATE INDEX idx_orders_payment_status ON orders (payment_status);
+-- Composite index for user order history queries
+CREATE INDEX idx_orders_user_date ON orders (user_id, order_date DESC);
+-- Composite index for dashboard revenue queries
+CREATE INDEX idx_orders_revenue ON orders (deleted_at, status, order_date, final_amount);
+
+-- order_items
+CREATE INDEX idx_order_items_order_id ON order_items (order_id);
+CREATE INDEX idx_order_items_product_id ON order_items (product_id);
+
+-- order_status_history
+CREATE INDEX idx_order_status_history_order_id ON order_status_history (order_id);
+CREATE INDEX idx_order_status_history_created_at ON order_status_history (created_at);
+
+-- payments
+CREATE INDEX idx_payments_order_id ON payments (order_id);
+CREATE INDEX idx_payments_payment_method_id ON payments (payment_method_id);
+CREATE INDEX idx_payments_status ON payments (status);
+CREATE INDEX idx_payments_transaction_id ON payments (transaction_id);
+
+-- payment_methods
+CREATE INDEX idx_payment_methods_code ON payment_methods (code);
+CREATE INDEX idx_payment_methods_is_active ON payment_methods (is_active);
+
+-- products
+CREATE INDEX idx_products_category_id ON products (category_id);
+CREATE INDEX idx_products_name ON products (name);
+CREATE INDEX idx_products_slug ON products (slug);
+CREATE INDEX idx_products_sku ON products (sku);
+CREATE INDEX idx_products_deleted_at ON products (deleted_at);
+CREATE INDEX idx_products_is_active ON products (is_active);
+CREATE INDEX idx_products_is_featured ON products (is_featured);
+-- Composite index for common product listing queries
+CREATE INDEX idx_products_active_featured ON products (deleted_at, is_active, is_featured, category_id);
+-- Composite index for search by name with active filter
+CREATE INDEX idx_products_search ON products (deleted_at, is_active, name);
+-- Composite index for low stock query
+CREATE INDEX idx_products_low_stock ON products (deleted_at, is_active, stock);
+
+-- product_images
+CREATE INDEX idx_product_images_product_id ON product_images (product_id);
+-- Composite index for efficient ordering and primary image lookup
+CREATE INDEX idx_product_images_product_order ON product_images (product_id, is_primary DESC, display_order ASC);
+
+-- product_reviews
+CREATE INDEX idx_product_reviews_product_id ON product_reviews (product_id);
+CREATE INDEX idx_product_reviews_user_id ON product_reviews (user_id);
+CREATE INDEX idx_product_reviews_rating ON product_reviews (rating);
+CREATE INDEX idx_product_reviews_is_approved ON product_reviews (is_approved);
+-- Composite index for approved reviews query
+CREATE INDEX idx_product_reviews_product_approved ON product_reviews (product_id, is_approved, rating);
+
+-- product_tags
+CREATE INDEX idx_product_tags_name ON product_tags (name);
+CREATE INDEX idx_product_tags_slug ON product_tags (slug);
+
+-- promotions
+CREATE INDEX idx_promotions_name ON promotions (name);
+CREATE INDEX idx_promotions_type ON promotions (type);
+CREATE INDEX idx_promotions_scope ON promotions (scope);
+CREATE INDEX idx_promotions_is_active ON promotions (is_active);
+CREATE INDEX idx_promotions_valid_from ON promotions (valid_from);
+CREATE INDEX idx_promotions_valid_until ON promotions (valid_until);
+CREATE INDEX idx_promotions_category_id ON promotions (category_id);
+-- Composite index for active promotions lookup
+CREATE INDEX idx_promotions_active_lookup ON promotions (is_active, valid_from, valid_until, scope);
+
+-- refresh_tokens
+CREATE INDEX idx_refresh_tokens_user_id ON refresh_tokens (user_id);
+CREATE INDEX idx_refresh_tokens_token ON refresh_tokens (token);
+CREATE INDEX idx_refresh_tokens_expires_at ON refresh_tokens (expires_at);
+
+-- stock_transactions
+CREATE INDEX idx_stock_transactions_product_id ON stock_transactions (product_id);
+CREATE INDEX idx_stock_transactions_type ON stock_transactions (type);
+CREATE INDEX idx_stock_transactions_created_at ON stock_transactions (created_at);
+
+-- users
+CREATE INDEX idx_users_email ON users (email);
+CREATE INDEX idx_users_deleted_at ON users (deleted_at);
+CREATE INDEX idx_users_role ON users (role);
+
+-- user_addresses
+CREATE INDEX idx_user_addresses_user_id ON user_addresses (user_id);
+CREATE INDEX idx_user_addresses_is_default ON user_addresses (is_default);
+
+-- wishlists
+CREATE INDEX idx_wishlists_user_id ON wishlists (user_id);
+
+-- wishlist_items
+CREATE INDEX idx_wishlist_items_wishlist_id ON wishlist_items (wishlist_id);
+CREATE INDEX idx_wishlist_items_product_id ON wishlist_items (product_id);
+
+-- Khóa ngoại
+ALTER TABLE cart_items ADD CONSTRAINT FKpcttvuq4mxppo8sxggjtn5i2c FOREIGN KEY (cart_id) REFERENCES carts;
+ALTER TABLE cart_items ADD CONSTRAINT FK1re40cjegsfvw58xrkdp6bac6 FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE carts ADD CONSTRAINT FKb5o626f86h46m4s7ms6ginnop FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE categories ADD CONSTRAINT FK5yfru0au6kpyqs4tonky5vfne FOREIGN KEY (created_by) REFERENCES users;
+ALTER TABLE categories ADD CONSTRAINT FKnbfq7vefwik42v5ka12ekr4hv FOREIGN KEY (updated_by) REFERENCES users;
+ALTER TABLE categories ADD CONSTRAINT FKsaok720gsu4u2wrgbk10b5n8d FOREIGN KEY (parent_id) REFERENCES categories;
+ALTER TABLE contact_messages ADD CONSTRAINT FKr1q38bpxxy527iao8g8yy3fik FOREIGN KEY (created_by) REFERENCES users;
+ALTER TABLE contact_messages ADD CONSTRAINT FKcbuaoxgub0enc8iq25ub3lu6s FOREIGN KEY (updated_by) REFERENCES users;
+ALTER TABLE coupons ADD CONSTRAINT FK5ta2iuowjf2sx01vtu35oi2an FOREIGN KEY (created_by) REFERENCES users;
+ALTER TABLE coupons ADD CONSTRAINT FKn9hadn512ka5u4fcs360r3cai FOREIGN KEY (updated_by) REFERENCES users;
+ALTER TABLE notifications ADD CONSTRAINT FK9y21adhxn0ayjhfocscqox7bh FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE order_items ADD CONSTRAINT FKbioxgbv59vetrxe0ejfubep1w FOREIGN KEY (order_id) REFERENCES orders;
+ALTER TABLE order_items ADD CONSTRAINT FKocimc7dtr037rh4ls4l95nlfi FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE order_items ADD CONSTRAINT FKl3adxjx6wguwap1i5fl8yvi8a FOREIGN KEY (promotion_id) REFERENCES promotions;
+ALTER TABLE order_status_history ADD CONSTRAINT FKj7bba43h8j0n4evd2wvudvpjc FOREIGN KEY (changed_by) REFERENCES users;
+ALTER TABLE order_status_history ADD CONSTRAINT FKnmcbg3mmbt8wfva97ra40nmp3 FOREIGN KEY (order_id) REFERENCES orders;
+ALTER TABLE orders ADD CONSTRAINT FKtjwuphstqm46uffgc7l1r27a9 FOREIGN KEY (created_by) REFERENCES users;
+ALTER TABLE orders ADD CONSTRAINT FKlp4lgmbltaqb2no1dqdceogto FOREIGN KEY (updated_by) REFERENCES users;
+ALTER TABLE orders ADD CONSTRAINT FKn1d1gkxckw648m2n2d5gx0yx5 FOREIGN KEY (coupon_id) REFERENCES coupons;
+ALTER TABLE orders ADD CONSTRAINT FKa03ljb6t6oa6mqtoifuwkb0kw FOREIGN KEY (payment_method_id) REFERENCES payment_methods;
+ALTER TABLE orders ADD CONSTRAINT FK42bki7v5u9s62olp5is82sd74 FOREIGN KEY (promotion_id) REFERENCES promotions;
+ALTER TABLE orders ADD CONSTRAINT FKq2dfcmpxmg3lqseeacd48f12k FOREIGN KEY (shipping_address_id) REFERENCES user_addresses;
+ALTER TABLE orders ADD CONSTRAINT FK32ql8ubntj5uh44ph9659tiih FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE payments ADD CONSTRAINT FK81gagumt0r8y3rmudcgpbk42l FOREIGN KEY (order_id) REFERENCES orders;
+ALTER TABLE payments ADD CONSTRAINT FKce1n8pa67lq4l57l9mhugdgab FOREIGN KEY (payment_method_id) REFERENCES payment_methods;
+ALTER TABLE product_images ADD CONSTRAINT FKqnq71xsohugpqwf3c9gxmsuy FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE product_reviews ADD CONSTRAINT FK35kxxqe2g9r4mww80w9e3tnw9 FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE product_reviews ADD CONSTRAINT FK58i39bhws2hss3tbcvdmrm60f FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE product_tag_map ADD CONSTRAINT FK3jn8393wyjjpefj5nnidlkfja FOREIGN KEY (tag_id) REFERENCES product_tags;
+ALTER TABLE product_tag_map ADD CONSTRAINT FKj0dcn0xxhavv1chiot599ul7i FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE products ADD CONSTRAINT FKl0lce8i162ldn9n01t2a6lcix FOREIGN KEY (created_by) REFERENCES users;
+ALTER TABLE products ADD CONSTRAINT FKdeswm6d74skv6do803axl6edj FOREIGN KEY (updated_by) REFERENCES users;
+ALTER TABLE products ADD CONSTRAINT FKog2rp4qthbtt2lfyhfo32lsw9 FOREIGN KEY (category_id) REFERENCES categories;
+ALTER TABLE promotion_products ADD CONSTRAINT FK9rm5m4rnoamh56kxetmoe1kk9 FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE promotion_products ADD CONSTRAINT FKkn7hllhf1o8jjrolro4rqmxt7 FOREIGN KEY (promotion_id) REFERENCES promotions;
+ALTER TABLE promotions ADD CONSTRAINT FKdmyppdycrsqwl5mikrw105clk FOREIGN KEY (created_by) REFERENCES users;
+ALTER TABLE promotions ADD CONSTRAINT FKq92gawiwgnt0dsw7t0twq656r FOREIGN KEY (updated_by) REFERENCES users;
+ALTER TABLE promotions ADD CONSTRAINT FK909g9g1svefta8r8hvluj7j0n FOREIGN KEY (category_id) REFERENCES categories;
+ALTER TABLE refresh_tokens ADD CONSTRAINT FK1lih5y2npsf8u5o3vhdb9y0os FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE stock_transactions ADD CONSTRAINT FK29pj38gl4qoc3bhsoddgfwwia FOREIGN KEY (created_by) REFERENCES users;
+ALTER TABLE stock_transactions ADD CONSTRAINT FKnnawctv2i48jb03gk17crct1y FOREIGN KEY (updated_by) REFERENCES users;
+ALTER TABLE stock_transactions ADD CONSTRAINT FK9qbjlda0gjdsmqn7bkhii6bb0 FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE user_addresses ADD CONSTRAINT FKhk4e9f7731tmkr5n0ciaaju4o FOREIGN KEY (created_by) REFERENCES users;
+ALTER TABLE user_addresses ADD CONSTRAINT FKefr3dps2lfn8rbba6c4rxju95 FOREIGN KEY (updated_by) REFERENCES users;
+ALTER TABLE user_addresses ADD CONSTRAINT FKn2fisxyyu3l9wlch3ve2nocgp FOREIGN KEY (user_id) REFERENCES users;
+ALTER TABLE users ADD CONSTRAINT FKibk1e3kaxy5sfyeekp8hbhnim FOREIGN KEY (created_by) REFERENCES users;
+ALTER TABLE users ADD CONSTRAINT FKci7xr690rvyv3bnfappbyh8x0 FOREIGN KEY (updated_by) REFERENCES users;
+ALTER TABLE wishlist_items ADD CONSTRAINT FKqxj7lncd242b59fb78rqegyxj FOREIGN KEY (product_id) REFERENCES products;
+ALTER TABLE wishlist_items ADD CONSTRAINT FKkem9l8vd14pk3cc4elnpl0n00 FOREIGN KEY (wishlist_id) REFERENCES wishlists;
+ALTER TABLE wishlists ADD CONSTRAINT FK330pyw2el06fn5g28ypyljt16 FOREIGN KEY (user_id) REFERENCES users;
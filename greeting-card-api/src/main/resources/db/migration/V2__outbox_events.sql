@@ -0,0 +1,20 @@
+-- Transactional outbox: side effect của đơn hàng (email, thông báo) được ghi cùng transaction với
+-- đơn và được OutboxDispatcher xử lý sau khi commit.
+
+CREATE TABLE IF NOT EXISTS outbox_events (
+    attempts integer NOT NULL,
+    aggregate_id bigint NOT NULL,
+    created_at timestamp(6) NOT NULL,
+    id bigint GENERATED BY DEFAULT AS IDENTITY,
+    next_attempt_at timestamp(6) NOT NULL,
+    processed_at timestamp(6),
+    status varchar(20) NOT NULL CHECK (status IN ('PENDING','PROCESSING','DONE','FAILED')),
+    type varchar(50) NOT NULL CHECK (type IN ('ORDER_CONFIRMATION_EMAIL','ADMIN_NEW_ORDER_NOTIFICATION','ORDER_STATUS_NOTIFICATION')),
+    payload varchar(500),
+    last_error text,
+    PRIMARY KEY (id)
+);
+
+-- Hàng đợi của dispatcher: sự kiện PENDING đã đến hạn
+CREATE INDEX IF NOT EXISTS idx_outbox_events_status_next_attempt
+    ON outbox_events (status, next_attempt_at);
@@ -0,0 +1,12 @@
+-- Tài liệu full-text search của sản phẩm (tsvector) và GIN index. Khi khởi động,
+-- ProductSearchService đánh chỉ mục các sản phẩm chưa có tài liệu.
+
+CREATE TABLE IF NOT EXISTS product_search_documents (
+    product_id bigint NOT NULL,
+    updated_at timestamp(6) NOT NULL,
+    document tsvector NOT NULL,
+    PRIMARY KEY (product_id)
+);
+
+CREATE INDEX IF NOT EXISTS idx_product_search_documents_document
+    ON product_search_documents USING GIN (document);
@@ -0,0 +1,3 @@
+-- Keyset pagination thông báo của user: ORDER BY created_at DESC, id DESC
+CREATE INDEX IF NOT EXISTS idx_notifications_user_created
+    ON notifications (user_id, created_at DESC, id DESC);
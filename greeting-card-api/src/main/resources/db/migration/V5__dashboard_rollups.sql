@@ -0,0 +1,30 @@
+-- Bảng rollup theo ngày của dashboard. DashboardRollupService dựng lại toàn bộ lịch sử từ orders /
+-- order_items khi khởi động nếu các bảng còn rỗng.
+
+CREATE TABLE IF NOT EXISTS daily_order_stats (
+    revenue numeric(15,2) NOT NULL,
+    stat_date date NOT NULL,
+    order_count bigint NOT NULL,
+    status varchar(20) NOT NULL CHECK (status IN ('PENDING','CONFIRMED','SHIPPED','DELIVERED','CANCELLED')),
+    PRIMARY KEY (stat_date, status)
+);
+
+CREATE TABLE IF NOT EXISTS daily_product_sales (
+    revenue numeric(15,2) NOT NULL,
+    stat_date date NOT NULL,
+    product_id bigint NOT NULL,
+    quantity bigint NOT NULL,
+    PRIMARY KEY (stat_date, product_id)
+);
+
+CREATE TABLE IF NOT EXISTS daily_category_sales (
+    revenue numeric(15,2) NOT NULL,
+    stat_date date NOT NULL,
+    category_id bigint NOT NULL,
+    order_count bigint NOT NULL,
+    PRIMARY KEY (stat_date, category_id)
+);
+
+-- Gom theo sản phẩm / danh mục trên toàn bộ lịch sử (top sản phẩm, thống kê theo danh mục)
+CREATE INDEX IF NOT EXISTS idx_daily_product_sales_product_id ON daily_product_sales (product_id);
+CREATE INDEX IF NOT EXISTS idx_daily_category_sales_category_id ON daily_category_sales (category_id);
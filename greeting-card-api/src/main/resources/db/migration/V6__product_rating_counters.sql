@@ -0,0 +1,9 @@
+-- Bộ đếm số sao của đánh giá đã duyệt trên products. Dòng cũ nhận giá trị 0, ReviewService tính lại
+-- các sản phẩm có bộ đếm lệch với product_reviews khi khởi động.
+
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_count_1 bigint DEFAULT 0 NOT NULL;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_count_2 bigint DEFAULT 0 NOT NULL;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_count_3 bigint DEFAULT 0 NOT NULL;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_count_4 bigint DEFAULT 0 NOT NULL;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_count_5 bigint DEFAULT 0 NOT NULL;
+ALTER TABLE products ADD COLUMN IF NOT EXISTS rating_sum bigint DEFAULT 0 NOT NULL;
@@ -0,0 +1,2 @@
+-- Version của giỏ hàng, tăng sau mỗi thay đổi (client so sánh để biết giỏ hàng đã đổi ở nơi khác)
+ALTER TABLE carts ADD COLUMN IF NOT EXISTS version bigint DEFAULT 0 NOT NULL;
@@ -0,0 +1,214 @@
+-- Chuyển cột id từ IDENTITY sang sequence <bảng>_seq (pooled-lo, mỗi lần nextval cấp một khối 50 id).
+-- DB baseline từ ddl-auto có thể còn cột IDENTITY hoặc đã được chuyển một phần, nên mọi bước đều chạy
+-- lại được mà không thay đổi gì:
+--   1. Tạo sequence nếu chưa có (INCREMENT BY phải bằng allocationSize = 50 của entity).
+--   2. Đưa sequence vượt qua id lớn nhất hiện có. Chỉ đặt lại khi dữ liệu đã vượt quá khối id cuối
+--      cùng sequence cấp ra, để không cấp trùng khối mà một node đang chạy còn giữ.
+--   3. Bỏ IDENTITY và dùng nextval làm DEFAULT để các câu INSERT native không truyền id vẫn chạy.
+
+-- cart_items
+CREATE SEQUENCE IF NOT EXISTS cart_items_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('cart_items_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM cart_items), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM cart_items)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM cart_items_seq);
+ALTER TABLE cart_items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE cart_items ALTER COLUMN id SET DEFAULT nextval('cart_items_seq');
+ALTER SEQUENCE cart_items_seq OWNED BY cart_items.id;
+
+-- carts
+CREATE SEQUENCE IF NOT EXISTS carts_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('carts_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM carts), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM carts)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM carts_seq);
+ALTER TABLE carts ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE carts ALTER COLUMN id SET DEFAULT nextval('carts_seq');
+ALTER SEQUENCE carts_seq OWNED BY carts.id;
+
+-- categories
+CREATE SEQUENCE IF NOT EXISTS categories_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('categories_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM categories), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM categories)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM categories_seq);
+ALTER TABLE categories ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE categories ALTER COLUMN id SET DEFAULT nextval('categories_seq');
+ALTER SEQUENCE categories_seq OWNED BY categories.id;
+
+-- contact_messages
+CREATE SEQUENCE IF NOT EXISTS contact_messages_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('contact_messages_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM contact_messages), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM contact_messages)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM contact_messages_seq);
+ALTER TABLE contact_messages ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE contact_messages ALTER COLUMN id SET DEFAULT nextval('contact_messages_seq');
+ALTER SEQUENCE contact_messages_seq OWNED BY contact_messages.id;
+
+-- coupons
+CREATE SEQUENCE IF NOT EXISTS coupons_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('coupons_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM coupons), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM coupons)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM coupons_seq);
+ALTER TABLE coupons ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE coupons ALTER COLUMN id SET DEFAULT nextval('coupons_seq');
+ALTER SEQUENCE coupons_seq OWNED BY coupons.id;
+
+-- notifications
+CREATE SEQUENCE IF NOT EXISTS notifications_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('notifications_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM notifications), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM notifications)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM notifications_seq);
+ALTER TABLE notifications ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE notifications ALTER COLUMN id SET DEFAULT nextval('notifications_seq');
+ALTER SEQUENCE notifications_seq OWNED BY notifications.id;
+
+-- order_items
+CREATE SEQUENCE IF NOT EXISTS order_items_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('order_items_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM order_items), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM order_items)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM order_items_seq);
+ALTER TABLE order_items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE order_items ALTER COLUMN id SET DEFAULT nextval('order_items_seq');
+ALTER SEQUENCE order_items_seq OWNED BY order_items.id;
+
+-- order_status_history
+CREATE SEQUENCE IF NOT EXISTS order_status_history_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('order_status_history_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM order_status_history), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM order_status_history)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM order_status_history_seq);
+ALTER TABLE order_status_history ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE order_status_history ALTER COLUMN id SET DEFAULT nextval('order_status_history_seq');
+ALTER SEQUENCE order_status_history_seq OWNED BY order_status_history.id;
+
+-- orders
+CREATE SEQUENCE IF NOT EXISTS orders_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('orders_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM orders), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM orders)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM orders_seq);
+ALTER TABLE orders ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE orders ALTER COLUMN id SET DEFAULT nextval('orders_seq');
+ALTER SEQUENCE orders_seq OWNED BY orders.id;
+
+-- outbox_events
+CREATE SEQUENCE IF NOT EXISTS outbox_events_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('outbox_events_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM outbox_events), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM outbox_events)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM outbox_events_seq);
+ALTER TABLE outbox_events ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE outbox_events ALTER COLUMN id SET DEFAULT nextval('outbox_events_seq');
+ALTER SEQUENCE outbox_events_seq OWNED BY outbox_events.id;
+
+-- payment_methods
+CREATE SEQUENCE IF NOT EXISTS payment_methods_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('payment_methods_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM payment_methods), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM payment_methods)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM payment_methods_seq);
+ALTER TABLE payment_methods ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE payment_methods ALTER COLUMN id SET DEFAULT nextval('payment_methods_seq');
+ALTER SEQUENCE payment_methods_seq OWNED BY payment_methods.id;
+
+-- payments
+CREATE SEQUENCE IF NOT EXISTS payments_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('payments_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM payments), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM payments)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM payments_seq);
+ALTER TABLE payments ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE payments ALTER COLUMN id SET DEFAULT nextval('payments_seq');
+ALTER SEQUENCE payments_seq OWNED BY payments.id;
+
+-- product_images
+CREATE SEQUENCE IF NOT EXISTS product_images_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('product_images_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM product_images), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM product_images)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM product_images_seq);
+ALTER TABLE product_images ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE product_images ALTER COLUMN id SET DEFAULT nextval('product_images_seq');
+ALTER SEQUENCE product_images_seq OWNED BY product_images.id;
+
+-- product_reviews
+CREATE SEQUENCE IF NOT EXISTS product_reviews_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('product_reviews_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM product_reviews), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM product_reviews)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM product_reviews_seq);
+ALTER TABLE product_reviews ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE product_reviews ALTER COLUMN id SET DEFAULT nextval('product_reviews_seq');
+ALTER SEQUENCE product_reviews_seq OWNED BY product_reviews.id;
+
+-- product_tags
+CREATE SEQUENCE IF NOT EXISTS product_tags_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('product_tags_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM product_tags), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM product_tags)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM product_tags_seq);
+ALTER TABLE product_tags ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE product_tags ALTER COLUMN id SET DEFAULT nextval('product_tags_seq');
+ALTER SEQUENCE product_tags_seq OWNED BY product_tags.id;
+
+-- products
+CREATE SEQUENCE IF NOT EXISTS products_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('products_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM products), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM products)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM products_seq);
+ALTER TABLE products ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE products ALTER COLUMN id SET DEFAULT nextval('products_seq');
+ALTER SEQUENCE products_seq OWNED BY products.id;
+
+-- promotions
+CREATE SEQUENCE IF NOT EXISTS promotions_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('promotions_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM promotions), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM promotions)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM promotions_seq);
+ALTER TABLE promotions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE promotions ALTER COLUMN id SET DEFAULT nextval('promotions_seq');
+ALTER SEQUENCE promotions_seq OWNED BY promotions.id;
+
+-- refresh_tokens
+CREATE SEQUENCE IF NOT EXISTS refresh_tokens_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('refresh_tokens_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM refresh_tokens), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM refresh_tokens)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM refresh_tokens_seq);
+ALTER TABLE refresh_tokens ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE refresh_tokens ALTER COLUMN id SET DEFAULT nextval('refresh_tokens_seq');
+ALTER SEQUENCE refresh_tokens_seq OWNED BY refresh_tokens.id;
+
+-- stock_transactions
+CREATE SEQUENCE IF NOT EXISTS stock_transactions_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('stock_transactions_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM stock_transactions), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM stock_transactions)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM stock_transactions_seq);
+ALTER TABLE stock_transactions ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE stock_transactions ALTER COLUMN id SET DEFAULT nextval('stock_transactions_seq');
+ALTER SEQUENCE stock_transactions_seq OWNED BY stock_transactions.id;
+
+-- user_addresses
+CREATE SEQUENCE IF NOT EXISTS user_addresses_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('user_addresses_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM user_addresses), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM user_addresses)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM user_addresses_seq);
+ALTER TABLE user_addresses ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE user_addresses ALTER COLUMN id SET DEFAULT nextval('user_addresses_seq');
+ALTER SEQUENCE user_addresses_seq OWNED BY user_addresses.id;
+
+-- users
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('users_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM users), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM users)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM users_seq);
+ALTER TABLE users ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE users ALTER COLUMN id SET DEFAULT nextval('users_seq');
+ALTER SEQUENCE users_seq OWNED BY users.id;
+
+-- wishlist_items
+CREATE SEQUENCE IF NOT EXISTS wishlist_items_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('wishlist_items_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM wishlist_items), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM wishlist_items)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM wishlist_items_seq);
+ALTER TABLE wishlist_items ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE wishlist_items ALTER COLUMN id SET DEFAULT nextval('wishlist_items_seq');
+ALTER SEQUENCE wishlist_items_seq OWNED BY wishlist_items.id;
+
+-- wishlists
+CREATE SEQUENCE IF NOT EXISTS wishlists_seq START WITH 1 INCREMENT BY 50;
+SELECT setval('wishlists_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM wishlists), false)
+WHERE (SELECT COALESCE(MAX(id), 0) FROM wishlists)
+      >= (SELECT CASE WHEN is_called THEN last_value + 50 ELSE last_value END FROM wishlists_seq);
+ALTER TABLE wishlists ALTER COLUMN id DROP IDENTITY IF EXISTS;
+ALTER TABLE wishlists ALTER COLUMN id SET DEFAULT nextval('wishlists_seq');
+ALTER SEQUENCE wishlists_seq OWNED BY wishlists.id;
@@ -0,0 +1,76 @@
+-- Index theo query thực tế. Bảng xóa mềm: mọi query (JPQL qua @SQLRestriction và native query) đều
+-- lọc deleted_at IS NULL, nên index chỉ chứa dòng chưa xóa (partial) thay vì để deleted_at làm cột
+-- đầu của index. Cột thứ tự của index khớp ORDER BY của query (kể cả id cho keyset pagination).
+-- Các index trùng với index của ràng buộc UNIQUE được bỏ. Được SoftDeleteIndexPlanTest và
+-- RevenueReportQueryPlanTest kiểm tra bằng EXPLAIN.
+
+-- products
+DROP INDEX IF EXISTS idx_products_deleted_at;
+DROP INDEX IF EXISTS idx_products_is_active;
+DROP INDEX IF EXISTS idx_products_is_featured;
+DROP INDEX IF EXISTS idx_products_active_featured;
+DROP INDEX IF EXISTS idx_products_search;
+DROP INDEX IF EXISTS idx_products_low_stock;
+DROP INDEX IF EXISTS idx_products_created_id;
+DROP INDEX IF EXISTS idx_products_category_id;
+DROP INDEX IF EXISTS idx_products_slug;
+DROP INDEX IF EXISTS idx_products_sku;
+-- Danh sách / keyset pagination (created_at, id) giảm dần: searchProducts, findPageAfter
+CREATE INDEX IF NOT EXISTS idx_products_live_created ON products (created_at DESC, id DESC)
+    WHERE deleted_at IS NULL;
+-- Danh sách theo danh mục: searchProductsByCategories, findPageAfter với categoryIds
+CREATE INDEX IF NOT EXISTS idx_products_live_category_created
+    ON products (category_id, created_at DESC, id DESC)
+    WHERE deleted_at IS NULL;
+-- Dashboard sắp hết hàng: findLowStockProducts, countLowStockProducts
+CREATE INDEX IF NOT EXISTS idx_products_live_low_stock ON products (stock)
+    WHERE deleted_at IS NULL AND is_active = true;
+
+-- orders
+DROP INDEX IF EXISTS idx_orders_order_date;
+DROP INDEX IF EXISTS idx_orders_revenue;
+DROP INDEX IF EXISTS idx_orders_user_date;
+DROP INDEX IF EXISTS idx_orders_status;
+DROP INDEX IF EXISTS idx_orders_order_number;
+-- Khoảng order_date (báo cáo doanh thu, rollup dashboard) và keyset (order_date, id) giảm dần của
+-- admin; status, final_amount đi kèm để báo cáo đọc được từ index
+CREATE INDEX IF NOT EXISTS idx_orders_order_date
+    ON orders (order_date, id) INCLUDE (status, final_amount)
+    WHERE deleted_at IS NULL;
+-- Lịch sử đơn hàng của user: findIdsByUserId, findUserPageAfter
+CREATE INDEX IF NOT EXISTS idx_orders_live_user_date ON orders (user_id, order_date DESC, id DESC)
+    WHERE deleted_at IS NULL;
+-- Admin lọc theo trạng thái: findByStatusOrderByOrderDateDesc, findPageAfter với status
+CREATE INDEX IF NOT EXISTS idx_orders_live_status_date ON orders (status, order_date DESC, id DESC)
+    WHERE deleted_at IS NULL;
+
+-- categories
+DROP INDEX IF EXISTS idx_categories_deleted_at;
+DROP INDEX IF EXISTS idx_categories_slug;
+-- searchCategories: ORDER BY display_order, created_at DESC
+CREATE INDEX IF NOT EXISTS idx_categories_live_order ON categories (display_order, created_at DESC)
+    WHERE deleted_at IS NULL;
+
+-- product_reviews (không xóa mềm; phần lớn query chỉ đọc đánh giá đã duyệt)
+DROP INDEX IF EXISTS idx_product_reviews_product_approved;
+DROP INDEX IF EXISTS idx_product_reviews_is_approved;
+DROP INDEX IF EXISTS idx_product_reviews_rating;
+-- Đánh giá đã duyệt của sản phẩm, mới nhất trước: findByProductIdAndIsApprovedTrue
+CREATE INDEX IF NOT EXISTS idx_product_reviews_approved
+    ON product_reviews (product_id, created_at DESC)
+    WHERE is_approved = true;
+-- Lọc theo số sao: findByProductIdAndIsApprovedTrueAndRating
+CREATE INDEX IF NOT EXISTS idx_product_reviews_approved_rating
+    ON product_reviews (product_id, rating, created_at DESC)
+    WHERE is_approved = true;
+-- Hàng chờ duyệt của admin: findAllWithFilters với isApproved = false
+CREATE INDEX IF NOT EXISTS idx_product_reviews_pending ON product_reviews (created_at DESC)
+    WHERE is_approved = false;
+
+-- notifications (không xóa mềm)
+DROP INDEX IF EXISTS idx_notifications_is_read;
+DROP INDEX IF EXISTS idx_notifications_user_id;
+DROP INDEX IF EXISTS idx_notifications_type;
+-- Số thông báo chưa đọc và đánh dấu đã đọc tất cả: countByUserIdAndIsReadFalse, markAllAsRead
+CREATE INDEX IF NOT EXISTS idx_notifications_unread ON notifications (user_id)
+    WHERE is_read = false;
@@ -0,0 +1,54 @@
+package iuh.fit.se.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.system.CapturedOutput;
+import org.springframework.boot.test.system.OutputCaptureExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import iuh.fit.se.service.CartService;
+import iuh.fit.se.service.OrderService;
+import iuh.fit.se.service.WishlistService;
+
+// Các danh sách có phân trang và cần collection (items) phải phân trang trong DB: không có cảnh
+// báo HHH90003004 (Hibernate phân trang trong bộ nhớ). Với
+// fail_on_pagination_over_collection_fetch=true, query vi phạm sẽ ném exception.
+@SpringBootTest
+@Transactional
+@ExtendWith(OutputCaptureExtension.class)
+class CollectionFetchPaginationTest {
+  private static final String IN_MEMORY_PAGINATION_WARNING = "HHH90003004";
+
+  @Autowired private OrderService orderService;
+  @Autowired private CartService cartService;
+  @Autowired private WishlistService wishlistService;
+
+  @Test
+  void userOrdersArePagedInDatabase(CapturedOutput output) {
+    orderService.getUserOrders(1L, PageRequest.of(0, 10, Sort.by("orderDate").descending()));
+
+    assertThat(output).doesNotContain(IN_MEMORY_PAGINATION_WARNING);
+  }
+
+  @Test
+  void adminCartListsArePagedInDatabase(CapturedOutput output) {
+    cartService.getAllCarts(PageRequest.of(0, 10, Sort.by("updatedAt").descending()));
+    cartService.searchCarts("a", PageRequest.of(0, 10));
+
+    assertThat(output).doesNotContain(IN_MEMORY_PAGINATION_WARNING);
+  }
+
+  @Test
+  void adminWishlistListsArePagedInDatabase(CapturedOutput output) {
+    wishlistService.getAllWishlists(PageRequest.of(0, 10, Sort.by("updatedAt").descending()));
+    wishlistService.searchWishlists("a", PageRequest.of(0, 10));
+
+    assertThat(output).doesNotContain(IN_MEMORY_PAGINATION_WARNING);
+  }
+}
@@ -0,0 +1,191 @@
+package iuh.fit.se.repository;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.cfg.Configuration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.ManyToOne;
+import jakarta.persistence.Table;
+
+// JMH benchmark: thông lượng INSERT khi id sinh bằng IDENTITY (trước) và sequence pooled-lo (sau),
+// cùng cấu hình batch như application.yml. checkout = 1 đơn hàng + 8 dòng con (order items, lịch
+// sử trạng thái, thông báo, stock transactions) trong 1 transaction; seed = 20 đơn x 50 dòng.
+// Cần PostgreSQL (DB_HOST, DB_PORT, DB_NAME, DB_USERNAME, DB_PASSWORD như khi chạy ứng dụng);
+// benchmark tạo và xóa các bảng bench_* riêng.
+// Chạy: ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+//   "-Dexec.args=-cp %classpath iuh.fit.se.repository.IdGenerationBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class IdGenerationBenchmark {
+  private static final int CHECKOUT_LINES = 8;
+  private static final int SEED_ORDERS = 20;
+  private static final int SEED_LINES_PER_ORDER = 50;
+
+  @Param({"IDENTITY", "POOLED_LO"})
+  private String idGeneration;
+
+  private SessionFactory sessionFactory;
+  private boolean pooled;
+
+  @Setup
+  public void setUp() {
+    pooled = "POOLED_LO".equals(idGeneration);
+    String url =
+        "jdbc:postgresql://%s:%s/%s"
+            .formatted(
+                env("DB_HOST", "localhost"),
+                env("DB_PORT", "5432"),
+                env("DB_NAME", "greeting_cards_db"));
+    Configuration configuration =
+        new Configuration()
+            .setProperty("hibernate.connection.url", url)
+            .setProperty("hibernate.connection.username", env("DB_USERNAME", "postgres"))
+            .setProperty("hibernate.connection.password", env("DB_PASSWORD", "your_password"))
+            .setProperty("hibernate.hbm2ddl.auto", "create-drop")
+            .setProperty("hibernate.jdbc.batch_size", "50")
+            .setProperty("hibernate.order_inserts", "true")
+            .setProperty("hibernate.id.optimizer.pooled.preferred", "pooled-lo");
+    if (pooled) {
+      configuration.addAnnotatedClass(PooledOrder.class).addAnnotatedClass(PooledLine.class);
+    } else {
+      configuration.addAnnotatedClass(IdentityOrder.class).addAnnotatedClass(IdentityLine.class);
+    }
+    sessionFactory = configuration.buildSessionFactory();
+  }
+
+  @TearDown
+  public void tearDown() {
+    sessionFactory.close();
+  }
+
+  @Benchmark
+  public void checkout() {
+    sessionFactory.inTransaction(session -> insertOrder(session, CHECKOUT_LINES));
+  }
+
+  @Benchmark
+  public void seed() {
+    sessionFactory.inTransaction(
+        session -> {
+          for (int i = 0; i < SEED_ORDERS; i++) {
+            insertOrder(session, SEED_LINES_PER_ORDER);
+          }
+        });
+  }
+
+  private void insertOrder(Session session, int lineCount) {
+    BigDecimal price = new BigDecimal("25000");
+    if (pooled) {
+      PooledOrder order = new PooledOrder();
+      order.total = price.multiply(BigDecimal.valueOf(lineCount));
+      session.persist(order);
+      for (int i = 0; i < lineCount; i++) {
+        PooledLine line = new PooledLine();
+        line.order = order;
+        line.quantity = 1 + i % 3;
+        line.price = price;
+        session.persist(line);
+      }
+    } else {
+      IdentityOrder order = new IdentityOrder();
+      order.total = price.multiply(BigDecimal.valueOf(lineCount));
+      session.persist(order);
+      for (int i = 0; i < lineCount; i++) {
+        IdentityLine line = new IdentityLine();
+        line.order = order;
+        line.quantity = 1 + i % 3;
+        line.price = price;
+        session.persist(line);
+      }
+    }
+  }
+
+  private static String env(String name, String defaultValue) {
+    String value = System.getenv(name);
+    return value == null || value.isBlank() ? defaultValue : value;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(IdGenerationBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+
+  @Entity
+  @Table(name = "bench_identity_orders")
+  public static class IdentityOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    BigDecimal total;
+  }
+
+  @Entity
+  @Table(name = "bench_identity_lines")
+  public static class IdentityLine {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id")
+    IdentityOrder order;
+
+    int quantity;
+    BigDecimal price;
+  }
+
+  // Cùng mapping id với BaseEntity
+  @Entity
+  @Table(name = "bench_pooled_orders")
+  public static class PooledOrder {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    Long id;
+
+    BigDecimal total;
+  }
+
+  @Entity
+  @Table(name = "bench_pooled_lines")
+  public static class PooledLine {
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE)
+    Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "order_id")
+    PooledOrder order;
+
+    int quantity;
+    BigDecimal price;
+  }
+}
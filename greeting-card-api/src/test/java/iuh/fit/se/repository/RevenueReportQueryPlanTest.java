@@ -0,0 +1,44 @@
+package iuh.fit.se.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Query báo cáo doanh thu phải lọc order_date bằng khoảng nửa mở để dùng idx_orders_order_date.
+// Tắt seq scan trong transaction của test: nếu predicate không dùng được index (ví dụ
+// order_date::date = ...), planner vẫn phải chọn Seq Scan và test fail.
+@SpringBootTest
+@Transactional
+class RevenueReportQueryPlanTest {
+  @PersistenceContext private EntityManager entityManager;
+
+  @Test
+  void revenueBucketsUseOrderDateIndex() {
+    entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+    LocalDateTime end = LocalDateTime.now();
+
+    @SuppressWarnings("unchecked")
+    List<Object> plan =
+        entityManager
+            .createNativeQuery("EXPLAIN " + OrderRepository.REVENUE_BUCKETS_QUERY)
+            .setParameter("unit", "day")
+            .setParameter("zone", "Asia/Ho_Chi_Minh")
+            .setParameter("serverZone", ZoneId.systemDefault().getId())
+            .setParameter("start", end.minusDays(30))
+            .setParameter("end", end)
+            .getResultList();
+    String planText = plan.stream().map(String::valueOf).collect(Collectors.joining("\n"));
+
+    assertThat(planText).contains("idx_orders_order_date").doesNotContain("Seq Scan on orders");
+  }
+}
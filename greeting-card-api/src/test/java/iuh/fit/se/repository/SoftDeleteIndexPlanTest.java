@@ -0,0 +1,273 @@
+package iuh.fit.se.repository;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.hibernate.Session;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.annotation.Transactional;
+
+import iuh.fit.se.entity.enumeration.OrderStatus;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+
+// Các query chính của products, orders, categories, product_reviews, notifications phải đọc theo
+// partial index của migration V9. Mỗi test gọi đúng phương thức repository, ghi lại câu SQL mà
+// Hibernate sinh ra cùng giá trị tham số rồi EXPLAIN lại câu đó, nên query bị sửa (điều kiện, ORDER
+// BY, phân trang) cũng được kiểm tra. Seq scan bị tắt trong transaction của test nên kết quả không
+// phụ thuộc lượng dữ liệu.
+@SpringBootTest
+@Transactional
+class SoftDeleteIndexPlanTest {
+  @PersistenceContext private EntityManager entityManager;
+  @Autowired private StatementRecorder statementRecorder;
+  @Autowired private ProductRepository productRepository;
+  @Autowired private OrderRepository orderRepository;
+  @Autowired private CategoryRepository categoryRepository;
+  @Autowired private ProductReviewRepository productReviewRepository;
+  @Autowired private NotificationRepository notificationRepository;
+
+  @BeforeEach
+  void disableSeqScan() {
+    entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+  }
+
+  @Test
+  void productKeysetPageUsesLiveCreatedIndex() {
+    String plan =
+        explain(
+            () ->
+                productRepository.findPageAfter(
+                    new Long[0],
+                    true,
+                    false,
+                    0.0,
+                    1_000_000_000.0,
+                    true,
+                    LocalDateTime.now(),
+                    Long.MAX_VALUE,
+                    20));
+
+    assertThat(plan).contains("idx_products_live_created").doesNotContain("Seq Scan");
+  }
+
+  @Test
+  void lowStockProductsUseLiveLowStockIndex() {
+    String listPlan =
+        explain(() -> productRepository.findLowStockProducts(10, PageRequest.of(0, 10)));
+    String countPlan = explain(() -> productRepository.countLowStockProducts(10));
+
+    assertThat(listPlan).contains("idx_products_live_low_stock").doesNotContain("Seq Scan");
+    assertThat(countPlan).contains("idx_products_live_low_stock").doesNotContain("Seq Scan");
+  }
+
+  @Test
+  void userOrderHistoryUsesLiveUserDateIndex() {
+    String pagePlan =
+        explain(
+            () ->
+                orderRepository.findIdsByUserId(
+                    1L, PageRequest.of(0, 10, Sort.by("orderDate").descending())));
+    String keysetPlan =
+        explain(
+            () ->
+                orderRepository.findUserPageAfter(
+                    1L, LocalDateTime.now(), Long.MAX_VALUE, PageRequest.of(0, 11)));
+
+    assertThat(pagePlan).contains("idx_orders_live_user_date").doesNotContain("Seq Scan");
+    assertThat(keysetPlan).contains("idx_orders_live_user_date").doesNotContain("Seq Scan");
+  }
+
+  @Test
+  void ordersByStatusUseLiveStatusDateIndex() {
+    String pagePlan =
+        explain(
+            () ->
+                orderRepository.findByStatusOrderByOrderDateDesc(
+                    OrderStatus.PENDING, PageRequest.of(0, 20)));
+    String keysetPlan =
+        explain(
+            () ->
+                orderRepository.findPageAfter(
+                    OrderStatus.PENDING,
+                    LocalDateTime.now(),
+                    Long.MAX_VALUE,
+                    PageRequest.of(0, 21)));
+
+    assertThat(pagePlan).contains("idx_orders_live_status_date").doesNotContain("Seq Scan");
+    assertThat(keysetPlan).contains("idx_orders_live_status_date").doesNotContain("Seq Scan");
+  }
+
+  @Test
+  void categoryListingUsesLiveOrderIndex() {
+    // CategoryService bỏ Sort của Pageable, thứ tự nằm trong ORDER BY của query
+    String plan =
+        explain(
+            () ->
+                categoryRepository.searchCategories(null, null, null, null, PageRequest.of(0, 20)));
+
+    assertThat(plan).contains("idx_categories_live_order").doesNotContain("Seq Scan");
+  }
+
+  @Test
+  void approvedReviewsUseApprovedIndex() {
+    // Cùng Pageable với ReviewService.getProductReviews
+    String plan =
+        explain(
+            () ->
+                productReviewRepository.findByProductIdAndIsApprovedTrue(
+                    1L, PageRequest.of(0, 10, Sort.by("createdAt").descending())));
+
+    assertThat(plan).contains("using idx_product_reviews_approved on").doesNotContain("Seq Scan");
+  }
+
+  @Test
+  void unreadNotificationCountUsesUnreadIndex() {
+    String plan = explain(() -> notificationRepository.countByUserIdAndIsReadFalse(1L));
+
+    assertThat(plan).contains("idx_notifications_unread").doesNotContain("Seq Scan");
+  }
+
+  // EXPLAIN câu SQL đầu tiên của lời gọi (query chính; Page có thể chạy thêm count query sau đó)
+  private String explain(Runnable repositoryCall) {
+    List<RecordedStatement> statements = statementRecorder.record(repositoryCall);
+    assertThat(statements).isNotEmpty();
+    RecordedStatement query = statements.get(0);
+    return entityManager
+        .unwrap(Session.class)
+        .doReturningWork(
+            connection -> {
+              try (PreparedStatement explain =
+                  connection.prepareStatement("EXPLAIN " + query.sql())) {
+                query.bindTo(explain);
+                List<String> plan = new ArrayList<>();
+                try (ResultSet rs = explain.executeQuery()) {
+                  while (rs.next()) {
+                    plan.add(rs.getString(1));
+                  }
+                }
+                return String.join("\n", plan);
+              }
+            });
+  }
+
+  @TestConfiguration
+  static class RecorderConfig {
+    @Bean
+    static StatementRecorder statementRecorder() {
+      return new StatementRecorder();
+    }
+  }
+
+  // Bọc DataSource: trong record(...) mọi PreparedStatement được tạo ra được ghi lại cùng các lời
+  // gọi setXxx(index, value) để gắn lại đúng giá trị (và kiểu JDBC) khi EXPLAIN
+  static class StatementRecorder implements BeanPostProcessor {
+    private final List<RecordedStatement> statements = new ArrayList<>();
+    private boolean recording;
+
+    List<RecordedStatement> record(Runnable call) {
+      statements.clear();
+      recording = true;
+      try {
+        call.run();
+      } finally {
+        recording = false;
+      }
+      return List.copyOf(statements);
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+      if (!(bean instanceof DataSource dataSource)) {
+        return bean;
+      }
+      return proxy(
+          DataSource.class,
+          (method, args) -> {
+            Object result = invoke(dataSource, method, args);
+            return result instanceof Connection connection ? wrap(connection) : result;
+          });
+    }
+
+    private Connection wrap(Connection connection) {
+      return proxy(
+          Connection.class,
+          (method, args) -> {
+            Object result = invoke(connection, method, args);
+            if (!recording
+                || !method.getName().equals("prepareStatement")
+                || !(result instanceof PreparedStatement statement)) {
+              return result;
+            }
+            RecordedStatement recorded = new RecordedStatement((String) args[0], new ArrayList<>());
+            statements.add(recorded);
+            return proxy(
+                PreparedStatement.class,
+                (statementMethod, statementArgs) -> {
+                  if (statementMethod.getName().startsWith("set")
+                      && statementArgs != null
+                      && statementArgs.length >= 2
+                      && statementArgs[0] instanceof Integer) {
+                    recorded.bindings().add(new Binding(statementMethod, statementArgs));
+                  }
+                  return invoke(statement, statementMethod, statementArgs);
+                });
+          });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+      return (T)
+          Proxy.newProxyInstance(
+              StatementRecorder.class.getClassLoader(),
+              new Class<?>[] {type},
+              (proxy, method, args) -> handler.handle(method, args));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+      try {
+        return method.invoke(target, args);
+      } catch (InvocationTargetException e) {
+        throw e.getCause();
+      }
+    }
+
+    interface Handler {
+      Object handle(Method method, Object[] args) throws Throwable;
+    }
+  }
+
+  record RecordedStatement(String sql, List<Binding> bindings) {
+    void bindTo(PreparedStatement statement) throws SQLException {
+      for (Binding binding : bindings) {
+        try {
+          binding.method().invoke(statement, binding.args());
+        } catch (ReflectiveOperationException e) {
+          throw new SQLException("Không gắn được tham số " + binding.args()[0], e);
+        }
+      }
+    }
+  }
+
+  record Binding(Method method, Object[] args) {}
+}
@@ -0,0 +1,123 @@
+package iuh.fit.se.service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import iuh.fit.se.entity.enumeration.DiscountType;
+import iuh.fit.se.entity.enumeration.PromotionScope;
+import iuh.fit.se.entity.enumeration.PromotionType;
+import iuh.fit.se.service.PricingEngine.CartLine;
+import iuh.fit.se.service.PricingEngine.PricingResult;
+import iuh.fit.se.service.PromotionIndexService.PromotionRule;
+
+// JMH benchmark: số giỏ hàng được tính giá mỗi giây với giỏ 1, 10 và 100 dòng.
+// Chạy: ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+//   "-Dexec.args=-cp %classpath iuh.fit.se.service.PricingEngineBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PricingEngineBenchmark {
+  private static final int CATEGORY_COUNT = 5;
+
+  @Param({"1", "10", "100"})
+  private int lineCount;
+
+  private PricingEngine pricingEngine;
+  private PromotionIndexService.Snapshot promotions;
+  private List<CartLine> lines;
+  private LocalDateTime now;
+
+  @Setup
+  public void setUp() {
+    pricingEngine = new PricingEngine(null);
+    now = LocalDateTime.now();
+
+    // Mỗi loại promotion phủ một phần giỏ hàng để engine đi qua đủ các nhánh
+    List<PromotionRule> rules = new ArrayList<>();
+    Set<Long> bogoProducts = Set.of(1L, 11L, 21L, 31L, 41L);
+    rules.add(rule(1L, PromotionType.BOGO, PromotionScope.PRODUCT, bogoProducts, null, null));
+    rules.add(rule(2L, PromotionType.BUY_X_PAY_Y, PromotionScope.CATEGORY, Set.of(), 2L, null));
+    rules.add(rule(3L, PromotionType.BUY_X_GET_Y, PromotionScope.CATEGORY, Set.of(), 3L, null));
+    rules.add(
+        rule(
+            4L,
+            PromotionType.DISCOUNT,
+            PromotionScope.CATEGORY,
+            Set.of(),
+            4L,
+            DiscountType.PERCENTAGE));
+    rules.add(
+        rule(
+            5L,
+            PromotionType.DISCOUNT,
+            PromotionScope.ORDER,
+            Set.of(),
+            null,
+            DiscountType.PERCENTAGE));
+    promotions = PromotionIndexService.Snapshot.of(1, rules);
+
+    lines = new ArrayList<>(lineCount);
+    for (int i = 1; i <= lineCount; i++) {
+      lines.add(
+          new CartLine((long) i, (long) (i % CATEGORY_COUNT) + 1, 25_000_00L + i * 100, 1 + i % 7));
+    }
+  }
+
+  @Benchmark
+  public PricingResult priceCart() {
+    return pricingEngine.price(lines, null, promotions, now);
+  }
+
+  private PromotionRule rule(
+      Long id,
+      PromotionType type,
+      PromotionScope scope,
+      Set<Long> productIds,
+      Long categoryId,
+      DiscountType discountType) {
+    return new PromotionRule(
+        id,
+        "Promotion " + id,
+        type,
+        scope,
+        discountType,
+        discountType != null ? new BigDecimal("10") : null,
+        BigDecimal.ZERO,
+        discountType != null ? new BigDecimal("50000") : null,
+        type == PromotionType.BOGO ? 1 : 3,
+        1,
+        type == PromotionType.BUY_X_PAY_Y ? 2 : null,
+        productIds,
+        categoryId,
+        now.minusDays(1),
+        now.plusDays(1),
+        null);
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(new OptionsBuilder().include(PricingEngineBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
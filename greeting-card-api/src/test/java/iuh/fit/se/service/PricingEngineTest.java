@@ -0,0 +1,220 @@
+package iuh.fit.se.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.Test;
+
+import iuh.fit.se.entity.Coupon;
+import iuh.fit.se.entity.enumeration.DiscountType;
+import iuh.fit.se.entity.enumeration.PromotionScope;
+import iuh.fit.se.entity.enumeration.PromotionType;
+import iuh.fit.se.service.PricingEngine.CartLine;
+import iuh.fit.se.service.PricingEngine.CouponTerms;
+import iuh.fit.se.service.PricingEngine.PricingResult;
+import iuh.fit.se.service.PromotionIndexService.PromotionRule;
+
+// Tiền tính theo đơn vị nhỏ nhất (1/100 đồng) như PricingEngine: 1.000.000đ = 100_000_000
+class PricingEngineTest {
+  private static final Long PRODUCT_ID = 1L;
+  private static final Long CATEGORY_ID = 10L;
+
+  private final PricingEngine pricingEngine = new PricingEngine(null);
+  private final LocalDateTime now = LocalDateTime.of(2026, 1, 15, 12, 0);
+
+  @Test
+  void toMinorRoundsHalfUp() {
+    assertThat(PricingEngine.toMinor(new BigDecimal("0.125"))).isEqualTo(13);
+    assertThat(PricingEngine.toMinor(new BigDecimal("0.124"))).isEqualTo(12);
+    assertThat(PricingEngine.toAmount(13)).isEqualByComparingTo("0.13");
+  }
+
+  @Test
+  void percentageDiscountRoundsHalfUpToMinorUnit() {
+    CouponTerms coupon = CouponTerms.of(coupon(DiscountType.PERCENTAGE, "15", null, null));
+
+    // 15% của 100,10đ = 15,015đ -> 15,02đ; 15% của 100,03đ = 15,0045đ -> 15,00đ
+    assertThat(price(cart(10_010), coupon).couponDiscount()).isEqualTo(1_502);
+    assertThat(price(cart(10_003), coupon).couponDiscount()).isEqualTo(1_500);
+  }
+
+  @Test
+  void percentageIsRoundedToBasisPoints() {
+    // 12,345% được làm tròn thành 12,35%
+    CouponTerms coupon = CouponTerms.of(coupon(DiscountType.PERCENTAGE, "12.345", null, null));
+
+    assertThat(coupon.discountValue()).isEqualTo(1_235);
+    assertThat(price(cart(10_000), coupon).couponDiscount()).isEqualTo(1_235);
+  }
+
+  @Test
+  void promotionAndCouponAreBothComputedOnOriginalTotal() {
+    PromotionRule orderPromotion = orderDiscount(1L, DiscountType.PERCENTAGE, "10", null, null);
+    CouponTerms coupon = CouponTerms.of(coupon(DiscountType.PERCENTAGE, "10", null, null));
+
+    PricingResult result = price(cart(100_000_000), coupon, orderPromotion);
+
+    // Coupon không tính trên tổng đã trừ khuyến mãi (sẽ là 9.000.000)
+    assertThat(result.orderDiscount()).isEqualTo(10_000_000);
+    assertThat(result.couponDiscount()).isEqualTo(10_000_000);
+    assertThat(result.finalTotal()).isEqualTo(80_000_000);
+  }
+
+  @Test
+  void lineAndOrderPromotionsStackBeforeCoupon() {
+    PromotionRule lineDiscount =
+        rule(
+            1L,
+            PromotionType.DISCOUNT,
+            PromotionScope.CATEGORY,
+            DiscountType.PERCENTAGE,
+            "10",
+            null,
+            null);
+    PromotionRule orderPromotion = orderDiscount(2L, DiscountType.PERCENTAGE, "5", null, null);
+    CouponTerms coupon = CouponTerms.of(coupon(DiscountType.FIXED_AMOUNT, "50000", null, null));
+
+    PricingResult result = price(cart(100_000_000), coupon, lineDiscount, orderPromotion);
+
+    assertThat(result.lines().get(0).discount()).isEqualTo(10_000_000);
+    assertThat(result.orderDiscount()).isEqualTo(5_000_000);
+    assertThat(result.promotionDiscount()).isEqualTo(15_000_000);
+    assertThat(result.couponDiscount()).isEqualTo(5_000_000);
+    assertThat(result.finalTotal()).isEqualTo(80_000_000);
+  }
+
+  @Test
+  void onlyBestOrderPromotionIsApplied() {
+    PromotionRule small = orderDiscount(1L, DiscountType.PERCENTAGE, "5", null, null);
+    PromotionRule best = orderDiscount(2L, DiscountType.FIXED_AMOUNT, "80000", null, null);
+
+    PricingResult result = price(cart(100_000_000), null, small, best);
+
+    assertThat(result.orderPromotion().id()).isEqualTo(2L);
+    assertThat(result.orderDiscount()).isEqualTo(8_000_000);
+  }
+
+  @Test
+  void couponBelowMinPurchaseIsNotApplied() {
+    CouponTerms coupon = CouponTerms.of(coupon(DiscountType.FIXED_AMOUNT, "20000", "200000", null));
+
+    PricingResult below = price(cart(15_000_000), coupon);
+    PricingResult atMinimum = price(cart(20_000_000), coupon);
+
+    assertThat(below.couponEligible()).isFalse();
+    assertThat(below.couponDiscount()).isZero();
+    assertThat(below.finalTotal()).isEqualTo(15_000_000 + 3_000_000);
+    assertThat(atMinimum.couponEligible()).isTrue();
+    assertThat(atMinimum.couponDiscount()).isEqualTo(2_000_000);
+  }
+
+  @Test
+  void orderPromotionBelowMinPurchaseIsSkipped() {
+    PromotionRule orderPromotion = orderDiscount(1L, DiscountType.PERCENTAGE, "10", "500000", null);
+
+    PricingResult result = price(cart(40_000_000), null, orderPromotion);
+
+    assertThat(result.orderPromotion()).isNull();
+    assertThat(result.orderDiscount()).isZero();
+  }
+
+  @Test
+  void percentageDiscountsAreCappedByMaxDiscount() {
+    PromotionRule orderPromotion = orderDiscount(1L, DiscountType.PERCENTAGE, "50", null, "20000");
+    CouponTerms coupon = CouponTerms.of(coupon(DiscountType.PERCENTAGE, "50", null, "50000"));
+
+    PricingResult result = price(cart(100_000_000), coupon, orderPromotion);
+
+    assertThat(result.orderDiscount()).isEqualTo(2_000_000);
+    assertThat(result.couponDiscount()).isEqualTo(5_000_000);
+    assertThat(result.finalTotal()).isEqualTo(93_000_000);
+  }
+
+  @Test
+  void totalNeverGoesNegative() {
+    PromotionRule orderPromotion =
+        orderDiscount(1L, DiscountType.FIXED_AMOUNT, "300000", null, null);
+    CouponTerms coupon = CouponTerms.of(coupon(DiscountType.FIXED_AMOUNT, "1000000", null, null));
+
+    PricingResult result = price(cart(20_000_000), coupon, orderPromotion);
+
+    // Khuyến mãi FIXED không giảm quá tổng tiền; phần còn lại bị chặn ở 0, chỉ còn phí ship
+    assertThat(result.orderDiscount()).isEqualTo(20_000_000);
+    assertThat(result.shippingFee()).isEqualTo(3_000_000);
+    assertThat(result.finalTotal()).isEqualTo(3_000_000);
+  }
+
+  @Test
+  void shippingIsFreeFromThresholdAfterDiscounts() {
+    CouponTerms coupon = CouponTerms.of(coupon(DiscountType.FIXED_AMOUNT, "10000", null, null));
+
+    assertThat(price(cart(50_000_000), null).shippingFee()).isZero();
+    assertThat(price(cart(50_000_000), coupon).shippingFee()).isEqualTo(3_000_000);
+  }
+
+  private PricingResult price(List<CartLine> lines, CouponTerms coupon, PromotionRule... rules) {
+    return pricingEngine.price(
+        lines, coupon, PromotionIndexService.Snapshot.of(1, List.of(rules)), now);
+  }
+
+  private static List<CartLine> cart(long unitPrice) {
+    return List.of(new CartLine(PRODUCT_ID, CATEGORY_ID, unitPrice, 1));
+  }
+
+  private static Coupon coupon(
+      DiscountType discountType, String discountValue, String minPurchase, String maxDiscount) {
+    Coupon coupon = new Coupon();
+    coupon.setDiscountType(discountType);
+    coupon.setDiscountValue(new BigDecimal(discountValue));
+    coupon.setMinPurchase(minPurchase != null ? new BigDecimal(minPurchase) : null);
+    coupon.setMaxDiscount(maxDiscount != null ? new BigDecimal(maxDiscount) : null);
+    return coupon;
+  }
+
+  private PromotionRule orderDiscount(
+      Long id,
+      DiscountType discountType,
+      String discountValue,
+      String minPurchase,
+      String maxDiscount) {
+    return rule(
+        id,
+        PromotionType.DISCOUNT,
+        PromotionScope.ORDER,
+        discountType,
+        discountValue,
+        minPurchase,
+        maxDiscount);
+  }
+
+  private PromotionRule rule(
+      Long id,
+      PromotionType type,
+      PromotionScope scope,
+      DiscountType discountType,
+      String discountValue,
+      String minPurchase,
+      String maxDiscount) {
+    return new PromotionRule(
+        id,
+        "Promotion " + id,
+        type,
+        scope,
+        discountType,
+        new BigDecimal(discountValue),
+        minPurchase != null ? new BigDecimal(minPurchase) : null,
+        maxDiscount != null ? new BigDecimal(maxDiscount) : null,
+        null,
+        null,
+        null,
+        Set.of(),
+        scope == PromotionScope.CATEGORY ? CATEGORY_ID : null,
+        now.minusDays(1),
+        now.plusDays(1),
+        null);
+  }
+}
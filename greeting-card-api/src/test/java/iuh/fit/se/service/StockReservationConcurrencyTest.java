@@ -0,0 +1,101 @@
+package iuh.fit.se.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+// Nhiều lần giữ hàng đồng thời trên cùng sản phẩm không được bán vượt tồn kho: UPDATE có điều kiện
+// stock >= quantity khóa dòng products nên chỉ đúng số lần giữ bằng tồn kho thành công. Dữ liệu
+// được commit thật (mỗi luồng một transaction) và được xóa sau test.
+@SpringBootTest
+class StockReservationConcurrencyTest {
+  private static final int STOCK = 1;
+  private static final int BUYERS = 8;
+
+  @Autowired private StockService stockService;
+  @Autowired private JdbcTemplate jdbcTemplate;
+
+  private Long categoryId;
+  private Long productId;
+
+  @BeforeEach
+  void createProduct() {
+    String suffix = Long.toString(System.nanoTime());
+    categoryId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO categories (name, slug, is_active, is_featured, created_at)
+            VALUES (?, ?, true, false, NOW())
+            RETURNING id
+            """,
+            Long.class,
+            "Stock test " + suffix,
+            "stock-test-" + suffix);
+    productId =
+        jdbcTemplate.queryForObject(
+            """
+            INSERT INTO products (name, slug, sku, price, stock, category_id, is_active,
+                                  is_featured, created_at)
+            VALUES (?, ?, ?, 10000, ?, ?, true, false, NOW())
+            RETURNING id
+            """,
+            Long.class,
+            "Stock test " + suffix,
+            "stock-test-" + suffix,
+            "STOCK-TEST-" + suffix,
+            STOCK,
+            categoryId);
+  }
+
+  @AfterEach
+  void deleteProduct() {
+    jdbcTemplate.update("DELETE FROM product_search_documents WHERE product_id = ?", productId);
+    jdbcTemplate.update("DELETE FROM products WHERE id = ?", productId);
+    jdbcTemplate.update("DELETE FROM categories WHERE id = ?", categoryId);
+  }
+
+  @Test
+  void concurrentReservationsDoNotOversell() throws Exception {
+    ExecutorService executor = Executors.newFixedThreadPool(BUYERS);
+    CountDownLatch start = new CountDownLatch(1);
+    try {
+      List<Future<Boolean>> results = new ArrayList<>();
+      for (int i = 0; i < BUYERS; i++) {
+        results.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  return stockService.reserveStock(productId, 1);
+                }));
+      }
+      start.countDown();
+
+      int reserved = 0;
+      for (Future<Boolean> result : results) {
+        if (result.get()) {
+          reserved++;
+        }
+      }
+
+      Integer stock =
+          jdbcTemplate.queryForObject(
+              "SELECT stock FROM products WHERE id = ?", Integer.class, productId);
+      assertThat(reserved).isEqualTo(STOCK);
+      assertThat(stock).isZero();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,81 @@
+package iuh.fit.se.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvReaderTest {
+
+  @Test
+  void readsPlainRecords() throws IOException {
+    assertThat(readAll("sku,name,price\nA1,Thiệp,15000\n"))
+        .containsExactly(List.of("sku", "name", "price"), List.of("A1", "Thiệp", "15000"));
+  }
+
+  @Test
+  void quotedFieldsMayContainCommas() throws IOException {
+    assertThat(readAll("A1,\"Thiệp, hoa\",15000\n"))
+        .containsExactly(List.of("A1", "Thiệp, hoa", "15000"));
+  }
+
+  @Test
+  void doubledQuoteIsOneQuote() throws IOException {
+    assertThat(readAll("A1,\"Thiệp \"\"Tết\"\"\",\"\"\"\"\n"))
+        .containsExactly(List.of("A1", "Thiệp \"Tết\"", "\""));
+  }
+
+  @Test
+  void quotedFieldsMayContainNewlines() throws IOException {
+    CsvReader reader = new CsvReader(new StringReader("A1,\"dòng 1\ndòng 2\r\ndòng 3\"\nA2,x\n"));
+
+    assertThat(reader.readRecord()).containsExactly("A1", "dòng 1\ndòng 2\r\ndòng 3");
+    assertThat(reader.getLineNumber()).isEqualTo(1);
+    assertThat(reader.readRecord()).containsExactly("A2", "x");
+    // Bản ghi thứ 2 bắt đầu sau 3 dòng vật lý của bản ghi đầu
+    assertThat(reader.getLineNumber()).isEqualTo(4);
+    assertThat(reader.readRecord()).isNull();
+  }
+
+  @Test
+  void acceptsCrlfAndMissingFinalNewline() throws IOException {
+    assertThat(readAll("sku,name\r\nA1,Thiệp\r\nA2,Hộp"))
+        .containsExactly(List.of("sku", "name"), List.of("A1", "Thiệp"), List.of("A2", "Hộp"));
+  }
+
+  @Test
+  void keepsEmptyFieldsAndLines() throws IOException {
+    assertThat(readAll("A1,,\n\n,x\n"))
+        .containsExactly(List.of("A1", "", ""), List.of(""), List.of("", "x"));
+  }
+
+  @Test
+  void skipsByteOrderMark() throws IOException {
+    assertThat(readAll("\uFEFFsku,name\n")).containsExactly(List.of("sku", "name"));
+  }
+
+  @Test
+  void unterminatedQuoteIsRejected() throws IOException {
+    CsvReader reader = new CsvReader(new StringReader("A1,ok\nA2,\"chưa đóng\nA3,x\n"));
+    reader.readRecord();
+
+    assertThatThrownBy(reader::readRecord)
+        .isInstanceOf(IllegalArgumentException.class)
+        .hasMessageContaining("dòng 2");
+  }
+
+  private static List<List<String>> readAll(String csv) throws IOException {
+    CsvReader reader = new CsvReader(new StringReader(csv));
+    List<List<String>> records = new ArrayList<>();
+    List<String> record;
+    while ((record = reader.readRecord()) != null) {
+      records.add(record);
+    }
+    return records;
+  }
+}
@@ -0,0 +1,61 @@
+package iuh.fit.se.util;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class CsvWriterTest {
+
+  @Test
+  void writesPlainFieldsUnquotedWithCrlf() throws IOException {
+    assertThat(write(List.of("A1", "Thiệp", "15000"))).isEqualTo("A1,Thiệp,15000\r\n");
+  }
+
+  @Test
+  void quotesFieldsWithSeparatorsQuotesAndNewlines() throws IOException {
+    assertThat(write(List.of("a,b", "say \"hi\"", "x\ny", "x\ry")))
+        .isEqualTo("\"a,b\",\"say \"\"hi\"\"\",\"x\ny\",\"x\ry\"\r\n");
+  }
+
+  @Test
+  void writesNullAsEmptyField() throws IOException {
+    assertThat(write(Arrays.asList("A1", null, ""))).isEqualTo("A1,,\r\n");
+  }
+
+  @Test
+  void roundTripsThroughCsvReader() throws IOException {
+    List<List<String>> records =
+        List.of(
+            List.of("sku", "name", "description", "images"),
+            List.of("A1", "Thiệp \"Tết\", hoa", "dòng 1\ndòng 2\r\ndòng 3", "a.jpg|b.jpg"),
+            List.of("A2", "", "\"", ",,"),
+            List.of("A3", "  khoảng trắng  ", "\r\n", "x"));
+
+    StringWriter out = new StringWriter();
+    CsvWriter writer = new CsvWriter(out);
+    for (List<String> record : records) {
+      writer.writeRecord(record);
+    }
+
+    CsvReader reader = new CsvReader(new StringReader(out.toString()));
+    List<List<String>> read = new ArrayList<>();
+    List<String> record;
+    while ((record = reader.readRecord()) != null) {
+      read.add(record);
+    }
+    assertThat(read).isEqualTo(records);
+  }
+
+  private static String write(List<String> values) throws IOException {
+    StringWriter out = new StringWriter();
+    new CsvWriter(out).writeRecord(values);
+    return out.toString();
+  }
+}
@@ -0,0 +1,101 @@
+package iuh.fit.se.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.security.Keys;
+
+// JMH benchmark: số access token được xác thực mỗi giây.
+// - legacyFilterPath: cách cũ của JwtAuthenticationFilter (4 lần parse, mỗi lần tạo lại key +
+// parser)
+// - parsedToken: parse một lần với key / parser dùng lại
+// - parsedTokenPreviousKey: như trên với token ký bằng key cũ (đã xoay key)
+// Chạy: ./mvnw test-compile exec:exec -Dexec.classpathScope=test -Dexec.executable=java
+//   "-Dexec.args=-cp %classpath iuh.fit.se.util.JwtTokenProviderBenchmark"
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtTokenProviderBenchmark {
+  private static final String SECRET =
+      "benchmark-secret-key-benchmark-secret-key-benchmark-secret-key";
+  private static final String PREVIOUS_SECRET =
+      "previous-secret-key-previous-secret-key-previous-secret-key";
+
+  private JwtTokenProvider tokenProvider;
+  private String token;
+  private String previousKeyToken;
+
+  @Setup
+  public void setUp() {
+    // Token ký bằng key cũ, trước khi xoay key
+    JwtTokenProvider previousProvider = provider(PREVIOUS_SECRET, "");
+    previousKeyToken = previousProvider.createAccessToken(1L, "user@example.com", "CUSTOMER");
+
+    tokenProvider = provider(SECRET, PREVIOUS_SECRET);
+    token = tokenProvider.createAccessToken(1L, "user@example.com", "CUSTOMER");
+  }
+
+  @Benchmark
+  public boolean legacyFilterPath() {
+    // validateToken(token) -> getUsernameFromToken(token) -> validateToken(token, userDetails)
+    boolean valid = legacyParse(token).getExpiration().getTime() > System.currentTimeMillis();
+    String username = legacyParse(token).getSubject();
+    return valid
+        && username.equals(legacyParse(token).getSubject())
+        && legacyParse(token).getExpiration().getTime() > System.currentTimeMillis();
+  }
+
+  @Benchmark
+  public String parsedToken() {
+    return tokenProvider.parseAccessToken(token).subject();
+  }
+
+  @Benchmark
+  public String parsedTokenPreviousKey() {
+    return tokenProvider.parseAccessToken(previousKeyToken).subject();
+  }
+
+  private static Claims legacyParse(String token) {
+    return Jwts.parser()
+        .verifyWith(Keys.hmacShaKeyFor(SECRET.getBytes(StandardCharsets.UTF_8)))
+        .build()
+        .parseSignedClaims(token)
+        .getPayload();
+  }
+
+  private static JwtTokenProvider provider(String secret, String previousSecrets) {
+    JwtTokenProvider provider = new JwtTokenProvider();
+    ReflectionTestUtils.setField(provider, "secretKey", secret);
+    ReflectionTestUtils.setField(provider, "previousSecretKeys", previousSecrets);
+    ReflectionTestUtils.setField(provider, "accessTokenValidityInMilliseconds", 900_000L);
+    ReflectionTestUtils.setField(provider, "refreshTokenValidityInMilliseconds", 604_800_000L);
+    provider.init();
+    return provider;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder().include(JwtTokenProviderBenchmark.class.getSimpleName()).build())
+        .run();
+  }
+}
@@ -27,10 +27,7 @@ export function usePaymentProcessing(orderId: number | null): UsePaymentProcessi
       setLoading(true);
       setPaymentStatus('processing');
 
-      // Giả lập delay 2-3 giây để xử lý thanh toán
-      await new Promise(resolve => setTimeout(resolve, 2000 + Math.random() * 1000));
-
-      // Gọi API thanh toán
+      // Gọi API thanh toán (chờ đến khi gateway trả kết quả)
       const paymentResponse = await processPayment({
         orderId: orderData.id,
       });
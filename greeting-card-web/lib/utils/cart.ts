@@ -1,15 +1,6 @@
 import type { Cart, CartResponse } from '@/types';
 
 export function getProductImage(product: CartResponse['items'][number]['product']): string {
-  // Prefer primary image; fall back to the first image; default to empty string.
-  if (product.images && product.images.length > 0) {
-    const primary = product.images.find(img => img.isPrimary);
-    const selected = primary ?? product.images[0];
-    if (selected?.imageUrl) {
-      return selected.imageUrl;
-    }
-  }
-
   return product.imageUrl ?? '';
 }
 
@@ -2,8 +2,10 @@ import { apiClient } from './client';
 import type {
   AddToCartRequest,
   ApiResponse,
+  CartDeltaResponse,
   CartResponse,
   CartSummary,
+  CartSyncResponse,
   PaginationParams,
   ServiceResponse,
   SyncCartRequest,
@@ -22,8 +24,8 @@ export const getCart = async (): Promise<ServiceResponse<CartResponse>> => {
 // Thêm sản phẩm vào giỏ hàng
 export const addToCart = async (
   request: AddToCartRequest,
-): Promise<ServiceResponse<CartResponse>> => {
-  const response = await apiClient.post<ApiResponse<CartResponse>>('/cart/add', request);
+): Promise<ServiceResponse<CartDeltaResponse>> => {
+  const response = await apiClient.post<ApiResponse<CartDeltaResponse>>('/cart/add', request);
   return {
     data: response.data.data!,
     message: response.data.message,
@@ -34,8 +36,8 @@ export const addToCart = async (
 export const updateCartItem = async (
   productId: number,
   request: UpdateCartItemRequest,
-): Promise<ServiceResponse<CartResponse>> => {
-  const response = await apiClient.put<ApiResponse<CartResponse>>(
+): Promise<ServiceResponse<CartDeltaResponse>> => {
+  const response = await apiClient.put<ApiResponse<CartDeltaResponse>>(
     `/cart/items/${productId}`,
     request,
   );
@@ -66,8 +68,8 @@ export const clearCart = async (): Promise<ServiceResponse<void>> => {
 // Sync giỏ hàng từ localStorage lên server khi user login
 export const syncCart = async (
   request: SyncCartRequest,
-): Promise<ServiceResponse<CartResponse>> => {
-  const response = await apiClient.post<ApiResponse<CartResponse>>('/cart/sync', request);
+): Promise<ServiceResponse<CartSyncResponse>> => {
+  const response = await apiClient.post<ApiResponse<CartSyncResponse>>('/cart/sync', request);
   return {
     data: response.data.data!,
     message: response.data.message,
@@ -7,10 +7,42 @@ import type {
   ServiceResponse,
 } from '@/types';
 
+const PAYMENT_POLL_INTERVAL_MS = 1000;
+const PAYMENT_POLL_MAX_ATTEMPTS = 60;
+
+// Gửi yêu cầu thanh toán (API trả về 202 với payment PENDING), sau đó poll trạng thái
+// cho đến khi thanh toán hoàn tất
 export const processPayment = async (
   request: ProcessPaymentRequest,
 ): Promise<ServiceResponse<Payment>> => {
   const response = await apiClient.post<ApiResponse<Payment>>('/payments/process', request);
+  let result: ServiceResponse<Payment> = {
+    data: response.data.data!,
+    message: response.data.message,
+  };
+
+  const transactionId = result.data.transactionId;
+  if (!transactionId) {
+    return result;
+  }
+
+  for (
+    let attempt = 0;
+    result.data.status === 'PENDING' && attempt < PAYMENT_POLL_MAX_ATTEMPTS;
+    attempt++
+  ) {
+    await new Promise(resolve => setTimeout(resolve, PAYMENT_POLL_INTERVAL_MS));
+    result = await getPaymentStatus(transactionId);
+  }
+  return result;
+};
+
+export const getPaymentStatus = async (
+  transactionId: string,
+): Promise<ServiceResponse<Payment>> => {
+  const response = await apiClient.get<ApiResponse<Payment>>(
+    `/payments/status/${encodeURIComponent(transactionId)}`,
+  );
   return {
     data: response.data.data!,
     message: response.data.message,
@@ -5,7 +5,9 @@ import type {
   CreateProductRequest,
   PaginationResponse,
   Product,
+  ProductBulkFormat,
   ProductFilters,
+  ProductImportResponse,
   ServiceResponse,
   UpdateProductRequest,
 } from '@/types';
@@ -119,3 +121,38 @@ export const deleteProduct = async (id: number): Promise<ServiceResponse<void>>
     message: response.data.message,
   };
 };
+
+// Nhập sản phẩm hàng loạt từ file CSV / JSONL (admin)
+export const importProducts = async (
+  file: File,
+  format?: ProductBulkFormat,
+): Promise<ServiceResponse<ProductImportResponse>> => {
+  const formData = new FormData();
+  formData.append('file', file);
+  if (format) {
+    formData.append('format', format);
+  }
+
+  const response = await apiClient.post<ApiResponse<ProductImportResponse>>(
+    '/admin/products/import',
+    formData,
+    {
+      headers: {
+        'Content-Type': 'multipart/form-data',
+      },
+    },
+  );
+  return {
+    data: response.data.data!,
+    message: response.data.message,
+  };
+};
+
+// Xuất toàn bộ sản phẩm ra file CSV / JSONL (admin)
+export const exportProducts = async (format: ProductBulkFormat = 'CSV'): Promise<Blob> => {
+  const response = await apiClient.get<Blob>('/admin/products/export', {
+    params: { format },
+    responseType: 'blob',
+  });
+  return response.data;
+};
@@ -7,6 +7,7 @@ import type {
   SyncWishlistRequest,
   WishlistResponse,
   WishlistSummary,
+  WishlistSyncResponse,
 } from '@/types';
 
 // Lấy wishlist hiện tại từ server
@@ -50,8 +51,11 @@ export const clearWishlist = async (): Promise<ServiceResponse<void>> => {
 // Sync wishlist từ localStorage lên server khi user login
 export const syncWishlist = async (
   request: SyncWishlistRequest,
-): Promise<ServiceResponse<WishlistResponse>> => {
-  const response = await apiClient.post<ApiResponse<WishlistResponse>>('/wishlist/sync', request);
+): Promise<ServiceResponse<WishlistSyncResponse>> => {
+  const response = await apiClient.post<ApiResponse<WishlistSyncResponse>>(
+    '/wishlist/sync',
+    request,
+  );
   return {
     data: response.data.data!,
     message: response.data.message,
@@ -16,6 +16,9 @@ export type PaginationResponse = {
   size: number;
   total: number;
   totalPages: number;
+  // Cursor pagination (opt-in via the `cursor` query param)
+  nextCursor?: string;
+  totalEstimated?: boolean;
 };
 
 export type PaginationParams = {
@@ -32,23 +32,17 @@ export type SyncCartRequest = {
 
 export type CartResponse = {
   id: number;
+  version: number; // tăng sau mỗi thay đổi giỏ hàng
   items: Array<{
     id: number;
     product: {
       id: number;
       name: string;
       slug: string;
-      description?: string;
       price: number;
       stock: number;
-      imageUrl?: string;
-      images?: Array<{
-        id?: number;
-        imageUrl: string;
-        altText?: string;
-        isPrimary?: boolean;
-        displayOrder?: number;
-      }>;
+      isActive: boolean;
+      imageUrl?: string | null; // ảnh đại diện
     };
     quantity: number;
     subtotal: number;
@@ -57,6 +51,42 @@ export type CartResponse = {
   totalItems: number;
 };
 
+// Kết quả thay đổi giỏ hàng: dòng vừa thay đổi (null nếu đã xóa) và tổng mới; cart chỉ có khi không
+// gọi với ?delta=true. version khác version đang giữ + 1 nghĩa là giỏ hàng đã đổi ở nơi khác, cần tải
+// lại.
+export type CartDeltaResponse = {
+  id: number;
+  version: number;
+  productId: number;
+  item: CartResponse['items'][number] | null;
+  total: number;
+  totalItems: number;
+  cart?: CartResponse;
+};
+
+// Kết quả đồng bộ từng sản phẩm từ localStorage lên server
+export type SyncItemStatus =
+  | 'ADDED'
+  | 'MERGED'
+  | 'CLAMPED'
+  | 'UNCHANGED'
+  | 'OUT_OF_STOCK'
+  | 'NOT_FOUND'
+  | 'INVALID';
+
+export type SyncItemResult = {
+  productId?: number;
+  status: SyncItemStatus;
+  requestedQuantity?: number;
+  quantity?: number;
+  availableStock?: number;
+};
+
+export type CartSyncResponse = {
+  cart: CartResponse;
+  results: SyncItemResult[];
+};
+
 export type CartSummary = {
   id: number;
   userId: number;
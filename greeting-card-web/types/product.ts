@@ -58,6 +58,8 @@ export type Product = {
   category: Category;
   images: ProductImage[];
   tags: ProductTag[];
+  averageRating?: number;
+  reviewCount?: number;
   createdAt: string;
   updatedAt: string;
   // User-specific flags (only set when user is authenticated)
@@ -100,6 +102,23 @@ export type CreateProductRequest = {
 
 export type UpdateProductRequest = Partial<CreateProductRequest>;
 
+export type ProductBulkFormat = 'CSV' | 'JSONL';
+
+export type ProductImportRowError = {
+  row: number;
+  sku?: string;
+  message: string;
+};
+
+export type ProductImportResponse = {
+  totalRows: number;
+  created: number;
+  updated: number;
+  failed: number;
+  errors: ProductImportRowError[];
+  errorsTruncated: boolean;
+};
+
 export type CreateReviewRequest = {
   rating: number;
   comment?: string;
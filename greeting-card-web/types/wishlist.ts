@@ -1,3 +1,5 @@
+import type { SyncItemResult } from './cart';
+
 export type WishlistItem = {
   productId: number;
   productName: string;
@@ -47,6 +49,11 @@ export type WishlistResponse = {
   totalItems: number;
 };
 
+export type WishlistSyncResponse = {
+  wishlist: WishlistResponse;
+  results: SyncItemResult[];
+};
+
 export type WishlistSummary = {
   id: number;
   userId: number;